@@ -0,0 +1,84 @@
+package org.jbei.auth;
+
+import org.jbei.auth.hmac.HmacSignatureFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.Key;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * KeyTable reading Base64-encoded keys from files in a directory, where each file is named by the KeyID.
+ * Decoded keys are cached in memory; a cached key is only used while the modification time and size of its
+ * file are unchanged, so replaced or deleted key files take effect on the next lookup without a restart.
+ *
+ * @author wcmorrell
+ * @version 1.0
+ */
+public class FileKeyTable implements KeyTable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileKeyTable.class);
+
+    private final File directory;
+    private final ConcurrentMap<String, CachedKey> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory the directory containing the key files
+     */
+    public FileKeyTable(final File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Key getKey(final String keyId) {
+        // only files directly in the directory are keys
+        if (keyId == null || keyId.isEmpty() || !new File(keyId).getName().equals(keyId)) {
+            return null;
+        }
+        final File keyFile = new File(directory, keyId);
+        final long modified = keyFile.lastModified();
+        if (modified == 0L) {
+            // file does not exist (or cannot be read)
+            cache.remove(keyId);
+            log.error("Failed to load rest-auth key " + keyId);
+            return null;
+        }
+        final long length = keyFile.length();
+        final CachedKey cached = cache.get(keyId);
+        if (cached != null && cached.modified == modified && cached.length == length) {
+            return cached.key;
+        }
+        try {
+            // collect all lines in the file, then decode value into a Key object
+            final StringBuilder encoded = new StringBuilder();
+            for (final String line : Files.readAllLines(keyFile.toPath(), StandardCharsets.UTF_8)) {
+                encoded.append(line);
+            }
+            final Key key = HmacSignatureFactory.decodeKey(encoded.toString());
+            cache.put(keyId, new CachedKey(key, modified, length));
+            return key;
+        } catch (final IOException | RuntimeException e) {
+            cache.remove(keyId);
+            log.error("Failed to load rest-auth key " + keyId);
+        }
+        return null;
+    }
+
+    private static final class CachedKey {
+        private final Key key;
+        private final long modified;
+        private final long length;
+
+        private CachedKey(final Key key, final long modified, final long length) {
+            this.key = key;
+            this.modified = modified;
+            this.length = length;
+        }
+    }
+
+}
@@ -22,6 +22,8 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.security.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Generates {@link HmacSignature} objects for use in authenticating requests to a REST service. By
@@ -66,6 +68,9 @@ public class HmacSignatureFactory {
     private static final PercentEscaper ESCAPER = new PercentEscaper("-_.~", false);
     private static final String HMAC = "HmacSHA1";
     private static final String NEWLINE = "\n";
+    // initialized Mac for each key; cloned for each signature instead of looking up and initializing a new Mac
+    private static final int MAX_INITIALIZED = 64;
+    private static final ConcurrentMap<Key, Mac> INITIALIZED = new ConcurrentHashMap<>();
 
     private final KeyTable table;
 
@@ -122,10 +127,9 @@ public class HmacSignatureFactory {
     public HmacSignature buildSignature(final HttpServletRequest request, final String keyId,
                                         final String userId) throws SignatureException {
         try {
-            final Mac mac = Mac.getInstance(HMAC);
             final Key key = table.getKey(keyId);
             if (key != null) {
-                mac.init(key);
+                final Mac mac = initMac(key);
                 mac.update((buildRequestString(userId, request)).getBytes(UTF8));
                 return new DefaultHmacSignature(mac, userId);
             }
@@ -147,10 +151,9 @@ public class HmacSignatureFactory {
     public HmacSignature buildSignature(final HttpRequestBase request, final String keyId,
                                         final String userId) throws SignatureException {
         try {
-            final Mac mac = Mac.getInstance(HMAC);
             final Key key = table.getKey(keyId);
             if (key != null) {
-                mac.init(key);
+                final Mac mac = initMac(key);
                 mac.update((buildRequestString(userId, request)).getBytes(UTF8));
                 return new DefaultHmacSignature(mac, userId);
             }
@@ -178,10 +181,9 @@ public class HmacSignatureFactory {
                                         final String method, final String host, final String path,
                                         final Map<String, ? extends Iterable<String>> params) throws SignatureException {
         try {
-            final Mac mac = Mac.getInstance(HMAC);
             final Key key = table.getKey(keyId);
             if (key != null) {
-                mac.init(key);
+                final Mac mac = initMac(key);
                 mac.update((buildRequestString(userId, method, host, path,
                         extractAndSortParams(params))).getBytes(UTF8));
                 return new DefaultHmacSignature(mac, userId);
@@ -193,6 +195,30 @@ public class HmacSignatureFactory {
 
     }
 
+    private static Mac initMac(final Key key) throws InvalidKeyException, NoSuchAlgorithmException {
+        Mac prototype = INITIALIZED.get(key);
+        if (prototype == null) {
+            if (INITIALIZED.size() >= MAX_INITIALIZED) {
+                // replaced keys are never looked up again; start over rather than tracking usage
+                INITIALIZED.clear();
+            }
+            prototype = Mac.getInstance(HMAC);
+            prototype.init(key);
+            final Mac existing = INITIALIZED.putIfAbsent(key, prototype);
+            if (existing != null) {
+                prototype = existing;
+            }
+        }
+        try {
+            // prototype is never updated, so it is in the initialized state
+            return (Mac) prototype.clone();
+        } catch (final CloneNotSupportedException e) {
+            final Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac;
+        }
+    }
+
     private List<String> extractAndSortParams(final Map<String, ? extends Iterable<String>> params) {
         final List<String> encParams = new ArrayList<String>();
         for (final Map.Entry<String, ? extends Iterable<String>> entry : params.entrySet()) {
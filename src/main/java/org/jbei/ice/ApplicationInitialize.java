@@ -2,10 +2,21 @@ package org.jbei.ice;
 
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.config.ConfigurationController;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.entry.AuditQueue;
+import org.jbei.ice.lib.entry.sequence.SequencePacking;
+import org.jbei.ice.lib.entry.sequence.SequenceSummaryTask;
 import org.jbei.ice.lib.entry.sequence.annotation.AutoAnnotationBlastDbBuildTask;
+import org.jbei.ice.lib.entry.sequence.annotation.FeatureMatcherBuildTask;
 import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.TransferTask;
 import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.lib.net.RemoteTransfer;
+import org.jbei.ice.lib.search.BuildAutoCompleteIndexTask;
 import org.jbei.ice.lib.search.blast.BlastPlus;
+import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.services.rest.IceRestClient;
+import org.jbei.ice.storage.hibernate.search.EntryIndexQueue;
 
 /**
  * Responsible for initializing the ICE application
@@ -37,5 +48,31 @@ public class ApplicationInitialize {
 
         AutoAnnotationBlastDbBuildTask autoAnnotationBlastDbBuildTask = new AutoAnnotationBlastDbBuildTask();
         IceExecutorService.getInstance().runTask(autoAnnotationBlastDbBuildTask);
+
+        // in-memory feature index for auto annotation
+        IceExecutorService.getInstance().runTask(new FeatureMatcherBuildTask());
+
+        // in-memory auto complete index
+        IceExecutorService.getInstance().runTask(new BuildAutoCompleteIndexTask());
+
+        // timeouts for calls to web of registries partners
+        IceRestClient.getInstance().configure();
+
+        // resume any transfers to remote partners that were interrupted
+        RemoteTransfer remoteTransfer = new RemoteTransfer();
+        for (long transferId : remoteTransfer.getInterruptedTransfers())
+            IceExecutorService.getInstance().runTask(new TransferTask(transferId));
+
+        // search index updates
+        EntryIndexQueue.getInstance().setEnabled(Utils.isConfigEnabled(ConfigurationKey.ASYNC_SEARCH_INDEXING));
+
+        // audit event writes
+        AuditQueue.getInstance().configure();
+
+        // compute stored sequence lengths for sequences saved before these were maintained
+        IceExecutorService.getInstance().runTask(new SequenceSummaryTask());
+
+        // packed sequence storage setting (migrates existing sequences if enabled)
+        SequencePacking.getInstance().configure();
     }
 }
@@ -6,6 +6,7 @@ import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.access.AccessPermission;
 import org.jbei.ice.lib.dto.folder.FolderAuthorization;
 import org.jbei.ice.lib.dto.folder.FolderDetails;
+import org.jbei.ice.lib.dto.folder.PermissionPropagation;
 import org.jbei.ice.lib.entry.EntryAuthorization;
 import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.storage.DAOException;
@@ -59,13 +60,12 @@ public class PermissionsController {
                 return null;
             }
 
+            Permission permission = addPermission(access, null, folder, null);
+
             // propagate permissions
-            if (folder.isPropagatePermissions()) {
-                for (Entry folderContent : folder.getContents()) {
-                    addPermission(access, folderContent, null, null);
-                }
-            }
-            return addPermission(access, null, folder, null);
+            if (folder.isPropagatePermissions())
+                schedulePropagation(folder, true);
+            return permission;
         }
 
         // if bulk upload
@@ -286,40 +286,48 @@ public class PermissionsController {
     }
 
     /**
-     * Propagates the permissions for the folder to the contained entries
+     * Propagates the permissions for the folder to the contained entries. The propagation runs in the background
+     * (see {@link PropagateFolderPermissionsTask}) after the current transaction commits, so no permissions have
+     * been propagated when this method returns; use {@link #getFolderPermissionPropagation(String, long)} to
+     * follow its progress
      *
      * @param userId unique identifier for account of user requesting action that led to this call
      * @param folder folder user permissions are being propagated
      * @param add    true if folder is to be added, false otherwise
-     * @return true if action permission was propagated successfully
+     * @return true if the propagation was scheduled, false if the user is not allowed to propagate permissions
      */
     public boolean propagateFolderPermissions(String userId, Folder folder, boolean add) {
         if (!accountController.isAdministrator(userId) && !userId.equalsIgnoreCase(folder.getOwnerEmail()))
             return false;
 
-        // retrieve folder permissions
-        ArrayList<AccessPermission> permissions = retrieveSetFolderPermission(folder, true);
-        if (permissions.isEmpty())
-            return true;
-
-        // if propagate, add permissions to entries contained in here  //TODO : inefficient for large entries/perms
-        if (add) {
-            for (Entry entry : folder.getContents()) {
-                for (AccessPermission accessPermission : permissions) {
-                    addPermission(accessPermission, entry, null, null);
-                }
-            }
-        } else {
-            // else remove permissions
-            for (Entry entry : folder.getContents()) {
-                for (AccessPermission accessPermission : permissions) {
-                    removePermission(accessPermission, entry, null, null);
-                }
-            }
-        }
+        schedulePropagation(folder, add);
         return true;
     }
 
+    // permissions are propagated once the changes that led to the propagation have been committed
+    private void schedulePropagation(Folder folder, boolean add) {
+        PropagateFolderPermissionsTask.schedule(new PropagateFolderPermissionsTask(folder.getId(), add));
+    }
+
+    /**
+     * Retrieves the status of the most recent propagation of a folder's permissions to its entries
+     *
+     * @param userId   unique identifier for user making request. Must be able to read the folder
+     * @param folderId unique identifier for folder
+     * @return status of the propagation, or null if there is no propagation for the folder
+     * @throws IllegalArgumentException if the folder does not exist
+     * @throws PermissionException      if the user cannot read the folder
+     */
+    public PermissionPropagation getFolderPermissionPropagation(String userId, long folderId) {
+        Folder folder = folderDAO.get(folderId);
+        if (folder == null)
+            throw new IllegalArgumentException("Cannot retrieve folder with id " + folderId);
+
+        new FolderAuthorization().expectRead(userId, folder);
+        PropagateFolderPermissionsTask task = PropagateFolderPermissionsTask.getPropagation(folderId);
+        return task == null ? null : task.toDataTransferObject();
+    }
+
     public FolderDetails setFolderPermissions(String userId, long folderId, ArrayList<AccessPermission> permissions) {
         Folder folder = folderDAO.get(folderId);
         FolderAuthorization folderAuthorization = new FolderAuthorization();
@@ -0,0 +1,110 @@
+package org.jbei.ice.lib.access;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.folder.PermissionPropagation;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.PermissionDAO;
+import org.jbei.ice.storage.hibernate.search.EntryIndexQueue;
+import org.jbei.ice.storage.model.Folder;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Background task for adding the permissions set on a folder to the entries it contains, or removing them.
+ * The permissions that need to be added or removed are determined and applied in bulk in the database; the
+ * affected entries are then re-indexed in batches once the changes have been committed.
+ * <p>
+ * The most recent propagation for each folder is tracked so that its progress can be retrieved (see
+ * {@link #getPropagation(long)})
+ *
+ * @author Hector Plahar
+ */
+public class PropagateFolderPermissionsTask extends Task {
+
+    // most recent propagation for each folder
+    private static final ConcurrentMap<Long, PropagateFolderPermissionsTask> PROPAGATIONS = new ConcurrentHashMap<>();
+
+    private final long folderId;
+    private final boolean add;
+    private volatile int entryCount;
+
+    /**
+     * @param folderId unique identifier for folder whose permissions are being propagated
+     * @param add      true if the folder permissions are to be added to its contents, false if they are to be removed
+     */
+    public PropagateFolderPermissionsTask(long folderId, boolean add) {
+        this.folderId = folderId;
+        this.add = add;
+    }
+
+    /**
+     * Runs the task once the current transaction (which makes the changes that led to the propagation) commits
+     *
+     * @param task task to run
+     */
+    public static void schedule(PropagateFolderPermissionsTask task) {
+        HibernateUtil.afterCommit(() -> {
+            PROPAGATIONS.put(task.folderId, task);
+            IceExecutorService.getInstance().runTask(task);
+        });
+    }
+
+    /**
+     * Retrieves the most recent propagation for a folder. Propagations that have finished are no longer tracked
+     * once they have been retrieved
+     *
+     * @param folderId unique identifier for folder
+     * @return propagation task or null if there isn't one for the folder
+     */
+    public static PropagateFolderPermissionsTask getPropagation(long folderId) {
+        PropagateFolderPermissionsTask task = PROPAGATIONS.get(folderId);
+        if (task != null && (task.getStatus() == TaskStatus.COMPLETED || task.getStatus() == TaskStatus.EXCEPTION))
+            PROPAGATIONS.remove(folderId, task);
+        return task;
+    }
+
+    @Override
+    public void execute() {
+        Folder folder = DAOFactory.getFolderDAO().get(folderId);
+        if (folder == null) {
+            Logger.error("Cannot propagate permissions for folder " + folderId + ": folder not found");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        PermissionDAO permissionDAO = DAOFactory.getPermissionDAO();
+        Set<Long> entryIds = add ? permissionDAO.addFolderPermissionsToContents(folder)
+                : permissionDAO.removeFolderPermissionsFromContents(folder);
+        entryCount = entryIds.size();
+
+        // bulk updates are not seen by the search index; commit before re-indexing the affected entries
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        EntryIndexQueue.getInstance().index(entryIds);
+
+        Logger.info((add ? "Added" : "Removed") + " permissions for folder " + folderId + " on " + entryCount
+                + " entries in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * @return number of entries whose permissions were updated by this task
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public PermissionPropagation toDataTransferObject() {
+        PermissionPropagation propagation = new PermissionPropagation();
+        propagation.setFolderId(folderId);
+        propagation.setAdd(add);
+        propagation.setStatus(getStatus());
+        propagation.setEntryCount(entryCount);
+        return propagation;
+    }
+}
@@ -1,20 +1,14 @@
 package org.jbei.ice.lib.bulkupload;
 
 import org.jbei.ice.lib.common.logging.Logger;
-import org.jbei.ice.lib.dto.DNASequence;
 import org.jbei.ice.lib.dto.entry.EntryType;
-import org.jbei.ice.lib.entry.sequence.SequenceController;
-import org.jbei.ice.lib.parsers.sbol.ICESBOLParserVisitor;
-import org.jbei.ice.storage.DAOFactory;
-import org.jbei.ice.storage.model.Entry;
-import org.jbei.ice.storage.model.Sequence;
 import org.sbolstandard.core.SBOLDocument;
 import org.sbolstandard.core.SBOLFactory;
-import org.sbolstandard.core.SBOLRootObject;
+import org.sbolstandard.core.SBOLValidationException;
 
-import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -34,53 +28,25 @@ public class BulkFileSBOLUpload {
         this.addType = addType;
     }
 
+    /**
+     * Reads the SBOL document and creates the bulk upload draft for its components. The entries for the
+     * components are created by a background task ({@link BulkSBOLUploadTask}) once the current transaction
+     * commits and are added to the draft as they are created
+     *
+     * @return unique identifier for the bulk upload draft
+     * @throws IOException if the document cannot be read or is not valid SBOL
+     */
     public long processUpload() throws IOException {
-        BulkUploadController controller = new BulkUploadController();
-        long bulkUploadId = 0;
-
-        SBOLDocument document = SBOLFactory.read(new FileInputStream(filePath.toFile()));
-        try {
-            // walk top level object
-            for (SBOLRootObject rootObject : document.getContents()) {
-                ICESBOLParserVisitor visitor = new ICESBOLParserVisitor(addType);
-                rootObject.accept(visitor);
-                BulkUploadAutoUpdate update = visitor.getUpdate();
-                update.setBulkUploadId(bulkUploadId);
-                Logger.info(userId + ": " + update.toString());
-
-                update = controller.autoUpdateBulkUpload(userId, update, addType);
-                if (bulkUploadId == 0)
-                    bulkUploadId = update.getBulkUploadId();
-
-                // get "user sequence"
-                String sequenceUser = getSequenceDocument(rootObject);
-                long entryId = update.getEntryId();
-                DNASequence dnaSequence = visitor.getFeaturedDNASequence();
-                Sequence sequence = SequenceController.dnaSequenceToSequence(dnaSequence);
-                Entry entry = DAOFactory.getEntryDAO().get(entryId);
-                sequence.setEntry(entry);
-                if (sequenceUser != null)
-                    sequence.setSequenceUser(sequenceUser);
-                new SequenceController().save(userId, sequence);
-            }
-        } catch (Exception e) {
+        SBOLDocument document;
+        try (InputStream inputStream = Files.newInputStream(filePath)) {
+            document = SBOLFactory.read(inputStream);
+        } catch (IOException | SBOLValidationException e) {
             Logger.error(e);
             throw new IOException(e);
         }
 
+        long bulkUploadId = new BulkEntryCreator().createBulkUpload(userId, addType);
+        BulkSBOLUploadTask.schedule(new BulkSBOLUploadTask(userId, bulkUploadId, addType, document));
         return bulkUploadId;
     }
-
-    protected String getSequenceDocument(SBOLRootObject component) {
-        SBOLDocument document = SBOLFactory.createDocument();
-        document.addContent(component);
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        try {
-            SBOLFactory.write(document, stream);
-        } catch (IOException e) {
-            Logger.error(e);
-            return null;
-        }
-        return stream.toString();
-    }
 }
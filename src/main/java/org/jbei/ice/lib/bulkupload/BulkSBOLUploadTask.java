@@ -0,0 +1,108 @@
+package org.jbei.ice.lib.bulkupload;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.DNASequence;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.entry.sequence.SequenceController;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.parsers.sbol.ICESBOLParserVisitor;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.Sequence;
+import org.sbolstandard.core.SBOLDocument;
+import org.sbolstandard.core.SBOLFactory;
+import org.sbolstandard.core.SBOLRootObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Background task for creating the entries (and their sequences) of a bulk upload from the top level objects
+ * in an SBOL document. The transaction is committed after every {@link #BATCH_SIZE} entries, which adds them
+ * to the bulk upload draft as the upload progresses
+ *
+ * @author Hector Plahar
+ */
+public class BulkSBOLUploadTask extends Task {
+
+    static final int BATCH_SIZE = 50;
+
+    private final String userId;
+    private final long bulkUploadId;
+    private final EntryType addType;
+    private final SBOLDocument document;
+
+    /**
+     * @param userId       unique identifier for user making upload
+     * @param bulkUploadId unique identifier for bulk upload draft entries are added to
+     * @param addType      type of entries being created
+     * @param document     parsed SBOL document
+     */
+    public BulkSBOLUploadTask(String userId, long bulkUploadId, EntryType addType, SBOLDocument document) {
+        this.userId = userId;
+        this.bulkUploadId = bulkUploadId;
+        this.addType = addType;
+        this.document = document;
+    }
+
+    /**
+     * Runs the task once the current transaction (which creates the bulk upload draft) commits
+     *
+     * @param task task to run
+     */
+    public static void schedule(BulkSBOLUploadTask task) {
+        HibernateUtil.afterCommit(() -> IceExecutorService.getInstance().runTask(task));
+    }
+
+    @Override
+    public void execute() {
+        long start = System.currentTimeMillis();
+        BulkUploadController controller = new BulkUploadController();
+        SequenceController sequenceController = new SequenceController();
+        int processed = 0;
+
+        // walk top level object
+        for (SBOLRootObject rootObject : document.getContents()) {
+            ICESBOLParserVisitor visitor = new ICESBOLParserVisitor(addType);
+            rootObject.accept(visitor);
+            BulkUploadAutoUpdate update = visitor.getUpdate();
+            update.setBulkUploadId(bulkUploadId);
+            Logger.info(userId + ": " + update.toString());
+            update = controller.autoUpdateBulkUpload(userId, update, addType);
+
+            // get "user sequence"
+            String sequenceUser = getSequenceDocument(rootObject);
+            DNASequence dnaSequence = visitor.getFeaturedDNASequence();
+            Sequence sequence = SequenceController.dnaSequenceToSequence(dnaSequence);
+            Entry entry = DAOFactory.getEntryDAO().get(update.getEntryId());
+            sequence.setEntry(entry);
+            if (sequenceUser != null)
+                sequence.setSequenceUser(sequenceUser);
+            sequenceController.save(userId, sequence);
+
+            processed += 1;
+            if (processed % BATCH_SIZE == 0) {
+                HibernateUtil.commitTransaction();
+                HibernateUtil.beginTransaction();
+            }
+        }
+
+        Logger.info("Created " + processed + " entries for bulk upload " + bulkUploadId + " in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    protected String getSequenceDocument(SBOLRootObject component) {
+        SBOLDocument document = SBOLFactory.createDocument();
+        document.addContent(component);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            SBOLFactory.write(document, stream);
+        } catch (IOException e) {
+            Logger.error(e);
+            return null;
+        }
+        return stream.toString();
+    }
+}
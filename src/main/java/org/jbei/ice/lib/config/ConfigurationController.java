@@ -6,10 +6,14 @@ import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.Setting;
+import org.jbei.ice.lib.entry.AuditQueue;
+import org.jbei.ice.lib.entry.sequence.SequencePacking;
 import org.jbei.ice.lib.net.WoRController;
 import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.services.rest.IceRestClient;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.ConfigurationDAO;
+import org.jbei.ice.storage.hibernate.search.EntryIndexQueue;
 import org.jbei.ice.storage.model.Configuration;
 
 import java.io.File;
@@ -99,6 +103,27 @@ public class ConfigurationController {
             woRController.setEnable(userId, enable, url);
         }
 
+        // switch between synchronous and asynchronous search index updates
+        if (key == ConfigurationKey.ASYNC_SEARCH_INDEXING) {
+            EntryIndexQueue.getInstance().setEnabled(Utils.isEnabled(setting.getValue()));
+        }
+
+        // audit event write policy
+        if (key == ConfigurationKey.AUDIT_WRITE_POLICY || key == ConfigurationKey.AUDIT_DEDUPLICATION_WINDOW) {
+            AuditQueue.getInstance().configure();
+        }
+
+        // start migration of existing sequences when packed storage is enabled
+        if (key == ConfigurationKey.PACK_SEQUENCES) {
+            SequencePacking.getInstance().configure();
+        }
+
+        // timeouts for calls to web of registries partners
+        if (key == ConfigurationKey.WOR_CONNECT_TIMEOUT || key == ConfigurationKey.WOR_READ_TIMEOUT
+                || key == ConfigurationKey.WOR_REQUEST_TIMEOUT) {
+            IceRestClient.getInstance().configure();
+        }
+
         return configuration.toDataTransferObject();
     }
 
@@ -27,11 +27,19 @@ public enum ConfigurationKey implements IDataTransferModel {
     PART_NUMBER_DELIMITER("_"),
 
     BLAST_INSTALL_DIR(""),
+    AUTO_ANNOTATION_BLAST("NO"),            // also run blast when auto annotating
+    PACK_SEQUENCES("NO"),
+    ASYNC_SEARCH_INDEXING("NO"),
+    AUDIT_WRITE_POLICY("SYNCHRONOUS"),      // SYNCHRONOUS, ASYNCHRONOUS or BEST_EFFORT
+    AUDIT_DEDUPLICATION_WINDOW("0"),        // seconds
 
     NEW_REGISTRATION_ALLOWED("NO"),
     PASSWORD_CHANGE_ALLOWED("YES"),
     PROFILE_EDIT_ALLOWED("YES"),
     JOIN_WEB_OF_REGISTRIES("NO"),
+    WOR_CONNECT_TIMEOUT("5000"),     // milliseconds
+    WOR_READ_TIMEOUT("30000"),
+    WOR_REQUEST_TIMEOUT("60000"),
     RESTRICT_PUBLIC_ENABLE("NO"),
     EMAILER(Type.CUSTOM.name()),
     GMAIL_APPLICATION_PASSWORD(""),
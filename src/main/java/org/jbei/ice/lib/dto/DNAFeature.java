@@ -24,6 +24,7 @@ public class DNAFeature implements IDataTransferModel {
     private List<DNAFeatureNote> notes = new LinkedList<>();
     private List<DNAFeatureLocation> locations = new LinkedList<>();
     private String sequence;
+    private int sequenceLength;
     private List<Long> entries = new ArrayList<>();
     private Curation curation;
 
@@ -115,6 +116,14 @@ public class DNAFeature implements IDataTransferModel {
         this.sequence = sequence;
     }
 
+    public int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    public void setSequenceLength(int sequenceLength) {
+        this.sequenceLength = sequenceLength;
+    }
+
     public List<Long> getEntries() {
         return entries;
     }
@@ -11,6 +11,8 @@ import org.jbei.ice.lib.shared.ColumnField;
  * <li><code>asc</code>      sort order for folder content retrieval; ascending if true</li>
  * <li><code>start</code>    index of first item in retrieval</li>
  * <li><code>limit</code>    upper limit count of items to be retrieval</li>
+ * <li><code>cursor</code>   optional continuation token for cursor (keyset) paging; when set, <code>start</code>
+ * is ignored</li>
  * </ul>
  *
  * @author Hector Plahar
@@ -22,6 +24,7 @@ public class PageParameters {
     private ColumnField sortField;
     private boolean ascending;
     private String filter;
+    private String cursor;
 
     public PageParameters() {
     }
@@ -73,4 +76,12 @@ public class PageParameters {
     public void setFilter(String filter) {
         this.filter = filter;
     }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
 }
@@ -14,6 +14,7 @@ public class Results<T extends IDataTransferModel> implements IDataTransferModel
 
     private long resultCount;
     private List<T> data;
+    private String nextCursor;
 
     public Results() {
         this.data = new LinkedList<>();
@@ -37,4 +38,16 @@ public class Results<T extends IDataTransferModel> implements IDataTransferModel
     public void setData(List<T> data) {
         this.data = data;
     }
+
+    /**
+     * @return token for retrieving the next page when paging with a cursor; null if there are no more
+     * results or the results were not retrieved using a cursor
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -1,5 +1,7 @@
 package org.jbei.ice.lib.dto.entry;
 
+import org.jbei.ice.lib.search.AutoCompleteSuggesters;
+import org.jbei.ice.lib.search.PrefixSuggester;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 
@@ -39,6 +41,12 @@ public class AutoCompleteFieldValues {
             return new ArrayList<>();
 
         token = token.replaceAll("'", "");
+
+        // use in-memory index when available
+        PrefixSuggester suggester = AutoCompleteSuggesters.getInstance().getSuggester(this.autoCompleteField);
+        if (suggester != null)
+            return suggester.suggest(token, limit);
+
         List<String> results;
         switch (this.autoCompleteField) {
             case SELECTION_MARKERS:
@@ -0,0 +1,97 @@
+package org.jbei.ice.lib.dto.entry;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.ArrayList;
+
+/**
+ * Ancestors and descendants of an entry, up to a maximum number of links away from it, that a user can read.
+ * Entries are linked parent to child (e.g. strain to plasmid)
+ *
+ * @author Hector Plahar
+ */
+public class EntryLinkGraph implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private long entryId;
+    private int depth;
+    private ArrayList<PartData> entries = new ArrayList<>();
+    private ArrayList<Link> links = new ArrayList<>();
+
+    public EntryLinkGraph() {
+    }
+
+    public EntryLinkGraph(long entryId, int depth) {
+        this.entryId = entryId;
+        this.depth = depth;
+    }
+
+    /**
+     * @return unique identifier for entry the graph is for
+     */
+    public long getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(long entryId) {
+        this.entryId = entryId;
+    }
+
+    /**
+     * @return maximum number of links between the entry and its ancestors or descendants in the graph
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * @return entries in the graph, including the entry the graph is for
+     */
+    public ArrayList<PartData> getEntries() {
+        return entries;
+    }
+
+    public ArrayList<Link> getLinks() {
+        return links;
+    }
+
+    /**
+     * Link between a parent entry and one of its children
+     */
+    public static class Link implements IDataTransferModel {
+
+        private static final long serialVersionUID = 1l;
+
+        private long parentId;
+        private long childId;
+
+        public Link() {
+        }
+
+        public Link(long parentId, long childId) {
+            this.parentId = parentId;
+            this.childId = childId;
+        }
+
+        public long getParentId() {
+            return parentId;
+        }
+
+        public void setParentId(long parentId) {
+            this.parentId = parentId;
+        }
+
+        public long getChildId() {
+            return childId;
+        }
+
+        public void setChildId(long childId) {
+            this.childId = childId;
+        }
+    }
+}
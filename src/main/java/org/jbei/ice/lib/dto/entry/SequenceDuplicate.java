@@ -0,0 +1,63 @@
+package org.jbei.ice.lib.dto.entry;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * An entry whose sequence is the same or nearly the same as another sequence
+ *
+ * @author Hector Plahar
+ */
+public class SequenceDuplicate implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private long id;
+    private String partId;
+    private String name;
+    private String type;
+    private String ownerEmail;
+    private double similarity;
+
+    public SequenceDuplicate() {
+    }
+
+    public SequenceDuplicate(long id, String partId, String name, String type, String ownerEmail,
+                             double similarity) {
+        this.id = id;
+        this.partId = partId;
+        this.name = name;
+        this.type = type;
+        this.ownerEmail = ownerEmail;
+        this.similarity = similarity;
+    }
+
+    /**
+     * @return unique identifier for entry
+     */
+    public long getId() {
+        return id;
+    }
+
+    public String getPartId() {
+        return partId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    /**
+     * @return estimated similarity (between 0 and 1) of the entry's sequence to the sequence it was compared with
+     */
+    public double getSimilarity() {
+        return similarity;
+    }
+}
@@ -0,0 +1,58 @@
+package org.jbei.ice.lib.dto.entry;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Groups of entries across the registry whose sequences are the same or nearly the same as each other
+ *
+ * @author Hector Plahar
+ */
+public class SequenceDuplicateReport implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private Date creationTime;
+    private double threshold;
+    private long sequenceCount;
+    private ArrayList<ArrayList<SequenceDuplicate>> clusters = new ArrayList<>();
+
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(Date creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    /**
+     * @return minimum similarity of the sequences in a cluster
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return number of sequences compared
+     */
+    public long getSequenceCount() {
+        return sequenceCount;
+    }
+
+    public void setSequenceCount(long sequenceCount) {
+        this.sequenceCount = sequenceCount;
+    }
+
+    /**
+     * @return clusters of entries, largest first. The similarity of each entry is to the first entry in its cluster
+     */
+    public ArrayList<ArrayList<SequenceDuplicate>> getClusters() {
+        return clusters;
+    }
+}
@@ -2,6 +2,7 @@ package org.jbei.ice.lib.dto.entry;
 
 import org.jbei.ice.lib.dto.DNASequence;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.jbei.ice.lib.executor.TaskStatus;
 import org.jbei.ice.storage.IDataTransferModel;
 
 /**
@@ -16,6 +17,8 @@ public class SequenceInfo implements IDataTransferModel {
     private DNASequence sequence;
     private long entryId;
     private SequenceFormat format;
+    private TaskStatus importStatus;
+    private int importProgress;
 
     public String getFilename() {
         return filename;
@@ -56,4 +59,23 @@ public class SequenceInfo implements IDataTransferModel {
     public void setFormat(SequenceFormat format) {
         this.format = format;
     }
+
+    /**
+     * @return status of the background import of the records in an uploaded SBOL document, if any
+     */
+    public TaskStatus getImportStatus() {
+        return importStatus;
+    }
+
+    public void setImportStatus(TaskStatus importStatus) {
+        this.importStatus = importStatus;
+    }
+
+    public int getImportProgress() {
+        return importProgress;
+    }
+
+    public void setImportProgress(int importProgress) {
+        this.importProgress = importProgress;
+    }
 }
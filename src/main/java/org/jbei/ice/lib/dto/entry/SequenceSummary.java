@@ -0,0 +1,47 @@
+package org.jbei.ice.lib.dto.entry;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Information about the sequence associated with an entry that can be retrieved without loading the sequence
+ *
+ * @author Hector Plahar
+ */
+public class SequenceSummary implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private long sequenceId;
+    private long basePairCount;
+    private boolean hasOriginalSequence;
+    private String checksum;
+
+    public SequenceSummary() {
+    }
+
+    public SequenceSummary(long sequenceId, long basePairCount, boolean hasOriginalSequence, String checksum) {
+        this.sequenceId = sequenceId;
+        this.basePairCount = basePairCount;
+        this.hasOriginalSequence = hasOriginalSequence;
+        this.checksum = checksum;
+    }
+
+    public long getSequenceId() {
+        return sequenceId;
+    }
+
+    public long getBasePairCount() {
+        return basePairCount;
+    }
+
+    public boolean isHasOriginalSequence() {
+        return hasOriginalSequence;
+    }
+
+    /**
+     * @return sha1 hash of the normalized sequence
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+}
@@ -22,6 +22,7 @@ public class FolderDetails extends AbstractFolder {
     private boolean canEdit;
     private FolderDetails parent;
     private RegistryPartner remotePartner;
+    private String nextCursor;
 
     public FolderDetails() {
         super();
@@ -114,4 +115,16 @@ public class FolderDetails extends AbstractFolder {
     public void setRemotePartner(RegistryPartner remotePartner) {
         this.remotePartner = remotePartner;
     }
+
+    /**
+     * @return token for retrieving the next page of entries when paging with a cursor; null if there are
+     * no more entries or the entries were not retrieved using a cursor
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
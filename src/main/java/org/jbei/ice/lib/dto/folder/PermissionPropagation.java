@@ -0,0 +1,56 @@
+package org.jbei.ice.lib.dto.folder;
+
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Data transfer object for the status of the propagation of a folder's permissions to the entries it contains
+ *
+ * @author Hector Plahar
+ */
+public class PermissionPropagation implements IDataTransferModel {
+
+    private long folderId;
+    private boolean add;
+    private TaskStatus status;
+    private int entryCount;
+
+    public long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(long folderId) {
+        this.folderId = folderId;
+    }
+
+    /**
+     * @return true if the folder permissions are being added to its entries, false if they are being removed
+     */
+    public boolean isAdd() {
+        return add;
+    }
+
+    public void setAdd(boolean add) {
+        this.add = add;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return number of entries whose permissions have been updated. Set once the permissions have been updated
+     * in the database (the entries may still be being re-indexed until the status is completed)
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+}
@@ -0,0 +1,116 @@
+package org.jbei.ice.lib.dto.search;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Metrics for the asynchronous search index queue
+ *
+ * @author Hector Plahar
+ */
+public class IndexQueueStatistics implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private boolean enabled;
+    private int queueSize;
+    private long lagMillis;
+    private long enqueued;
+    private long coalesced;
+    private long indexed;
+    private long batches;
+    private long failures;
+    private long lastBatchMillis;
+    private double indexedPerSecond;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return number of entries waiting to be indexed
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * @return time in milliseconds the oldest entry in the queue has been waiting
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public void setLagMillis(long lagMillis) {
+        this.lagMillis = lagMillis;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public void setEnqueued(long enqueued) {
+        this.enqueued = enqueued;
+    }
+
+    /**
+     * @return number of updates merged with an update to the same entry already in the queue
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public void setCoalesced(long coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+
+    public void setLastBatchMillis(long lastBatchMillis) {
+        this.lastBatchMillis = lastBatchMillis;
+    }
+
+    /**
+     * @return indexing throughput averaged over the batches processed so far
+     */
+    public double getIndexedPerSecond() {
+        return indexedPerSecond;
+    }
+
+    public void setIndexedPerSecond(double indexedPerSecond) {
+        this.indexedPerSecond = indexedPerSecond;
+    }
+}
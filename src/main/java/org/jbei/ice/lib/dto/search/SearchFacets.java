@@ -0,0 +1,93 @@
+package org.jbei.ice.lib.dto.search;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Number of entries matching a search for each value of the fields that search results can be narrowed down by.
+ * Counts are over all the matching entries that are visible to the user, not just the page of results returned
+ *
+ * @author Hector Plahar
+ */
+public class SearchFacets implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private HashMap<String, Long> entryTypes = new HashMap<>();
+    private HashMap<String, Long> bioSafetyLevels = new HashMap<>();
+    private LinkedHashMap<String, Long> owners = new LinkedHashMap<>();
+    private HashMap<String, Long> creationYears = new HashMap<>();
+    private long hasSample;
+    private long hasSequence;
+    private long hasAttachment;
+
+    /**
+     * @return counts keyed by entry (record) type
+     */
+    public HashMap<String, Long> getEntryTypes() {
+        return entryTypes;
+    }
+
+    public void setEntryTypes(HashMap<String, Long> entryTypes) {
+        this.entryTypes = entryTypes;
+    }
+
+    /**
+     * @return counts keyed by bio-safety level
+     */
+    public HashMap<String, Long> getBioSafetyLevels() {
+        return bioSafetyLevels;
+    }
+
+    public void setBioSafetyLevels(HashMap<String, Long> bioSafetyLevels) {
+        this.bioSafetyLevels = bioSafetyLevels;
+    }
+
+    /**
+     * @return counts keyed by owner email, for the owners with the most entries in descending order of count
+     */
+    public LinkedHashMap<String, Long> getOwners() {
+        return owners;
+    }
+
+    public void setOwners(LinkedHashMap<String, Long> owners) {
+        this.owners = owners;
+    }
+
+    /**
+     * @return counts keyed by the year the entries were created in
+     */
+    public HashMap<String, Long> getCreationYears() {
+        return creationYears;
+    }
+
+    public void setCreationYears(HashMap<String, Long> creationYears) {
+        this.creationYears = creationYears;
+    }
+
+    public long getHasSample() {
+        return hasSample;
+    }
+
+    public void setHasSample(long hasSample) {
+        this.hasSample = hasSample;
+    }
+
+    public long getHasSequence() {
+        return hasSequence;
+    }
+
+    public void setHasSequence(long hasSequence) {
+        this.hasSequence = hasSequence;
+    }
+
+    public long getHasAttachment() {
+        return hasAttachment;
+    }
+
+    public void setHasAttachment(long hasAttachment) {
+        this.hasAttachment = hasAttachment;
+    }
+}
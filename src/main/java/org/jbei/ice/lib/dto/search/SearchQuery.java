@@ -97,6 +97,7 @@ public class SearchQuery implements IDataTransferModel {
         private boolean hasSequence;
         private boolean hasAttachment;
         private boolean hasSample;
+        private boolean includeFacets;
 
         public Parameters() {
             start = 0;
@@ -129,6 +130,18 @@ public class SearchQuery implements IDataTransferModel {
             this.hasSample = hasSample;
         }
 
+        /**
+         * @return true if the counts of the matching entries for each facet (e.g. type, owner) should be returned
+         * along with the results
+         */
+        public boolean isIncludeFacets() {
+            return includeFacets;
+        }
+
+        public void setIncludeFacets(boolean includeFacets) {
+            this.includeFacets = includeFacets;
+        }
+
         public ColumnField getSortField() {
             return sortField;
         }
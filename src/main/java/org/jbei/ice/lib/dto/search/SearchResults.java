@@ -21,6 +21,7 @@ public class SearchResults implements IDataTransferModel {
     private long resultCount;
     private LinkedList<SearchResult> results;
     private SearchQuery query;
+    private SearchFacets facets;
 
     public SearchResults() {
         results = new LinkedList<>();
@@ -57,6 +58,17 @@ public class SearchResults implements IDataTransferModel {
         this.query = query;
     }
 
+    /**
+     * @return counts of all the matching entries by facet, or null if they were not requested
+     */
+    public SearchFacets getFacets() {
+        return facets;
+    }
+
+    public void setFacets(SearchFacets facets) {
+        this.facets = facets;
+    }
+
     public static void sort(ColumnField sortField, LinkedList<SearchResult> results) {
         Comparator<SearchResult> comparator;
         switch (sortField) {
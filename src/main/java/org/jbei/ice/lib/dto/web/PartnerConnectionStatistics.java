@@ -0,0 +1,104 @@
+package org.jbei.ice.lib.dto.web;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Request metrics and circuit breaker state for calls made from this instance to a remote partner
+ *
+ * @author Hector Plahar
+ */
+public class PartnerConnectionStatistics implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private String url;
+    private String circuitState;
+    private long requests;
+    private long failures;
+    private long timeouts;
+    private long rejected;
+    private long averageLatencyMillis;
+    private long maxLatencyMillis;
+    private String lastError;
+    private long lastErrorTime;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public void setCircuitState(String circuitState) {
+        this.circuitState = circuitState;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(long timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    public void setAverageLatencyMillis(long averageLatencyMillis) {
+        this.averageLatencyMillis = averageLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public void setMaxLatencyMillis(long maxLatencyMillis) {
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public long getLastErrorTime() {
+        return lastErrorTime;
+    }
+
+    public void setLastErrorTime(long lastErrorTime) {
+        this.lastErrorTime = lastErrorTime;
+    }
+}
@@ -0,0 +1,71 @@
+package org.jbei.ice.lib.dto.web;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of the transfer of a single entry (and any entries linked to it) to a remote partner
+ *
+ * @author Hector Plahar
+ */
+public class RemoteTransferEntryInfo implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private long id;
+    private long entryId;
+    private TransferStatus status;
+    private int attempts;
+    private String error;
+    private List<Long> remoteIds;
+
+    public RemoteTransferEntryInfo() {
+        this.remoteIds = new ArrayList<>();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(long entryId) {
+        this.entryId = entryId;
+    }
+
+    public TransferStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransferStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<Long> getRemoteIds() {
+        return remoteIds;
+    }
+}
@@ -0,0 +1,116 @@
+package org.jbei.ice.lib.dto.web;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a transfer of entries to a remote partner
+ *
+ * @author Hector Plahar
+ */
+public class RemoteTransferInfo implements IDataTransferModel {
+
+    private static final long serialVersionUID = 1l;
+
+    private long id;
+    private RegistryPartner partner;
+    private String initiator;
+    private long folderId;
+    private TransferStatus status;
+    private long creationTime;
+    private long lastUpdateTime;
+    private int total;
+    private int completed;
+    private int failed;
+    private List<RemoteTransferEntryInfo> entries;
+
+    public RemoteTransferInfo() {
+        this.entries = new ArrayList<>();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public RegistryPartner getPartner() {
+        return partner;
+    }
+
+    public void setPartner(RegistryPartner partner) {
+        this.partner = partner;
+    }
+
+    public String getInitiator() {
+        return initiator;
+    }
+
+    public void setInitiator(String initiator) {
+        this.initiator = initiator;
+    }
+
+    public long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(long folderId) {
+        this.folderId = folderId;
+    }
+
+    public TransferStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransferStatus status) {
+        this.status = status;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(long lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(int completed) {
+        this.completed = completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<RemoteTransferEntryInfo> getEntries() {
+        return entries;
+    }
+}
@@ -0,0 +1,23 @@
+package org.jbei.ice.lib.dto.web;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Status of a transfer of entries to a remote partner, or of an individual entry in that transfer
+ *
+ * @author Hector Plahar
+ */
+public enum TransferStatus implements IDataTransferModel {
+
+    // waiting to be sent
+    PENDING,
+
+    // transfer has started but not all entries have been sent
+    IN_PROGRESS,
+
+    // all entries (or the individual entry) transferred
+    COMPLETED,
+
+    // could not be transferred after the maximum number of attempts
+    FAILED
+}
@@ -0,0 +1,378 @@
+package org.jbei.ice.lib.entry;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Audit;
+import org.jbei.ice.storage.model.Entry;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer for entry audit events (e.g. a user viewing an entry). Depending on the configured policy, events are
+ * either written in the transaction of the request that generated them (or in a separate transaction if that one is
+ * read only) or captured in a bounded in-memory queue and written in batches by a background worker, so that read
+ * requests do not have to perform inserts.
+ * <ul>
+ * <li><code>SYNCHRONOUS</code>: events are written immediately in the current transaction</li>
+ * <li><code>ASYNCHRONOUS</code>: events are queued. If the queue is full, the event is written synchronously so
+ * none are lost (other than those still in the queue if the server terminates abnormally)</li>
+ * <li><code>BEST_EFFORT</code>: events are queued. If the queue is full, the event is discarded</li>
+ * </ul>
+ * Optionally, repeated events for the same user, entry and action within a time window are recorded only once.
+ * An event counts as recorded once it has been committed; events that are rolled back or fail to be written do
+ * not suppress later ones.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class AuditQueue {
+
+    private static final int CAPACITY = 10000;
+    private static final int BATCH_SIZE = 100;
+    private static final long INTERVAL_MILLIS = 1000;
+
+    public enum Policy {
+        SYNCHRONOUS,
+        ASYNCHRONOUS,
+        BEST_EFFORT
+    }
+
+    private final ArrayDeque<AuditEvent> queue = new ArrayDeque<>();
+    // user, entry and action -> time last recorded (written and committed)
+    private final HashMap<String, Long> recent = new HashMap<>();
+    // user, entry and action -> time of event being written (queued or in a transaction that has not completed)
+    private final HashMap<String, Long> pending = new HashMap<>();
+    private ScheduledExecutorService worker;
+    private volatile Policy policy = Policy.SYNCHRONOUS;
+    private volatile long deduplicationWindow;
+
+    // metrics
+    private long written;
+    private long deduplicated;
+    private long dropped;
+    private long failures;
+
+    private AuditQueue() {
+    }
+
+    private static class SingletonHolder {
+        private static final AuditQueue INSTANCE = new AuditQueue();
+    }
+
+    public static AuditQueue getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets the policy for writing audit events. Switching to the synchronous policy writes any events
+     * remaining in the queue before the worker stops
+     *
+     * @param policy policy for writing audit events. Defaults to synchronous if null
+     */
+    public void setPolicy(Policy policy) {
+        if (policy == null)
+            policy = Policy.SYNCHRONOUS;
+
+        ScheduledExecutorService stopped = null;
+
+        synchronized (this) {
+            if (policy == this.policy)
+                return;
+
+            this.policy = policy;
+            if (policy != Policy.SYNCHRONOUS) {
+                if (worker == null) {
+                    worker = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "ice-audit-queue");
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    });
+                    worker.scheduleWithFixedDelay(this::flush, INTERVAL_MILLIS, INTERVAL_MILLIS,
+                            TimeUnit.MILLISECONDS);
+                }
+            } else {
+                stopped = worker;
+                worker = null;
+            }
+        }
+
+        Logger.info("Audit write policy set to " + policy.name());
+        if (stopped != null)
+            stopWorker(stopped);
+    }
+
+    /**
+     * Sets the write policy and de-duplication window using the values in the system configuration
+     */
+    public void configure() {
+        setPolicy(toPolicy(Utils.getConfigValue(ConfigurationKey.AUDIT_WRITE_POLICY)));
+
+        String window = Utils.getConfigValue(ConfigurationKey.AUDIT_DEDUPLICATION_WINDOW);
+        try {
+            setDeduplicationWindow(window == null ? 0 : Long.decode(window.trim()));
+        } catch (NumberFormatException e) {
+            Logger.error("Invalid audit de-duplication window " + window);
+            setDeduplicationWindow(0);
+        }
+    }
+
+    private static Policy toPolicy(String value) {
+        if (value != null) {
+            for (Policy policy : Policy.values()) {
+                if (policy.name().equalsIgnoreCase(value.trim()))
+                    return policy;
+            }
+        }
+        return Policy.SYNCHRONOUS;
+    }
+
+    /**
+     * Sets the window within which repeated events for the same user, entry and action are recorded once
+     *
+     * @param seconds length of window in seconds. A value <= 0 disables de-duplication
+     */
+    public synchronized void setDeduplicationWindow(long seconds) {
+        this.deduplicationWindow = seconds <= 0 ? 0 : seconds * 1000;
+        if (this.deduplicationWindow == 0) {
+            recent.clear();
+            pending.clear();
+        }
+    }
+
+    /**
+     * Stops the background worker after writing any events remaining in the queue
+     */
+    public void shutdown() {
+        setPolicy(Policy.SYNCHRONOUS);
+    }
+
+    /**
+     * Records an audit event for the specified entry
+     *
+     * @param entry  entry that was acted on
+     * @param userId unique identifier for user performing the action
+     * @param action action performed
+     * @return true if the event was recorded (or not required because of de-duplication), false otherwise
+     */
+    public boolean add(Entry entry, String userId, String action) {
+        AuditEvent event = new AuditEvent(entry.getId(), userId, action, System.currentTimeMillis());
+        if (isDuplicate(event)) {
+            return true;
+        }
+
+        if (policy != Policy.SYNCHRONOUS) {
+            synchronized (this) {
+                if (queue.size() < CAPACITY) {
+                    queue.add(event);
+                    return true;
+                }
+
+                if (policy == Policy.BEST_EFFORT) {
+                    dropped += 1;
+                    completed(event, false);
+                    return false;
+                }
+            }
+        }
+
+        // changes are not saved in read only transactions
+        if (HibernateUtil.isReadOnlyTransaction()) {
+            try {
+                write(Collections.singletonList(event));
+                return true;
+            } catch (RuntimeException e) {
+                Logger.error("Error writing audit event: " + e.getMessage());
+                synchronized (this) {
+                    failures += 1;
+                    completed(event, false);
+                }
+                return false;
+            }
+        }
+
+        // the event is a duplicate of later ones only if the transaction writing it commits
+        HibernateUtil.afterCommit(() -> completed(event, true));
+        HibernateUtil.afterRollback(() -> completed(event, false));
+        Audit audit = event.toAudit(entry);
+        return DAOFactory.getAuditDAO().create(audit) != null;
+    }
+
+    /**
+     * Writes all the events currently in the queue, in batches
+     */
+    public void flush() {
+        try {
+            while (writeBatch() > 0) ;
+        } catch (Throwable e) {
+            Logger.error(e);
+        }
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    public synchronized long getDeduplicated() {
+        return deduplicated;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    // checks for a recorded or pending event with the same key. The event is pending until it is written
+    private synchronized boolean isDuplicate(AuditEvent event) {
+        if (deduplicationWindow == 0)
+            return false;
+
+        String key = event.getKey();
+        Long last = recent.get(key);
+        if (last == null)
+            last = pending.get(key);
+        if (last != null && event.time - last < deduplicationWindow) {
+            deduplicated += 1;
+            return true;
+        }
+
+        pending.put(key, event.time);
+        return false;
+    }
+
+    // records the outcome of writing a (non-duplicate) event. Events that were not written can be recorded again
+    private synchronized void completed(AuditEvent event, boolean committed) {
+        if (deduplicationWindow == 0)
+            return;
+
+        String key = event.getKey();
+        Long time = pending.get(key);
+        if (time != null && time == event.time)
+            pending.remove(key);
+
+        if (!committed)
+            return;
+
+        recent.put(key, event.time);
+        if (recent.size() > CAPACITY)
+            recent.values().removeIf(last -> event.time - last >= deduplicationWindow);
+    }
+
+    private int writeBatch() {
+        List<AuditEvent> events = new ArrayList<>(BATCH_SIZE);
+        synchronized (this) {
+            while (!queue.isEmpty() && events.size() < BATCH_SIZE)
+                events.add(queue.poll());
+        }
+
+        if (events.isEmpty())
+            return 0;
+
+        try {
+            write(events);
+        } catch (RuntimeException e) {
+            // an entry may have been deleted since the event was recorded; write the events individually
+            // so only those that cannot be written are lost
+            Logger.error("Error writing audit batch: " + e.getMessage());
+            for (AuditEvent event : events) {
+                try {
+                    write(Collections.singletonList(event));
+                } catch (RuntimeException re) {
+                    synchronized (this) {
+                        failures += 1;
+                        completed(event, false);
+                    }
+                }
+            }
+        }
+        return events.size();
+    }
+
+    private void write(List<AuditEvent> events) {
+        Session session = HibernateUtil.newSession();
+        Transaction transaction = null;
+        try {
+            session.setCacheMode(CacheMode.IGNORE);
+            transaction = session.beginTransaction();
+            for (AuditEvent event : events) {
+                Entry entry = session.load(Entry.class, event.entryId);
+                session.save(event.toAudit(entry));
+            }
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction != null)
+                transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+
+        synchronized (this) {
+            written += events.size();
+            for (AuditEvent event : events)
+                completed(event, true);
+        }
+    }
+
+    private void stopWorker(ScheduledExecutorService stopped) {
+        stopped.shutdown();
+        try {
+            if (!stopped.awaitTermination(10, TimeUnit.SECONDS))
+                stopped.shutdownNow();
+        } catch (InterruptedException ie) {
+            stopped.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // write whatever is left
+        flush();
+    }
+
+    private static class AuditEvent {
+        private final long entryId;
+        private final String userId;
+        private final String action;
+        private final long time;
+
+        AuditEvent(long entryId, String userId, String action, long time) {
+            this.entryId = entryId;
+            this.userId = userId;
+            this.action = action;
+            this.time = time;
+        }
+
+        // events with the same key are duplicates if recorded within the de-duplication window
+        String getKey() {
+            return userId + "|" + entryId + "|" + action;
+        }
+
+        Audit toAudit(Entry entry) {
+            Audit audit = new Audit();
+            audit.setAction(action);
+            audit.setEntry(entry);
+            audit.setUserId(userId);
+            audit.setTime(new Date(time));
+            return audit;
+        }
+    }
+}
@@ -45,6 +45,8 @@ public class EntriesAsCSV {
     private SequenceDAO sequenceDAO;
     private AccountDAO accountDAO;
     private PermissionDAO permissionDAO;
+    private volatile int processed;
+    private volatile int total;
 
     /**
      * @param formats optional list of formats of sequences to include
@@ -132,6 +134,9 @@ public class EntriesAsCSV {
             return;
         }
 
+        processed = 0;
+        total = entries.size();
+
         // write headers
         Path tmpPath = Paths.get(Utils.getConfigValue(ConfigurationKey.TEMPORARY_DIRECTORY));
         File tmpFile = File.createTempFile("ice-", ".csv", tmpPath.toFile());
@@ -169,6 +174,7 @@ public class EntriesAsCSV {
                 }
 
                 writer.writeNext(line);
+                processed += 1;
             }
 
             writer.close();
@@ -215,11 +221,13 @@ public class EntriesAsCSV {
             ZipOutputStream zos = new ZipOutputStream(fos);
 
             // get sequence formats
+            total += sequenceSet.size();
             for (long entryId : sequenceSet) {
                 for (String format : formats) {
                     ByteArrayWrapper wrapper = sequenceController.getSequenceFile(userId, entryId, format);
                     putZipEntry(wrapper, zos);
                 }
+                processed += 1;
             }
 
             // write the csv file
@@ -282,6 +290,16 @@ public class EntriesAsCSV {
         return fields;
     }
 
+    /**
+     * @return percentage of the entries (and their sequences) that have been written so far
+     */
+    public int getProgress() {
+        int count = total;
+        if (count == 0)
+            return 0;
+        return (int) Math.min(100, processed * 100L / count);
+    }
+
     public Path getFilePath() {
         return csvPath;
     }
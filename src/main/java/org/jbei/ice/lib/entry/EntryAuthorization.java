@@ -11,7 +11,7 @@ import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Folder;
 import org.jbei.ice.storage.model.Group;
 
-import java.util.Set;
+import java.util.*;
 
 /**
  * @author Hector Plahar
@@ -119,6 +119,34 @@ public class EntryAuthorization extends Authorization<Entry> {
         return permissionDAO.hasPermissionMulti(null, entryFolders, account, null, false, true);
     }
 
+    /**
+     * Determines which of the specified entries the user can read. Unlike {@link #canRead(String, Entry)}, which
+     * is called for each entry, this uses the same few queries regardless of the number of entries
+     *
+     * @param userId   unique identifier for user
+     * @param entryIds unique identifiers for entries to check
+     * @return identifiers of the subset of entries that the user has read privileges on
+     */
+    public Set<Long> getReadableEntryIds(String userId, Collection<Long> entryIds) {
+        if (entryIds.isEmpty())
+            return new HashSet<>();
+
+        if (userId == null)
+            return permissionDAO.getReadableEntryIds(null, groupController.getAllGroups(null), entryIds);
+
+        if (isAdmin(userId))
+            return new HashSet<>(entryIds);
+
+        // owned entries
+        List<Long> remaining = new ArrayList<>(entryIds);
+        Set<Long> readable = new HashSet<>(DAOFactory.getEntryDAO().filterByUserId(userId, remaining));
+        remaining.removeAll(readable);
+
+        Account account = getAccount(userId);
+        readable.addAll(permissionDAO.getReadableEntryIds(account, groupController.getAllGroups(account), remaining));
+        return readable;
+    }
+
     @Override
     public String getOwner(Entry entry) {
         return entry.getOwnerEmail();
@@ -345,15 +345,10 @@ public class EntryController extends HasEntry {
             return null;
 
         // retrieve sequence information
-        boolean hasSequence = sequenceDAO.hasSequence(entry.getId());
-        partData.setHasSequence(hasSequence);
-        boolean hasOriginalSequence = sequenceDAO.hasOriginalSequence(entry.getId());
-        partData.setHasOriginalSequence(hasOriginalSequence);
-        String sequenceString = sequenceDAO.getSequenceString(entry);
-        if (StringUtils.isEmpty(sequenceString))
-            partData.setBasePairCount(0);
-        else
-            partData.setBasePairCount(sequenceString.trim().length());
+        SequenceSummary sequenceSummary = sequenceDAO.getSequenceSummary(entry.getId());
+        partData.setHasSequence(sequenceSummary != null);
+        partData.setHasOriginalSequence(sequenceSummary != null && sequenceSummary.isHasOriginalSequence());
+        partData.setBasePairCount(sequenceSummary == null ? 0 : sequenceSummary.getBasePairCount());
 
         // create audit event if not owner
         // todo : remote access check
@@ -371,10 +366,10 @@ public class EntryController extends HasEntry {
                     continue;
 
                 link = ModelToInfoFactory.createTipView(linkedEntry);
-                String linkedSequenceString = sequenceDAO.getSequenceString(linkedEntry);
+                SequenceSummary linkedSummary = sequenceDAO.getSequenceSummary(linkedEntry.getId());
 
-                if (!StringUtils.isEmpty(linkedSequenceString)) {
-                    link.setBasePairCount(linkedSequenceString.length());
+                if (linkedSummary != null && linkedSummary.getBasePairCount() > 0) {
+                    link.setBasePairCount(linkedSummary.getBasePairCount());
                     link.setFeatureCount(DAOFactory.getSequenceFeatureDAO().getFeatureCount(linkedEntry));
                 }
 
@@ -12,7 +12,6 @@ import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Audit;
 import org.jbei.ice.storage.model.Entry;
 
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -74,17 +73,13 @@ public class EntryHistory {
     }
 
     /**
-     * Adds a read history object for the specified user and entry
+     * Adds a read history object for the specified user and entry. Depending on the configured audit
+     * policy, the object may be written asynchronously (see {@link AuditQueue})
      *
-     * @return true if the object was successfully added, false otherwise
+     * @return true if the object was successfully added (or queued), false otherwise
      */
     public boolean add() {
-        Audit audit = new Audit();
-        audit.setAction(AuditType.READ.getAbbrev());
-        audit.setEntry(entry);
-        audit.setUserId(userId);
-        audit.setTime(new Date());
-        return dao.create(audit) != null;
+        return AuditQueue.getInstance().add(entry, userId, AuditType.READ.getAbbrev());
     }
 
     /**
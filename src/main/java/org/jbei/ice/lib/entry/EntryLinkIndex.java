@@ -0,0 +1,183 @@
+package org.jbei.ice.lib.entry;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory adjacency index of the parent/child links between entries (the <code>entry_entry</code> join table),
+ * used to walk the hierarchy of an entry (e.g. strain to plasmid to part) without loading each level of
+ * {@link org.jbei.ice.storage.model.Entry#getLinkedEntries()} from the database.
+ * <p>
+ * The index is loaded from the database on first use (and discarded if the transaction it is loaded in does not
+ * commit) and is updated once the transaction commits as the links of entries are saved and entries deleted.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class EntryLinkIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<Long, Set<Long>> children = new HashMap<>();
+    private final HashMap<Long, Set<Long>> parents = new HashMap<>();
+    private volatile boolean built;
+
+    private EntryLinkIndex() {
+    }
+
+    private static class SingletonHolder {
+        private static final EntryLinkIndex INSTANCE = new EntryLinkIndex();
+    }
+
+    public static EntryLinkIndex getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * @param entryId unique identifier for entry
+     * @return identifiers of the entries linked as children of the specified entry
+     */
+    public Set<Long> getChildren(long entryId) {
+        return get(children, entryId);
+    }
+
+    /**
+     * @param entryId unique identifier for entry
+     * @return identifiers of the entries that the specified entry is linked to as a child
+     */
+    public Set<Long> getParents(long entryId) {
+        return get(parents, entryId);
+    }
+
+    /**
+     * Updates the children of an entry once the current transaction commits
+     *
+     * @param entryId  unique identifier for entry whose links were saved
+     * @param childIds identifiers of all the entries now linked as children of the entry
+     */
+    public void linksSaved(long entryId, Set<Long> childIds) {
+        HashSet<Long> snapshot = new HashSet<>(childIds);
+        HibernateUtil.afterCommit(() -> update(entryId, snapshot));
+    }
+
+    /**
+     * Removes an entry and all its links from the index once the current transaction commits
+     *
+     * @param entryId unique identifier for deleted entry
+     */
+    public void entryDeleted(long entryId) {
+        HibernateUtil.afterCommit(() -> remove(entryId));
+    }
+
+    /**
+     * Discards the index. It is loaded again on next use
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            children.clear();
+            parents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> get(HashMap<Long, Set<Long>> links, long entryId) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Set<Long> linked = links.get(entryId);
+            return linked == null ? new HashSet<>() : new HashSet<>(linked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(long entryId, Set<Long> childIds) {
+        lock.writeLock().lock();
+        try {
+            // checked under the lock so that a change is not missed by a load in progress
+            if (!built)
+                return;
+
+            Set<Long> existing = children.remove(entryId);
+            if (existing != null) {
+                for (Long childId : existing)
+                    unlink(parents, childId, entryId);
+            }
+            for (Long childId : childIds)
+                link(entryId, childId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long entryId) {
+        lock.writeLock().lock();
+        try {
+            if (!built)
+                return;
+
+            Set<Long> childIds = children.remove(entryId);
+            if (childIds != null) {
+                for (Long childId : childIds)
+                    unlink(parents, childId, entryId);
+            }
+
+            Set<Long> parentIds = parents.remove(entryId);
+            if (parentIds != null) {
+                for (Long parentId : parentIds)
+                    unlink(children, parentId, entryId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // loads the index from the database if it has not been loaded or has been invalidated
+    private void ensureBuilt() {
+        if (built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+
+            long start = System.currentTimeMillis();
+            List<Object[]> links = DAOFactory.getEntryDAO().getLinks();
+            for (Object[] row : links)
+                link(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            built = true;
+
+            // the index may include uncommitted changes in the current transaction
+            HibernateUtil.afterRollback(this::invalidate);
+            Logger.info("Built entry link index (" + links.size() + " links) in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // expects write lock to be held
+    private void link(long parentId, long childId) {
+        children.computeIfAbsent(parentId, k -> new HashSet<>(2)).add(childId);
+        parents.computeIfAbsent(childId, k -> new HashSet<>(2)).add(parentId);
+    }
+
+    // expects write lock to be held
+    private static void unlink(HashMap<Long, Set<Long>> links, long entryId, long linkedId) {
+        Set<Long> linked = links.get(entryId);
+        if (linked == null)
+            return;
+
+        linked.remove(linkedId);
+        if (linked.isEmpty())
+            links.remove(entryId);
+    }
+}
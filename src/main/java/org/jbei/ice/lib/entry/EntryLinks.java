@@ -1,16 +1,16 @@
 package org.jbei.ice.lib.entry;
 
-import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.EntryLinkGraph;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.dto.entry.SequenceSummary;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.model.Entry;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Represents a main part and the hierarchical links that it is involved in.
@@ -21,6 +21,9 @@ import java.util.List;
  */
 public class EntryLinks {
 
+    public static final int DEFAULT_GRAPH_DEPTH = 3;
+    public static final int MAX_GRAPH_DEPTH = 10;
+
     private final EntryDAO entryDAO;
     private final SequenceDAO sequenceDAO;
     private final Entry entry;
@@ -149,13 +152,12 @@ public class EntryLinks {
      * @return list of retrieved entries
      */
     public List<PartData> getChildren() {
-        List<PartData> children = new ArrayList<>(this.entry.getLinkedEntries().size());
-        for (Entry childEntry : this.entry.getLinkedEntries()) {
-            if (!entryAuthorization.canRead(this.userId, childEntry))
-                continue;
-            children.add(childEntry.toDataTransferObject());
+        List<Entry> children = filterReadable(this.entry.getLinkedEntries());
+        List<PartData> childData = new ArrayList<>(children.size());
+        for (Entry childEntry : children) {
+            childData.add(childEntry.toDataTransferObject());
         }
-        return children;
+        return childData;
     }
 
     /**
@@ -164,16 +166,81 @@ public class EntryLinks {
      * @return list of parents of entry
      */
     public List<PartData> getParents() {
-        List<Entry> parents = this.entryDAO.getParents(this.entry.getId());
+        List<Entry> parents = filterReadable(this.entryDAO.getParents(this.entry.getId()));
         List<PartData> parentData = new ArrayList<>(parents.size());
         for (Entry parent : parents) {
-            if (!entryAuthorization.canRead(this.userId, parent))
-                continue;
             parentData.add(parent.toDataTransferObject());
         }
         return parentData;
     }
 
+    /**
+     * Retrieves the ancestors and descendants of this entry, up to the specified number of links away, in a single
+     * call. Links are read from the {@link EntryLinkIndex} and the permissions of the user are checked for all
+     * the entries at each level at once. Entries the user cannot read are left out, along with the entries that are
+     * only linked to this one through them
+     *
+     * @param depth maximum number of links between this entry and the ancestors or descendants to include. Limited to
+     *              {@link #MAX_GRAPH_DEPTH}
+     * @return graph of linked entries
+     */
+    public EntryLinkGraph getGraph(int depth) {
+        depth = Math.max(1, Math.min(depth, MAX_GRAPH_DEPTH));
+        EntryLinkGraph graph = new EntryLinkGraph(this.entry.getId(), depth);
+
+        Set<Long> readable = new LinkedHashSet<>();
+        readable.add(this.entry.getId());
+        Set<Long> checked = new HashSet<>(readable);
+        Set<List<Long>> links = new LinkedHashSet<>();
+
+        walk(depth, true, checked, readable, links);
+        walk(depth, false, checked, readable, links);
+
+        graph.getEntries().addAll(this.entryDAO.getTableViewData(new ArrayList<>(readable)));
+        for (List<Long> link : links) {
+            graph.getLinks().add(new EntryLinkGraph.Link(link.get(0), link.get(1)));
+        }
+        return graph;
+    }
+
+    // breadth first walk from this entry to its descendants (or ancestors) through the entries the user can read
+    private void walk(int depth, boolean descendants, Set<Long> checked, Set<Long> readable, Set<List<Long>> links) {
+        EntryLinkIndex index = EntryLinkIndex.getInstance();
+        Set<Long> visited = new HashSet<>();
+        visited.add(this.entry.getId());
+        List<Long> frontier = Collections.singletonList(this.entry.getId());
+
+        for (int level = 0; level < depth && !frontier.isEmpty(); level += 1) {
+            Map<Long, Set<Long>> linked = new LinkedHashMap<>();
+            Set<Long> unchecked = new HashSet<>();
+            for (Long entryId : frontier) {
+                Set<Long> ids = descendants ? index.getChildren(entryId) : index.getParents(entryId);
+                linked.put(entryId, ids);
+                for (Long id : ids) {
+                    if (!checked.contains(id))
+                        unchecked.add(id);
+                }
+            }
+
+            readable.addAll(this.entryAuthorization.getReadableEntryIds(this.userId, unchecked));
+            checked.addAll(unchecked);
+
+            List<Long> next = new ArrayList<>();
+            for (Map.Entry<Long, Set<Long>> current : linked.entrySet()) {
+                long currentId = current.getKey();
+                for (Long id : current.getValue()) {
+                    if (!readable.contains(id))
+                        continue;
+
+                    links.add(descendants ? Arrays.asList(currentId, id) : Arrays.asList(id, currentId));
+                    if (visited.add(id))
+                        next.add(id);
+                }
+            }
+            frontier = next;
+        }
+    }
+
     /**
      * Retrieves entry links that are parents or children depending on specified type
      *
@@ -189,28 +256,21 @@ public class EntryLinks {
         }
 
         // get sequence and other summary information
+        entries = filterReadable(entries);
         List<PartData> results = new ArrayList<>(entries.size());
         for (Entry entry : entries) {
-            if (!this.entryAuthorization.canRead(this.userId, entry))
-                continue;
-
             PartData partData = new PartData(EntryType.nameToType(entry.getRecordType()));
             partData.setId(entry.getId());
             partData.setName(entry.getName());
             partData.setPartId(entry.getPartNumber());
             partData.setShortDescription(entry.getShortDescription());
 
-            boolean hasSequence = sequenceDAO.hasSequence(entry.getId());
-            partData.setHasSequence(hasSequence);
-            boolean hasOriginalSequence = sequenceDAO.hasOriginalSequence(entry.getId());
-            partData.setHasOriginalSequence(hasOriginalSequence);
-            String sequenceString = sequenceDAO.getSequenceString(entry);
-            if (StringUtils.isEmpty(sequenceString))
-                partData.setBasePairCount(0);
-            else
-                partData.setBasePairCount(sequenceString.trim().length());
-
-            if (!StringUtils.isEmpty(sequenceString)) {
+            SequenceSummary sequenceSummary = sequenceDAO.getSequenceSummary(entry.getId());
+            partData.setHasSequence(sequenceSummary != null);
+            partData.setHasOriginalSequence(sequenceSummary != null && sequenceSummary.isHasOriginalSequence());
+            partData.setBasePairCount(sequenceSummary == null ? 0 : sequenceSummary.getBasePairCount());
+
+            if (partData.getBasePairCount() > 0) {
                 partData.setFeatureCount(DAOFactory.getSequenceFeatureDAO().getFeatureCount(entry));
             }
 
@@ -219,4 +279,20 @@ public class EntryLinks {
 
         return results;
     }
+
+    // retains the entries that the user can read, checking them all at once
+    private List<Entry> filterReadable(Collection<Entry> entries) {
+        Set<Long> ids = new HashSet<>();
+        for (Entry linked : entries) {
+            ids.add(linked.getId());
+        }
+
+        Set<Long> readable = this.entryAuthorization.getReadableEntryIds(this.userId, ids);
+        List<Entry> results = new ArrayList<>(readable.size());
+        for (Entry linked : entries) {
+            if (readable.contains(linked.getId()))
+                results.add(linked);
+        }
+        return results;
+    }
 }
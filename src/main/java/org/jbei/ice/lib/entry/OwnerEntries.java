@@ -1,17 +1,17 @@
 package org.jbei.ice.lib.entry;
 
+import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
+import org.jbei.ice.storage.hibernate.PageCursor;
 import org.jbei.ice.storage.hibernate.dao.AccountDAO;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Group;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -59,27 +59,40 @@ public class OwnerEntries {
     }
 
     public List<PartData> retrieveOwnerEntries(ColumnField sort, boolean asc, int start, int limit, String filter) {
-        List<Entry> entries;
+        List<Long> entries;
 
         if (this.isAdmin || this.isSelf) {
-            entries = entryDAO.retrieveOwnerEntries(this.ownerAccount.getEmail(), sort, asc, start, limit, filter);
+            entries = entryDAO.retrieveOwnerEntryIds(this.ownerAccount.getEmail(), sort, asc, start, limit, filter);
         } else {
             Set<Group> accountGroups = new HashSet<>(account.getGroups());
             GroupController controller = new GroupController();
             Group everybodyGroup = controller.createOrRetrievePublicGroup();
             accountGroups.add(everybodyGroup);
             // retrieve entries for user that can be read by others
-            entries = entryDAO.retrieveUserEntries(account, this.ownerAccount.getEmail(),
+            entries = entryDAO.retrieveUserEntryIds(account, this.ownerAccount.getEmail(),
                     accountGroups, sort, asc, start, limit, filter);
         }
 
-        ArrayList<PartData> data = new ArrayList<>();
-        for (Entry entry : entries) {
-            PartData info = ModelToInfoFactory.createTableViewData(account.getEmail(), entry, false);
-            info.setViewCount(DAOFactory.getAuditDAO().getHistoryCount(entry));
-            data.add(info);
-        }
-        return data;
+        return ModelToInfoFactory.createTableViewData(account.getEmail(), entries, false, true);
+    }
+
+    /**
+     * Retrieves the page of owner entries following the position of the specified cursor. The position of the
+     * next page is recorded in the cursor. Only available to the owner or an administrator
+     *
+     * @param cursor position of page in the entries
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text to filter entries by
+     * @return list of entries
+     * @throws PermissionException if the user making the request is neither the owner nor an administrator
+     */
+    public List<PartData> retrieveOwnerEntries(PageCursor cursor, int limit, String filter) {
+        if (!this.isAdmin && !this.isSelf)
+            throw new PermissionException(account.getEmail() + " cannot page through entries for "
+                    + ownerAccount.getEmail() + " using a cursor");
+
+        List<Long> entries = entryDAO.retrieveOwnerEntryIds(this.ownerAccount.getEmail(), cursor, limit, filter);
+        return ModelToInfoFactory.createTableViewData(account.getEmail(), entries, false, true);
     }
 
     public long getNumberOfOwnerEntries() {
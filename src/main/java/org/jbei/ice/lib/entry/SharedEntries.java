@@ -7,10 +7,8 @@ import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Group;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -45,14 +43,8 @@ public class SharedEntries {
         Group publicGroup = groupController.createOrRetrievePublicGroup();
         Set<Group> accountGroups = account.getGroups();
         accountGroups.remove(publicGroup);
-        List<Entry> entries = this.entryDAO.sharedWithUserEntries(account, accountGroups, field, asc, start, limit, filter);
-
-        ArrayList<PartData> data = new ArrayList<>();
-        for (Entry entry : entries) {
-            PartData info = ModelToInfoFactory.createTableViewData(account.getEmail(), entry, false);
-            info.setViewCount(DAOFactory.getAuditDAO().getHistoryCount(entry));
-            data.add(info);
-        }
-        return data;
+        List<Long> entries = this.entryDAO.sharedWithUserEntryIds(account, accountGroups, field, asc, start, limit, filter);
+
+        return ModelToInfoFactory.createTableViewData(account.getEmail(), entries, false, true);
     }
 }
@@ -5,12 +5,11 @@ import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
+import org.jbei.ice.storage.hibernate.PageCursor;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Group;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -38,28 +37,46 @@ public class VisibleEntries {
     }
 
     public List<PartData> getEntries(ColumnField field, boolean asc, int start, int limit, String filter) {
-        Set<Entry> results;
+        List<Long> results;
 
         if (isAdmin) {
             // no filters
-            results = dao.retrieveAllEntries(field, asc, start, limit, filter);
+            results = dao.retrieveAllEntryIds(field, asc, start, limit, filter);
         } else {
             // retrieve groups for account and filter by permission
             Set<Group> accountGroups = new HashSet<>(account.getGroups());
             GroupController controller = new GroupController();
             Group everybodyGroup = controller.createOrRetrievePublicGroup();
             accountGroups.add(everybodyGroup);
-            results = dao.retrieveVisibleEntries(account, accountGroups, field, asc, start, limit, filter);
+            results = dao.retrieveVisibleEntryIds(account, accountGroups, field, asc, start, limit, filter);
         }
 
-        ArrayList<PartData> data = new ArrayList<>();
-        for (Entry entry : results) {
-            PartData info = ModelToInfoFactory.createTableViewData(account.getEmail(), entry, false);
-            info.setViewCount(DAOFactory.getAuditDAO().getHistoryCount(entry));
-            data.add(info);
+        return ModelToInfoFactory.createTableViewData(account.getEmail(), results, false, true);
+    }
+
+    /**
+     * Retrieves the page of visible entries following the position of the specified cursor. The position of the
+     * next page is recorded in the cursor
+     *
+     * @param cursor position of page in the visible entries
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text to filter entries by
+     * @return list of entries
+     */
+    public List<PartData> getEntries(PageCursor cursor, int limit, String filter) {
+        List<Long> results;
+
+        if (isAdmin) {
+            results = dao.retrieveAllEntryIds(cursor, limit, filter);
+        } else {
+            Set<Group> accountGroups = new HashSet<>(account.getGroups());
+            GroupController controller = new GroupController();
+            Group everybodyGroup = controller.createOrRetrievePublicGroup();
+            accountGroups.add(everybodyGroup);
+            results = dao.retrieveVisibleEntryIds(account, accountGroups, cursor, limit, filter);
         }
 
-        return data;
+        return ModelToInfoFactory.createTableViewData(account.getEmail(), results, false, true);
     }
 
     /**
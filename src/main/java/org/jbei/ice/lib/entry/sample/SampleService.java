@@ -14,9 +14,7 @@ import org.jbei.ice.storage.hibernate.dao.SampleDAO;
 import org.jbei.ice.storage.hibernate.dao.StorageDAO;
 import org.jbei.ice.storage.model.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Service for dealing with {@link Sample}s
@@ -29,10 +27,12 @@ public class SampleService {
     private final StorageDAO storageDAO;
     private final EntryAuthorization entryAuthorization;
     private final SampleAuthorization sampleAuthorization;
+    private final StorageIndex storageIndex;
 
     public SampleService() {
         dao = DAOFactory.getSampleDAO();
         storageDAO = DAOFactory.getStorageDAO();
+        storageIndex = StorageIndex.getInstance();
         entryAuthorization = new EntryAuthorization();
         sampleAuthorization = new SampleAuthorization();
     }
@@ -56,7 +56,109 @@ public class SampleService {
         }
 
         entryAuthorization.expectWrite(userId, entry);
+        storageIndex.beginUpdate();
 
+        Sample sample = createSample(userId, entry, partSample, strainNamePrefix);
+        if (sample == null)
+            return null;
+        return sample.toDataTransferObject();
+    }
+
+    /**
+     * Creates samples for multiple entries, e.g. to register all the samples in a plate or rack, in the current
+     * transaction. The entry for each sample is specified using {@link PartSample#getPartId()}. All the entries and
+     * locations are validated, including against each other, before any sample is created so either all the
+     * samples are created or none are
+     *
+     * @param userId           unique identifier for user performing action. Must have write privileges on all the
+     *                         entries
+     * @param partSamples      samples to create
+     * @param strainNamePrefix optional prefix for generating strain names
+     * @return list of created samples, or null if an entry could not be retrieved or a location is invalid or
+     * already in use
+     */
+    public List<PartSample> createSamples(String userId, List<PartSample> partSamples, String strainNamePrefix) {
+        List<Long> entryIds = new ArrayList<>(partSamples.size());
+        for (PartSample partSample : partSamples) {
+            entryIds.add(partSample.getPartId());
+        }
+
+        Map<Long, Entry> entries = new HashMap<>();
+        for (Entry entry : DAOFactory.getEntryDAO().getEntriesByIdSet(entryIds)) {
+            entries.put(entry.getId(), entry);
+        }
+
+        for (PartSample partSample : partSamples) {
+            Entry entry = entries.get(partSample.getPartId());
+            if (entry == null) {
+                Logger.error("Could not retrieve entry with id " + partSample.getPartId() + ". Skipping samples");
+                return null;
+            }
+            entryAuthorization.expectWrite(userId, entry);
+        }
+
+        storageIndex.beginUpdate();
+        if (!validateLocations(partSamples))
+            return null;
+
+        List<PartSample> created = new ArrayList<>(partSamples.size());
+        for (PartSample partSample : partSamples) {
+            Sample sample = createSample(userId, entries.get(partSample.getPartId()), partSample, strainNamePrefix);
+            if (sample == null) {
+                // locations have been validated so this is not expected; fail the transaction
+                throw new IllegalStateException("Could not create sample for entry " + partSample.getPartId());
+            }
+            created.add(sample.toDataTransferObject());
+        }
+        return created;
+    }
+
+    // validates the (plate and shelf) locations of samples that are to be created together
+    protected boolean validateLocations(List<PartSample> partSamples) {
+        Set<String> barcodes = new HashSet<>();
+        Set<String> wells = new HashSet<>();
+
+        for (PartSample partSample : partSamples) {
+            StorageLocation location = partSample.getLocation();
+            if (location == null)
+                continue;
+
+            switch (location.getType()) {
+                case PLATE96:
+                    StorageLocation well = location.getChild();
+                    StorageLocation tube = well == null ? null : well.getChild();
+                    if (tube == null) {
+                        Logger.error("Plate " + location.getDisplay() + " location requires a well and a tube");
+                        return false;
+                    }
+
+                    if (!barcodes.add(tube.getDisplay()) || isBarcodeInUse(tube.getDisplay())) {
+                        Logger.error("Barcode \"" + tube.getDisplay() + "\" already has a sample associated with it");
+                        return false;
+                    }
+
+                    if (!wells.add(location.getDisplay() + ":" + well.getDisplay())
+                            || isWellInUse(location.getDisplay(), well.getDisplay())) {
+                        Logger.error("Plate " + location.getDisplay() + " already has a well storage at "
+                                + well.getDisplay());
+                        return false;
+                    }
+                    break;
+
+                case SHELF:
+                    StorageLocation box = location.getChild();
+                    if (box == null || box.getChild() == null) {
+                        Logger.error("Shelf " + location.getDisplay() + " location requires a box and a well");
+                        return false;
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    // creates the storage (if required) and sample. expects the entry to have been authorized
+    protected Sample createSample(String userId, Entry entry, PartSample partSample, String strainNamePrefix) {
         Sample sample = SampleCreator.createSampleObject(partSample.getLabel(), userId, "");
         sample.setEntry(entry);
 
@@ -74,7 +176,7 @@ public class SampleService {
             switch (mainLocation.getType()) {
                 case ADDGENE:
                     currentStorage = createStorage(depositor, mainLocation.getDisplay(), mainLocation.getType());
-                    currentStorage = storageDAO.create(currentStorage);
+                    currentStorage = saveStorage(currentStorage);
                     break;
 
                 case PLATE96:
@@ -86,10 +188,10 @@ public class SampleService {
                     break;
 
                 default:
-                    currentStorage = storageDAO.get(mainLocation.getId());
+                    currentStorage = getStorage(mainLocation.getId());
                     if (currentStorage == null) {
                         currentStorage = createStorage(userId, mainLocation.getDisplay(), mainLocation.getType());
-                        currentStorage = storageDAO.create(currentStorage);
+                        currentStorage = saveStorage(currentStorage);
                     }
 
                     currentStorage = createChildrenStorage(mainLocation, currentStorage, depositor);
@@ -102,11 +204,14 @@ public class SampleService {
 
         // create sample. If main location is null then sample is created without location
         sample = dao.create(sample);
+        if (sample.getStorage() != null)
+            storageIndex.sampleCreated(sample.getStorage().getId());
+
         String name = entry.getName();
         if (strainNamePrefix != null && name != null && !name.startsWith(strainNamePrefix)) {
             DAOFactory.getEntryDAO().generateNextStrainNameForEntry(entry, strainNamePrefix);
         }
-        return sample.toDataTransferObject();
+        return sample;
     }
 
     /**
@@ -126,13 +231,9 @@ public class SampleService {
             if (tube != null) {
                 // just check the barcode
                 String barcode = tube.getDisplay();
-                Storage existing = storageDAO.retrieveStorageTube(barcode);
-                if (existing != null) {
-                    ArrayList<Sample> samples = dao.getSamplesByStorage(existing);
-                    if (samples != null && !samples.isEmpty()) {
-                        Logger.error("Barcode \"" + barcode + "\" already has a sample associated with it");
-                        return null;
-                    }
+                if (isBarcodeInUse(barcode)) {
+                    Logger.error("Barcode \"" + barcode + "\" already has a sample associated with it");
+                    return null;
                 }
             }
         } else {
@@ -144,22 +245,17 @@ public class SampleService {
         }
 
         // create storage locations
-        Storage currentStorage;
-        List<Storage> storageList = storageDAO.retrieveStorageByIndex(mainLocation.getDisplay(), SampleType.PLATE96);
-        if (storageList != null && storageList.size() > 0) {
-            currentStorage = storageList.get(0);
-
-            Set<Storage> wells = currentStorage.getChildren(); // check if there is a sample in that well
-            for (Storage thisWell : wells) {
-                if (thisWell.getIndex().equals(well.getDisplay()) && thisWell.getChildren() != null) {
-                    Logger.error("Plate " + mainLocation.getDisplay()
-                            + " already has a well storage at " + well.getDisplay());
-                    return null;
-                }
+        Storage currentStorage = findPlate(mainLocation.getDisplay());
+        if (currentStorage != null) {
+            // check if there is a sample in that well
+            if (storageIndex.findChild(currentStorage.getId(), Storage.StorageType.WELL, well.getDisplay()) != null) {
+                Logger.error("Plate " + mainLocation.getDisplay()
+                        + " already has a well storage at " + well.getDisplay());
+                return null;
             }
-        }  else {
+        } else {
             currentStorage = createStorage(sampleDepositor, mainLocation.getDisplay(), mainLocation.getType());
-            currentStorage = storageDAO.create(currentStorage);
+            currentStorage = saveStorage(currentStorage);
         }
 
         currentStorage = createChildrenStorage(mainLocation, currentStorage, sampleDepositor);
@@ -183,7 +279,7 @@ public class SampleService {
         // create storage locations
         Storage currentStorage = createStorage(depositor, shelf.getDisplay(), shelf.getType());
 
-        currentStorage = createChildrenStorage(shelf, storageDAO.create(currentStorage), depositor);
+        currentStorage = createChildrenStorage(shelf, saveStorage(currentStorage), depositor);
 
         return currentStorage;
     }
@@ -199,11 +295,11 @@ public class SampleService {
     protected Storage createChildrenStorage(StorageLocation currentLocation, Storage currentStorage, String depositor) {
         while (currentLocation.getChild() != null) {
             StorageLocation child = currentLocation.getChild();
-            Storage childStorage = storageDAO.get(child.getId());
+            Storage childStorage = getStorage(child.getId());
             if (childStorage == null) {
                 childStorage = createStorage(depositor, child.getDisplay(), child.getType());
                 childStorage.setParent(currentStorage);
-                childStorage = storageDAO.create(childStorage);
+                childStorage = saveStorage(childStorage);
             }
 
             currentStorage = childStorage;
@@ -213,6 +309,56 @@ public class SampleService {
         return currentStorage;
     }
 
+    /**
+     * @param barcode tube barcode
+     * @return true if there is a tube with the specified barcode that has samples
+     */
+    protected boolean isBarcodeInUse(String barcode) {
+        for (long id : storageIndex.find(Storage.StorageType.TUBE, barcode)) {
+            if (storageIndex.getSampleCount(id) > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param plateIndex plate index (barcode)
+     * @param wellIndex  well index
+     * @return true if the plate with the specified index has a well storage at the specified well index
+     */
+    protected boolean isWellInUse(String plateIndex, String wellIndex) {
+        List<Long> plates = storageIndex.find(Storage.StorageType.PLATE96, plateIndex);
+        return !plates.isEmpty()
+                && storageIndex.findChild(plates.get(0), Storage.StorageType.WELL, wellIndex) != null;
+    }
+
+    // retrieves the first plate with the specified index
+    private Storage findPlate(String index) {
+        List<Long> plates = storageIndex.find(Storage.StorageType.PLATE96, index);
+        if (plates.isEmpty())
+            return null;
+
+        Storage plate = storageDAO.get(plates.get(0));
+        if (plate != null)
+            return plate;
+
+        // not visible to this transaction
+        List<Storage> storageList = storageDAO.retrieveStorageByIndex(index, SampleType.PLATE96);
+        return storageList == null || storageList.isEmpty() ? null : storageList.get(0);
+    }
+
+    // retrieves existing storage without querying for locations that are known not to exist (e.g. new ones)
+    private Storage getStorage(long id) {
+        if (id <= 0 || !storageIndex.contains(id))
+            return null;
+        return storageDAO.get(id);
+    }
+
+    private Storage saveStorage(Storage storage) {
+        storage = storageDAO.create(storage);
+        storageIndex.storageCreated(storage);
+        return storage;
+    }
 
     public ArrayList<PartSample> retrieveEntrySamples(String userId, long entryId) {
         Entry entry = DAOFactory.getEntryDAO().get(entryId);
@@ -317,21 +463,21 @@ public class SampleService {
 
         sampleAuthorization.expectWrite(userId, sample);
 
+        storageIndex.beginUpdate();
         try {
             Storage storage = sample.getStorage();
-            while (storage != null) {
-                Storage parent = storage.getParent();
+            if (storage != null)
+                storageIndex.sampleDeleted(storage.getId());
 
-                if (storage.getChildren().size() == 0) {
-                    DAOFactory.getStorageDAO().delete(storage);
-                }
+            // remove locations that are no longer in use, stopping at the first one that still is
+            while (storage != null && !storageIndex.isOccupied(storage.getId())) {
+                Storage parent = storage.getParent();
+                storageDAO.delete(storage);
+                storageIndex.storageDeleted(storage.getId());
 
-                if (parent != null) {
+                if (parent != null)
                     parent.getChildren().remove(storage);
-                    storage = parent;
-                } else {
-                    break;
-                }
+                storage = parent;
             }
 
             sample.setStorage(null);
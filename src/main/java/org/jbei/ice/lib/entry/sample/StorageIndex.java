@@ -0,0 +1,309 @@
+package org.jbei.ice.lib.entry.sample;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Storage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the storage hierarchy (e.g. scheme, shelf, box or plate, well, tube) and of the locations that
+ * hold samples. Used when registering samples to find existing locations (plates by index, tubes by barcode and the
+ * children of a location) and to check if a location is occupied without loading storage objects or their children.
+ * <p>
+ * The index is loaded from the database on first use and is updated by {@link SampleService} as it creates and
+ * deletes storage and samples. Updates are applied immediately so that they are visible within the transaction
+ * making them; callers are expected to call {@link #beginUpdate()} before making the changes so that the index is
+ * discarded if the transaction does not commit. Samples that are removed along with their entry are removed from
+ * the index once the transaction commits (see {@link #samplesRemoved(List)}).
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class StorageIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<Long, Node> nodes = new HashMap<>();
+    private final HashMap<String, List<Long>> byIndex = new HashMap<>();
+    private final HashMap<Long, Integer> sampleCounts = new HashMap<>();
+    private volatile boolean built;
+
+    private StorageIndex() {
+    }
+
+    private static class SingletonHolder {
+        private static final StorageIndex INSTANCE = new StorageIndex();
+    }
+
+    public static StorageIndex getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Retrieves the storage locations of the specified type with the specified index (e.g. a plate with its
+     * barcode)
+     *
+     * @param type  storage type
+     * @param index storage index
+     * @return identifiers of the matching storage locations in the order they were created
+     */
+    public List<Long> find(Storage.StorageType type, String index) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            List<Long> ids = byIndex.get(key(type, index));
+            return ids == null ? new ArrayList<>() : new ArrayList<>(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the child of a storage location with the specified type and index (e.g. a well in a plate)
+     *
+     * @param parentId unique identifier for parent storage
+     * @param type     storage type of child
+     * @param index    storage index of child
+     * @return identifier of matching child or null if the parent does not have one
+     */
+    public Long findChild(long parentId, Storage.StorageType type, String index) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Node parent = nodes.get(parentId);
+            if (parent == null || parent.children == null)
+                return null;
+            return parent.children.get(key(type, index));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long storageId) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return nodes.containsKey(storageId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param storageId unique identifier for storage
+     * @return number of samples stored directly at the specified location
+     */
+    public int getSampleCount(long storageId) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Integer count = sampleCounts.get(storageId);
+            return count == null ? 0 : count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Determines if a storage location is in use, i.e. it holds a sample or contains other storage locations
+     *
+     * @param storageId unique identifier for storage
+     * @return true if the location is occupied
+     */
+    public boolean isOccupied(long storageId) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            if (sampleCounts.containsKey(storageId))
+                return true;
+            Node node = nodes.get(storageId);
+            return node != null && node.children != null && !node.children.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the index if required and registers a synchronization with the current transaction that invalidates
+     * the index if the transaction does not commit. To be called before creating or deleting storage or samples
+     */
+    public void beginUpdate() {
+        ensureBuilt();
+        HibernateUtil.afterRollback(this::invalidate);
+    }
+
+    /**
+     * Discards the index. It is loaded again on next use
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            nodes.clear();
+            byIndex.clear();
+            sampleCounts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void storageCreated(Storage storage) {
+        if (!built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            long parentId = storage.getParent() == null ? 0 : storage.getParent().getId();
+            add(storage.getId(), parentId, storage.getStorageType(), storage.getIndex());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void storageDeleted(long storageId) {
+        if (!built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            Node node = nodes.remove(storageId);
+            if (node == null)
+                return;
+
+            sampleCounts.remove(storageId);
+            String key = key(node.type, node.index);
+            List<Long> ids = byIndex.get(key);
+            if (ids != null) {
+                ids.remove(Long.valueOf(storageId));
+                if (ids.isEmpty())
+                    byIndex.remove(key);
+            }
+
+            Node parent = nodes.get(node.parentId);
+            if (parent == null || parent.children == null || !parent.children.remove(key, storageId))
+                return;
+
+            // another child of the parent may have the same type and index
+            if (ids == null)
+                return;
+            for (long id : ids) {
+                if (nodes.get(id).parentId == node.parentId) {
+                    parent.children.put(key, id);
+                    break;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void sampleCreated(long storageId) {
+        if (!built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            sampleCounts.merge(storageId, 1, Integer::sum);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void sampleDeleted(long storageId) {
+        if (!built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            sampleCounts.computeIfPresent(storageId, (id, count) -> count > 1 ? count - 1 : null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes samples that are deleted other than through {@link SampleService} (e.g. when the entry they belong to
+     * is deleted) from the index once the current transaction commits. Their storage locations are retained
+     *
+     * @param storageIds identifiers of the storage locations of the removed samples; one for each sample
+     */
+    public void samplesRemoved(List<Long> storageIds) {
+        if (storageIds.isEmpty())
+            return;
+
+        HibernateUtil.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (!built)
+                    return;     // counts are read from the database when the index is loaded
+                for (long storageId : storageIds)
+                    sampleCounts.computeIfPresent(storageId, (id, count) -> count > 1 ? count - 1 : null);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // loads the index from the database if it has not been loaded or has been invalidated
+    private void ensureBuilt() {
+        if (built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+
+            long start = System.currentTimeMillis();
+            for (Object[] row : DAOFactory.getStorageDAO().getStorageHierarchy()) {
+                long id = ((Number) row[0]).longValue();
+                long parentId = row[1] == null ? 0 : ((Number) row[1]).longValue();
+                add(id, parentId, (Storage.StorageType) row[2], (String) row[3]);
+            }
+            sampleCounts.putAll(DAOFactory.getSampleDAO().getStorageSampleCounts());
+            built = true;
+            Logger.info("Built storage index (" + nodes.size() + " locations) in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // expects write lock to be held. Nodes are added in id order so parents are always added before children
+    private void add(long id, long parentId, Storage.StorageType type, String index) {
+        if (nodes.containsKey(id))
+            return;
+
+        Node node = new Node(parentId, type, index);
+        nodes.put(id, node);
+        String key = key(type, index);
+        byIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(id);
+
+        Node parent = nodes.get(parentId);
+        if (parent == null)
+            return;
+        if (parent.children == null)
+            parent.children = new HashMap<>();
+        parent.children.putIfAbsent(key, id);
+    }
+
+    private static String key(Storage.StorageType type, String index) {
+        return (type == null ? "" : type.name()) + ":" + index;
+    }
+
+    private static class Node {
+        private final long parentId;
+        private final Storage.StorageType type;
+        private final String index;
+        private HashMap<String, Long> children;
+
+        Node(long parentId, Storage.StorageType type, String index) {
+            this.parentId = parentId;
+            this.type = type;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Sequence;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory locality sensitive hashing (LSH) index of the {@link SequenceSketch}es of entry sequences, used to find
+ * entries with the same or nearly the same sequence (including its reverse complement and, for circular
+ * sequences, its rotations) without running blast.
+ * <p>
+ * Each sketch is split into {@link #BANDS} bands of {@link #ROWS} values and an entry is added to a bucket for each
+ * band. Entries that share a bucket with a sequence are candidates and are compared using their full sketch. With
+ * the default settings, sequences with a similarity of 0.8 are found with a probability of over 99.9%.
+ * <p>
+ * The index is loaded from the database on first use (and discarded if the transaction it is loaded in does not
+ * commit) and is updated once the transaction commits as sequences are saved and deleted.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class NearDuplicateIndex {
+
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    static final int BANDS = 16;
+    static final int ROWS = SequenceSketch.SIZE / BANDS;
+    private static final int BATCH_SIZE = 1000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<Long, int[]> sketches = new HashMap<>();
+    private final HashMap<Long, List<Long>> buckets = new HashMap<>();
+    private volatile boolean built;
+
+    private NearDuplicateIndex() {
+    }
+
+    private static class SingletonHolder {
+        private static final NearDuplicateIndex INSTANCE = new NearDuplicateIndex();
+    }
+
+    public static NearDuplicateIndex getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Finds the entries with a sequence similar to the one with the specified sketch
+     *
+     * @param sketch         sketch of sequence
+     * @param threshold      minimum (estimated) similarity between 0 and 1
+     * @param excludeEntryId identifier for entry to exclude from the results (e.g. the entry the sequence is for)
+     * @return similarity keyed by entry id, in descending order of similarity
+     */
+    public LinkedHashMap<Long, Double> find(int[] sketch, double threshold, long excludeEntryId) {
+        LinkedHashMap<Long, Double> results = new LinkedHashMap<>();
+        if (sketch == null)
+            return results;
+
+        ensureBuilt();
+        List<Map.Entry<Long, Double>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            HashSet<Long> candidates = new HashSet<>();
+            for (int band = 0; band < BANDS; band += 1) {
+                List<Long> bucket = buckets.get(bucketKey(sketch, band));
+                if (bucket != null)
+                    candidates.addAll(bucket);
+            }
+            candidates.remove(excludeEntryId);
+
+            for (Long entryId : candidates) {
+                double similarity = SequenceSketch.similarity(sketch, sketches.get(entryId));
+                if (similarity >= threshold)
+                    matches.add(new AbstractMap.SimpleEntry<>(entryId, similarity));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        for (Map.Entry<Long, Double> match : matches)
+            results.put(match.getKey(), match.getValue());
+        return results;
+    }
+
+    /**
+     * @param entryId unique identifier for entry
+     * @return sketch of the entry's sequence or null if it does not have one
+     */
+    public int[] getSketch(long entryId) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return sketches.get(entryId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Groups all the indexed entries whose sequences are similar to each other. Two entries are in the same cluster
+     * if there is a chain of entries between them where each is similar to the next
+     *
+     * @param threshold minimum (estimated) similarity between 0 and 1
+     * @return clusters of two or more entry ids, largest first and each in ascending order of entry id
+     */
+    public List<List<Long>> findClusters(double threshold) {
+        ensureBuilt();
+        HashMap<Long, Long> parents = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (List<Long> bucket : buckets.values()) {
+                if (bucket.size() < 2)
+                    continue;
+
+                // compare each entry with one member of each of the groups already found in the bucket
+                List<Long> representatives = new ArrayList<>();
+                for (Long entryId : bucket) {
+                    int[] sketch = sketches.get(entryId);
+                    boolean matched = false;
+                    for (Long representative : representatives) {
+                        if (SequenceSketch.similarity(sketch, sketches.get(representative)) >= threshold) {
+                            union(parents, representative, entryId);
+                            matched = true;
+                            break;
+                        }
+                    }
+                    if (!matched)
+                        representatives.add(entryId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        HashMap<Long, List<Long>> clusters = new HashMap<>();
+        for (Long entryId : parents.keySet())
+            clusters.computeIfAbsent(root(parents, entryId), k -> new ArrayList<>()).add(entryId);
+
+        List<List<Long>> results = new ArrayList<>();
+        for (List<Long> cluster : clusters.values()) {
+            if (cluster.size() < 2)
+                continue;
+            Collections.sort(cluster);
+            results.add(cluster);
+        }
+        results.sort((first, second) -> second.size() != first.size() ? second.size() - first.size()
+                : Long.compare(first.get(0), second.get(0)));
+        return results;
+    }
+
+    /**
+     * @return number of entries with an indexed sequence
+     */
+    public int size() {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return sketches.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the index with the sketch of a saved sequence once the current transaction commits
+     *
+     * @param sequence saved sequence
+     */
+    public void sequenceSaved(Sequence sequence) {
+        if (sequence.getEntry() == null)
+            return;
+
+        long entryId = sequence.getEntry().getId();
+        int[] sketch = SequenceSketch.fromBytes(sequence.getSketch());
+        HibernateUtil.afterCommit(() -> update(entryId, sketch));
+    }
+
+    /**
+     * Removes the sequence of an entry from the index once the current transaction commits
+     *
+     * @param entryId unique identifier for entry whose sequence is deleted
+     */
+    public void sequenceDeleted(long entryId) {
+        HibernateUtil.afterCommit(() -> update(entryId, null));
+    }
+
+    /**
+     * Discards the index. It is loaded again on next use
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            sketches.clear();
+            buckets.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(long entryId, int[] sketch) {
+        lock.writeLock().lock();
+        try {
+            // checked under the lock so that a change is not missed by a load in progress
+            if (!built)
+                return;
+
+            remove(entryId);
+            if (sketch != null)
+                add(entryId, sketch);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // loads the index from the database if it has not been loaded or has been invalidated
+    private void ensureBuilt() {
+        if (built)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+
+            long start = System.currentTimeMillis();
+            long afterId = 0;
+            List<Object[]> batch;
+            do {
+                batch = DAOFactory.getSequenceDAO().getSketches(afterId, BATCH_SIZE);
+                for (Object[] row : batch) {
+                    afterId = ((Number) row[0]).longValue();
+                    int[] sketch = SequenceSketch.fromBytes((byte[]) row[2]);
+                    if (sketch != null)
+                        add(((Number) row[1]).longValue(), sketch);
+                }
+            } while (batch.size() == BATCH_SIZE);
+
+            built = true;
+
+            // the index may include uncommitted changes in the current transaction
+            HibernateUtil.afterRollback(this::invalidate);
+            Logger.info("Built near duplicate sequence index (" + sketches.size() + " sequences) in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // expects write lock to be held
+    private void add(long entryId, int[] sketch) {
+        remove(entryId);
+        sketches.put(entryId, sketch);
+        for (int band = 0; band < BANDS; band += 1)
+            buckets.computeIfAbsent(bucketKey(sketch, band), k -> new ArrayList<>(1)).add(entryId);
+    }
+
+    // expects write lock to be held
+    private void remove(long entryId) {
+        int[] sketch = sketches.remove(entryId);
+        if (sketch == null)
+            return;
+
+        for (int band = 0; band < BANDS; band += 1) {
+            long key = bucketKey(sketch, band);
+            List<Long> bucket = buckets.get(key);
+            if (bucket == null)
+                continue;
+            bucket.remove(Long.valueOf(entryId));
+            if (bucket.isEmpty())
+                buckets.remove(key);
+        }
+    }
+
+    private static long bucketKey(int[] sketch, int band) {
+        long key = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i += 1)
+            key = key * 0x100000001B3L + sketch[i];
+        return key;
+    }
+
+    private static Long root(HashMap<Long, Long> parents, Long entryId) {
+        Long root = entryId;
+        Long parent;
+        while ((parent = parents.get(root)) != null && !parent.equals(root))
+            root = parent;
+
+        // path compression
+        Long current = entryId;
+        while (!current.equals(root)) {
+            Long next = parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    private static void union(HashMap<Long, Long> parents, Long first, Long second) {
+        parents.putIfAbsent(first, first);
+        parents.putIfAbsent(second, second);
+        Long firstRoot = root(parents, first);
+        Long secondRoot = root(parents, second);
+        if (!firstRoot.equals(secondRoot))
+            parents.put(secondRoot, firstRoot);
+    }
+}
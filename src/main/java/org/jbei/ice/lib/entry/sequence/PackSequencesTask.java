@@ -0,0 +1,40 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
+
+/**
+ * Background task for migrating sequences stored as text to the packed 2-bit representation.
+ * Each batch is committed separately so that the migration can be interrupted and resumed. Started through
+ * {@link SequencePacking#startMigration()} so that only one runs at a time
+ *
+ * @author Hector Plahar
+ */
+public class PackSequencesTask extends Task {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Override
+    public void execute() {
+        try {
+            SequenceDAO sequenceDAO = DAOFactory.getSequenceDAO();
+            Logger.info("Packing sequences");
+            long total = 0;
+            int count;
+
+            do {
+                count = sequenceDAO.packSequences(BATCH_SIZE);
+                total += count;
+                HibernateUtil.commitTransaction();
+                HibernateUtil.beginTransaction();
+            } while (count > 0);
+
+            Logger.info("Packed " + total + " sequence(s)");
+        } finally {
+            SequencePacking.getInstance().migrationCompleted();
+        }
+    }
+}
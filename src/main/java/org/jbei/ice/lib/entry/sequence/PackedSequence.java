@@ -0,0 +1,218 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact 2-bit per base codec for nucleotide sequences.
+ * <p>
+ * Each base (a, c, g, t) is stored in two bits. Any other symbol (IUPAC ambiguity codes, gaps etc)
+ * is recorded in an exception list as runs of the same symbol, and upper case letters are recorded as runs
+ * of positions. Both lists are expected to be short for the typical (normalized, lower case, ACGT) sequence.
+ * <p>
+ * Layout of the packed bytes (all integers are unsigned variable length)
+ * <ul>
+ * <li>format version (single byte)</li>
+ * <li>sequence length</li>
+ * <li>number of exception runs followed by (offset from end of previous run, run length, symbol) for each</li>
+ * <li>number of upper case runs followed by (offset from end of previous run, run length) for each</li>
+ * <li>the bases, four to a byte, first base in the two high order bits</li>
+ * </ul>
+ *
+ * @author Hector Plahar
+ */
+public class PackedSequence {
+
+    private static final byte VERSION = 1;
+    private static final char[] BASES = {'a', 'c', 'g', 't'};
+
+    private PackedSequence() {
+    }
+
+    /**
+     * Packs the specified sequence
+     *
+     * @param sequence sequence to pack. Any character is accepted
+     * @return packed representation of the sequence
+     * @throws IllegalArgumentException if the sequence is null
+     */
+    public static byte[] pack(String sequence) {
+        if (sequence == null)
+            throw new IllegalArgumentException("Cannot pack null sequence");
+
+        final int length = sequence.length();
+        byte[] bases = new byte[(length + 3) / 4];
+        List<int[]> exceptions = new ArrayList<>();
+        List<int[]> upperCase = new ArrayList<>();
+
+        for (int i = 0; i < length; i += 1) {
+            char c = sequence.charAt(i);
+            char lower = Character.toLowerCase(c);
+
+            if (c != lower) {
+                int[] last = upperCase.isEmpty() ? null : upperCase.get(upperCase.size() - 1);
+                if (last != null && last[0] + last[1] == i)
+                    last[1] += 1;
+                else
+                    upperCase.add(new int[]{i, 1});
+            }
+
+            int code = encode(lower);
+            if (code == -1) {
+                int[] last = exceptions.isEmpty() ? null : exceptions.get(exceptions.size() - 1);
+                if (last != null && last[0] + last[1] == i && last[2] == lower)
+                    last[1] += 1;
+                else
+                    exceptions.add(new int[]{i, 1, lower});
+                code = 0;
+            }
+
+            bases[i >> 2] |= code << (6 - ((i & 3) << 1));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bases.length + 16);
+        out.write(VERSION);
+        writeVarInt(out, length);
+
+        writeVarInt(out, exceptions.size());
+        int previous = 0;
+        for (int[] run : exceptions) {
+            writeVarInt(out, run[0] - previous);
+            writeVarInt(out, run[1]);
+            writeVarInt(out, run[2]);
+            previous = run[0] + run[1];
+        }
+
+        writeVarInt(out, upperCase.size());
+        previous = 0;
+        for (int[] run : upperCase) {
+            writeVarInt(out, run[0] - previous);
+            writeVarInt(out, run[1]);
+            previous = run[0] + run[1];
+        }
+
+        out.write(bases, 0, bases.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Restores the original sequence from its packed representation
+     *
+     * @param packed bytes created by {@link #pack(String)}
+     * @return unpacked sequence
+     * @throws IllegalArgumentException if the bytes are not a valid packed sequence
+     */
+    public static String unpack(byte[] packed) {
+        Reader reader = new Reader(packed);
+        int length = reader.readVarInt();
+        char[] chars = new char[length];
+
+        int exceptionCount = reader.readVarInt();
+        int[] exceptions = new int[exceptionCount * 3];
+        int previous = 0;
+        for (int i = 0; i < exceptions.length; i += 3) {
+            exceptions[i] = previous + reader.readVarInt();
+            exceptions[i + 1] = reader.readVarInt();
+            exceptions[i + 2] = reader.readVarInt();
+            previous = exceptions[i] + exceptions[i + 1];
+        }
+
+        int upperCaseCount = reader.readVarInt();
+        int[] upperCase = new int[upperCaseCount * 2];
+        previous = 0;
+        for (int i = 0; i < upperCase.length; i += 2) {
+            upperCase[i] = previous + reader.readVarInt();
+            upperCase[i + 1] = reader.readVarInt();
+            previous = upperCase[i] + upperCase[i + 1];
+        }
+
+        int offset = reader.position;
+        if (packed.length - offset < (length + 3) / 4)
+            throw new IllegalArgumentException("Packed sequence is truncated");
+
+        for (int i = 0; i < length; i += 1) {
+            int code = (packed[offset + (i >> 2)] >> (6 - ((i & 3) << 1))) & 3;
+            chars[i] = BASES[code];
+        }
+
+        for (int i = 0; i < exceptions.length; i += 3) {
+            int end = checkRun(exceptions[i], exceptions[i + 1], length);
+            for (int j = exceptions[i]; j < end; j += 1)
+                chars[j] = (char) exceptions[i + 2];
+        }
+
+        for (int i = 0; i < upperCase.length; i += 2) {
+            int end = checkRun(upperCase[i], upperCase[i + 1], length);
+            for (int j = upperCase[i]; j < end; j += 1)
+                chars[j] = Character.toUpperCase(chars[j]);
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * Reads the length of the sequence without unpacking it
+     *
+     * @param packed bytes created by {@link #pack(String)}
+     * @return number of symbols in the packed sequence
+     */
+    public static int length(byte[] packed) {
+        return new Reader(packed).readVarInt();
+    }
+
+    private static int encode(char c) {
+        switch (c) {
+            case 'a':
+                return 0;
+            case 'c':
+                return 1;
+            case 'g':
+                return 2;
+            case 't':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    private static int checkRun(int start, int runLength, int length) {
+        int end = start + runLength;
+        if (start < 0 || end > length || end < start)
+            throw new IllegalArgumentException("Invalid run in packed sequence");
+        return end;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            if (bytes == null || bytes.length == 0 || bytes[0] != VERSION)
+                throw new IllegalArgumentException("Unrecognized packed sequence format");
+            this.bytes = bytes;
+            this.position = 1;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position >= bytes.length)
+                    throw new IllegalArgumentException("Packed sequence is truncated");
+                byte b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("Malformed packed sequence");
+        }
+    }
+}
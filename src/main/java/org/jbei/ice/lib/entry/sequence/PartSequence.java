@@ -14,6 +14,7 @@ import org.jbei.ice.lib.entry.EntryFactory;
 import org.jbei.ice.lib.entry.HasEntry;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
+import org.jbei.ice.lib.parsers.sbol.SBOLImportTask;
 import org.jbei.ice.lib.parsers.sbol.SBOLParser;
 import org.jbei.ice.lib.search.blast.BlastPlus;
 import org.jbei.ice.storage.DAOFactory;
@@ -123,6 +124,25 @@ public class PartSequence extends HasEntry {
         }
     }
 
+    /**
+     * Retrieves the status of the background creation of records for the definitions in an SBOL document that was
+     * uploaded for this entry
+     *
+     * @return information about the import, or null if there is no import for the entry
+     */
+    public SequenceInfo getImportStatus() {
+        entryAuthorization.expectRead(userId, entry);
+        SBOLImportTask task = SBOLImportTask.getImport(entry.getId());
+        if (task == null)
+            return null;
+
+        SequenceInfo info = new SequenceInfo();
+        info.setEntryId(entry.getId());
+        info.setImportStatus(task.getStatus());
+        info.setImportProgress(task.getProgress());
+        return info;
+    }
+
     protected FeaturedDNASequence getFeaturedSequence(Entry entry, boolean canEdit) {
         Sequence sequence = sequenceDAO.getByEntry(entry);
         if (sequence == null)
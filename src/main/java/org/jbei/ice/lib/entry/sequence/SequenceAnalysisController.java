@@ -1,14 +1,11 @@
 package org.jbei.ice.lib.entry.sequence;
 
-import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.DNASequence;
 import org.jbei.ice.lib.parsers.ABIParser;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
 import org.jbei.ice.lib.parsers.bl2seq.Bl2SeqResult;
-import org.jbei.ice.lib.search.blast.BlastException;
-import org.jbei.ice.lib.search.blast.BlastPlus;
 import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.TraceSequenceDAO;
@@ -17,8 +14,8 @@ import org.jbei.ice.storage.model.*;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Paths;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * ABI to manipulate DNA sequence trace analysis
@@ -118,18 +115,20 @@ public class SequenceAnalysisController {
         } else {
             traces = traceDao.getByEntry(entry, 0, Integer.MAX_VALUE);
 
-            boolean wasUpdated = false;
+            List<TraceSequence> outdated = new ArrayList<>();
             for (TraceSequence traceSequence : traces) {
                 if (traceSequence.getTraceSequenceAlignment() == null
                         || traceSequence.getTraceSequenceAlignment().getSequenceHash() == null
                         || traceSequence.getTraceSequenceAlignment().getSequenceHash().isEmpty()
                         || !traceSequence.getTraceSequenceAlignment().getSequenceHash().equals(sequence.getFwdHash())) {
-                    buildOrRebuildAlignment(traceSequence, sequence);
-                    wasUpdated = true;
+                    outdated.add(traceSequence);
                 }
             }
 
-            if (wasUpdated) { // fetch again because alignment has been updated
+            if (!outdated.isEmpty()) {
+                buildAlignments(outdated, sequence);
+
+                // fetch again because alignment has been updated
                 traces = traceDao.getByEntry(entry, 0, Integer.MAX_VALUE);
             }
         }
@@ -183,7 +182,7 @@ public class SequenceAnalysisController {
 
     /**
      * Calculate sequence alignment between the given {@link TraceSequence} and {@link Sequence}
-     * using bl2seq, and save the result into the database.
+     * using the in-process {@link TraceAligner}, and save the result into the database.
      *
      * @param traceSequence traceSequence
      * @param sequence      sequence
@@ -193,15 +192,46 @@ public class SequenceAnalysisController {
             throw new IllegalArgumentException("Failed to rebuild alignment for null trace sequence!");
         }
 
+        buildAlignments(Collections.singletonList(traceSequence), sequence);
+    }
+
+    /**
+     * Calculate sequence alignments between the sequence associated with an {@link Entry} entry
+     * with all the {@link TraceSequence}s associated with that entry.
+     * <p>
+     * The traces are aligned in parallel
+     *
+     * @param entry entry object
+     */
+
+    public void rebuildAllAlignments(Entry entry) {
+        if (entry == null)
+            return;
+
+        Sequence sequence = DAOFactory.getSequenceDAO().getByEntry(entry);
+        if (sequence == null) {
+            return;
+        }
+
+        List<TraceSequence> traceSequences = traceDao.getByEntry(entry, 0, Integer.MAX_VALUE);
+        buildAlignments(traceSequences, sequence);
+    }
+
+    /**
+     * Aligns the trace sequences to the entry sequence and saves the alignments. The reference is indexed once
+     * and the (CPU bound) alignments are computed in parallel; the results are saved in the calling thread
+     *
+     * @param traceSequences traces to align
+     * @param sequence       entry sequence
+     */
+    protected void buildAlignments(List<TraceSequence> traceSequences, Sequence sequence) {
         // if sequence is null => delete alignment
-        if (sequence == null || sequence.getEntry() == null) {
+        if (traceSequences.isEmpty() || sequence == null || sequence.getEntry() == null) {
             return;
         }
 
         // actually build alignment
-        String traceSequenceString = traceSequence.getSequence();
         String entrySequenceString = sequence.getSequence();
-
         int entrySequenceLength = entrySequenceString.length();
         boolean isCircular = (sequence.getEntry() instanceof Plasmid) && ((Plasmid) sequence.getEntry()).getCircular();
 
@@ -209,101 +239,92 @@ public class SequenceAnalysisController {
             entrySequenceString += entrySequenceString;
         }
 
-        try {
-            List<Bl2SeqResult> bl2seqAlignmentResults = BlastPlus.runBlast2Seq(entrySequenceString, traceSequenceString);
+        TraceAligner aligner = new TraceAligner(entrySequenceString);
+        String[] traceSequenceStrings = new String[traceSequences.size()];
+        for (int i = 0; i < traceSequenceStrings.length; i += 1) {
+            traceSequenceStrings[i] = traceSequences.get(i).getSequence();
+        }
 
-            if (bl2seqAlignmentResults.size() > 0) {
-                int maxAlignedSequenceLength = -1;
-                Bl2SeqResult maxBl2SeqResult = null;
+        List<List<Bl2SeqResult>> alignments = Arrays.stream(traceSequenceStrings)
+                .parallel()
+                .map(aligner::align)
+                .collect(Collectors.toList());
 
-                for (Bl2SeqResult bl2seqResult : bl2seqAlignmentResults) {
-                    int querySequenceLength = bl2seqResult.getQuerySequence().length();
+        for (int i = 0; i < traceSequenceStrings.length; i += 1) {
+            saveAlignment(traceSequences.get(i), sequence, alignments.get(i), entrySequenceLength, isCircular);
+        }
+    }
 
-                    if (maxAlignedSequenceLength < querySequenceLength) {
-                        maxAlignedSequenceLength = querySequenceLength;
-                        maxBl2SeqResult = bl2seqResult;
-                    }
-                }
+    private void saveAlignment(TraceSequence traceSequence, Sequence sequence,
+                               List<Bl2SeqResult> bl2seqAlignmentResults, int entrySequenceLength,
+                               boolean isCircular) {
+        if (bl2seqAlignmentResults.isEmpty())
+            return;
 
-                if (maxBl2SeqResult != null) {
-                    int strand = maxBl2SeqResult.getOrientation() == 0 ? 1 : -1;
-                    TraceSequenceAlignment traceSequenceAlignment = traceSequence.getTraceSequenceAlignment();
-                    int queryStart = maxBl2SeqResult.getQueryStart();
-                    int queryEnd = maxBl2SeqResult.getQueryEnd();
-                    int subjectStart = maxBl2SeqResult.getSubjectStart();
-                    int subjectEnd = maxBl2SeqResult.getSubjectEnd();
-
-                    if (isCircular) {
-                        if (queryStart > entrySequenceLength - 1) {
-                            queryStart = queryStart - entrySequenceLength;
-                        }
-
-                        if (queryEnd > entrySequenceLength - 1) {
-                            queryEnd = queryEnd - entrySequenceLength;
-                        }
-
-                        if (subjectEnd > entrySequenceLength - 1) {
-                            subjectEnd = subjectEnd - entrySequenceLength;
-                        }
-
-                        if (subjectStart > entrySequenceLength - 1) {
-                            subjectStart = subjectStart - entrySequenceLength;
-                        }
-                    }
-
-                    if (traceSequenceAlignment == null) {
-                        traceSequenceAlignment = new TraceSequenceAlignment(traceSequence,
-                                maxBl2SeqResult.getScore(), strand,
-                                queryStart, queryEnd,
-                                subjectStart, subjectEnd,
-                                maxBl2SeqResult.getQuerySequence(),
-                                maxBl2SeqResult.getSubjectSequence(),
-                                sequence.getFwdHash(),
-                                new Date());
-
-                        traceSequence.setTraceSequenceAlignment(traceSequenceAlignment);
-                    } else {
-                        traceSequenceAlignment.setModificationTime(new Date());
-                        traceSequenceAlignment.setScore(maxBl2SeqResult.getScore());
-                        traceSequenceAlignment.setStrand(strand);
-                        traceSequenceAlignment.setQueryStart(queryStart);
-                        traceSequenceAlignment.setQueryEnd(queryEnd);
-                        traceSequenceAlignment.setSubjectStart(subjectStart);
-                        traceSequenceAlignment.setSubjectEnd(subjectEnd);
-                        traceSequenceAlignment.setQueryAlignment(maxBl2SeqResult.getQuerySequence());
-                        traceSequenceAlignment.setSubjectAlignment(maxBl2SeqResult.getSubjectSequence());
-                        traceSequenceAlignment.setSequenceHash(sequence.getFwdHash());
-                    }
-
-                    traceDao.save(traceSequence);
-                }
+        int maxAlignedSequenceLength = -1;
+        Bl2SeqResult maxBl2SeqResult = null;
+
+        for (Bl2SeqResult bl2seqResult : bl2seqAlignmentResults) {
+            int querySequenceLength = bl2seqResult.getQuerySequence().length();
+
+            if (maxAlignedSequenceLength < querySequenceLength) {
+                maxAlignedSequenceLength = querySequenceLength;
+                maxBl2SeqResult = bl2seqResult;
             }
-        } catch (BlastException e) {
-            Logger.error(e);
         }
-    }
 
-    /**
-     * Calculate sequence alignments between the sequence associated with an {@link Entry} entry
-     * with all the {@link TraceSequence}s associated with that entry.
-     * <p>
-     * Calls buildOrReplaceAlignment on each TraceSequence.
-     *
-     * @param entry entry object
-     */
-
-    public void rebuildAllAlignments(Entry entry) {
-        if (entry == null)
+        if (maxBl2SeqResult == null)
             return;
 
-        Sequence sequence = DAOFactory.getSequenceDAO().getByEntry(entry);
-        if (sequence == null) {
-            return;
+        int strand = maxBl2SeqResult.getOrientation() == 0 ? 1 : -1;
+        TraceSequenceAlignment traceSequenceAlignment = traceSequence.getTraceSequenceAlignment();
+        int queryStart = maxBl2SeqResult.getQueryStart();
+        int queryEnd = maxBl2SeqResult.getQueryEnd();
+        int subjectStart = maxBl2SeqResult.getSubjectStart();
+        int subjectEnd = maxBl2SeqResult.getSubjectEnd();
+
+        if (isCircular) {
+            if (queryStart > entrySequenceLength - 1) {
+                queryStart = queryStart - entrySequenceLength;
+            }
+
+            if (queryEnd > entrySequenceLength - 1) {
+                queryEnd = queryEnd - entrySequenceLength;
+            }
+
+            if (subjectEnd > entrySequenceLength - 1) {
+                subjectEnd = subjectEnd - entrySequenceLength;
+            }
+
+            if (subjectStart > entrySequenceLength - 1) {
+                subjectStart = subjectStart - entrySequenceLength;
+            }
         }
 
-        List<TraceSequence> traceSequences = getTraceSequences(entry);
-        for (TraceSequence traceSequence : traceSequences) {
-            buildOrRebuildAlignment(traceSequence, sequence);
+        if (traceSequenceAlignment == null) {
+            traceSequenceAlignment = new TraceSequenceAlignment(traceSequence,
+                    maxBl2SeqResult.getScore(), strand,
+                    queryStart, queryEnd,
+                    subjectStart, subjectEnd,
+                    maxBl2SeqResult.getQuerySequence(),
+                    maxBl2SeqResult.getSubjectSequence(),
+                    sequence.getFwdHash(),
+                    new Date());
+
+            traceSequence.setTraceSequenceAlignment(traceSequenceAlignment);
+        } else {
+            traceSequenceAlignment.setModificationTime(new Date());
+            traceSequenceAlignment.setScore(maxBl2SeqResult.getScore());
+            traceSequenceAlignment.setStrand(strand);
+            traceSequenceAlignment.setQueryStart(queryStart);
+            traceSequenceAlignment.setQueryEnd(queryEnd);
+            traceSequenceAlignment.setSubjectStart(subjectStart);
+            traceSequenceAlignment.setSubjectEnd(subjectEnd);
+            traceSequenceAlignment.setQueryAlignment(maxBl2SeqResult.getQuerySequence());
+            traceSequenceAlignment.setSubjectAlignment(maxBl2SeqResult.getSubjectSequence());
+            traceSequenceAlignment.setSequenceHash(sequence.getFwdHash());
         }
+
+        traceDao.save(traceSequence);
     }
 }
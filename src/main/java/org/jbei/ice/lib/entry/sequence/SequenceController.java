@@ -1,19 +1,23 @@
 package org.jbei.ice.lib.entry.sequence;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.access.PermissionsController;
+import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.account.TokenHash;
 import org.jbei.ice.lib.common.logging.Logger;
-import org.jbei.ice.lib.config.ConfigurationController;
 import org.jbei.ice.lib.dto.*;
 import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicate;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicateReport;
+import org.jbei.ice.lib.dto.entry.Visibility;
 import org.jbei.ice.lib.dto.web.RegistryPartner;
 import org.jbei.ice.lib.entry.EntryAuthorization;
 import org.jbei.ice.lib.entry.HasEntry;
 import org.jbei.ice.lib.entry.sequence.composers.formatters.*;
 import org.jbei.ice.lib.entry.sequence.composers.pigeon.PigeonSBOLv;
+import org.jbei.ice.lib.entry.sequence.composers.pigeon.SBOLVisualCache;
+import org.jbei.ice.lib.executor.IceExecutorService;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.lib.search.blast.BlastPlus;
 import org.jbei.ice.lib.utils.SequenceUtils;
@@ -25,9 +29,6 @@ import org.jbei.ice.storage.model.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -37,6 +38,8 @@ import java.util.*;
  */
 public class SequenceController extends HasEntry {
 
+    public static final int MAX_DUPLICATES = 20;
+
     private final SequenceDAO dao;
     private final EntryDAO entryDAO;
     private final EntryAuthorization authorization;
@@ -95,6 +98,93 @@ public class SequenceController extends HasEntry {
         return null;
     }
 
+    /**
+     * Finds the entries that the user can read with the same or nearly the same sequence as the one specified
+     * (including its reverse complement and rotations). Intended to warn about duplicates before a sequence is saved
+     *
+     * @param userId   unique identifier for user performing action
+     * @param sequence dna sequence, either the bases or the contents of a sequence file
+     * @return matching entries in descending order of similarity; at most {@link #MAX_DUPLICATES}
+     */
+    public List<SequenceDuplicate> findNearDuplicates(String userId, String sequence) {
+        if (StringUtils.isBlank(sequence))
+            return new ArrayList<>();
+
+        DNASequence dnaSequence = parse(sequence);
+        String bases = dnaSequence == null || StringUtils.isEmpty(dnaSequence.getSequence()) ? sequence
+                : dnaSequence.getSequence();
+        int[] sketch = SequenceSketch.compute(StringUtils.deleteWhitespace(bases));
+        return findNearDuplicates(userId, sketch, 0);
+    }
+
+    /**
+     * Finds the entries that the user can read with the same or nearly the same sequence as the specified entry's
+     * sequence (e.g. an entry in a bulk upload)
+     *
+     * @param userId unique identifier for user performing action
+     * @param id     identifier for entry whose sequence is compared
+     * @return matching entries in descending order of similarity; at most {@link #MAX_DUPLICATES}
+     * @throws IllegalArgumentException if the entry cannot be found
+     * @throws PermissionException      if the user does not have read privileges on the entry
+     */
+    public List<SequenceDuplicate> getNearDuplicates(String userId, String id) {
+        Entry entry = getEntry(id);
+        if (entry == null)
+            throw new IllegalArgumentException("Cannot find entry with id " + id);
+
+        authorization.expectRead(userId, entry);
+        int[] sketch = NearDuplicateIndex.getInstance().getSketch(entry.getId());
+        return findNearDuplicates(userId, sketch, entry.getId());
+    }
+
+    private List<SequenceDuplicate> findNearDuplicates(String userId, int[] sketch, long excludeEntryId) {
+        List<SequenceDuplicate> duplicates = new ArrayList<>();
+        Map<Long, Double> matches = NearDuplicateIndex.getInstance().find(sketch,
+                NearDuplicateIndex.DEFAULT_THRESHOLD, excludeEntryId);
+
+        for (Map.Entry<Long, Double> match : matches.entrySet()) {
+            Entry entry = entryDAO.get(match.getKey());
+            if (entry == null || entry.getVisibility() == null
+                    || entry.getVisibility() < Visibility.DRAFT.getValue() || !authorization.canRead(userId, entry))
+                continue;
+
+            duplicates.add(new SequenceDuplicate(entry.getId(), entry.getPartNumber(), entry.getName(),
+                    entry.getRecordType(), entry.getOwnerEmail(), match.getValue()));
+            if (duplicates.size() == MAX_DUPLICATES)
+                break;
+        }
+        return duplicates;
+    }
+
+    /**
+     * Starts generating a report of the entries across the registry with the same or nearly the same sequence.
+     * Admin privileges required
+     *
+     * @param userId unique identifier for user performing action
+     * @throws PermissionException if the user does not have administrative privileges
+     */
+    public void generateDuplicateReport(String userId) {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required to generate duplicate report");
+
+        IceExecutorService.getInstance().runTask(
+                new SequenceDuplicateReportTask(NearDuplicateIndex.DEFAULT_THRESHOLD));
+    }
+
+    /**
+     * Retrieves the most recently generated report of entries with duplicate sequences. Admin privileges required
+     *
+     * @param userId unique identifier for user performing action
+     * @return report or null if one has not been generated
+     * @throws PermissionException if the user does not have administrative privileges
+     */
+    public SequenceDuplicateReport getDuplicateReport(String userId) {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required to retrieve duplicate report");
+
+        return SequenceDuplicateReportTask.getLatestReport();
+    }
+
     /**
      * Update the {@link Sequence} in the database, with the option to rebuild the search index.
      *
@@ -113,15 +203,7 @@ public class SequenceController extends HasEntry {
         if (oldSequence == null) {
             result = dao.create(sequence);
         } else {
-            String tmpDir = new ConfigurationController().getPropertyValue(ConfigurationKey.TEMPORARY_DIRECTORY);
-            if (!StringUtils.isEmpty(tmpDir)) {
-                String hash = oldSequence.getFwdHash();
-                try {
-                    Files.deleteIfExists(Paths.get(tmpDir, hash + ".png"));
-                } catch (IOException e) {
-                    Logger.warn(e.getMessage());
-                }
-            }
+            new SBOLVisualCache().invalidate(entry.getId());
 
             oldSequence.setSequenceUser(sequence.getSequenceUser());
             oldSequence.setSequence(sequence.getSequence());
@@ -142,8 +224,8 @@ public class SequenceController extends HasEntry {
         if (sequence == null)
             return true;
 
-        String tmpDir = new ConfigurationController().getPropertyValue(ConfigurationKey.TEMPORARY_DIRECTORY);
-        dao.deleteSequence(sequence, tmpDir);
+        dao.deleteSequence(sequence);
+        new SBOLVisualCache().invalidate(entry.getId());
 //        BlastPlus.scheduleBlastIndexRebuildTask(true);  // todo : update is delete and save which is not right
         return true;
     }
@@ -455,8 +537,7 @@ public class SequenceController extends HasEntry {
 
                 case "pigeoni":
                     try {
-                        URI uri = PigeonSBOLv.generatePigeonVisual(sequence);
-                        byte[] bytes = IOUtils.toByteArray(uri.toURL().openStream());
+                        byte[] bytes = new SBOLVisualCache().getImageBytes(sequence, SBOLVisualCache.Format.PNG);
                         return new ByteArrayWrapper(bytes, entry.getPartNumber() + ".png");
                     } catch (Exception e) {
                         Logger.error(e);
@@ -0,0 +1,66 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicate;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicateReport;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.model.Entry;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Background task for generating a report of the clusters of entries across the registry with the same or nearly
+ * the same sequence (see {@link NearDuplicateIndex}). Only the most recent report is kept
+ *
+ * @author Hector Plahar
+ */
+public class SequenceDuplicateReportTask extends Task {
+
+    private static volatile SequenceDuplicateReport latestReport;
+
+    private final double threshold;
+
+    public SequenceDuplicateReportTask(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return most recently generated report or null if one has not been generated
+     */
+    public static SequenceDuplicateReport getLatestReport() {
+        return latestReport;
+    }
+
+    @Override
+    public void execute() {
+        long start = System.currentTimeMillis();
+        NearDuplicateIndex index = NearDuplicateIndex.getInstance();
+        SequenceDuplicateReport report = new SequenceDuplicateReport();
+        report.setThreshold(threshold);
+        report.setSequenceCount(index.size());
+
+        for (List<Long> cluster : index.findClusters(threshold)) {
+            int[] first = index.getSketch(cluster.get(0));
+            ArrayList<SequenceDuplicate> duplicates = new ArrayList<>(cluster.size());
+            for (Long entryId : cluster) {
+                Entry entry = DAOFactory.getEntryDAO().get(entryId);
+                int[] sketch = index.getSketch(entryId);
+                if (entry == null || sketch == null || first == null)
+                    continue;
+
+                duplicates.add(new SequenceDuplicate(entry.getId(), entry.getPartNumber(), entry.getName(),
+                        entry.getRecordType(), entry.getOwnerEmail(), SequenceSketch.similarity(first, sketch)));
+            }
+            if (duplicates.size() > 1)
+                report.getClusters().add(duplicates);
+        }
+
+        report.setCreationTime(new Date());
+        latestReport = report;
+        Logger.info("Found " + report.getClusters().size() + " clusters of duplicate sequences in "
+                + report.getSequenceCount() + " sequences in " + (System.currentTimeMillis() - start) + "ms");
+    }
+}
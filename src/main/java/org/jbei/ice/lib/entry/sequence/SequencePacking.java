@@ -0,0 +1,84 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.utils.Utils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the <code>PACK_SEQUENCES</code> setting so that saving a sequence does not have to look it up, and
+ * starts the migration of existing sequences to packed storage (see {@link PackSequencesTask}) when the setting is
+ * turned on. Only one migration runs at a time.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class SequencePacking {
+
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private volatile Boolean enabled;
+    private volatile boolean configured;
+
+    private SequencePacking() {
+    }
+
+    private static class SingletonHolder {
+        private static final SequencePacking INSTANCE = new SequencePacking();
+    }
+
+    public static SequencePacking getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * @return true if new and updated sequences are to be packed
+     */
+    public boolean isEnabled() {
+        Boolean value = enabled;
+        if (value == null) {
+            value = Utils.isConfigEnabled(ConfigurationKey.PACK_SEQUENCES);
+            enabled = value;
+        }
+        return value;
+    }
+
+    /**
+     * Reads the setting from the system configuration. Called on startup and when the setting changes.
+     * Migration of existing sequences is started if the setting is turned on (or is on at startup)
+     */
+    public void configure() {
+        boolean value = Utils.isConfigEnabled(ConfigurationKey.PACK_SEQUENCES);
+        boolean previous = configured && enabled != null && enabled;
+        enabled = value;
+        configured = true;
+        if (value && !previous)
+            startMigration();
+    }
+
+    /**
+     * Starts the migration of existing sequences unless one is already running
+     *
+     * @return true if the migration was started
+     */
+    public boolean startMigration() {
+        if (!migrating.compareAndSet(false, true))
+            return false;
+
+        try {
+            IceExecutorService.getInstance().runTask(new PackSequencesTask());
+        } catch (RuntimeException e) {
+            migrating.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public boolean isMigrating() {
+        return migrating.get();
+    }
+
+    void migrationCompleted() {
+        migrating.set(false);
+    }
+}
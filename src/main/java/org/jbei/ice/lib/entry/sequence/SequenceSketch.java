@@ -0,0 +1,157 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MinHash sketch of the set of k-mers in a DNA sequence. The fraction of positions at which the sketches of two
+ * sequences are equal estimates the (Jaccard) similarity of their k-mer sets, which is used to find sequences that
+ * are the same or nearly the same without comparing them base by base.
+ * <p>
+ * K-mers are canonical (the smaller of the k-mer and its reverse complement) and the sequence is treated as
+ * circular (the k-mers spanning the end and start are included), so a sequence, its reverse complement and any
+ * rotation of it have the same sketch. For linear sequences the additional k-mers have a negligible effect on the
+ * similarity of sequences that are not very short. Characters other than A, C, G and T (e.g. N) are skipped along
+ * with the k-mers that contain them
+ *
+ * @author Hector Plahar
+ */
+public class SequenceSketch {
+
+    public static final int K = 16;
+    public static final int SIZE = 64;
+
+    private static final long K_MASK = (1L << (2 * K)) - 1;
+    private static final long[] SEEDS = new long[SIZE];
+
+    static {
+        // fixed seeds so that sketches stored in the database remain comparable
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SIZE; i += 1) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private SequenceSketch() {
+    }
+
+    /**
+     * Computes the sketch of a sequence
+     *
+     * @param sequence dna sequence
+     * @return sketch or null if the sequence does not contain any k-mers (it is shorter than {@link #K} bases)
+     */
+    public static int[] compute(String sequence) {
+        if (sequence == null)
+            return null;
+
+        int length = sequence.length();
+        if (length < K)
+            return null;
+
+        int[] sketch = new int[SIZE];
+        for (int i = 0; i < SIZE; i += 1)
+            sketch[i] = Integer.MAX_VALUE;
+
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;    // number of consecutive valid bases ending at the current position
+        boolean found = false;
+
+        // wrap around for the k-mers spanning the end and the start of the sequence
+        for (int i = 0; i < length + K - 1; i += 1) {
+            int code = encode(sequence.charAt(i % length));
+            if (code < 0) {
+                valid = 0;
+                continue;
+            }
+
+            forward = ((forward << 2) | code) & K_MASK;
+            reverse = (reverse >>> 2) | ((long) (3 - code) << (2 * (K - 1)));
+            valid += 1;
+            if (valid < K)
+                continue;
+
+            found = true;
+            long hash = mix(Math.min(forward, reverse));
+            for (int j = 0; j < SIZE; j += 1) {
+                long value = (hash ^ SEEDS[j]) * 0x9E3779B97F4A7C15L;
+                int minHash = (int) (value ^ (value >>> 32));
+                if (minHash < sketch[j])
+                    sketch[j] = minHash;
+            }
+        }
+
+        return found ? sketch : null;
+    }
+
+    /**
+     * @param first  sketch of first sequence
+     * @param second sketch of second sequence
+     * @return estimated similarity (between 0 and 1) of the sequences
+     */
+    public static double similarity(int[] first, int[] second) {
+        int same = 0;
+        for (int i = 0; i < SIZE; i += 1) {
+            if (first[i] == second[i])
+                same += 1;
+        }
+        return (double) same / SIZE;
+    }
+
+    /**
+     * @param sketch sketch to convert
+     * @return stored representation of the sketch. An empty array (for sequences that do not have a sketch)
+     * distinguishes these from sequences for which the sketch has not been computed
+     */
+    public static byte[] toBytes(int[] sketch) {
+        if (sketch == null)
+            return new byte[0];
+
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE * 4);
+        for (int value : sketch)
+            buffer.putInt(value);
+        return buffer.array();
+    }
+
+    /**
+     * @param bytes stored representation of a sketch
+     * @return sketch or null if there isn't one
+     */
+    public static int[] fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != SIZE * 4)
+            return null;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int[] sketch = new int[SIZE];
+        for (int i = 0; i < SIZE; i += 1)
+            sketch[i] = buffer.getInt();
+        return sketch;
+    }
+
+    private static int encode(char c) {
+        switch (c) {
+            case 'a':
+            case 'A':
+                return 0;
+            case 'c':
+            case 'C':
+                return 1;
+            case 'g':
+            case 'G':
+                return 2;
+            case 't':
+            case 'T':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    // finalizer from splitmix64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,37 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
+
+/**
+ * Background task for computing the stored base pair count, original sequence flag and sketch of sequences that
+ * were saved before these were maintained. Each batch is committed separately
+ *
+ * @author Hector Plahar
+ */
+public class SequenceSummaryTask extends Task {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Override
+    public void execute() {
+        SequenceDAO sequenceDAO = DAOFactory.getSequenceDAO();
+        long total = 0;
+        int count;
+
+        do {
+            count = sequenceDAO.updateSequenceSummaries(BATCH_SIZE);
+            total += count;
+            HibernateUtil.commitTransaction();
+            HibernateUtil.beginTransaction();
+        } while (count > 0);
+
+        if (total > 0) {
+            Logger.info("Updated summary for " + total + " sequence(s)");
+            NearDuplicateIndex.getInstance().invalidate();
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.parsers.bl2seq.Bl2SeqResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-process aligner for sequencing traces against a reference (entry) sequence. Replaces running
+ * <code>bl2seq</code>/<code>blastn</code> as an external process for each trace.
+ * <p>
+ * The reference is indexed once by its k-mers so that it can be used to align any number of traces (concurrently,
+ * since an aligner is not modified after it is created). For each strand of a trace, the k-mers shared with the
+ * reference are used to find the diagonal with the most seed hits, and a Smith-Waterman local alignment with
+ * affine gap penalties (using the <code>blastn</code> defaults) is computed in a band around that diagonal.
+ * The alignment with the highest score across both strands is returned in the same form as the
+ * <code>bl2seq</code> output, i.e. 1-based coordinates with the subject coordinates reversed for alignments on the
+ * minus strand and the aligned subject sequence reverse complemented.
+ * <p>
+ * Working memory for the alignment matrices is kept per thread and re-used between alignments
+ *
+ * @author Hector Plahar
+ */
+public class TraceAligner {
+
+    // blastn (task) default scoring
+    private static final int MATCH = 2;
+    private static final int MISMATCH = -3;
+    private static final int GAP_OPEN = 5 + 2;     // cost of first gap position (open + extend)
+    private static final int GAP_EXTEND = 2;
+
+    private static final int K = 11;
+    private static final int K_MASK = (1 << (2 * K)) - 1;
+    private static final int MAX_HITS_PER_KMER = 32;   // ignore repetitive k-mers
+    private static final int SEED_WINDOW = 32;          // width of diagonals grouped together when seeding
+    private static final int BAND = 64;                 // half width of band around seed diagonal
+    private static final int MIN_SCORE = 30;
+
+    private static final int NEG = Integer.MIN_VALUE / 2;
+    private static final byte UNKNOWN = 4;
+
+    // traceback flags
+    private static final byte FROM_NONE = 0;
+    private static final byte FROM_DIAGONAL = 1;
+    private static final byte FROM_LEFT = 2;
+    private static final byte FROM_UP = 3;
+    private static final byte SOURCE_MASK = 3;
+    private static final byte EXTEND_LEFT = 4;
+    private static final byte EXTEND_UP = 8;
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private final String reference;
+    private final byte[] encodedReference;
+    private final long[] index;             // (k-mer << 32 | position) sorted
+
+    /**
+     * @param reference reference sequence that traces are aligned to. For circular sequences, the caller is
+     *                  expected to pass the sequence concatenated with itself so that traces spanning the
+     *                  origin can be aligned
+     */
+    public TraceAligner(String reference) {
+        this.reference = reference == null ? "" : reference;
+        this.encodedReference = new byte[this.reference.length()];
+        for (int i = 0; i < encodedReference.length; i += 1)
+            encodedReference[i] = encode(this.reference.charAt(i));
+        this.index = buildIndex(encodedReference);
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    /**
+     * Aligns the specified trace sequence to the reference (the query, in <code>bl2seq</code> terms)
+     *
+     * @param trace trace sequence
+     * @return list containing the best alignment, or an empty list if the trace does not align to the reference
+     */
+    public List<Bl2SeqResult> align(String trace) {
+        if (trace == null || trace.length() < K || index.length == 0)
+            return Collections.emptyList();
+
+        Workspace workspace = WORKSPACE.get();
+        int length = trace.length();
+        workspace.ensureTraceCapacity(length);
+
+        // forward strand
+        byte[] encoded = workspace.encodedTrace;
+        for (int i = 0; i < length; i += 1)
+            encoded[i] = encode(trace.charAt(i));
+        Bl2SeqResult plus = alignStrand(workspace, trace, length, false);
+
+        // reverse complement
+        for (int i = 0; i < length; i += 1) {
+            byte value = encode(trace.charAt(length - 1 - i));
+            encoded[i] = value == UNKNOWN ? UNKNOWN : (byte) (3 - value);
+        }
+        Bl2SeqResult minus = alignStrand(workspace, trace, length, true);
+
+        Bl2SeqResult best = plus;
+        if (best == null || (minus != null && minus.getScore() > best.getScore()))
+            best = minus;
+
+        if (best == null)
+            return Collections.emptyList();
+
+        List<Bl2SeqResult> results = new ArrayList<>(1);
+        results.add(best);
+        return results;
+    }
+
+    private Bl2SeqResult alignStrand(Workspace workspace, String trace, int n, boolean reverse) {
+        int diagonal = findDiagonal(workspace, n);
+        if (diagonal == Integer.MIN_VALUE)
+            return null;
+
+        byte[] s = workspace.encodedTrace;
+        byte[] q = encodedReference;
+        int m = q.length;
+        int width = 2 * BAND + 1;
+        workspace.ensureMatrixCapacity(n, width);
+
+        int[] prevH = workspace.prevH;
+        int[] prevF = workspace.prevF;
+        int[] curH = workspace.curH;
+        int[] curF = workspace.curF;
+        byte[] traceback = workspace.traceback;
+
+        Arrays.fill(prevH, 0, width + 1, 0);
+        Arrays.fill(prevF, 0, width + 1, NEG);
+        curH[width] = 0;
+        curF[width] = NEG;
+
+        int bestScore = 0;
+        int bestJ = 0;
+        int bestI = 0;
+
+        // rows are trace positions (j), columns are reference positions (i); column i is at band offset
+        // k = i - (j + diagonal - BAND). The diagonal predecessor has the same offset in the previous row
+        for (int j = 1; j <= n; j += 1) {
+            int first = j + diagonal - BAND;
+            int row = (j - 1) * width;
+            byte sj = s[j - 1];
+            int hLeft = 0;
+            int e = NEG;
+
+            for (int k = 0; k < width; k += 1) {
+                int i = first + k;
+                if (i < 1 || i > m) {
+                    curH[k] = 0;
+                    curF[k] = NEG;
+                    hLeft = 0;
+                    e = NEG;
+                    continue;
+                }
+
+                byte flags = 0;
+
+                // gap in trace (consumes reference)
+                int open = hLeft - GAP_OPEN;
+                int extend = e - GAP_EXTEND;
+                if (extend > open) {
+                    e = extend;
+                    flags |= EXTEND_LEFT;
+                } else {
+                    e = open;
+                }
+
+                // gap in reference (consumes trace)
+                int f;
+                open = prevH[k + 1] - GAP_OPEN;
+                extend = prevF[k + 1] - GAP_EXTEND;
+                if (extend > open) {
+                    f = extend;
+                    flags |= EXTEND_UP;
+                } else {
+                    f = open;
+                }
+
+                byte qi = q[i - 1];
+                int h = prevH[k] + (qi == sj && qi != UNKNOWN ? MATCH : MISMATCH);
+                byte source = FROM_DIAGONAL;
+                if (e > h) {
+                    h = e;
+                    source = FROM_LEFT;
+                }
+                if (f > h) {
+                    h = f;
+                    source = FROM_UP;
+                }
+                if (h <= 0) {
+                    h = 0;
+                    source = FROM_NONE;
+                }
+
+                traceback[row + k] = (byte) (flags | source);
+                curH[k] = h;
+                curF[k] = f;
+                hLeft = h;
+
+                if (h > bestScore) {
+                    bestScore = h;
+                    bestJ = j;
+                    bestI = i;
+                }
+            }
+
+            int[] swap = prevH;
+            prevH = curH;
+            curH = swap;
+            swap = prevF;
+            prevF = curF;
+            curF = swap;
+        }
+
+        if (bestScore < MIN_SCORE)
+            return null;
+
+        return traceback(workspace, trace, n, reverse, diagonal, width, bestScore, bestJ, bestI);
+    }
+
+    private Bl2SeqResult traceback(Workspace workspace, String trace, int n, boolean reverse, int diagonal,
+                                   int width, int score, int j, int i) {
+        StringBuilder queryAlignment = workspace.queryAlignment;
+        StringBuilder subjectAlignment = workspace.subjectAlignment;
+        queryAlignment.setLength(0);
+        subjectAlignment.setLength(0);
+
+        int endJ = j;
+        int endI = i;
+        int startJ = j;
+        int startI = i;
+        byte state = FROM_DIAGONAL;       // currently in H
+
+        while (j >= 1 && i >= 1 && i <= encodedReference.length) {
+            int k = i - (j + diagonal - BAND);
+            if (k < 0 || k >= width)
+                break;
+
+            byte flags = workspace.traceback[(j - 1) * width + k];
+            if (state == FROM_DIAGONAL) {
+                byte source = (byte) (flags & SOURCE_MASK);
+                if (source == FROM_NONE)
+                    break;
+                if (source != FROM_DIAGONAL) {
+                    state = source;
+                    continue;
+                }
+
+                queryAlignment.append(reference.charAt(i - 1));
+                subjectAlignment.append(traceChar(trace, n, j, reverse));
+                startI = i;
+                startJ = j;
+                i -= 1;
+                j -= 1;
+            } else if (state == FROM_LEFT) {
+                queryAlignment.append(reference.charAt(i - 1));
+                subjectAlignment.append('-');
+                startI = i;
+                state = (flags & EXTEND_LEFT) != 0 ? FROM_LEFT : FROM_DIAGONAL;
+                i -= 1;
+            } else {
+                queryAlignment.append('-');
+                subjectAlignment.append(traceChar(trace, n, j, reverse));
+                startJ = j;
+                state = (flags & EXTEND_UP) != 0 ? FROM_UP : FROM_DIAGONAL;
+                j -= 1;
+            }
+        }
+
+        String query = queryAlignment.reverse().toString();
+        String subject = subjectAlignment.reverse().toString();
+        if (reverse)
+            return new Bl2SeqResult(score, startI, endI, query, n - startJ + 1, n - endJ + 1, subject, 1);
+        return new Bl2SeqResult(score, startI, endI, query, startJ, endJ, subject, 0);
+    }
+
+    // character at (1-based) position j of the strand being aligned
+    private static char traceChar(String trace, int n, int j, boolean reverse) {
+        if (!reverse)
+            return trace.charAt(j - 1);
+        return complement(trace.charAt(n - j));
+    }
+
+    /**
+     * Finds the diagonal (reference position - trace position) with the most k-mer hits within a window
+     *
+     * @return diagonal or <code>Integer.MIN_VALUE</code> if the trace shares no k-mers with the reference
+     */
+    private int findDiagonal(Workspace workspace, int n) {
+        byte[] s = workspace.encodedTrace;
+        int count = 0;
+        int kmer = 0;
+        int valid = 0;
+
+        for (int j = 0; j < n; j += 1) {
+            if (s[j] == UNKNOWN) {
+                valid = 0;
+                continue;
+            }
+
+            kmer = ((kmer << 2) | s[j]) & K_MASK;
+            valid += 1;
+            if (valid < K)
+                continue;
+
+            int position = j - K + 1;
+            int from = firstIndex(kmer);
+            if (from < 0)
+                continue;
+            int to = from;
+            while (to < index.length && (int) (index[to] >>> 32) == kmer)
+                to += 1;
+            if (to - from > MAX_HITS_PER_KMER)
+                continue;
+
+            for (int h = from; h < to; h += 1) {
+                count = workspace.addDiagonal(count, (int) index[h] - position);
+            }
+        }
+
+        if (count == 0)
+            return Integer.MIN_VALUE;
+
+        int[] diagonals = workspace.diagonals;
+        Arrays.sort(diagonals, 0, count);
+
+        int bestStart = 0;
+        int bestEnd = 0;
+        int start = 0;
+        for (int end = 0; end < count; end += 1) {
+            while (diagonals[end] - diagonals[start] > SEED_WINDOW)
+                start += 1;
+            if (end - start > bestEnd - bestStart) {
+                bestStart = start;
+                bestEnd = end;
+            }
+        }
+        return diagonals[(bestStart + bestEnd) >>> 1];
+    }
+
+    private int firstIndex(int kmer) {
+        long key = ((long) kmer) << 32;
+        int low = 0;
+        int high = index.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index[mid] < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        if (low < index.length && (int) (index[low] >>> 32) == kmer)
+            return low;
+        return -1;
+    }
+
+    private static long[] buildIndex(byte[] sequence) {
+        long[] entries = new long[Math.max(0, sequence.length - K + 1)];
+        int count = 0;
+        int kmer = 0;
+        int valid = 0;
+
+        for (int i = 0; i < sequence.length; i += 1) {
+            if (sequence[i] == UNKNOWN) {
+                valid = 0;
+                continue;
+            }
+
+            kmer = ((kmer << 2) | sequence[i]) & K_MASK;
+            valid += 1;
+            if (valid >= K)
+                entries[count++] = (((long) kmer) << 32) | (i - K + 1);
+        }
+
+        long[] index = count == entries.length ? entries : Arrays.copyOf(entries, count);
+        Arrays.sort(index);
+        return index;
+    }
+
+    private static byte encode(char c) {
+        switch (c) {
+            case 'a':
+            case 'A':
+                return 0;
+            case 'c':
+            case 'C':
+                return 1;
+            case 'g':
+            case 'G':
+                return 2;
+            case 't':
+            case 'T':
+                return 3;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private static char complement(char c) {
+        switch (c) {
+            case 'a':
+                return 't';
+            case 'A':
+                return 'T';
+            case 'c':
+                return 'g';
+            case 'C':
+                return 'G';
+            case 'g':
+                return 'c';
+            case 'G':
+                return 'C';
+            case 't':
+                return 'a';
+            case 'T':
+                return 'A';
+            case 'n':
+                return 'n';
+            default:
+                return 'N';
+        }
+    }
+
+    /**
+     * Per thread working memory; grown as needed and re-used for subsequent alignments
+     */
+    private static class Workspace {
+        private byte[] encodedTrace = new byte[0];
+        private int[] diagonals = new int[1024];
+        private int[] prevH = new int[0];
+        private int[] prevF = new int[0];
+        private int[] curH = new int[0];
+        private int[] curF = new int[0];
+        private byte[] traceback = new byte[0];
+        private final StringBuilder queryAlignment = new StringBuilder();
+        private final StringBuilder subjectAlignment = new StringBuilder();
+
+        void ensureTraceCapacity(int length) {
+            if (encodedTrace.length < length)
+                encodedTrace = new byte[length];
+        }
+
+        void ensureMatrixCapacity(int rows, int width) {
+            if (prevH.length < width + 1) {
+                prevH = new int[width + 1];
+                prevF = new int[width + 1];
+                curH = new int[width + 1];
+                curF = new int[width + 1];
+            }
+
+            long cells = (long) rows * width;
+            if (traceback.length < cells)
+                traceback = new byte[(int) cells];
+        }
+
+        int addDiagonal(int count, int diagonal) {
+            if (count == diagonals.length)
+                diagonals = Arrays.copyOf(diagonals, count * 2);
+            diagonals[count] = diagonal;
+            return count + 1;
+        }
+    }
+}
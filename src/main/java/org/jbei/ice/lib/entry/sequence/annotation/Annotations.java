@@ -3,7 +3,9 @@ package org.jbei.ice.lib.entry.sequence.annotation;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.AccountType;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.DNAFeature;
+import org.jbei.ice.lib.dto.DNAFeatureLocation;
 import org.jbei.ice.lib.dto.DNAFeatures;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.dto.common.Results;
@@ -11,6 +13,7 @@ import org.jbei.ice.lib.dto.search.BlastQuery;
 import org.jbei.ice.lib.executor.IceExecutorService;
 import org.jbei.ice.lib.search.blast.BlastException;
 import org.jbei.ice.lib.search.blast.BlastPlus;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.*;
 import org.jbei.ice.storage.model.*;
@@ -66,25 +69,38 @@ public class Annotations {
         Results<DNAFeatures> results = new Results<>();
         results.setResultCount(count);
 
-        Map<String, List<Feature>> map = this.featureDAO.getFeaturesGroupBy(offset, limit);
-
-        for (String key : map.keySet()) {
-            DNAFeatures features = new DNAFeatures(key);
-
-            for (Feature feature : map.get(key)) {
-                DNAFeature dnaFeature = feature.toDataTransferObject();
-                dnaFeature.setSequence(feature.getSequence());
-
-                List<Long> entries = this.sequenceFeatureDAO.getEntryIdsByFeature(feature);
-                if (entries != null)
-                    dnaFeature.getEntries().addAll(entries);
-                features.getFeatures().add(dnaFeature);
-            }
+        Map<String, List<DNAFeature>> map = this.featureDAO.getFeaturesGroupBy(offset, limit);
+        for (Map.Entry<String, List<DNAFeature>> entry : map.entrySet()) {
+            DNAFeatures features = new DNAFeatures(entry.getKey());
+            features.getFeatures().addAll(entry.getValue());
             results.getData().add(features);
         }
         return results;
     }
 
+    /**
+     * Retrieves a feature along with its sequence. Sequences are not included when retrieving the list of
+     * available annotations
+     *
+     * @param featureId unique identifier for feature
+     * @return feature with sequence, or null if no feature with the specified identifier exists
+     * @throws PermissionException if the requesting user's account does not have administrative privileges
+     */
+    public DNAFeature getFeature(long featureId) {
+        if (!isAdministrator())
+            throw new PermissionException("Administrative privileges required to retrieve features");
+
+        Feature feature = this.featureDAO.get(featureId);
+        if (feature == null)
+            return null;
+
+        DNAFeature dnaFeature = feature.toDataTransferObject();
+        dnaFeature.setSequence(feature.getSequence());
+        if (feature.getSequence() != null)
+            dnaFeature.setSequenceLength(feature.getSequence().length());
+        return dnaFeature;
+    }
+
     /**
      * Auto generate annotations for specified entry
      *
@@ -102,11 +118,9 @@ public class Annotations {
             return null;
 
         String sequenceString = sequence.getSequence();
-        BlastQuery query = new BlastQuery();
-        query.setSequence(sequenceString);
 
         try {
-            List<DNAFeature> features = BlastPlus.runCheckFeatures(query);
+            List<DNAFeature> features = findFeatures(sequenceString);
             FeaturedDNASequence dnaSequence = new FeaturedDNASequence();
 
             // check permissions
@@ -153,11 +167,8 @@ public class Annotations {
      * @return wrapper around passed sequence and now with list if annotations for that sequence
      */
     public FeaturedDNASequence generate(FeaturedDNASequence sequence) {
-        BlastQuery query = new BlastQuery();
-        query.setSequence(sequence.getSequence());
-
         try {
-            List<DNAFeature> features = BlastPlus.runCheckFeatures(query);
+            List<DNAFeature> features = findFeatures(sequence.getSequence());
             sequence.getFeatures().addAll(features);
             return sequence;
         } catch (BlastException e) {
@@ -167,7 +178,47 @@ public class Annotations {
     }
 
     /**
-     * Rebuild the annotations blast database
+     * Finds the existing features that occur in the specified sequence using the in-memory feature index.
+     * Blast is used instead if the index has not been built yet, and in addition to the index (for any matches
+     * that the index does not find) if enabled in the configuration
+     *
+     * @param sequence dna sequence
+     * @return list of matching features
+     * @throws BlastException on exception running blast
+     */
+    protected List<DNAFeature> findFeatures(String sequence) throws BlastException {
+        FeatureMatcher matcher = FeatureMatcher.getInstance();
+        boolean runBlast = !matcher.isBuilt()
+                || Utils.isConfigEnabled(ConfigurationKey.AUTO_ANNOTATION_BLAST);
+        if (!runBlast)
+            return matcher.match(sequence);
+
+        BlastQuery query = new BlastQuery();
+        query.setSequence(sequence);
+        List<DNAFeature> blastFeatures = BlastPlus.runCheckFeatures(query);
+        if (!matcher.isBuilt())
+            return blastFeatures;
+
+        // merge; keeping matches found by the index
+        List<DNAFeature> features = matcher.match(sequence);
+        Set<String> found = new HashSet<>();
+        for (DNAFeature feature : features)
+            found.add(matchKey(feature));
+        for (DNAFeature feature : blastFeatures) {
+            if (found.add(matchKey(feature)))
+                features.add(feature);
+        }
+        return features;
+    }
+
+    private static String matchKey(DNAFeature feature) {
+        DNAFeatureLocation location = feature.getLocations().get(0);
+        return feature.getId() + ":" + location.getGenbankStart() + ":" + location.getEnd() + ":"
+                + feature.getStrand();
+    }
+
+    /**
+     * Rebuild the annotations blast database and the in-memory feature index
      *
      * @throws PermissionException if the specified user does not have administrator privileges
      */
@@ -177,6 +228,7 @@ public class Annotations {
 
         AutoAnnotationBlastDbBuildTask autoAnnotationBlastDbBuildTask = new AutoAnnotationBlastDbBuildTask(true);
         IceExecutorService.getInstance().runTask(autoAnnotationBlastDbBuildTask);
+        IceExecutorService.getInstance().runTask(new FeatureMatcherBuildTask());
     }
 
     protected boolean isAdministrator() {
@@ -219,6 +271,7 @@ public class Annotations {
             if (curationModel != null) {
                 feature.setCuration(curationModel);
                 featureDAO.update(feature);
+                FeatureMatcher.getInstance().featureCurated(feature);
             }
         }
     }
@@ -0,0 +1,396 @@
+package org.jbei.ice.lib.entry.sequence.annotation;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.DNAFeature;
+import org.jbei.ice.lib.dto.DNAFeatureLocation;
+import org.jbei.ice.lib.utils.SequenceUtils;
+import org.jbei.ice.lib.utils.UtilityException;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.FeatureDAO;
+import org.jbei.ice.storage.hibernate.dao.SequenceFeatureDAO;
+import org.jbei.ice.storage.model.Feature;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the features used for auto annotation (named features that have not been excluded by
+ * curation) that finds the features occurring in a sequence without running blast. The features are those
+ * written to the auto annotation blast database: each feature is indexed on the strands it has been annotated on
+ * (its reverse complement for the minus strand) and only exact matches of the entire feature are found.
+ * <p>
+ * Each feature is indexed by the first k-mer in its sequence; a sequence is matched by looking up each of its
+ * k-mers and comparing the candidate features at the corresponding position. Features shorter than the k-mer
+ * length are not indexed (they are also too short for blast to report).
+ * <p>
+ * The index is built on startup (see {@link FeatureMatcherBuildTask}) and kept current as features are created
+ * and curated (once the transactions that change them commit). Changes that commit while the index is being
+ * (re-)built are applied again once it has been built, since the build may have read the features before the change.
+ * Until it is built, callers are expected to fall back to blast.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class FeatureMatcher {
+
+    private static final int K = 12;
+    private static final int K_MASK = (1 << (2 * K)) - 1;
+    private static final int BATCH_SIZE = 500;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<Integer, List<Pattern>> anchors = new HashMap<>();
+    private final HashMap<Long, List<Pattern>> features = new HashMap<>();
+    private final Object buildMonitor = new Object();
+    private List<Runnable> changedDuringBuild;     // guarded by write lock
+    private volatile boolean built;
+
+    private FeatureMatcher() {
+    }
+
+    private static class SingletonHolder {
+        private static final FeatureMatcher INSTANCE = new FeatureMatcher();
+    }
+
+    public static FeatureMatcher getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Loads all the auto annotation features from the database, replacing any that are currently indexed.
+     * Builds are run one at a time
+     */
+    public void build() {
+        synchronized (buildMonitor) {
+            lock.writeLock().lock();
+            try {
+                changedDuringBuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            try {
+                load();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changedDuringBuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void load() {
+        FeatureDAO featureDAO = DAOFactory.getFeatureDAO();
+        SequenceFeatureDAO sequenceFeatureDAO = DAOFactory.getSequenceFeatureDAO();
+        long start = System.currentTimeMillis();
+
+        HashMap<Integer, List<Pattern>> builtAnchors = new HashMap<>();
+        HashMap<Long, List<Pattern>> builtFeatures = new HashMap<>();
+        long afterId = 0;
+        List<DNAFeature> batch;
+
+        do {
+            batch = featureDAO.getAnnotationFeatures(afterId, BATCH_SIZE);
+            if (batch.isEmpty())
+                break;
+
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (DNAFeature feature : batch)
+                ids.add(feature.getId());
+            Map<Long, Set<Integer>> strands = sequenceFeatureDAO.getFeatureStrands(ids);
+
+            for (DNAFeature feature : batch) {
+                Set<Integer> featureStrands = strands.get(feature.getId());
+                for (Pattern pattern : createPatterns(feature.getId(), feature.getName(), feature.getType(),
+                        feature.getSequence(), featureStrands)) {
+                    add(builtAnchors, builtFeatures, pattern);
+                }
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            anchors.clear();
+            anchors.putAll(builtAnchors);
+            features.clear();
+            features.putAll(builtFeatures);
+
+            // the build may have read features before these changes committed
+            for (Runnable update : changedDuringBuild)
+                update.run();
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Logger.info("Built auto annotation feature index (" + builtFeatures.size() + " features) in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Adds the specified strand of a (created or newly used) feature to the index once the current transaction
+     * commits, if the feature is used for auto annotation and that strand is not already indexed
+     *
+     * @param feature feature
+     * @param strand  strand the feature has been annotated on
+     */
+    public void featureAdded(Feature feature, int strand) {
+        if (!isAnnotationFeature(feature))
+            return;
+
+        long featureId = feature.getId();
+        int indexStrand = strand == -1 ? -1 : 1;
+        List<Pattern> patterns = createPatterns(featureId, feature.getName(), feature.getGenbankType(),
+                feature.getSequence(), Collections.singleton(indexStrand));
+        if (!patterns.isEmpty())
+            HibernateUtil.afterCommit(() -> addStrand(featureId, indexStrand, patterns));
+    }
+
+    /**
+     * Updates the index once the current transaction commits after a feature's curation has changed: excluded
+     * features are removed and included features are (re-)added on all the strands that they have been annotated on
+     *
+     * @param feature curated feature
+     */
+    public void featureCurated(Feature feature) {
+        List<Pattern> patterns = Collections.emptyList();
+        if (isAnnotationFeature(feature)) {
+            Set<Integer> strands = DAOFactory.getSequenceFeatureDAO()
+                    .getFeatureStrands(Collections.singletonList(feature.getId()))
+                    .get(feature.getId());
+            patterns = createPatterns(feature.getId(), feature.getName(), feature.getGenbankType(),
+                    feature.getSequence(), strands);
+        }
+
+        long featureId = feature.getId();
+        List<Pattern> curated = patterns;
+        HibernateUtil.afterCommit(() -> replace(featureId, curated));
+    }
+
+    private void addStrand(long featureId, int strand, List<Pattern> patterns) {
+        update(() -> {
+            List<Pattern> existing = features.get(featureId);
+            if (existing != null) {
+                for (Pattern pattern : existing) {
+                    if (pattern.strand == strand)
+                        return;
+                }
+            }
+
+            for (Pattern pattern : patterns)
+                add(anchors, features, pattern);
+        });
+    }
+
+    private void replace(long featureId, List<Pattern> patterns) {
+        update(() -> {
+            remove(featureId);
+            for (Pattern pattern : patterns)
+                add(anchors, features, pattern);
+        });
+    }
+
+    // applies an update (which can be applied more than once) and records it to be applied again after a build
+    // that is in progress
+    private void update(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+            if (changedDuringBuild != null)
+                changedDuringBuild.add(update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all occurrences of the indexed features in the specified sequence
+     *
+     * @param sequence dna sequence
+     * @return list of matching features, each with the location of the match and the strand. Features that occur
+     * more than once in the sequence are returned once per occurrence
+     */
+    public List<DNAFeature> match(String sequence) {
+        List<DNAFeature> results = new ArrayList<>();
+        if (sequence == null || sequence.length() < K)
+            return results;
+
+        String query = sequence.toLowerCase();
+        int kmer = 0;
+        int valid = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < query.length(); i += 1) {
+                int value = encode(query.charAt(i));
+                if (value < 0) {
+                    valid = 0;
+                    continue;
+                }
+
+                kmer = ((kmer << 2) | value) & K_MASK;
+                valid += 1;
+                if (valid < K)
+                    continue;
+
+                List<Pattern> candidates = anchors.get(kmer);
+                if (candidates == null)
+                    continue;
+
+                int anchorStart = i - K + 1;
+                for (Pattern pattern : candidates) {
+                    int start = anchorStart - pattern.anchorOffset;
+                    if (start < 0 || !query.startsWith(pattern.sequence, start))
+                        continue;
+
+                    DNAFeature dnaFeature = new DNAFeature();
+                    dnaFeature.setId(pattern.featureId);
+                    dnaFeature.setName(pattern.name);
+                    dnaFeature.setType(pattern.type);
+                    dnaFeature.setStrand(pattern.strand);
+                    DNAFeatureLocation location = new DNAFeatureLocation();
+                    location.setGenbankStart(start + 1);
+                    location.setEnd(start + pattern.sequence.length());
+                    dnaFeature.getLocations().add(location);
+                    results.add(dnaFeature);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return features.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isAnnotationFeature(Feature feature) {
+        if (feature == null || feature.getName() == null || feature.getName().trim().isEmpty())
+            return false;
+        return feature.getCuration() == null || !feature.getCuration().isExclude();
+    }
+
+    // patterns for the strands; features that are not annotated on any strand are indexed on the positive strand
+    private static List<Pattern> createPatterns(long id, String name, String type, String sequence,
+                                                Set<Integer> strands) {
+        List<Pattern> patterns = new ArrayList<>(2);
+        if (sequence == null)
+            return patterns;
+
+        String sequenceString = sequence.trim().toLowerCase();
+        boolean negative = strands != null && strands.contains(-1);
+        boolean positive = strands == null || strands.contains(1) || !negative;
+
+        if (negative) {
+            try {
+                String reverse = SequenceUtils.reverseComplement(sequenceString).toLowerCase();
+                Pattern pattern = Pattern.create(id, name, type, -1, reverse);
+                if (pattern != null)
+                    patterns.add(pattern);
+            } catch (UtilityException e) {
+                Logger.warn("Could not reverse complement feature " + id + ": " + e.getMessage());
+            }
+        }
+
+        if (positive) {
+            Pattern pattern = Pattern.create(id, name, type, 1, sequenceString);
+            if (pattern != null)
+                patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    private static void add(Map<Integer, List<Pattern>> anchors, Map<Long, List<Pattern>> features,
+                            Pattern pattern) {
+        anchors.computeIfAbsent(pattern.anchor, k -> new ArrayList<>(1)).add(pattern);
+        features.computeIfAbsent(pattern.featureId, k -> new ArrayList<>(2)).add(pattern);
+    }
+
+    // expects write lock to be held
+    private void remove(long featureId) {
+        List<Pattern> patterns = features.remove(featureId);
+        if (patterns == null)
+            return;
+
+        for (Pattern pattern : patterns) {
+            List<Pattern> list = anchors.get(pattern.anchor);
+            if (list == null)
+                continue;
+            list.remove(pattern);
+            if (list.isEmpty())
+                anchors.remove(pattern.anchor);
+        }
+    }
+
+    private static int encode(char c) {
+        switch (c) {
+            case 'a':
+                return 0;
+            case 'c':
+                return 1;
+            case 'g':
+                return 2;
+            case 't':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * A strand of an indexed feature. Anchored on the first k-mer of the sequence that has no ambiguous bases
+     */
+    private static class Pattern {
+        private final long featureId;
+        private final String name;
+        private final String type;
+        private final int strand;
+        private final String sequence;
+        private final int anchor;
+        private final int anchorOffset;
+
+        private Pattern(long featureId, String name, String type, int strand, String sequence, int anchor,
+                        int anchorOffset) {
+            this.featureId = featureId;
+            this.name = name;
+            this.type = type;
+            this.strand = strand;
+            this.sequence = sequence;
+            this.anchor = anchor;
+            this.anchorOffset = anchorOffset;
+        }
+
+        static Pattern create(long featureId, String name, String type, int strand, String sequence) {
+            int kmer = 0;
+            int valid = 0;
+            for (int i = 0; i < sequence.length(); i += 1) {
+                int value = encode(sequence.charAt(i));
+                if (value < 0) {
+                    valid = 0;
+                    continue;
+                }
+
+                kmer = ((kmer << 2) | value) & K_MASK;
+                valid += 1;
+                if (valid == K)
+                    return new Pattern(featureId, name, type, strand, sequence, kmer, i - K + 1);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.jbei.ice.lib.entry.sequence.annotation;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.Task;
+
+/**
+ * Task to build the in-memory auto annotation feature index
+ *
+ * @author Hector Plahar
+ */
+public class FeatureMatcherBuildTask extends Task {
+
+    @Override
+    public void execute() {
+        Logger.info("Building auto annotation feature index");
+        FeatureMatcher.getInstance().build();
+    }
+}
@@ -0,0 +1,126 @@
+package org.jbei.ice.lib.entry.sequence.composers.pigeon;
+
+import org.apache.commons.io.FileUtils;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.storage.model.Sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Disk cache for SBOL Visual images rendered by {@link SBOLVisualRenderer}. Images are stored in a folder per
+ * entry (in the data directory) and named using a hash of the sequence and the pigeon script for its features, so
+ * an image is only rendered again when the sequence or its features change. The folder for an entry is removed when
+ * its sequence is updated or deleted. Sequences that are not associated with a (local) entry, e.g. those of
+ * remote entries, are rendered without caching
+ *
+ * @author Hector Plahar
+ */
+public class SBOLVisualCache {
+
+    public static final String FOLDER_NAME = "sbol-visual";
+
+    public enum Format {
+        PNG("png"),
+        SVG("svg");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final Path folder;
+
+    public SBOLVisualCache() {
+        this(Paths.get(Utils.getConfigValue(ConfigurationKey.DATA_DIRECTORY), FOLDER_NAME));
+    }
+
+    SBOLVisualCache(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Retrieves the cached image for the specified sequence, rendering and caching it if it does not exist
+     *
+     * @param sequence sequence (with features) of a local entry
+     * @param format   image format
+     * @return file containing the image
+     * @throws IOException              on exception rendering or writing the image
+     * @throws IllegalArgumentException if the sequence is not associated with an entry
+     */
+    public File getImage(Sequence sequence, Format format) throws IOException {
+        if (sequence.getEntry() == null || sequence.getEntry().getId() <= 0)
+            throw new IllegalArgumentException("Sequence is not associated with an entry");
+
+        String script = PigeonSBOLv.generatePigeonScript(sequence);
+        String hash = Utils.encryptSHA(sequence.getFwdHash() + "\n" + script);
+        Path entryFolder = folder.resolve(Long.toString(sequence.getEntry().getId()));
+        Path image = entryFolder.resolve(hash + "." + format.getExtension());
+        if (Files.exists(image))
+            return image.toFile();
+
+        byte[] bytes = render(script, format);
+
+        // write to a temporary file first so that concurrent requests never read a partial image
+        Files.createDirectories(entryFolder);
+        Path temp = Files.createTempFile(entryFolder, hash, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, image, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return image.toFile();
+    }
+
+    /**
+     * Retrieves the (cached) image for the specified sequence
+     *
+     * @param sequence sequence (with features)
+     * @param format   image format
+     * @return image bytes
+     * @throws IOException on exception rendering or reading the image
+     */
+    public byte[] getImageBytes(Sequence sequence, Format format) throws IOException {
+        if (sequence.getEntry() == null || sequence.getEntry().getId() <= 0)
+            return render(PigeonSBOLv.generatePigeonScript(sequence), format);
+        return Files.readAllBytes(getImage(sequence, format).toPath());
+    }
+
+    /**
+     * Removes all the cached images for the specified entry. Called when its sequence is updated or deleted
+     *
+     * @param entryId unique identifier for entry
+     */
+    public void invalidate(long entryId) {
+        File entryFolder = folder.resolve(Long.toString(entryId)).toFile();
+        if (!entryFolder.exists())
+            return;
+
+        try {
+            FileUtils.deleteDirectory(entryFolder);
+        } catch (IOException e) {
+            Logger.warn("Could not delete cached SBOL visuals for entry " + entryId + ": " + e.getMessage());
+        }
+    }
+
+    private static byte[] render(String script, Format format) throws IOException {
+        SBOLVisualRenderer renderer = SBOLVisualRenderer.parse(script);
+        if (format == Format.SVG)
+            return renderer.toSvg().getBytes(StandardCharsets.UTF_8);
+        return renderer.toPng();
+    }
+}
@@ -0,0 +1,317 @@
+package org.jbei.ice.lib.entry.sequence.composers.pigeon;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders SBOL Visual diagrams in-process from the pigeon script generated by
+ * {@link PigeonSBOLv#generatePigeonScript(org.jbei.ice.storage.model.Sequence)}, as either SVG or PNG.
+ * <p>
+ * Each line of the script before the <code># Arcs</code> section describes a glyph as
+ * <code>type name color [nl]</code>; the type is prefixed with <code>&lt;</code> for glyphs on the reverse strand,
+ * which are drawn rotated below the backbone. Glyphs are drawn in script order from left to right. Labels are not
+ * drawn (the generated scripts request no labels).
+ *
+ * @author Hector Plahar
+ */
+public class SBOLVisualRenderer {
+
+    private static final int GLYPH_WIDTH = 40;
+    private static final int MARGIN = 10;
+    private static final int HEIGHT = 90;
+    private static final int BASELINE = 45;
+    private static final float STROKE_WIDTH = 3f;
+
+    // pigeon color indices (1 based)
+    private static final Color[] COLORS = {
+            new Color(0xFF6666), new Color(0x000000), new Color(0xFFCC33), new Color(0x33AA33),
+            new Color(0x3399FF), new Color(0xCC0000), new Color(0xFF9900), new Color(0x6666FF),
+            new Color(0x9933CC), new Color(0xFF66CC), new Color(0x66CCCC), new Color(0x996633),
+            new Color(0x999999), new Color(0xCCCCCC)
+    };
+
+    private final List<Glyph> glyphs;
+
+    private SBOLVisualRenderer(List<Glyph> glyphs) {
+        this.glyphs = glyphs;
+    }
+
+    /**
+     * Parses a pigeon script
+     *
+     * @param pigeonScript script
+     * @return renderer for the glyphs in the script
+     */
+    public static SBOLVisualRenderer parse(String pigeonScript) {
+        List<Glyph> glyphs = new ArrayList<>();
+        if (pigeonScript == null)
+            return new SBOLVisualRenderer(glyphs);
+
+        for (String line : pigeonScript.split("\\r?\\n")) {
+            line = line.trim();
+            if (line.startsWith("# Arcs"))
+                break;
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            String[] split = line.split("\\s+");
+            String type = split[0];
+            boolean reverse = type.startsWith("<");
+            if (reverse)
+                type = type.substring(1);
+            if (type.isEmpty())
+                continue;
+
+            int color = 13;
+            if (split.length > 2) {
+                try {
+                    color = Integer.parseInt(split[2]);
+                } catch (NumberFormatException e) {
+                    // default color
+                }
+            }
+            glyphs.add(new Glyph(type.charAt(0), reverse, color));
+        }
+        return new SBOLVisualRenderer(glyphs);
+    }
+
+    public int getGlyphCount() {
+        return glyphs.size();
+    }
+
+    public int getWidth() {
+        return Math.max(1, glyphs.size()) * GLYPH_WIDTH + 2 * MARGIN;
+    }
+
+    public int getHeight() {
+        return HEIGHT;
+    }
+
+    /**
+     * @return diagram as an SVG document
+     */
+    public String toSvg() {
+        int width = getWidth();
+        StringBuilder svg = new StringBuilder();
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width).append("\" height=\"")
+                .append(HEIGHT).append("\" viewBox=\"0 0 ").append(width).append(' ').append(HEIGHT).append("\">\n");
+        svg.append("<rect width=\"100%\" height=\"100%\" fill=\"#ffffff\"/>\n");
+        svg.append("<line x1=\"").append(MARGIN / 2).append("\" y1=\"").append(BASELINE).append("\" x2=\"")
+                .append(width - MARGIN / 2).append("\" y2=\"").append(BASELINE)
+                .append("\" stroke=\"#000000\" stroke-width=\"").append(STROKE_WIDTH).append("\"/>\n");
+
+        for (int i = 0; i < glyphs.size(); i += 1) {
+            Glyph glyph = glyphs.get(i);
+            String color = toHex(glyph.getColor());
+            AffineTransform transform = glyph.transform(MARGIN + i * GLYPH_WIDTH);
+            for (Part part : glyph.parts()) {
+                svg.append("<path d=\"").append(toPath(part.shape, transform)).append("\" ");
+                if (part.fill)
+                    svg.append("fill=\"").append(color).append("\" stroke=\"").append(color).append("\"");
+                else
+                    svg.append("fill=\"none\" stroke=\"").append(color).append("\"");
+                svg.append(" stroke-width=\"").append(STROKE_WIDTH).append("\" stroke-linejoin=\"round\"/>\n");
+            }
+        }
+
+        svg.append("</svg>\n");
+        return svg.toString();
+    }
+
+    /**
+     * @return diagram as a PNG image
+     * @throws IOException on exception encoding the image
+     */
+    public byte[] toPng() throws IOException {
+        int width = getWidth();
+        BufferedImage image = new BufferedImage(width, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, HEIGHT);
+            graphics.setStroke(new BasicStroke(STROKE_WIDTH, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND));
+            graphics.setColor(Color.BLACK);
+            graphics.draw(new Line2D.Double(MARGIN / 2, BASELINE, width - MARGIN / 2, BASELINE));
+
+            for (int i = 0; i < glyphs.size(); i += 1) {
+                Glyph glyph = glyphs.get(i);
+                AffineTransform transform = glyph.transform(MARGIN + i * GLYPH_WIDTH);
+                graphics.setColor(glyph.getColor());
+                for (Part part : glyph.parts()) {
+                    Shape shape = transform.createTransformedShape(part.shape);
+                    if (part.fill)
+                        graphics.fill(shape);
+                    graphics.draw(shape);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String toHex(Color color) {
+        return String.format("#%06x", color.getRGB() & 0xFFFFFF);
+    }
+
+    private static String toPath(Shape shape, AffineTransform transform) {
+        StringBuilder path = new StringBuilder();
+        double[] coords = new double[6];
+        PathIterator iterator = shape.getPathIterator(transform);
+        while (!iterator.isDone()) {
+            switch (iterator.currentSegment(coords)) {
+                case PathIterator.SEG_MOVETO:
+                    path.append('M').append(points(coords, 1));
+                    break;
+                case PathIterator.SEG_LINETO:
+                    path.append('L').append(points(coords, 1));
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    path.append('Q').append(points(coords, 2));
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    path.append('C').append(points(coords, 3));
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    path.append('Z');
+                    break;
+            }
+            iterator.next();
+        }
+        return path.toString();
+    }
+
+    private static String points(double[] coords, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count * 2; i += 1) {
+            if (i > 0)
+                builder.append(' ');
+            builder.append(String.format(Locale.ROOT, "%.1f", coords[i]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Part of a glyph. Shapes are defined for a glyph at x = 0 on the forward strand
+     */
+    private static class Part {
+        private final Shape shape;
+        private final boolean fill;
+
+        Part(Shape shape, boolean fill) {
+            this.shape = shape;
+            this.fill = fill;
+        }
+    }
+
+    private static class Glyph {
+        private final char type;
+        private final boolean reverse;
+        private final int color;
+
+        Glyph(char type, boolean reverse, int color) {
+            this.type = type;
+            this.reverse = reverse;
+            this.color = color;
+        }
+
+        Color getColor() {
+            if (color < 1 || color > COLORS.length)
+                return COLORS[12];
+            return COLORS[color - 1];
+        }
+
+        // reverse strand glyphs are rotated about the center of the glyph on the backbone
+        AffineTransform transform(int x) {
+            AffineTransform transform = AffineTransform.getTranslateInstance(x, 0);
+            if (reverse)
+                transform.rotate(Math.PI, GLYPH_WIDTH / 2.0, BASELINE);
+            return transform;
+        }
+
+        List<Part> parts() {
+            List<Part> parts = new ArrayList<>(2);
+            double w = GLYPH_WIDTH;
+            double b = BASELINE;
+
+            switch (type) {
+                case 'p':   // promoter: bent arrow
+                    Path2D.Double stem = new Path2D.Double();
+                    stem.moveTo(8, b);
+                    stem.lineTo(8, b - 25);
+                    stem.lineTo(w - 12, b - 25);
+                    parts.add(new Part(stem, false));
+                    Path2D.Double head = new Path2D.Double();
+                    head.moveTo(w - 12, b - 32);
+                    head.lineTo(w - 4, b - 25);
+                    head.lineTo(w - 12, b - 18);
+                    head.closePath();
+                    parts.add(new Part(head, true));
+                    break;
+
+                case 'c':   // cds: block arrow
+                    Path2D.Double cds = new Path2D.Double();
+                    cds.moveTo(3, b - 12);
+                    cds.lineTo(w - 14, b - 12);
+                    cds.lineTo(w - 3, b);
+                    cds.lineTo(w - 14, b + 12);
+                    cds.lineTo(3, b + 12);
+                    cds.closePath();
+                    parts.add(new Part(cds, true));
+                    break;
+
+                case 'r':   // ribosome binding site: half circle
+                    parts.add(new Part(new Arc2D.Double(6, b - 14, w - 12, 28, 0, 180, Arc2D.CHORD), true));
+                    break;
+
+                case 't':   // terminator
+                    Path2D.Double terminator = new Path2D.Double();
+                    terminator.moveTo(w / 2, b);
+                    terminator.lineTo(w / 2, b - 24);
+                    terminator.moveTo(8, b - 24);
+                    terminator.lineTo(w - 8, b - 24);
+                    parts.add(new Part(terminator, false));
+                    break;
+
+                case 'o':   // origin of replication
+                case 'z':
+                    parts.add(new Part(new Ellipse2D.Double(w / 2 - 10, b - 10, 20, 20), type == 'z'));
+                    break;
+
+                case 'x':   // restriction site
+                    Path2D.Double site = new Path2D.Double();
+                    site.moveTo(w / 2 - 7, b - 7);
+                    site.lineTo(w / 2 + 7, b + 7);
+                    site.moveTo(w / 2 + 7, b - 7);
+                    site.lineTo(w / 2 - 7, b + 7);
+                    parts.add(new Part(site, false));
+                    break;
+
+                case '|':   // insulator / scar
+                    parts.add(new Part(new Line2D.Double(w / 2, b - 15, w / 2, b + 15), false));
+                    break;
+
+                case 's':   // spacer
+                    parts.add(new Part(new Ellipse2D.Double(w / 2 - 10, b - 10, 20, 20), false));
+                    parts.add(new Part(new Line2D.Double(w / 2 - 7, b + 7, w / 2 + 7, b - 7), false));
+                    break;
+
+                default:    // user defined
+                    parts.add(new Part(new Rectangle2D.Double(5, b - 12, w - 10, 24), true));
+                    break;
+            }
+            return parts;
+        }
+    }
+}
@@ -9,12 +9,12 @@ import org.jbei.ice.lib.entry.EntrySelection;
 import org.jbei.ice.lib.net.RemoteTransfer;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Folder;
 
 import java.util.List;
 
 /**
- * Task for transferring parts to a another registry
+ * Task for transferring parts to a another registry. Can also be used to resume
+ * a previously started transfer that was interrupted
  *
  * @author Hector Plahar
  */
@@ -23,6 +23,7 @@ public class TransferTask extends Task {
     private final String userId;
     private final long remoteId;
     private final EntrySelection entrySelection;
+    private long transferId;
 
     public TransferTask(String userId, long remoteId, EntrySelection entrySelection) {
         this.userId = userId;
@@ -30,26 +31,43 @@ public class TransferTask extends Task {
         this.entrySelection = entrySelection;
     }
 
+    /**
+     * Resumes the transfer with the specified identifier. Only entries that have not already been transferred
+     * are sent
+     *
+     * @param transferId unique identifier for transfer
+     */
+    public TransferTask(long transferId) {
+        this.userId = null;
+        this.remoteId = 0;
+        this.entrySelection = null;
+        this.transferId = transferId;
+    }
+
     public void execute() {
         RemoteTransfer transfer = new RemoteTransfer();
-        Account account = DAOFactory.getAccountDAO().getByEmail(userId);
-        if (account.getType() != AccountType.ADMIN)
-            return;
-
-        Entries retriever = new Entries(account.getEmail());
-        List<Long> entries = retriever.getEntriesFromSelectionContext(entrySelection);
-        Logger.info(userId + ": requesting transfer to " + remoteId);
-        List<PartData> dataList = transfer.getPartsForTransfer(entries);
-        List<Long> remoteIds = transfer.transferEntries(remoteId, dataList);
-
-        // check folder
-        if (StringUtils.isEmpty(this.entrySelection.getFolderId()))
-            return;
-
-        // create remoteFolder
-        long folderId = Long.decode(this.entrySelection.getFolderId());
-        Folder folder = DAOFactory.getFolderDAO().get(folderId);
-        Logger.info("Adding " + remoteIds.size() + " transferred entries to remote folder");
-        transfer.transferFolder(remoteId, folder.toDataTransferObject(), remoteIds);
+
+        if (entrySelection != null) {
+            Account account = DAOFactory.getAccountDAO().getByEmail(userId);
+            if (account.getType() != AccountType.ADMIN)
+                return;
+
+            Entries retriever = new Entries(account.getEmail());
+            List<Long> entries = retriever.getEntriesFromSelectionContext(entrySelection);
+            Logger.info(userId + ": requesting transfer to " + remoteId);
+            List<PartData> dataList = transfer.getPartsForTransfer(entries);
+
+            Long folderId = null;
+            if (!StringUtils.isEmpty(this.entrySelection.getFolderId()))
+                folderId = Long.decode(this.entrySelection.getFolderId());
+            transferId = transfer.createTransfer(userId, remoteId, dataList, folderId).getId();
+        } else {
+            Logger.info("Resuming transfer " + transferId);
+        }
+
+        // commits the transfer (so the entries can be sent in separate transactions) and starts a new session
+        // to pick up the state recorded while transferring
+        transfer.runTransfer(transferId);
+        transfer.completeTransfer(transferId);
     }
 }
@@ -24,6 +24,7 @@ import org.jbei.ice.lib.net.RemoteContact;
 import org.jbei.ice.lib.net.RemoteTransfer;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
+import org.jbei.ice.storage.hibernate.PageCursor;
 import org.jbei.ice.storage.hibernate.dao.FolderDAO;
 import org.jbei.ice.storage.hibernate.dao.PermissionDAO;
 import org.jbei.ice.storage.hibernate.dao.RemoteAccessModelDAO;
@@ -278,11 +279,16 @@ public class FolderContents {
             details.setOwner(owner.toDataTransferObject());
 
         // retrieve folder contents
-        List<Entry> results = folderDAO.retrieveFolderContents(folderId, pageParameters, visibleOnly);
-        for (Entry entry : results) {
-            PartData info = ModelToInfoFactory.createTableViewData(userId, entry, false);
-            details.getEntries().add(info);
+        List<Long> results;
+        if (pageParameters.getCursor() != null) {
+            PageCursor cursor = PageCursor.parse(pageParameters.getCursor(), pageParameters.getSortField(),
+                    pageParameters.isAscending());
+            results = folderDAO.retrieveFolderContentIds(folderId, pageParameters, cursor, visibleOnly);
+            details.setNextCursor(cursor.getNext());
+        } else {
+            results = folderDAO.retrieveFolderContentIds(folderId, pageParameters, visibleOnly);
         }
+        details.getEntries().addAll(ModelToInfoFactory.createTableViewData(userId, results, false, false));
         return details;
     }
 
@@ -371,9 +377,8 @@ public class FolderContents {
         details.setCount(folderSize);
 
         // retrieve folder contents
-        List<Entry> results = folderDAO.retrieveFolderContents(folderId, pageParameters, true);
-        for (Entry entry : results) {
-            PartData info = ModelToInfoFactory.createTableViewData(null, entry, false);
+        List<Long> results = folderDAO.retrieveFolderContentIds(folderId, pageParameters, true);
+        for (PartData info : ModelToInfoFactory.createTableViewData(null, results, false, false)) {
             info.setCanEdit(canEdit);
             details.getEntries().add(info);
         }
@@ -21,7 +21,6 @@ import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.hibernate.dao.FolderDAO;
 import org.jbei.ice.storage.hibernate.dao.PermissionDAO;
 import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Folder;
 import org.jbei.ice.storage.model.Group;
 
@@ -113,20 +112,15 @@ public class FolderController {
         groups.add(publicGroup);
 
         EntryDAO entryDAO = DAOFactory.getEntryDAO();
-        Set<Entry> results = entryDAO.retrieveVisibleEntries(null, groups, sort, asc, offset, limit, null);
+        List<Long> results = entryDAO.retrieveVisibleEntryIds(null, groups, sort, asc, offset, limit, null);
         long visibleCount = entryDAO.visibleEntryCount(null, groups, null);
 
         FolderDetails details = new FolderDetails();
         details.setCount(visibleCount);
 
-        for (Entry entry : results) {
-            try {
-                PartData info = ModelToInfoFactory.createTableViewData(null, entry, false);
-                info.setPublicRead(true);
-                details.getEntries().add(info);
-            } catch (Exception e) {
-                Logger.error(e);
-            }
+        for (PartData info : ModelToInfoFactory.createTableViewData(null, results, false, false)) {
+            info.setPublicRead(true);
+            details.getEntries().add(info);
         }
         return details;
     }
@@ -10,8 +10,8 @@ import org.jbei.ice.lib.entry.VisibleEntries;
 import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
+import org.jbei.ice.storage.hibernate.PageCursor;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
-import org.jbei.ice.storage.model.Entry;
 
 import java.util.List;
 
@@ -60,6 +60,35 @@ public class CollectionEntries {
      * of such entries that are available
      */
     public Results<PartData> getEntries(ColumnField field, boolean asc, int offset, int limit, String filter) {
+        return getEntries(field, asc, offset, limit, filter, null);
+    }
+
+    /**
+     * Retrieves parts (paged and sorted by the specified parameter values) based on the type of collection.
+     * If a cursor is specified, the personal and available collections are paged using the cursor instead of
+     * the offset and the token for the next page is returned with the results. Other collections ignore the
+     * cursor.
+     *
+     * @param field  sort field
+     * @param asc    sort order
+     * @param offset paging start
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text
+     * @param cursor optional continuation token returned with the previous page or <code>*</code> for the first
+     * @return wrapper around list of parts that conform to the parameters and the maximum number
+     * of such entries that are available
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public Results<PartData> getEntries(ColumnField field, boolean asc, int offset, int limit, String filter,
+                                        String cursor) {
+        if (cursor != null) {
+            if (this.type == CollectionType.PERSONAL)
+                return this.getPersonalEntries(PageCursor.parse(cursor, field, asc), limit, filter);
+
+            if (this.type == CollectionType.AVAILABLE)
+                return this.getAvailableEntries(PageCursor.parse(cursor, field, asc), limit, filter);
+        }
+
         switch (this.type) {
             case PERSONAL:
             default:
@@ -110,6 +139,18 @@ public class CollectionEntries {
         return results;
     }
 
+    // cursor paged version of getPersonalEntries()
+    protected Results<PartData> getPersonalEntries(PageCursor cursor, int limit, String filter) {
+        if (userId == null || userId.isEmpty())
+            throw new PermissionException("User id is required to retrieve owner entries");
+        OwnerEntries ownerEntries = new OwnerEntries(userId, userId);
+        Results<PartData> results = new Results<>();
+        results.setData(ownerEntries.retrieveOwnerEntries(cursor, limit, filter));
+        results.setResultCount(ownerEntries.getNumberOfOwnerEntries());
+        results.setNextCursor(cursor.getNext());
+        return results;
+    }
+
     /**
      * Retrieves entries available to user. "Availability" is determined by any permissions set on the entries
      *
@@ -132,6 +173,16 @@ public class CollectionEntries {
         return results;
     }
 
+    // cursor paged version of getAvailableEntries()
+    protected Results<PartData> getAvailableEntries(PageCursor cursor, int limit, String filter) {
+        VisibleEntries visibleEntries = new VisibleEntries(userId);
+        Results<PartData> results = new Results<>();
+        results.setData(visibleEntries.getEntries(cursor, limit, filter));
+        results.setResultCount(visibleEntries.getEntryCount(filter));
+        results.setNextCursor(cursor.getNext());
+        return results;
+    }
+
     /**
      * Retrieves entries shared with user.
      *
@@ -169,12 +220,9 @@ public class CollectionEntries {
      */
     protected Results<PartData> getEntriesByVisibility(Visibility visibility, ColumnField field, boolean asc,
                                                        int offset, int limit, String user, String filter) {
-        List<Entry> entries = entryDAO.getByVisibility(user, visibility, field, asc, offset, limit, filter);
+        List<Long> entries = entryDAO.getIdsByVisibility(user, visibility, field, asc, offset, limit, filter);
         Results<PartData> results = new Results<>();
-        for (Entry entry : entries) {
-            PartData info = ModelToInfoFactory.createTableViewData(userId, entry, false);
-            results.getData().add(info);
-        }
+        results.setData(ModelToInfoFactory.createTableViewData(userId, entries, false, false));
         results.setResultCount(entryDAO.getByVisibilityCount(user, visibility, filter));
         return results;
     }
@@ -1,6 +1,7 @@
 package org.jbei.ice.lib.manuscript;
 
 import org.jbei.ice.lib.dto.folder.FolderDetails;
+import org.jbei.ice.lib.executor.TaskStatus;
 import org.jbei.ice.storage.IDataTransferModel;
 
 /**
@@ -17,6 +18,8 @@ public class Manuscript implements IDataTransferModel {
     private ManuscriptStatus status;
     private long creationTime;
     private String zipFileName;
+    private TaskStatus zipStatus;
+    private int zipProgress;
 
     public long getId() {
         return id;
@@ -89,4 +92,20 @@ public class Manuscript implements IDataTransferModel {
     public void setZipFileName(String zipFileName) {
         this.zipFileName = zipFileName;
     }
+
+    public TaskStatus getZipStatus() {
+        return zipStatus;
+    }
+
+    public void setZipStatus(TaskStatus zipStatus) {
+        this.zipStatus = zipStatus;
+    }
+
+    public int getZipProgress() {
+        return zipProgress;
+    }
+
+    public void setZipProgress(int zipProgress) {
+        this.zipProgress = zipProgress;
+    }
 }
@@ -0,0 +1,95 @@
+package org.jbei.ice.lib.manuscript;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.entry.EntriesAsCSV;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Background task for generating the package (zip file containing the entries in csv format and their sequences)
+ * for a manuscript's folder. The package is written to its final location only once complete; any packages
+ * previously generated for the manuscript (for earlier versions of its contents) are then removed
+ *
+ * @author Hector Plahar
+ */
+public class ManuscriptPackageTask extends Task {
+
+    private final String userId;
+    private final List<Long> entryIds;
+    private final Path packagePath;
+    private final String[] formats;
+    private volatile EntriesAsCSV entriesAsCSV;
+
+    /**
+     * @param userId      identifier of user generating the package
+     * @param entryIds    unique identifiers of entries to include
+     * @param packagePath location of the package once generated
+     * @param formats     formats of sequences to include
+     */
+    public ManuscriptPackageTask(String userId, List<Long> entryIds, Path packagePath, String... formats) {
+        this.userId = userId;
+        this.entryIds = entryIds;
+        this.packagePath = packagePath;
+        this.formats = formats;
+    }
+
+    @Override
+    public void execute() {
+        long start = System.currentTimeMillis();
+        entriesAsCSV = new EntriesAsCSV(formats);
+        if (!entriesAsCSV.setEntries(userId, entryIds) || entriesAsCSV.getFilePath() == null
+                || !entriesAsCSV.getFilePath().toString().endsWith(".zip"))
+            throw new IllegalStateException("Could not generate package " + packagePath.getFileName());
+
+        Path generated = entriesAsCSV.getFilePath();
+        Path folder = packagePath.getParent();
+        try {
+            // copy to the package folder first (temporary directory may be on a different file system)
+            Files.createDirectories(folder);
+            Path temp = Files.createTempFile(folder, "package-", ".tmp");
+            try {
+                Files.copy(generated, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, packagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+                Files.deleteIfExists(generated);
+            }
+
+            // remove packages for previous versions
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*.zip")) {
+                for (Path path : stream) {
+                    if (!path.equals(packagePath))
+                        Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Logger.info("Generated manuscript package " + packagePath.getFileName() + " (" + entryIds.size()
+                + " entries) in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * @return percentage of the package generation that has been completed
+     */
+    public int getProgress() {
+        if (getStatus() == TaskStatus.COMPLETED)
+            return 100;
+
+        EntriesAsCSV current = entriesAsCSV;
+        if (current == null)
+            return 0;
+        return Math.min(99, current.getProgress());
+    }
+
+    public File getPackageFile() {
+        return packagePath.toFile();
+    }
+}
@@ -1,27 +1,45 @@
 package org.jbei.ice.lib.manuscript;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.AccountController;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.folder.FolderDetails;
 import org.jbei.ice.lib.dto.folder.FolderType;
-import org.jbei.ice.lib.entry.EntriesAsCSV;
+import org.jbei.ice.lib.dto.entry.SequenceSummary;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.TaskStatus;
 import org.jbei.ice.lib.folder.FolderPermissions;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.FolderDAO;
 import org.jbei.ice.storage.hibernate.dao.ManuscriptModelDAO;
 import org.jbei.ice.storage.model.Folder;
 import org.jbei.ice.storage.model.ManuscriptModel;
 
-import java.util.Date;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Hector Plahar
  */
 public class Manuscripts {
 
+    private static final String PACKAGE_FOLDER = "manuscripts";
+    private static final String[] PACKAGE_FORMATS = {"GENBANK", "SBOL2"};
+
+    // package generation tasks that are in progress (or whose status has not been retrieved) by manuscript/package
+    private static final ConcurrentMap<String, ManuscriptPackageTask> PACKAGE_TASKS = new ConcurrentHashMap<>();
+
     private final String userId;
     private final ManuscriptModelDAO dao;
     private final FolderDAO folderDAO;
@@ -40,6 +58,11 @@ public class Manuscripts {
             return false;
 
         this.dao.delete(manuscriptModel);
+        try {
+            FileUtils.deleteDirectory(getPackageFolder(id).toFile());
+        } catch (IOException e) {
+            Logger.warn("Could not delete packages for manuscript " + id + ": " + e.getMessage());
+        }
         return true;
     }
 
@@ -105,6 +128,16 @@ public class Manuscripts {
         return dao.update(model).toDataTransferObject();
     }
 
+    /**
+     * Retrieves the package (zip file containing the entries in the manuscript's folder and their sequences) for
+     * the specified manuscript. Packages are identified by a hash of the folder contents (including the last
+     * modification of each entry and its sequence) and reused until the contents change. If the package for the
+     * current contents does not exist, it is generated in the background; callers are expected to check on
+     * progress by calling this method again
+     *
+     * @param id unique identifier for manuscript
+     * @return manuscript with the name of the package file (once generated) and the generation status and progress
+     */
     public Manuscript generateZip(long id) {
         ManuscriptModel model = dao.get(id);
         if (model == null)
@@ -112,13 +145,87 @@ public class Manuscripts {
 
         // get folder
         List<Long> entryIds = this.folderDAO.getFolderContentIds(model.getFolder().getId(), null, true);
-        EntriesAsCSV entriesAsCSV = new EntriesAsCSV("GENBANK", "SBOL2");
-        entriesAsCSV.setEntries(this.userId, entryIds);
+        String packageId = getPackageId(entryIds);
+        Path packagePath = getPackageFolder(id).resolve(packageId + ".zip");
         Manuscript manuscript = model.toDataTransferObject();
-        manuscript.setZipFileName(entriesAsCSV.getFilePath().getFileName().toString());
+
+        String key = id + "/" + packageId;
+        ManuscriptPackageTask task = PACKAGE_TASKS.get(key);
+        if (Files.exists(packagePath)) {
+            if (task != null)
+                PACKAGE_TASKS.remove(key, task);
+            manuscript.setZipFileName(packagePath.getFileName().toString());
+            manuscript.setZipStatus(TaskStatus.COMPLETED);
+            manuscript.setZipProgress(100);
+            return manuscript;
+        }
+
+        if (task != null && (task.getStatus() == TaskStatus.EXCEPTION || task.getStatus() == TaskStatus.COMPLETED)) {
+            // failed (or package has since been removed); report once and generate again on the next request
+            PACKAGE_TASKS.remove(key, task);
+            if (task.getStatus() == TaskStatus.EXCEPTION) {
+                manuscript.setZipStatus(TaskStatus.EXCEPTION);
+                return manuscript;
+            }
+            task = null;
+        }
+
+        if (task == null) {
+            ManuscriptPackageTask created = new ManuscriptPackageTask(userId, entryIds, packagePath, PACKAGE_FORMATS);
+            task = PACKAGE_TASKS.putIfAbsent(key, created);
+            if (task == null) {
+                task = created;
+                IceExecutorService.getInstance().runTask(task);
+            }
+        }
+
+        manuscript.setZipStatus(task.getStatus());
+        manuscript.setZipProgress(task.getProgress());
         return manuscript;
     }
 
+    /**
+     * Retrieves a generated package for the specified manuscript
+     *
+     * @param id       unique identifier for manuscript
+     * @param fileName name of the package file, as returned by {@link #generateZip(long)}
+     * @return package file or null if the manuscript or package cannot be found
+     */
+    public File getZipFile(long id, String fileName) {
+        if (dao.get(id) == null || fileName == null || !fileName.matches("[0-9a-f]{40}\\.zip"))
+            return null;
+
+        File file = getPackageFolder(id).resolve(fileName).toFile();
+        if (!file.exists())
+            return null;
+        return file;
+    }
+
+    // hash of the folder contents and the latest modification of each entry and its sequence
+    protected String getPackageId(List<Long> entryIds) {
+        List<Long> sortedIds = new ArrayList<>(entryIds);
+        Collections.sort(sortedIds);
+        Map<Long, Date> modificationTimes = DAOFactory.getEntryDAO().getModificationTimes(sortedIds);
+        Map<Long, SequenceSummary> sequences = DAOFactory.getSequenceDAO().getSequenceSummaries(sortedIds);
+
+        StringBuilder builder = new StringBuilder(String.join(",", PACKAGE_FORMATS)).append('\n');
+        for (Long entryId : sortedIds) {
+            builder.append(entryId).append(':');
+            Date modified = modificationTimes.get(entryId);
+            if (modified != null)
+                builder.append(modified.getTime());
+            SequenceSummary sequence = sequences.get(entryId);
+            if (sequence != null)
+                builder.append(':').append(sequence.getSequenceId()).append(':').append(sequence.getChecksum());
+            builder.append('\n');
+        }
+        return Utils.encryptSHA(builder.toString());
+    }
+
+    private Path getPackageFolder(long id) {
+        return Paths.get(Utils.getConfigValue(ConfigurationKey.DATA_DIRECTORY), PACKAGE_FOLDER, Long.toString(id));
+    }
+
     // makes folder featured
     protected void setFolderType(Folder folder, FolderType type) {
         if (folder == null)
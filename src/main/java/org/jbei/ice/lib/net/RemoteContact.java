@@ -1,5 +1,8 @@
 package org.jbei.ice.lib.net;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.access.AccessTokens;
 import org.jbei.ice.lib.account.AccountTransfer;
@@ -20,6 +23,7 @@ import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.RemotePartnerDAO;
 import org.jbei.ice.storage.model.RemotePartner;
 
+import java.lang.reflect.Type;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -39,11 +43,13 @@ public class RemoteContact {
     private final RemotePartnerDAO dao;
     private final TokenHash tokenHash;
     private final IceRestClient restClient;
+    private final RemoteResponseCache cache;
 
     public RemoteContact() {
         dao = DAOFactory.getRemotePartnerDAO();
         tokenHash = new TokenHash();
         restClient = IceRestClient.getInstance();
+        cache = RemoteResponseCache.getInstance();
     }
 
     // exchange api key with remote partner
@@ -105,6 +111,25 @@ public class RemoteContact {
         return restClient.put(url, "/rest/parts/transfer", data, PartData.class);
     }
 
+    /**
+     * Transfers a list of parts using a single request
+     *
+     * @param url  url of remote partner
+     * @param data list of parts to transfer
+     * @return list of transferred parts (in the same order) as saved on the remote partner. Null if the
+     * request was not successful (including if the partner does not support batch transfers)
+     */
+    public List<PartData> transferParts(String url, List<PartData> data) {
+        ArrayList result = restClient.put(url, "/rest/parts/transfer/batch", new ArrayList<>(data), ArrayList.class);
+        if (result == null)
+            return null;
+
+        Gson gson = new GsonBuilder().create();
+        Type type = new TypeToken<ArrayList<PartData>>() {
+        }.getType();
+        return gson.fromJson(gson.toJsonTree(result), type);
+    }
+
     public void transferSequence(String url, String recordId, EntryType entryType, String sequenceString) {
         restClient.postSequenceFile(url, recordId, entryType, sequenceString);
     }
@@ -178,7 +203,10 @@ public class RemoteContact {
             Map<String, Object> queryParams = new HashMap<>();
             queryParams.put("token", encodedToken);
             queryParams.put("userId", userId);
-            return restClient.getWor(url, "rest/parts/" + partId + "/tooltip", PartData.class, queryParams, worToken);
+            String path = "rest/parts/" + partId + "/tooltip";
+            return cache.get(url, RemoteResponseCache.Kind.TOOLTIP, Long.toString(partId), userId + "|" + token,
+                    (entityTag, lastModified) -> restClient.getWorConditional(url, path, PartData.class, queryParams,
+                            worToken, entityTag, lastModified));
         } catch (Exception e) {
             Logger.error(e);
             return null;
@@ -187,17 +215,23 @@ public class RemoteContact {
 
     public PartData getPublicTooltipDetails(String url, long partId, String apiKey) {
         String path = "rest/parts/" + partId + "/tooltip";
-        return restClient.getWor(url, path, PartData.class, null, apiKey);
+        return cache.get(url, RemoteResponseCache.Kind.TOOLTIP, Long.toString(partId), null,
+                (entityTag, lastModified) -> restClient.getWorConditional(url, path, PartData.class, null, apiKey,
+                        entityTag, lastModified));
     }
 
     public PartStatistics getPublicEntryStatistics(String url, long partId, String apiKey) {
         String path = "/rest/parts/" + partId + "/statistics";
-        return restClient.getWor(url, path, PartStatistics.class, null, apiKey);
+        return cache.get(url, RemoteResponseCache.Kind.STATISTICS, Long.toString(partId), null,
+                (entityTag, lastModified) -> restClient.getWorConditional(url, path, PartStatistics.class, null, apiKey,
+                        entityTag, lastModified));
     }
 
     public FeaturedDNASequence getPublicEntrySequence(String url, long partId, String apiKey) {
         String path = "/rest/parts/" + partId + "/sequence";
-        return restClient.getWor(url, path, FeaturedDNASequence.class, null, apiKey);
+        return cache.get(url, RemoteResponseCache.Kind.SEQUENCE, Long.toString(partId), null,
+                (entityTag, lastModified) -> restClient.getWorConditional(url, path, FeaturedDNASequence.class, null,
+                        apiKey, entityTag, lastModified));
     }
 
     public FeaturedDNASequence getSequence(String url, String userId, String partId, long folderId, String token,
@@ -209,7 +243,9 @@ public class RemoteContact {
             queryParams.put("token", encodedToken);
             queryParams.put("userId", userId);
             queryParams.put("folderId", folderId);
-            return restClient.getWor(url, path, FeaturedDNASequence.class, queryParams, apiKey);
+            return cache.get(url, RemoteResponseCache.Kind.SEQUENCE, partId, userId + "|" + folderId + "|" + token,
+                    (entityTag, lastModified) -> restClient.getWorConditional(url, path, FeaturedDNASequence.class,
+                            queryParams, apiKey, entityTag, lastModified));
         } catch (Exception e) {
             Logger.error(e);
             return null;
@@ -223,7 +259,11 @@ public class RemoteContact {
             queryParams.put("token", encodedToken);
             queryParams.put("userId", userId);
             queryParams.put("folderId", folderId);
-            return restClient.getWor(url, "rest/parts/" + partId, PartData.class, queryParams, worToken);
+            String path = "rest/parts/" + partId;
+            return cache.get(url, RemoteResponseCache.Kind.ENTRY, Long.toString(partId),
+                    userId + "|" + folderId + "|" + token,
+                    (entityTag, lastModified) -> restClient.getWorConditional(url, path, PartData.class, queryParams,
+                            worToken, entityTag, lastModified));
         } catch (Exception e) {
             Logger.error(e);
             return null;
@@ -231,7 +271,10 @@ public class RemoteContact {
     }
 
     public PartData getPublicEntry(String url, long entryId, String apiKey) {
-        return restClient.getWor(url, "rest/parts/" + entryId, PartData.class, null, apiKey);
+        String path = "rest/parts/" + entryId;
+        return cache.get(url, RemoteResponseCache.Kind.ENTRY, Long.toString(entryId), null,
+                (entityTag, lastModified) -> restClient.getWorConditional(url, path, PartData.class, null, apiKey,
+                        entityTag, lastModified));
     }
 
     /**
@@ -0,0 +1,253 @@
+package org.jbei.ice.lib.net;
+
+import com.google.gson.Gson;
+import org.jbei.ice.services.rest.ConditionalResponse;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory cache of responses retrieved from remote partners (entry details, tooltips, statistics and sequences).
+ * Responses are cached by partner, entry and kind of resource, and (for entries accessed through a shared remote
+ * folder) the user and access token used to retrieve them.
+ * <p>
+ * Each cached response expires after a time-to-live that depends on the kind of resource. Expired responses are
+ * revalidated with the partner using the <code>ETag</code> or <code>Last-Modified</code> value returned with
+ * the original response (where the partner supports it) before being retrieved again. The cache is bounded by the
+ * (estimated) memory used by the responses; least recently used responses are evicted first.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class RemoteResponseCache {
+
+    private static final long MAX_BYTES = 32 * 1024 * 1024;
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    public enum Kind {
+        ENTRY(5 * 60 * 1000),
+        TOOLTIP(5 * 60 * 1000),
+        STATISTICS(60 * 1000),
+        SEQUENCE(15 * 60 * 1000);
+
+        private final long timeToLive;
+
+        Kind(long timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public long getTimeToLive() {
+            return timeToLive;
+        }
+    }
+
+    private final LinkedHashMap<Key, CachedResponse> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private final long maxBytes;
+    private final LongSupplier clock;
+    private final Gson gson = new Gson();
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long revalidations;
+    private long evictions;
+
+    private static class SingletonHolder {
+        private static final RemoteResponseCache INSTANCE = new RemoteResponseCache(MAX_BYTES,
+                System::currentTimeMillis);
+    }
+
+    public static RemoteResponseCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    RemoteResponseCache(long maxBytes, LongSupplier clock) {
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieves a response from the cache, or from the partner (using the loader) if it is not cached or has
+     * expired. Failed retrievals (loader returns null or throws an exception) are not cached
+     *
+     * @param url    url of partner
+     * @param kind   kind of resource
+     * @param id     identifier for the entry on the partner
+     * @param scope  user/access scope of the response; null or empty for public resources
+     * @param loader retrieves the resource from the partner. It is passed the <code>ETag</code> and
+     *               <code>Last-Modified</code> values of the expired response (if any) for revalidation
+     * @return cached or retrieved response
+     */
+    public <T> T get(String url, Kind kind, String id, String scope,
+                     BiFunction<String, String, ConditionalResponse<T>> loader) {
+        Key key = new Key(url, kind, id, scope);
+        CachedResponse cached;
+        long now = clock.getAsLong();
+
+        synchronized (this) {
+            cached = cache.get(key);
+            if (cached != null && cached.expires > now) {
+                hits += 1;
+                return cached.value();
+            }
+        }
+
+        ConditionalResponse<T> response = cached == null
+                ? loader.apply(null, null)
+                : loader.apply(cached.entityTag, cached.lastModified);
+
+        synchronized (this) {
+            if (response == null)
+                return null;
+
+            if (response.isNotModified() && cached != null) {
+                revalidations += 1;
+                cached.expires = clock.getAsLong() + kind.getTimeToLive();
+                if (!cache.containsKey(key))
+                    put(key, cached);
+                return cached.value();
+            }
+
+            misses += 1;
+            T entity = response.getEntity();
+            if (entity == null) {
+                remove(key);
+                return null;
+            }
+
+            CachedResponse entry = new CachedResponse(entity, response.getEntityTag(), response.getLastModified(),
+                    clock.getAsLong() + kind.getTimeToLive(), estimateSize(entity));
+            put(key, entry);
+            return entity;
+        }
+    }
+
+    /**
+     * Removes all cached responses from the specified partner. Called when a partner is removed or its
+     * keys are refreshed
+     *
+     * @param url url of partner
+     */
+    public synchronized void evict(String url) {
+        if (url == null)
+            return;
+
+        String partner = url.toLowerCase();
+        Iterator<Map.Entry<Key, CachedResponse>> iterator = cache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, CachedResponse> entry = iterator.next();
+            if (entry.getKey().url.equals(partner)) {
+                bytes -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getRevalidations() {
+        return revalidations;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private void put(Key key, CachedResponse entry) {
+        remove(key);
+        if (entry.size > maxBytes)
+            return;
+
+        cache.put(key, entry);
+        bytes += entry.size;
+
+        // evict least recently used
+        Iterator<Map.Entry<Key, CachedResponse>> iterator = cache.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().getValue().size;
+            iterator.remove();
+            evictions += 1;
+        }
+    }
+
+    private void remove(Key key) {
+        CachedResponse existing = cache.remove(key);
+        if (existing != null)
+            bytes -= existing.size;
+    }
+
+    // approximation using the serialized size (two bytes per char)
+    private int estimateSize(Object value) {
+        return ENTRY_OVERHEAD_BYTES + gson.toJson(value).length() * 2;
+    }
+
+    private static class CachedResponse {
+        private final Object value;
+        private final String entityTag;
+        private final String lastModified;
+        private final int size;
+        private long expires;
+
+        CachedResponse(Object value, String entityTag, String lastModified, long expires, int size) {
+            this.value = value;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T value() {
+            return (T) value;
+        }
+    }
+
+    private static class Key {
+        private final String url;
+        private final Kind kind;
+        private final String id;
+        private final String scope;
+
+        Key(String url, Kind kind, String id, String scope) {
+            this.url = url.toLowerCase();
+            this.kind = kind;
+            this.id = id;
+            this.scope = scope == null ? "" : scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            Key key = (Key) o;
+            return url.equals(key.url) && kind == key.kind && id.equals(key.id) && scope.equals(key.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, kind, id, scope);
+        }
+    }
+}
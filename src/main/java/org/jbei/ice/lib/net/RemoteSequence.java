@@ -1,6 +1,5 @@
 package org.jbei.ice.lib.net;
 
-import org.apache.commons.io.IOUtils;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
@@ -12,6 +11,7 @@ import org.jbei.ice.lib.entry.sequence.composers.formatters.GenbankFormatter;
 import org.jbei.ice.lib.entry.sequence.composers.formatters.SBOL1Formatter;
 import org.jbei.ice.lib.entry.sequence.composers.formatters.SBOL2Formatter;
 import org.jbei.ice.lib.entry.sequence.composers.pigeon.PigeonSBOLv;
+import org.jbei.ice.lib.entry.sequence.composers.pigeon.SBOLVisualCache;
 import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.services.rest.IceRestClient;
 import org.jbei.ice.storage.DAOFactory;
@@ -20,7 +20,6 @@ import org.jbei.ice.storage.model.RemotePartner;
 import org.jbei.ice.storage.model.Sequence;
 
 import java.io.ByteArrayOutputStream;
-import java.net.URI;
 
 /**
  * Sequence that is available remotely
@@ -109,8 +108,7 @@ public class RemoteSequence {
                     break;
 
                 case "pigeoni":
-                    URI uri = PigeonSBOLv.generatePigeonVisual(sequence);
-                    byte[] bytes = IOUtils.toByteArray(uri.toURL().openStream());
+                    byte[] bytes = new SBOLVisualCache().getImageBytes(sequence, SBOLVisualCache.Format.PNG);
                     return new ByteArrayWrapper(bytes, name + ".png");
 
                 case "pigeons":
@@ -1,40 +1,71 @@
 package org.jbei.ice.lib.net;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.folder.FolderDetails;
+import org.jbei.ice.lib.dto.web.RemoteTransferInfo;
+import org.jbei.ice.lib.dto.web.TransferStatus;
 import org.jbei.ice.lib.entry.EntrySelection;
 import org.jbei.ice.lib.entry.EntrySelectionType;
 import org.jbei.ice.lib.entry.sequence.composers.formatters.GenbankFormatter;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
-import org.jbei.ice.storage.hibernate.dao.EntryDAO;
-import org.jbei.ice.storage.hibernate.dao.RemotePartnerDAO;
-import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
-import org.jbei.ice.storage.model.Entry;
-import org.jbei.ice.storage.model.RemotePartner;
-import org.jbei.ice.storage.model.Sequence;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.*;
+import org.jbei.ice.storage.model.*;
 
 import java.io.ByteArrayOutputStream;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 /**
+ * Transfers entries from this instance to a remote partner in the web of registries.
+ * The state of each transfer is persisted so that an interrupted transfer can be resumed
+ *
  * @author Hector Plahar
  */
 public class RemoteTransfer {
 
+    public static final int MAX_PARALLEL_BATCHES = 4;   // per partner
+    private static final int MAX_BATCH_THREADS = 8;     // across all partners
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    // sends the batches of all transfers. Batches hold a database connection only while their state is read
+    // and recorded, not while they are being sent
+    private static final ExecutorService BATCH_EXECUTOR = Executors.newFixedThreadPool(MAX_BATCH_THREADS, r -> {
+        Thread thread = new Thread(r, "remote-transfer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // limits the number of batches being sent concurrently to each partner (across all transfers)
+    private static final ConcurrentHashMap<Long, Semaphore> PARTNER_PERMITS = new ConcurrentHashMap<>();
+
+    // whether each partner (url) supports the batch transfer endpoint; absent until known
+    private static final ConcurrentHashMap<String, Boolean> BATCH_SUPPORTED = new ConcurrentHashMap<>();
+
     private final RemotePartnerDAO remotePartnerDAO;
     private final EntryDAO entryDAO;
     private final RemoteContact remoteContact;
     private final SequenceDAO sequenceDAO;
+    private final RemoteTransferModelDAO remoteTransferModelDAO;
+    private final RemoteTransferEntryModelDAO remoteTransferEntryModelDAO;
 
     public RemoteTransfer() {
         this.remotePartnerDAO = DAOFactory.getRemotePartnerDAO();
         this.remoteContact = new RemoteContact();
         this.entryDAO = DAOFactory.getEntryDAO();
         this.sequenceDAO = DAOFactory.getSequenceDAO();
+        this.remoteTransferModelDAO = DAOFactory.getRemoteTransferModelDAO();
+        this.remoteTransferEntryModelDAO = DAOFactory.getRemoteTransferEntryModelDAO();
     }
 
     /**
@@ -91,9 +122,115 @@ public class RemoteTransfer {
     }
 
     /**
-     * Performs the transfer of the entry objects to the remote partner specified.
+     * Records a new transfer of the specified entries to a remote partner. Each entry is tracked individually
+     * (see {@link #runTransfer(long)}) so that the transfer can be resumed if interrupted
+     *
+     * @param userId   unique identifier for user requesting the transfer
+     * @param remoteId unique identifier for remote partner the parts are to be transferred to
+     * @param entries  list of entries to be transferred (obtained using {@link #getPartsForTransfer(List)}). Note
+     *                 that the entries contain the linked entries as well
+     * @param folderId optional identifier for folder whose entries are being transferred. If set, a folder
+     *                 containing the transferred entries is created on the remote partner when the transfer completes
+     * @return saved transfer
+     */
+    public RemoteTransferModel createTransfer(String userId, long remoteId, List<PartData> entries, Long folderId) {
+        RemotePartner partner = this.remotePartnerDAO.get(remoteId);
+        if (partner == null)
+            throw new IllegalArgumentException("Invalid remote host id: " + remoteId);
+
+        RemoteTransferModel transfer = new RemoteTransferModel();
+        transfer.setRemotePartner(partner);
+        transfer.setInitiator(userId);
+        transfer.setFolderId(folderId);
+        transfer.setStatus(TransferStatus.IN_PROGRESS);
+        transfer.setCreationTime(new Date());
+        transfer.setLastUpdateTime(transfer.getCreationTime());
+
+        for (PartData data : entries) {
+            RemoteTransferEntryModel transferEntry = new RemoteTransferEntryModel();
+            transferEntry.setTransfer(transfer);
+            transferEntry.setEntryId(data.getId());
+            transferEntry.setStatus(TransferStatus.PENDING);
+            if (data.getLinkedParts() != null)
+                transferEntry.setLinkedEntryIds(data.getLinkedParts().stream().map(PartData::getId)
+                        .collect(Collectors.toList()));
+            transfer.getEntries().add(transferEntry);
+        }
+        return remoteTransferModelDAO.create(transfer);
+    }
+
+    /**
+     * Performs the transfer of all entries in the specified transfer that have not already been transferred.
+     * Entries are sent in batches (using the batch transfer endpoint on the remote partner, or one at a time if the
+     * partner does not support it). Up to {@link #MAX_PARALLEL_BATCHES} batches are sent to the same partner
+     * concurrently. Entries that cannot be sent are retried with an increasing delay.
+     * <p>
+     * Each batch reads and records its state in short transactions of its own on a shared worker thread, so the
+     * current transaction is committed before the batches are sent, and a new one begun once all batches have been
+     * processed (when this method returns).
      * It is the responsibility of the destination to ensure that the hierarchical reln is reconstructed
      *
+     * @param transferId unique identifier for transfer
+     */
+    public void runTransfer(long transferId) {
+        RemoteTransferModel transfer = remoteTransferModelDAO.get(transferId);
+        if (transfer == null)
+            throw new IllegalArgumentException("Invalid transfer id: " + transferId);
+
+        final long partnerId = transfer.getRemotePartner().getId();
+        String url = transfer.getRemotePartner().getUrl();
+        List<Long> pending = transfer.getEntries().stream()
+                .filter(entry -> entry.getStatus() != TransferStatus.COMPLETED)
+                .map(RemoteTransferEntryModel::getId)
+                .collect(Collectors.toList());
+        HibernateUtil.commitTransaction();
+
+        try {
+            if (pending.isEmpty())
+                return;
+
+            Logger.info("Transferring " + pending.size() + " entries to " + url);
+            Semaphore permits = PARTNER_PERMITS.computeIfAbsent(partnerId, id -> new Semaphore(MAX_PARALLEL_BATCHES));
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < pending.size(); i += BATCH_SIZE) {
+                List<Long> batch = new ArrayList<>(pending.subList(i, Math.min(i + BATCH_SIZE, pending.size())));
+                permits.acquire();
+                try {
+                    futures.add(BATCH_EXECUTOR.submit(() -> {
+                        try {
+                            transferBatch(partnerId, batch);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Logger.error(e);
+                }
+            }
+        } catch (InterruptedException ie) {
+            // batches that have not been recorded remain pending and are sent when the transfer is resumed
+            Logger.error("Interrupted while waiting for transfer " + transferId);
+            Thread.currentThread().interrupt();
+        } finally {
+            HibernateUtil.beginTransaction();
+        }
+    }
+
+    /**
+     * Transfers the entries to the remote partner in the calling thread without recording the state of the
+     * transfer. Intended for small sets of entries (e.g. when adding entries to a remote folder); larger transfers
+     * should use {@link #createTransfer(String, long, List, Long)} and {@link #runTransfer(long)}
+     *
      * @param remoteId unique identifier for remote partner the parts are to be transferred to
      * @param entries  list of entries to be transferred. Note that the entries contain the linked
      *                 entries as well and these may or may not already exist on the recipient
@@ -104,38 +241,303 @@ public class RemoteTransfer {
         if (partner == null)
             throw new IllegalArgumentException("Invalid remote host id: " + remoteId);
 
-        int exceptionCount = 0;
         String url = partner.getUrl();
         List<Long> remoteIds = new LinkedList<>();
-
-        for (PartData data : entries) {
-            try {
-                PartData object = remoteContact.transferPart(url, data);
-                if (object == null) {
-                    exceptionCount += 1;
+        for (int i = 0; i < entries.size(); i += BATCH_SIZE) {
+            List<BatchEntry> batch = entries.subList(i, Math.min(i + BATCH_SIZE, entries.size())).stream()
+                    .map(data -> new BatchEntry(0, data, getSequences(data)))
+                    .collect(Collectors.toList());
+
+            send(url, batch);
+            for (BatchEntry entry : batch) {
+                if (entry.result == null) {
+                    Logger.error("Could not transfer entry " + entry.data.getId() + ": " + entry.error);
                     continue;
                 }
 
-                remoteIds.add(object.getId());
-                if (data.getLinkedParts() != null) {
-                    remoteIds.addAll(object.getLinkedParts().stream().map(PartData::getId).collect(Collectors.toList()));
+                remoteIds.addAll(getRemoteIds(entry.result));
+                sendSequences(url, entry);
+                if (entry.error != null)
+                    Logger.error("Entry " + entry.data.getId() + ": " + entry.error);
+            }
+        }
+        return remoteIds;
+    }
+
+    /**
+     * Updates the status of the transfer once all entries have been processed (see {@link #runTransfer(long)})
+     * and, if the transfer is for a folder, creates the folder on the remote partner with the transferred entries
+     *
+     * @param transferId unique identifier for transfer
+     * @return list of ids of the transferred entries. These are the ids on the remote recipient and not
+     * this ice instance
+     */
+    public List<Long> completeTransfer(long transferId) {
+        RemoteTransferModel transfer = remoteTransferModelDAO.get(transferId);
+        if (transfer == null)
+            throw new IllegalArgumentException("Invalid transfer id: " + transferId);
+
+        List<Long> remoteIds = new LinkedList<>();
+        int failed = 0;
+        for (RemoteTransferEntryModel entry : transfer.getEntries()) {
+            if (entry.getStatus() == TransferStatus.COMPLETED)
+                remoteIds.addAll(entry.getRemoteIds());
+            else
+                failed += 1;
+        }
+
+        if (failed > 0)
+            Logger.error(failed + " entries could not be transferred (transfer " + transferId + ")");
+
+        transfer.setStatus(failed == 0 ? TransferStatus.COMPLETED : TransferStatus.FAILED);
+        transfer.setLastUpdateTime(new Date());
+        remoteTransferModelDAO.update(transfer);
+
+        if (transfer.getFolderId() != null) {
+            Folder folder = DAOFactory.getFolderDAO().get(transfer.getFolderId());
+            if (folder != null) {
+                Logger.info("Adding " + remoteIds.size() + " transferred entries to remote folder");
+                transferFolder(transfer.getRemotePartner().getId(), folder.toDataTransferObject(), remoteIds);
+            }
+        }
+        return remoteIds;
+    }
+
+    /**
+     * @return ids of transfers that were interrupted (e.g. by a shutdown) and should be resumed
+     */
+    public List<Long> getInterruptedTransfers() {
+        return remoteTransferModelDAO.getByStatus(TransferStatus.IN_PROGRESS).stream()
+                .map(RemoteTransferModel::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the progress of a transfer
+     *
+     * @param userId         unique identifier for user making request. Must be an administrator
+     * @param transferId     unique identifier for transfer
+     * @param includeEntries whether to include the state of the individual entries
+     * @return transfer information or null if no transfer with the specified id exists
+     * @throws PermissionException if user is not an administrator
+     */
+    public RemoteTransferInfo getTransfer(String userId, long transferId, boolean includeEntries) {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required to view transfers");
+
+        RemoteTransferModel transfer = remoteTransferModelDAO.get(transferId);
+        if (transfer == null)
+            return null;
+
+        RemoteTransferInfo info = transfer.toDataTransferObject();
+        if (includeEntries) {
+            for (RemoteTransferEntryModel entry : transfer.getEntries())
+                info.getEntries().add(entry.toDataTransferObject());
+        }
+        return info;
+    }
+
+    /**
+     * Retrieves a summary of all transfers, most recent first
+     *
+     * @param userId unique identifier for user making request. Must be an administrator
+     * @return list of transfers
+     * @throws PermissionException if user is not an administrator
+     */
+    public List<RemoteTransferInfo> getTransfers(String userId) {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required to view transfers");
+
+        return remoteTransferModelDAO.getAll().stream()
+                .map(RemoteTransferModel::toDataTransferObject)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sends a batch of entries and records the outcome for each. The state of the entries is read before, and
+     * recorded after, each attempt in short transactions; no transaction is open while the entries are being sent
+     *
+     * @param partnerId unique identifier for destination partner
+     * @param ids       unique identifiers for the transfer entries in this batch
+     */
+    protected void transferBatch(long partnerId, List<Long> ids) {
+        String url;
+        List<BatchEntry> remaining;
+        try {
+            HibernateUtil.beginTransaction();
+            url = remotePartnerDAO.get(partnerId).getUrl();
+            remaining = prepareBatch(ids);
+            HibernateUtil.commitTransaction();
+        } catch (Throwable e) {
+            Logger.error(e);
+            HibernateUtil.rollbackTransaction();
+            return;
+        }
+
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS && !remaining.isEmpty(); attempt += 1) {
+                if (attempt > 0)
+                    Thread.sleep(RETRY_DELAY_MILLIS << (attempt - 1));
+
+                send(url, remaining);
+                for (BatchEntry entry : remaining) {
+                    if (entry.result != null)
+                        sendSequences(url, entry);
                 }
-                performTransfer(partner, data); // transfers attachments and sequences
-            } catch (Exception e) {
-                exceptionCount += 1;
-                if (exceptionCount >= 5) {
-                    Logger.error(e);
-                    Logger.error(exceptionCount + " exceptions encountered during transfer. Aborting");
-                    return null;
+                recordAttempt(remaining, attempt == MAX_ATTEMPTS - 1);
+                remaining = remaining.stream().filter(entry -> entry.result == null).collect(Collectors.toList());
+            }
+        } catch (InterruptedException ie) {
+            // entries that have not been recorded remain pending and are sent when the transfer is resumed
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Re-creates the data (including sequences) that is sent for each of the transfer entries, recording those
+     * whose entry no longer exists as failed. Expects a transaction to be active
+     */
+    private List<BatchEntry> prepareBatch(List<Long> ids) {
+        List<BatchEntry> entries = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            RemoteTransferEntryModel transferEntry = remoteTransferEntryModelDAO.get(id);
+            PartData data = getPartForTransfer(transferEntry);
+            if (data == null) {
+                transferEntry.setStatus(TransferStatus.FAILED);
+                transferEntry.setError("Entry " + transferEntry.getEntryId() + " is no longer available");
+                remoteTransferEntryModelDAO.update(transferEntry);
+                continue;
+            }
+            entries.add(new BatchEntry(id, data, getSequences(data)));
+        }
+        return entries;
+    }
+
+    /**
+     * Records the outcome of an attempt to send entries in a transaction of its own. Entries that could not be
+     * sent are marked as failed only on the last attempt
+     */
+    private void recordAttempt(List<BatchEntry> entries, boolean lastAttempt) {
+        try {
+            HibernateUtil.beginTransaction();
+            for (BatchEntry entry : entries) {
+                RemoteTransferEntryModel transferEntry = remoteTransferEntryModelDAO.get(entry.id);
+                transferEntry.setAttempts(transferEntry.getAttempts() + 1);
+                transferEntry.setError(entry.error);
+                if (entry.result != null && entry.error == null) {
+                    transferEntry.setRemoteIds(getRemoteIds(entry.result));
+                    transferEntry.setStatus(TransferStatus.COMPLETED);
+                } else if (entry.result != null || lastAttempt) {
+                    transferEntry.setStatus(TransferStatus.FAILED);
                 }
+                remoteTransferEntryModelDAO.update(transferEntry);
+            }
+            HibernateUtil.commitTransaction();
+        } catch (Throwable e) {
+            Logger.error(e);
+            HibernateUtil.rollbackTransaction();
+        }
+    }
+
+    /**
+     * Sends entries to the remote partner using the batch endpoint, recording the partner's response (or the error)
+     * for each. Parts are sent one at a time only for partners that do not support the batch endpoint (e.g.
+     * running an earlier version of ice). Whether a partner does is determined the first time a batch is sent to it:
+     * if the batch call fails but a single part can be sent, the endpoint is taken to be unsupported; if neither
+     * succeeds the partner is unavailable and the whole batch is retried later
+     */
+    private void send(String url, List<BatchEntry> entries) {
+        for (BatchEntry entry : entries) {
+            entry.result = null;
+            entry.error = null;
+        }
 
-                Logger.error(e);
+        Boolean batchSupported = BATCH_SUPPORTED.get(url);
+        if (batchSupported == null || batchSupported) {
+            List<PartData> parts = entries.stream().map(entry -> entry.data).collect(Collectors.toList());
+            String error = "Batch transfer to " + url + " failed";
+            try {
+                List<PartData> response = remoteContact.transferParts(url, parts);
+                if (response != null && response.size() == parts.size()) {
+                    BATCH_SUPPORTED.put(url, true);
+                    for (int i = 0; i < entries.size(); i += 1)
+                        entries.get(i).result = response.get(i);
+                    return;
+                }
+            } catch (Exception e) {
+                error += ": " + e.getMessage();
             }
+            Logger.warn(error);
+
+            BatchEntry first = entries.get(0);
+            if (batchSupported == null)
+                sendPart(url, first);
+
+            if (first.result == null) {
+                for (BatchEntry entry : entries)
+                    entry.error = batchSupported == null ? first.error : error;
+                return;
+            }
+
+            Logger.info(url + " does not support batch transfers. Sending parts individually");
+            BATCH_SUPPORTED.put(url, false);
+            entries = entries.subList(1, entries.size());
         }
 
+        for (BatchEntry entry : entries)
+            sendPart(url, entry);
+    }
+
+    private void sendPart(String url, BatchEntry entry) {
+        try {
+            entry.result = remoteContact.transferPart(url, entry.data);
+            if (entry.result == null)
+                entry.error = "No response from " + url;
+        } catch (Exception e) {
+            entry.error = e.getMessage();
+        }
+    }
+
+    // sends the sequences of a transferred entry, recording the error if any cannot be sent
+    private void sendSequences(String url, BatchEntry entry) {
+        try {
+            for (SequenceTransfer sequence : entry.sequences)
+                remoteContact.transferSequence(url, sequence.recordId, sequence.type, sequence.sequence);
+        } catch (Exception e) {
+            Logger.error(e);
+            entry.error = "Sequence transfer failed: " + e.getMessage();
+        }
+    }
+
+    private List<Long> getRemoteIds(PartData transferred) {
+        List<Long> remoteIds = new ArrayList<>();
+        remoteIds.add(transferred.getId());
+        if (transferred.getLinkedParts() != null)
+            remoteIds.addAll(transferred.getLinkedParts().stream().map(PartData::getId).collect(Collectors.toList()));
         return remoteIds;
     }
 
+    /**
+     * Re-creates the data that is sent for a transfer entry
+     *
+     * @param transferEntry entry being transferred
+     * @return data for the entry and its linked entries being transferred with it; null if the entry no longer exists
+     */
+    private PartData getPartForTransfer(RemoteTransferEntryModel transferEntry) {
+        Entry entry = entryDAO.get(transferEntry.getEntryId());
+        if (entry == null)
+            return null;
+
+        PartData data = ModelToInfoFactory.getInfo(entry);
+        if (data == null)
+            return null;
+
+        Set<Long> linkedIds = new HashSet<>(transferEntry.getLinkedEntryIds());
+        if (data.getLinkedParts() != null)
+            data.getLinkedParts().removeIf(linked -> !linkedIds.contains(linked.getId()));
+        return data;
+    }
+
     public FolderDetails transferFolder(long remoteId, FolderDetails folderDetails, List<Long> remoteIds) {
         RemotePartner partner = this.remotePartnerDAO.get(remoteId);
         if (partner == null)
@@ -163,17 +565,21 @@ public class RemoteTransfer {
     }
 
     /**
-     * Transfers the sequence file for the part and any parts that are linked to it.
+     * Retrieves the sequence files to transfer for the part and any parts that are linked to it.
      * If the attached sequence was uploaded as a file or pasted, the system
      * transfers that. If not if attempts to convert the attached sequence to genbank format
      * and transfers that
      *
-     * @param partner destination for the sequence transfer
-     * @param data    data for part whose sequences are to be transferred
+     * @param data data for part whose sequences are to be transferred
+     * @return sequences to transfer
      */
-    protected void performTransfer(RemotePartner partner, PartData data) {
-        String url = partner.getUrl();
+    private List<SequenceTransfer> getSequences(PartData data) {
+        List<SequenceTransfer> sequences = new ArrayList<>();
+        addSequences(data, sequences);
+        return sequences;
+    }
 
+    private void addSequences(PartData data, List<SequenceTransfer> sequences) {
         // check main entry for sequence
         if (sequenceDAO.hasSequence(data.getId())) {
             Entry entry = entryDAO.get(data.getId());
@@ -195,7 +601,7 @@ public class RemoteTransfer {
             }
 
             if (!StringUtils.isEmpty(sequenceString))
-                remoteContact.transferSequence(url, data.getRecordId(), data.getType(), sequenceString);
+                sequences.add(new SequenceTransfer(data.getRecordId(), data.getType(), sequenceString));
         }
 
         // todo : check main entry for attachments
@@ -219,7 +625,34 @@ public class RemoteTransfer {
             return;
 
         for (PartData linked : data.getLinkedParts()) {
-            performTransfer(partner, linked);
+            addSequences(linked, sequences);
+        }
+    }
+
+    // an entry in a batch being sent. Holds no persistent objects so it can be used outside a transaction
+    private static class BatchEntry {
+        private final long id;      // transfer entry id
+        private final PartData data;
+        private final List<SequenceTransfer> sequences;
+        private PartData result;
+        private String error;
+
+        BatchEntry(long id, PartData data, List<SequenceTransfer> sequences) {
+            this.id = id;
+            this.data = data;
+            this.sequences = sequences;
+        }
+    }
+
+    private static class SequenceTransfer {
+        private final String recordId;
+        private final EntryType type;
+        private final String sequence;
+
+        SequenceTransfer(String recordId, EntryType type, String sequence) {
+            this.recordId = recordId;
+            this.type = type;
+            this.sequence = sequence;
         }
     }
 }
@@ -8,6 +8,9 @@ import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.model.Entry;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This class represents one or more entries that have been transferred from another
  * registry
@@ -26,6 +29,21 @@ public class TransferredParts {
         return part;
     }
 
+    /**
+     * Saves a batch of entries transferred from another registry. Entries that have been
+     * received previously (identified using their record id) are not re-created
+     *
+     * @param parts list of transferred entries
+     * @return list of the received entries (in the same order) with their ids on this registry set
+     */
+    public List<PartData> receiveTransferredEntries(List<PartData> parts) {
+        List<PartData> received = new ArrayList<>(parts.size());
+        for (PartData part : parts) {
+            received.add(receiveTransferredEntry(part));
+        }
+        return received;
+    }
+
     private Entry saveTransferred(PartData part) {
         Entry entry = dao.getByRecordId(part.getRecordId());
         if (entry != null) {
@@ -9,9 +9,11 @@ import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.account.TokenHash;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.dto.web.PartnerConnectionStatistics;
 import org.jbei.ice.lib.dto.web.RegistryPartner;
 import org.jbei.ice.lib.dto.web.RemotePartnerStatus;
 import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.services.rest.IceRestClient;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.RemotePartnerDAO;
 import org.jbei.ice.storage.model.RemotePartner;
@@ -97,6 +99,19 @@ public class WebPartners {
         return registryPartners;
     }
 
+    /**
+     * Retrieves request metrics and circuit breaker state for calls made by this instance to its partners
+     *
+     * @param userId unique identifier for user making request. Must be an administrator
+     * @return list of statistics, one for each partner contacted since startup
+     * @throws PermissionException if user is not an administrator
+     */
+    public List<PartnerConnectionStatistics> getConnectionStatistics(String userId) {
+        if (!accountController.isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required to view partner connections");
+        return IceRestClient.getInstance().getConnectionStatistics();
+    }
+
     /**
      * Retrieve a partner based on partner token and unique identifier
      * This is mostly intended to validate the token associated with url
@@ -224,6 +239,7 @@ public class WebPartners {
             return false;
 
         dao.delete(partner);
+        RemoteResponseCache.getInstance().evict(partner.getUrl());
         // todo : contact deleted partner since they cannot contact anymore?
         return true;
     }
@@ -245,6 +261,7 @@ public class WebPartners {
         }
 
         dao.delete(requester);
+        RemoteResponseCache.getInstance().evict(requester.getUrl());
         return true;
     }
 
@@ -295,6 +312,7 @@ public class WebPartners {
         partner.setAuthenticationToken(hash);
         partner.setApiKey(remotePartner.getApiKey()); // todo : check api key (validate?)
         partner = dao.update(partner);
+        RemoteResponseCache.getInstance().evict(partner.getUrl());
         return partner.toDataTransferObject();
     }
 
@@ -314,6 +332,7 @@ public class WebPartners {
         }
 
         Logger.info("Refreshing local api key for " + url);
+        RemoteResponseCache.getInstance().evict(url);
         RegistryPartner thisInstance = getThisInstanceWithNewApiKey();
         remotePartnerModel.setUrl(remotePartner.getUrl());
         if (!StringUtils.isEmpty(remotePartner.getName()))
@@ -0,0 +1,159 @@
+package org.jbei.ice.lib.parsers.sbol;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.lib.search.blast.BlastPlus;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.ModuleDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Background task for creating the ICE records (entries, sequences and links to the entry the document was
+ * uploaded for) for the module and component definitions in an uploaded SBOL document.
+ * <p>
+ * Definitions are processed one at a time and the transaction is committed after every {@link #BATCH_SIZE} of
+ * them, which makes the records available as the import progresses and keeps the session from holding every
+ * record created. The document is the one parsed when it was uploaded; it is not read again and the task releases
+ * it when it finishes.
+ * <p>
+ * The most recent import for each entry is tracked so that its progress can be retrieved (see
+ * {@link #getImport(long)}). Finished imports are no longer tracked once retrieved or after {@link #RETAIN_MILLIS}
+ *
+ * @author Hector Plahar
+ */
+public class SBOLImportTask extends Task {
+
+    static final int BATCH_SIZE = 50;
+    static final long RETAIN_MILLIS = 60 * 60 * 1000;   // one hour
+
+    // most recent import for each entry
+    private static final ConcurrentMap<Long, SBOLImportTask> IMPORT_TASKS = new ConcurrentHashMap<>();
+
+    private final PartData partData;
+    private volatile SBOLDocument document;
+    private volatile int processed;
+    private volatile int total;
+    private volatile long finishedAt;
+
+    /**
+     * @param partData entry the document was uploaded for
+     * @param document parsed SBOL document
+     */
+    public SBOLImportTask(PartData partData, SBOLDocument document) {
+        this.partData = partData;
+        this.document = document;
+    }
+
+    /**
+     * Runs the task once the current transaction (which creates the entry the document is uploaded for) commits.
+     * The task is discarded if the transaction is rolled back instead
+     *
+     * @param task task to run
+     */
+    public static void schedule(SBOLImportTask task) {
+        evictFinished();
+        IMPORT_TASKS.put(task.partData.getId(), task);
+        HibernateUtil.afterCommit(() -> IceExecutorService.getInstance().runTask(task));
+        HibernateUtil.afterRollback(() -> IMPORT_TASKS.remove(task.partData.getId(), task));
+    }
+
+    /**
+     * Retrieves the most recent import for an entry. Imports that have finished are no longer tracked once
+     * they have been retrieved or once they have been finished for {@link #RETAIN_MILLIS}
+     *
+     * @param entryId unique identifier for entry the document was uploaded for
+     * @return import task or null if there isn't one for the entry
+     */
+    public static SBOLImportTask getImport(long entryId) {
+        evictFinished();
+        SBOLImportTask task = IMPORT_TASKS.get(entryId);
+        if (task != null && (task.getStatus() == TaskStatus.COMPLETED || task.getStatus() == TaskStatus.EXCEPTION))
+            IMPORT_TASKS.remove(entryId, task);
+        return task;
+    }
+
+    private static void evictFinished() {
+        evictFinished(System.currentTimeMillis());
+    }
+
+    // removes imports that finished more than RETAIN_MILLIS before the specified time
+    static void evictFinished(long now) {
+        long cutoff = now - RETAIN_MILLIS;
+        IMPORT_TASKS.values().removeIf(task -> task.finishedAt != 0 && task.finishedAt < cutoff);
+    }
+
+    @Override
+    public void execute() {
+        long start = System.currentTimeMillis();
+        SBOLDocument document = this.document;
+        try {
+            total = document.getModuleDefinitions().size() + document.getComponentDefinitions().size();
+            SBOLParser parser = new SBOLParser(partData);
+
+            for (ModuleDefinition moduleDefinition : document.getModuleDefinitions()) {
+                try {
+                    parser.createICEModuleDefinitionRecord(document, moduleDefinition);
+                } catch (SBOLValidationException e) {
+                    Logger.error("Could not import module definition", e);
+                }
+                definitionProcessed();
+            }
+
+            for (ComponentDefinition componentDefinition : document.getComponentDefinitions()) {
+                try {
+                    parser.createICEComponentDefinitionRecord(document, componentDefinition);
+                } catch (SBOLValidationException e) {
+                    Logger.error("Could not import component definition", e);
+                }
+                definitionProcessed();
+            }
+        } finally {
+            // the task may be tracked after it finishes; do not keep the document with it
+            this.document = null;
+            finishedAt = System.currentTimeMillis();
+        }
+
+        BlastPlus.scheduleBlastIndexRebuildTask(true);
+        Logger.info("Imported " + total + " SBOL definitions for entry " + partData.getId() + " in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void definitionProcessed() {
+        processed += 1;
+        if (processed % BATCH_SIZE != 0)
+            return;
+
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        Logger.info("SBOL import for entry " + partData.getId() + ": " + processed + "/" + total);
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return percentage of the definitions in the document that have been processed
+     */
+    public int getProgress() {
+        if (getStatus() == TaskStatus.COMPLETED)
+            return 100;
+
+        int count = total;
+        if (count == 0)
+            return 0;
+        return Math.min(99, processed * 100 / count);
+    }
+}
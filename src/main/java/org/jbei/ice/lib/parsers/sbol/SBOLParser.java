@@ -10,6 +10,7 @@ import org.jbei.ice.lib.entry.EntryLinks;
 import org.jbei.ice.lib.entry.LinkType;
 import org.jbei.ice.lib.entry.sequence.SequenceController;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.jbei.ice.lib.executor.TaskStatus;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
 import org.jbei.ice.lib.parsers.genbank.GenBankParser;
 import org.jbei.ice.storage.DAOFactory;
@@ -45,6 +46,16 @@ public class SBOLParser {
     // map of component identity to entry id
     private Map<String, Long> identityEntryMap = new HashMap<>();
 
+    /**
+     * Parses the SBOL document and associates it (converted to genbank) with the entry. ICE records for the module
+     * and component definitions in the document are created by a background task ({@link SBOLImportTask})
+     * once the current transaction commits, since there can be thousands of them in a single document
+     *
+     * @param inputStream input stream for document
+     * @param fileName    name of file being parsed
+     * @return information about the sequence associated with the entry
+     * @throws InvalidFormatParserException if the document cannot be parsed
+     */
     public SequenceInfo parse(InputStream inputStream, String fileName) throws InvalidFormatParserException {
         SBOLDocument document;
         try {
@@ -64,24 +75,11 @@ public class SBOLParser {
         Entry entry = DAOFactory.getEntryDAO().get(partData.getId());
         SequenceInfo sequenceInfo = parseToGenBank(document, fileName, entry, null);
 
-        // document parsed successfully, go through module definitions
-        for (ModuleDefinition moduleDefinition : document.getModuleDefinitions()) {
-            try {
-                createICEModuleDefinitionRecord(document, moduleDefinition);
-            } catch (SBOLValidationException e) {
-                Logger.error("Could not import module definition", e);
-            }
-        }
-
-        // go through component definitions
-        for (ComponentDefinition componentDefinition : document.getComponentDefinitions()) {
-            try {
-                createICEComponentDefinitionRecord(document, componentDefinition);
-            } catch (SBOLValidationException e) {
-                Logger.error("Could not import component definition", e);
-            }
+        // the parsed document is handed to the import
+        if (!document.getModuleDefinitions().isEmpty() || !document.getComponentDefinitions().isEmpty()) {
+            SBOLImportTask.schedule(new SBOLImportTask(partData, document));
+            sequenceInfo.setImportStatus(TaskStatus.NEW);
         }
-
         return sequenceInfo;
     }
 
@@ -177,14 +175,13 @@ public class SBOLParser {
     }
 
     public void createICEModuleDefinitionRecord(SBOLDocument document, ModuleDefinition moduleDefinition) throws SBOLValidationException {
-        SBOLDocument rootedDocument = document.createRecursiveCopy(moduleDefinition);
         Logger.debug("Creating ICE record for ModuleDefinition: " + moduleDefinition.getIdentity());
         String identity = moduleDefinition.getIdentity().toString();
 
         Long partId = identityEntryMap.get(identity);
         if (partId == null) {
             Logger.debug("Creating " + moduleDefinition.getDisplayId());
-            createNewEntry(moduleDefinition, rootedDocument);
+            createNewEntry(moduleDefinition, document.createRecursiveCopy(moduleDefinition));
         }
 
         for (FunctionalComponent functionalComponent : moduleDefinition.getFunctionalComponents()) {
@@ -225,12 +222,11 @@ public class SBOLParser {
 
     public void createICEComponentDefinitionRecord(SBOLDocument document, ComponentDefinition componentDefinition)
             throws SBOLValidationException {
-        SBOLDocument rootedDocument = document.createRecursiveCopy(componentDefinition);
         String identity = componentDefinition.getIdentity().toString();
 
         Long partId = identityEntryMap.get(identity);
         if (partId == null) {
-            createNewEntry(componentDefinition, rootedDocument);
+            createNewEntry(componentDefinition, document.createRecursiveCopy(componentDefinition));
         }
 
         // Add rootedDocument as the SBOL associated with this record
@@ -0,0 +1,188 @@
+package org.jbei.ice.lib.search;
+
+import org.hibernate.Hibernate;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.AutoCompleteField;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.EntryDAO;
+import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.Plasmid;
+import org.jbei.ice.storage.model.SelectionMarker;
+
+import java.util.*;
+
+/**
+ * In-memory {@link PrefixSuggester}s for each of the {@link AutoCompleteField}s. The suggesters are built
+ * on startup (see {@link BuildAutoCompleteIndexTask}) and kept current once the transactions that save and delete
+ * entries commit. Until they are built, callers are expected to fall back to querying the database.
+ * <p>
+ * The field values of each entry are retained so that the values an entry no longer has can be removed
+ * from the suggesters when it is updated or deleted.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class AutoCompleteSuggesters {
+
+    private static final AutoCompleteField[] FIELDS = AutoCompleteField.values();
+
+    private final EnumMap<AutoCompleteField, PrefixSuggester> suggesters;
+    private final HashMap<Long, String[]> entryValues = new HashMap<>();
+    private Set<Long> changedDuringBuild;
+    private volatile boolean built;
+
+    private AutoCompleteSuggesters() {
+        suggesters = new EnumMap<>(AutoCompleteField.class);
+        for (AutoCompleteField field : FIELDS)
+            suggesters.put(field, new PrefixSuggester());
+    }
+
+    private static class SingletonHolder {
+        private static final AutoCompleteSuggesters INSTANCE = new AutoCompleteSuggesters();
+    }
+
+    public static AutoCompleteSuggesters getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * @param field auto complete field
+     * @return suggester for the specified field or null if the suggesters have not been built
+     */
+    public PrefixSuggester getSuggester(AutoCompleteField field) {
+        if (!built)
+            return null;
+        return suggesters.get(field);
+    }
+
+    /**
+     * Loads the values of all auto complete fields from the database. Entries that are saved or deleted while
+     * the values are being loaded are applied as they commit and the (possibly stale) loaded values for them
+     * are skipped
+     */
+    public void build() {
+        EntryDAO entryDAO = DAOFactory.getEntryDAO();
+        long start = System.currentTimeMillis();
+
+        synchronized (this) {
+            if (built || changedDuringBuild != null)
+                return;
+            changedDuringBuild = new HashSet<>();
+        }
+
+        try {
+            HashMap<Long, String[]> loaded = new HashMap<>();
+            for (AutoCompleteField field : FIELDS) {
+                for (Object[] row : entryDAO.getAutoCompleteValues(field)) {
+                    String[] values = loaded.computeIfAbsent(((Number) row[0]).longValue(),
+                            k -> new String[FIELDS.length]);
+                    values[field.ordinal()] = join(values[field.ordinal()], (String) row[1]);
+                }
+            }
+
+            synchronized (this) {
+                for (Map.Entry<Long, String[]> entry : loaded.entrySet()) {
+                    if (!changedDuringBuild.contains(entry.getKey()))
+                        apply(entry.getKey(), entry.getValue());
+                }
+                built = true;
+            }
+            Logger.info("Built auto complete index in " + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            synchronized (this) {
+                changedDuringBuild = null;
+            }
+        }
+    }
+
+    /**
+     * Updates the auto complete field values of a created or updated entry once the current transaction commits
+     *
+     * @param entry saved entry
+     */
+    public void entrySaved(Entry entry) {
+        long entryId = entry.getId();
+        String[] values = getValues(entry);
+
+        // markers that have not been loaded have not been changed; keep the values already recorded for them
+        Set<SelectionMarker> markers = entry.getSelectionMarkers();
+        boolean markersLoaded = markers == null || Hibernate.isInitialized(markers);
+        HibernateUtil.afterCommit(() -> update(entryId, values, markersLoaded));
+    }
+
+    /**
+     * Removes the auto complete field values of an entry once the current transaction commits
+     *
+     * @param entryId unique identifier for deleted entry
+     */
+    public void entryDeleted(long entryId) {
+        HibernateUtil.afterCommit(() -> update(entryId, null, true));
+    }
+
+    private synchronized void update(long entryId, String[] values, boolean markersLoaded) {
+        if (changedDuringBuild != null)
+            changedDuringBuild.add(entryId);
+        else if (!built)
+            return;     // values are read from the database when the suggesters are built
+
+        if (!markersLoaded) {
+            String[] existing = entryValues.get(entryId);
+            if (existing != null)
+                values[AutoCompleteField.SELECTION_MARKERS.ordinal()] =
+                        existing[AutoCompleteField.SELECTION_MARKERS.ordinal()];
+        }
+        apply(entryId, values);
+    }
+
+    // expects lock to be held. null values (or a null value for a field) mean the entry no longer has values
+    private void apply(long entryId, String[] values) {
+        String[] existing = values == null ? entryValues.remove(entryId) : entryValues.put(entryId, values);
+        for (AutoCompleteField field : FIELDS) {
+            String previous = existing == null ? null : existing[field.ordinal()];
+            String current = values == null ? null : values[field.ordinal()];
+            if (Objects.equals(previous, current))
+                continue;
+
+            PrefixSuggester suggester = suggesters.get(field);
+            for (String value : split(previous))
+                suggester.remove(value);
+            for (String value : split(current))
+                suggester.add(value);
+        }
+    }
+
+    private String[] getValues(Entry entry) {
+        String[] values = new String[FIELDS.length];
+        values[AutoCompleteField.PART_NUMBER.ordinal()] = entry.getPartNumber();
+
+        if (entry instanceof Plasmid) {
+            Plasmid plasmid = (Plasmid) entry;
+            values[AutoCompleteField.PROMOTERS.ordinal()] = plasmid.getPromoters();
+            values[AutoCompleteField.ORIGIN_OF_REPLICATION.ordinal()] = plasmid.getOriginOfReplication();
+            values[AutoCompleteField.REPLICATES_IN.ordinal()] = plasmid.getReplicatesIn();
+        }
+
+        Set<SelectionMarker> markers = entry.getSelectionMarkers();
+        if (markers != null && Hibernate.isInitialized(markers)) {
+            String names = null;
+            for (SelectionMarker marker : markers)
+                names = join(names, marker.getName());
+            values[AutoCompleteField.SELECTION_MARKERS.ordinal()] = names;
+        }
+        return values;
+    }
+
+    private static String join(String values, String value) {
+        if (value == null)
+            return values;
+        return values == null ? value : values + "," + value;
+    }
+
+    // field values may be comma separated lists
+    private static List<String> split(String value) {
+        if (value == null)
+            return Collections.emptyList();
+        return Arrays.asList(value.split(","));
+    }
+}
@@ -0,0 +1,18 @@
+package org.jbei.ice.lib.search;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.Task;
+
+/**
+ * Task to build the in-memory auto complete index
+ *
+ * @author Hector Plahar
+ */
+public class BuildAutoCompleteIndexTask extends Task {
+
+    @Override
+    public void execute() {
+        Logger.info("Building auto complete index");
+        AutoCompleteSuggesters.getInstance().build();
+    }
+}
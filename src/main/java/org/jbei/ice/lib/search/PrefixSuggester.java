@@ -0,0 +1,126 @@
+package org.jbei.ice.lib.search;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory index for completing prefixes of field values. Values are indexed (case insensitive) on their
+ * full text and on each of the words they contain, so "pBR322 ori" can be completed from "pbr" or "or".
+ * Completions are ranked by the number of times the value has been added, then alphabetically.
+ * <p>
+ * Safe for concurrent use; values are added and removed one at a time while lookups do not block
+ *
+ * @author Hector Plahar
+ */
+public class PrefixSuggester {
+
+    // upper bound on the number of values ranked for a single (very short) prefix
+    private static final int MAX_CANDIDATES = 1000;
+    private static final String WORD_DELIMITERS = "[\\s_\\-/.:;()]+";
+
+    private final ConcurrentSkipListMap<String, Set<String>> tokens = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> weights = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a value to the index, or increases its rank if it already exists
+     *
+     * @param value value to add
+     */
+    public synchronized void add(String value) {
+        if (value == null || (value = value.trim()).isEmpty())
+            return;
+
+        AtomicInteger weight = weights.computeIfAbsent(value, k -> new AtomicInteger());
+        if (weight.getAndIncrement() > 0)
+            return;
+
+        for (String token : getTokens(value))
+            tokens.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(value);
+    }
+
+    /**
+     * Decreases the rank of a value, removing it from the index once it has been removed as many times as it
+     * was added
+     *
+     * @param value value to remove
+     */
+    public synchronized void remove(String value) {
+        if (value == null || (value = value.trim()).isEmpty())
+            return;
+
+        AtomicInteger weight = weights.get(value);
+        if (weight == null || weight.decrementAndGet() > 0)
+            return;
+
+        weights.remove(value);
+        for (String token : getTokens(value)) {
+            Set<String> values = tokens.get(token);
+            if (values == null)
+                continue;
+
+            values.remove(value);
+            if (values.isEmpty())
+                tokens.remove(token);
+        }
+    }
+
+    /**
+     * Adds a value to the index only if it is not already present
+     *
+     * @param value value to add
+     */
+    public synchronized void addIfAbsent(String value) {
+        if (value == null || weights.containsKey(value.trim()))
+            return;
+        add(value);
+    }
+
+    /**
+     * Retrieves the highest ranked values that have a word starting with the specified prefix
+     *
+     * @param prefix prefix to complete
+     * @param limit  maximum number of values to return
+     * @return list of matching values
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || (prefix = prefix.trim().toLowerCase()).isEmpty() || limit <= 0)
+            return new ArrayList<>();
+
+        Set<String> candidates = new HashSet<>();
+        for (Set<String> values : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(values);
+            if (candidates.size() >= MAX_CANDIDATES)
+                break;
+        }
+
+        List<String> results = new ArrayList<>(candidates);
+        results.sort((value1, value2) -> {
+            int compare = Integer.compare(getWeight(value2), getWeight(value1));
+            return compare != 0 ? compare : value1.compareToIgnoreCase(value2);
+        });
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    public int size() {
+        return weights.size();
+    }
+
+    private int getWeight(String value) {
+        AtomicInteger weight = weights.get(value);
+        return weight == null ? 0 : weight.get();
+    }
+
+    // full text and words of the value that it is indexed on
+    private Set<String> getTokens(String value) {
+        String lowerCase = value.toLowerCase();
+        Set<String> valueTokens = new HashSet<>();
+        valueTokens.add(lowerCase);
+        for (String word : lowerCase.split(WORD_DELIMITERS)) {
+            if (!word.isEmpty())
+                valueTokens.add(word);
+        }
+        return valueTokens;
+    }
+}
@@ -8,6 +8,7 @@ import org.jbei.ice.lib.dto.search.*;
 import org.jbei.ice.lib.executor.IceExecutorService;
 import org.jbei.ice.lib.search.blast.BlastException;
 import org.jbei.ice.lib.search.blast.BlastPlus;
+import org.jbei.ice.storage.hibernate.search.EntryIndexQueue;
 import org.jbei.ice.storage.hibernate.search.HibernateSearch;
 
 import java.util.HashMap;
@@ -100,6 +101,20 @@ public class SearchController {
         }
     }
 
+    /**
+     * Retrieves metrics for the asynchronous search index queue. Admin privileges required
+     *
+     * @param userId unique identifier for user making request
+     * @return queue size, lag and throughput of the asynchronous index updates
+     * @throws PermissionException if requesting user does not have administrative privileges
+     */
+    public IndexQueueStatistics getIndexQueueStatistics(String userId) {
+        if (!accountController.isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required to perform this action");
+
+        return EntryIndexQueue.getInstance().getStatistics();
+    }
+
     /**
      * Parses the query string checking for terms and phrases. A quote is used to indicate
      * the boundaries of a phrase
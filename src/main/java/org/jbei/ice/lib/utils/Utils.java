@@ -157,4 +157,20 @@ public class Utils {
             return value;
         return key.getDefaultValue();
     }
+
+    /**
+     * @param value configuration value
+     * @return true if the value turns a setting on ("yes" or "true", ignoring case)
+     */
+    public static boolean isEnabled(String value) {
+        return "yes".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value);
+    }
+
+    /**
+     * @param key configuration key
+     * @return true if the setting for the key is turned on
+     */
+    public static boolean isConfigEnabled(ConfigurationKey key) {
+        return isEnabled(getConfigValue(key));
+    }
 }
@@ -48,6 +48,28 @@ public class AnnotationResource extends RestResource {
         }
     }
 
+    /**
+     * Retrieve an annotation, including its sequence.
+     * Administrative privileges required
+     *
+     * @param id unique identifier for annotation (feature)
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{id}")
+    public Response getFeature(@PathParam("id") final long id) {
+        String userId = requireUserId();
+        Annotations annotations = new Annotations(userId);
+        try {
+            DNAFeature feature = annotations.getFeature(id);
+            if (feature == null)
+                throw new WebApplicationException(Response.Status.NOT_FOUND);
+            return super.respond(feature);
+        } catch (PermissionException pe) {
+            throw new WebApplicationException(Response.Status.FORBIDDEN);
+        }
+    }
+
     /**
      * Curate available annotations to include or exclude them from auto-annotation feature
      *
@@ -0,0 +1,91 @@
+package org.jbei.ice.services.rest;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for calls to a single remote partner. After a number of consecutive failures the circuit
+ * opens and calls are rejected without contacting the partner. Once the open interval has elapsed a single
+ * trial call is allowed through; the circuit closes if it succeeds and re-opens if it fails. A trial call that
+ * completes without either (e.g. it could not be started or the caller was interrupted) is released with
+ * {@link #release()} so that another trial call can be made
+ *
+ * @author Hector Plahar
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private Thread trial;     // thread making the trial call, if one is in progress
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if a call may be made, false if the circuit is open
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openMillis)
+                    return false;
+                state = State.HALF_OPEN;
+                trial = Thread.currentThread();
+                return true;
+
+            default:
+                if (trial != null)
+                    return false;
+                trial = Thread.currentThread();
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trial = null;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures += 1;
+        trial = null;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Releases the trial call made by the current thread if neither a success nor a failure was recorded for it.
+     * Has no effect otherwise, so it can be called once every call completes
+     */
+    public synchronized void release() {
+        if (trial == Thread.currentThread())
+            trial = null;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
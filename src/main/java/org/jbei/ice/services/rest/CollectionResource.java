@@ -79,7 +79,9 @@ public class CollectionResource extends RestResource {
     }
 
     /**
-     * Retrieve entries by collection type using paging parameters, including a filter
+     * Retrieve entries by collection type using paging parameters, including a filter. The personal and available
+     * collections can also be paged using the <code>cursor</code> parameter (<code>*</code> for the first page
+     * and the <code>nextCursor</code> value of the previous page afterwards) in which case the offset is ignored
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
@@ -90,6 +92,7 @@ public class CollectionResource extends RestResource {
                          @DefaultValue("created") @QueryParam("sort") final String sort,
                          @DefaultValue("false") @QueryParam("asc") final boolean asc,
                          @DefaultValue("") @QueryParam("filter") String filter,
+                         @QueryParam("cursor") String cursor,
                          @QueryParam("fields") List<String> queryParam) {
         try {
             CollectionType type = CollectionType.valueOf(collectionType.toUpperCase());
@@ -99,7 +102,7 @@ public class CollectionResource extends RestResource {
             log(userId, "retrieving entries for collection " + type);
             CollectionEntries entries = new CollectionEntries(userId, type);
 
-            return super.respond(entries.getEntries(sortField, asc, offset, limit, filter));
+            return super.respond(entries.getEntries(sortField, asc, offset, limit, filter, cursor));
         } catch (PermissionException pe) {
             return super.respond(Response.Status.FORBIDDEN);
         } catch (IllegalArgumentException ie) {
@@ -0,0 +1,38 @@
+package org.jbei.ice.services.rest;
+
+/**
+ * Result of a conditional GET. Either contains the response entity (with any validators the partner returned for
+ * it), or indicates that the previously retrieved entity has not been modified
+ *
+ * @author Hector Plahar
+ */
+public class ConditionalResponse<T> {
+
+    private final T entity;
+    private final boolean notModified;
+    private final String entityTag;
+    private final String lastModified;
+
+    public ConditionalResponse(T entity, boolean notModified, String entityTag, String lastModified) {
+        this.entity = entity;
+        this.notModified = notModified;
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+}
@@ -19,6 +19,15 @@ public class ExtensionToMimeType {
             case "csv":
                 return "text/csv";
 
+            case "png":
+                return "image/png";
+
+            case "svg":
+                return "image/svg+xml";
+
+            case "zip":
+                return "application/zip";
+
             default:
                 return "application/octet-stream";
         }
@@ -21,7 +21,7 @@ import org.jbei.ice.lib.entry.sequence.ByteArrayWrapper;
 import org.jbei.ice.lib.entry.sequence.PartSequence;
 import org.jbei.ice.lib.entry.sequence.SequenceAnalysisController;
 import org.jbei.ice.lib.entry.sequence.SequenceController;
-import org.jbei.ice.lib.entry.sequence.composers.pigeon.PigeonSBOLv;
+import org.jbei.ice.lib.entry.sequence.composers.pigeon.SBOLVisualCache;
 import org.jbei.ice.lib.net.RemoteEntries;
 import org.jbei.ice.lib.net.RemoteSequence;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
@@ -37,7 +37,6 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.*;
-import java.net.URI;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -227,33 +226,31 @@ public class FileResource extends RestResource {
         }
     }
 
+    /**
+     * Retrieves the SBOL visual for an entry's sequence as a PNG (default) or SVG image
+     */
     @GET
-    @Produces("image/png")
+    @Produces({"image/png", "image/svg+xml"})
     @Path("sbolVisual/{rid}")
-    public Response getSBOLVisual(@PathParam("rid") String recordId) {
-        final String tmpDir = Utils.getConfigValue(ConfigurationKey.TEMPORARY_DIRECTORY);
+    public Response getSBOLVisual(@PathParam("rid") String recordId,
+                                  @DefaultValue("png") @QueryParam("format") String format) {
         final Entry entry = DAOFactory.getEntryDAO().getByRecordId(recordId);
-        final Sequence sequence = entry.getSequence();
-        final String hash = sequence.getFwdHash();
-        final File png = Paths.get(tmpDir, hash + ".png").toFile();
-
-        if (png.exists()) {
-            return addHeaders(Response.ok(png), entry.getPartNumber() + ".png");
-        }
+        if (entry == null)
+            return super.respond(Response.Status.NOT_FOUND);
 
-        final URI uri = PigeonSBOLv.generatePigeonVisual(sequence);
-        if (uri != null) {
-            try (final InputStream in = uri.toURL().openStream();
-                 final OutputStream out = new FileOutputStream(png)) {
-                IOUtils.copy(in, out);
-            } catch (IOException e) {
-                Logger.error(e);
-                return respond(false);
-            }
+        final Sequence sequence = DAOFactory.getSequenceDAO().getByEntry(entry);
+        if (sequence == null)
+            return super.respond(Response.Status.NOT_FOUND);
 
-            return addHeaders(Response.ok(png), entry.getPartNumber() + ".png");
+        SBOLVisualCache.Format imageFormat = "svg".equalsIgnoreCase(format)
+                ? SBOLVisualCache.Format.SVG : SBOLVisualCache.Format.PNG;
+        try {
+            File image = new SBOLVisualCache().getImage(sequence, imageFormat);
+            return addHeaders(Response.ok(image), entry.getPartNumber() + "." + imageFormat.getExtension());
+        } catch (IOException e) {
+            Logger.error(e);
+            return respond(false);
         }
-        return respond(false);
     }
 
     /**
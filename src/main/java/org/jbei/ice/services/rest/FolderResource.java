@@ -8,6 +8,7 @@ import org.jbei.ice.lib.dto.access.AccessPermission;
 import org.jbei.ice.lib.dto.common.PageParameters;
 import org.jbei.ice.lib.dto.folder.FolderDetails;
 import org.jbei.ice.lib.dto.folder.FolderType;
+import org.jbei.ice.lib.dto.folder.PermissionPropagation;
 import org.jbei.ice.lib.dto.web.RegistryPartner;
 import org.jbei.ice.lib.entry.EntrySelection;
 import org.jbei.ice.lib.folder.*;
@@ -190,7 +191,9 @@ public class FolderResource extends RestResource {
 
     /**
      * Retrieves the entries for specified folder. Handles request
-     * from a local client (ui) or from a remote ice instance
+     * from a local client (ui) or from a remote ice instance. Entries can also be paged using the
+     * <code>cursor</code> parameter (<code>*</code> for the first page and the <code>nextCursor</code> value
+     * of the previous page afterwards) in which case the offset is ignored
      *
      * @return list of retrieved entries wrapped in folder object
      */
@@ -205,6 +208,7 @@ public class FolderResource extends RestResource {
                               @DefaultValue("") @QueryParam("filter") String filter,
                               @QueryParam("token") String token,   // todo: move to headers
                               @QueryParam("userId") String remoteUserId,                   // todo : ditto
+                              @QueryParam("cursor") String cursor,
                               @QueryParam("fields") List<String> queryParam) {
         final ColumnField field = ColumnField.valueOf(sort.toUpperCase());
         if (folderId.equalsIgnoreCase("public")) {   // todo : move to separate rest resource path
@@ -223,6 +227,7 @@ public class FolderResource extends RestResource {
                 message += " filtered by \"" + filter + "\"";
             FolderContents folderContents = new FolderContents();
             PageParameters pageParameters = new PageParameters(offset, limit, field, asc, filter);
+            pageParameters.setCursor(cursor);
 
             if (StringUtils.isEmpty(userId)) {
                 if (StringUtils.isEmpty(token))  // todo :verify partner?
@@ -239,6 +244,8 @@ public class FolderResource extends RestResource {
         } catch (final NumberFormatException nfe) {
             Logger.error("Passed folder id " + folderId + " is not a number");
             return null;
+        } catch (IllegalArgumentException ie) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
         }
     }
 
@@ -270,6 +277,30 @@ public class FolderResource extends RestResource {
         return permissionsController.setFolderPermissions(userId, folderId, permissions);
     }
 
+    /**
+     * Retrieves the status of the most recent propagation of the folder's permissions to its entries (started when
+     * permissions are propagated, which returns before they have been applied)
+     *
+     * @param folderId unique local folder identifier
+     * @return Response with the status of the propagation, or not found if there is no propagation for the folder
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{id}/permissions/propagation")
+    public Response getPermissionPropagation(@PathParam("id") final long folderId) {
+        final String userId = requireUserId();
+        try {
+            PermissionPropagation propagation = permissionsController.getFolderPermissionPropagation(userId, folderId);
+            if (propagation == null)
+                return super.respond(Response.Status.NOT_FOUND);
+            return super.respond(propagation);
+        } catch (IllegalArgumentException e) {
+            return super.respond(Response.Status.NOT_FOUND);
+        } catch (PermissionException pe) {
+            return super.respond(Response.Status.FORBIDDEN);
+        }
+    }
+
     /**
      * Add new permission to list of permissions for specified folder
      *
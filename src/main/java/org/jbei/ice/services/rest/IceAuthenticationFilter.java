@@ -3,6 +3,7 @@ package org.jbei.ice.services.rest;
 import org.glassfish.jersey.server.ContainerRequest;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.ext.Provider;
@@ -29,6 +30,10 @@ public class IceAuthenticationFilter implements ContainerRequestFilter {
 //            }
 //        }
 
-        HibernateUtil.beginTransaction();
+        // requests that only retrieve data do not need to flush or dirty check the entities they load
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))
+            HibernateUtil.beginReadOnlyTransaction();
+        else
+            HibernateUtil.beginTransaction();
     }
 }
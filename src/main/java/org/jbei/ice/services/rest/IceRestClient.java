@@ -2,65 +2,164 @@ package org.jbei.ice.services.rest;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.media.multipart.FormDataMultiPart;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.web.PartnerConnectionStatistics;
 import org.jbei.ice.lib.utils.Utils;
 
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.*;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
- * ICE REST client
+ * ICE REST client. Connections to partners are pooled (and kept alive between calls) with a limit on the number
+ * of connections to each partner. Calls are subject to connect, read and total request timeouts and calls to a
+ * partner are suspended by a circuit breaker after repeated failures. Latency and error metrics are recorded
+ * for each partner.
+ * <p>
+ * Calls are performed on a bounded pool of threads (one per pooled connection) so that the total request timeout
+ * can be applied. A call that times out keeps its thread until the read timeout ends the blocked socket read; calls
+ * made while all threads are busy fail immediately instead of creating more threads
  *
  * @author Hector Plahar
  */
 public class IceRestClient extends RestClient {
 
+    private static final int MAX_CONNECTIONS = 100;
+    private static final int MAX_CONNECTIONS_PER_PARTNER = 10;
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_OPEN_MILLIS = 30000;
+
     private static IceRestClient INSTANCE = new IceRestClient();
-    private Client client;
+
+    private final ConcurrentHashMap<String, PartnerConnection> connections = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService closer;
+    private volatile Client client;
+    private volatile long requestTimeout;
 
     public static IceRestClient getInstance() {
         return INSTANCE;
     }
 
     protected IceRestClient() {
+        executor = new ThreadPoolExecutor(0, MAX_CONNECTIONS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "ice-rest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        closer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ice-rest-client-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        configure(Integer.decode(ConfigurationKey.WOR_CONNECT_TIMEOUT.getDefaultValue()),
+                Integer.decode(ConfigurationKey.WOR_READ_TIMEOUT.getDefaultValue()),
+                Long.decode(ConfigurationKey.WOR_REQUEST_TIMEOUT.getDefaultValue()));
+    }
+
+    /**
+     * Re-creates the client using the timeouts in the system configuration
+     */
+    public void configure() {
+        try {
+            configure(Integer.decode(Utils.getConfigValue(ConfigurationKey.WOR_CONNECT_TIMEOUT)),
+                    Integer.decode(Utils.getConfigValue(ConfigurationKey.WOR_READ_TIMEOUT)),
+                    Long.decode(Utils.getConfigValue(ConfigurationKey.WOR_REQUEST_TIMEOUT)));
+        } catch (NumberFormatException e) {
+            Logger.error("Invalid timeout value for remote calls: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-creates the client with the specified timeouts. Calls in progress on the previous client are allowed to
+     * complete
+     *
+     * @param connectTimeout timeout (in ms) for establishing a connection (and for obtaining one from the pool)
+     * @param readTimeout    timeout (in ms) waiting for data
+     * @param requestTimeout total time (in ms) allowed for a call, including reading the response
+     */
+    public synchronized void configure(int connectTimeout, int readTimeout, long requestTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_PARTNER);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+
         ClientConfig clientConfig = new ClientConfig();
+        clientConfig.connectorProvider(new ApacheConnectorProvider());
+        clientConfig.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+        clientConfig.property(ApacheClientProperties.REQUEST_CONFIG, requestConfig);
+        clientConfig.property(ClientProperties.CONNECT_TIMEOUT, connectTimeout);
+        clientConfig.property(ClientProperties.READ_TIMEOUT, readTimeout);
         clientConfig.register(IceAuthenticationFilter.class);
         clientConfig.register(PartDataJSONHandler.class);
         clientConfig.register(ArrayDataJSONHandler.class);
         clientConfig.register(MultiPartFeature.class);
-        client = ClientBuilder.newClient(clientConfig);
+
+        final Client previous = this.client;
+        this.client = ClientBuilder.newClient(clientConfig);
+        this.requestTimeout = requestTimeout;
+
+        // close previous client (and its connections) once any calls in progress have timed out
+        if (previous != null)
+            closer.schedule(previous::close, requestTimeout + readTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes all pooled connections
+     */
+    public void close() {
+        closer.shutdownNow();
+        executor.shutdownNow();
+        client.close();
+    }
+
+    /**
+     * @return request metrics and circuit breaker state for each partner contacted by this instance
+     */
+    public List<PartnerConnectionStatistics> getConnectionStatistics() {
+        List<PartnerConnectionStatistics> statistics = new ArrayList<>();
+        for (PartnerConnection connection : connections.values())
+            statistics.add(connection.toStatistics());
+        return statistics;
     }
 
     @Override
     public <T> T get(String url, String path, Class<T> clazz, Map<String, Object> queryParams) {
-        WebTarget target = client.target("https://" + url).path(path);
-        if (queryParams != null) {
-            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
-                target = target.queryParam(entry.getKey(), entry.getValue());
-            }
-        }
-        return target.request(MediaType.APPLICATION_JSON_TYPE).buildGet().invoke(clazz);
+        final WebTarget target = getTarget(url, path, queryParams);
+        Response response = execute(url, () -> target.request(MediaType.APPLICATION_JSON_TYPE).buildGet().invoke());
+        return readEntity(response, clazz);
     }
 
     @Override
     public <T> T post(String url, String resourcePath, Object object, Class<T> responseClass,
                       Map<String, Object> queryParams) {
-        WebTarget target = client.target("https://" + url).path(resourcePath);
-        if (queryParams != null) {
-            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
-                target = target.queryParam(entry.getKey(), entry.getValue());
-            }
-        }
-
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
-        Response postResponse = invocationBuilder.post(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE));
+        Invocation.Builder invocationBuilder = getTarget(url, resourcePath, queryParams)
+                .request(MediaType.APPLICATION_JSON_TYPE);
+        Response postResponse = execute(url,
+                () -> invocationBuilder.post(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE)));
         if (postResponse.hasEntity() && postResponse.getStatus() == Response.Status.OK.getStatusCode())
             return postResponse.readEntity(responseClass);
         return null;
@@ -69,25 +168,20 @@ public class IceRestClient extends RestClient {
     // post to Wor
     public <T> T postWor(String url, String resourcePath, Object object, Class<T> responseClass,
                          Map<String, Object> queryParams, String token) {
-        WebTarget target = client.target("https://" + url).path(resourcePath);
-        if (queryParams != null) {
-            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
-                target = target.queryParam(entry.getKey(), entry.getValue());
-            }
-        }
-
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
+        Invocation.Builder invocationBuilder = getTarget(url, resourcePath, queryParams)
+                .request(MediaType.APPLICATION_JSON_TYPE);
         setHeaders(invocationBuilder, token);
-        Response postResponse = invocationBuilder.post(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE));
+        Response postResponse = execute(url,
+                () -> invocationBuilder.post(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE)));
         if (postResponse.hasEntity() && postResponse.getStatus() == Response.Status.OK.getStatusCode())
             return postResponse.readEntity(responseClass);
         return null;
     }
 
     public <T> T put(String url, String resourcePath, Object object, Class<T> responseClass) {
-        WebTarget target = client.target("https://" + url).path(resourcePath);
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
-        Response putResponse = invocationBuilder.put(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE));
+        Invocation.Builder invocationBuilder = getTarget(url, resourcePath, null).request(MediaType.APPLICATION_JSON_TYPE);
+        Response putResponse = execute(url,
+                () -> invocationBuilder.put(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE)));
         if (putResponse.getStatus() != Response.Status.OK.getStatusCode()) {
             Logger.error("PUT call to " + url + "/" + resourcePath + " returned status of " + putResponse.getStatus());
             return null;
@@ -101,16 +195,11 @@ public class IceRestClient extends RestClient {
 
     public <T> T putWor(String url, String resourcePath, Object object, Class<T> responseClass,
                         Map<String, Object> queryParams, String worToken) {
-        WebTarget target = client.target("https://" + url).path(resourcePath);
-        if (queryParams != null) {
-            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
-                target = target.queryParam(entry.getKey(), entry.getValue());
-            }
-        }
-
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
+        Invocation.Builder invocationBuilder = getTarget(url, resourcePath, queryParams)
+                .request(MediaType.APPLICATION_JSON_TYPE);
         setHeaders(invocationBuilder, worToken);
-        Response putResponse = invocationBuilder.put(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE));
+        Response putResponse = execute(url,
+                () -> invocationBuilder.put(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE)));
         if (putResponse.getStatus() != Response.Status.OK.getStatusCode()) {
             Logger.error("PUT call to " + url + "/" + resourcePath + " returned status of " + putResponse.getStatus());
             return null;
@@ -123,40 +212,60 @@ public class IceRestClient extends RestClient {
     }
 
     public Response put(String url, String resourcePath, Object object) {
-        WebTarget target = client.target("https://" + url).path(resourcePath);
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
-        return invocationBuilder.put(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE));
+        Invocation.Builder invocationBuilder = getTarget(url, resourcePath, null).request(MediaType.APPLICATION_JSON_TYPE);
+        return execute(url, () -> invocationBuilder.put(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE)));
     }
 
     public boolean delete(String token, String url, String resourcePath) {
-        WebTarget target = client.target("https://" + url).path(resourcePath);
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
+        Invocation.Builder invocationBuilder = getTarget(url, resourcePath, null).request(MediaType.APPLICATION_JSON_TYPE);
         setHeaders(invocationBuilder, token);
-        Response response = invocationBuilder.delete();
+        Response response = execute(url, invocationBuilder::delete);
         return response.getStatus() == Response.Status.OK.getStatusCode();
     }
 
     public Response postSequenceFile(String url, String recordId, EntryType entryType, String sequence) {
-        WebTarget target = client.target("https://" + url).path("/rest/file/sequence");
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
+        Invocation.Builder invocationBuilder = getTarget(url, "/rest/file/sequence", null)
+                .request(MediaType.APPLICATION_JSON_TYPE);
         final FormDataMultiPart multiPart = new FormDataMultiPart();
         multiPart.field("file", IOUtils.toInputStream(sequence), MediaType.TEXT_PLAIN_TYPE);
         multiPart.field("entryRecordId", recordId);
         multiPart.field("entryType", entryType.name());
-        return invocationBuilder.post(Entity.entity(multiPart, MediaType.MULTIPART_FORM_DATA_TYPE));
+        return execute(url, () -> invocationBuilder.post(Entity.entity(multiPart, MediaType.MULTIPART_FORM_DATA_TYPE)));
     }
 
     // WOR
     public <T> T getWor(String url, String path, Class<T> clazz, Map<String, Object> queryParams, String token) {
-        WebTarget target = client.target("https://" + url).path(path);
-        if (queryParams != null) {
-            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
-                target = target.queryParam(entry.getKey(), entry.getValue());
-            }
-        }
-        Invocation.Builder invocationBuilder = target.request(MediaType.APPLICATION_JSON_TYPE);
+        Invocation.Builder invocationBuilder = getTarget(url, path, queryParams).request(MediaType.APPLICATION_JSON_TYPE);
+        setHeaders(invocationBuilder, token);
+        Response response = execute(url, () -> invocationBuilder.buildGet().invoke());
+        return readEntity(response, clazz);
+    }
+
+    /**
+     * Conditional GET to a partner. Validators (from a previous response) are sent with the request so that the
+     * partner can respond with <code>304 Not Modified</code> if it supports it
+     *
+     * @param entityTag    value of the <code>ETag</code> header from the previous response, if any
+     * @param lastModified value of the <code>Last-Modified</code> header from the previous response, if any
+     * @return response containing the entity (and its validators), or indicating that it has not been modified
+     */
+    public <T> ConditionalResponse<T> getWorConditional(String url, String path, Class<T> clazz,
+                                                        Map<String, Object> queryParams, String token,
+                                                        String entityTag, String lastModified) {
+        Invocation.Builder invocationBuilder = getTarget(url, path, queryParams).request(MediaType.APPLICATION_JSON_TYPE);
         setHeaders(invocationBuilder, token);
-        return invocationBuilder.buildGet().invoke(clazz);
+        if (!StringUtils.isEmpty(entityTag))
+            invocationBuilder.header(HttpHeaders.IF_NONE_MATCH, entityTag);
+        if (!StringUtils.isEmpty(lastModified))
+            invocationBuilder.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+
+        Response response = execute(url, () -> invocationBuilder.buildGet().invoke());
+        if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode())
+            return new ConditionalResponse<>(null, true, entityTag, lastModified);
+
+        T entity = readEntity(response, clazz);
+        return new ConditionalResponse<>(entity, false, response.getHeaderString(HttpHeaders.ETAG),
+                response.getHeaderString(HttpHeaders.LAST_MODIFIED));
     }
 
     protected void setHeaders(Invocation.Builder invocationBuilder, String token) {
@@ -167,4 +276,84 @@ public class IceRestClient extends RestClient {
             invocationBuilder.header(Headers.API_KEY_CLIENT_ID, clientId);
         }
     }
+
+    protected WebTarget getTarget(String url, String path, Map<String, Object> queryParams) {
+        WebTarget target = client.target("https://" + url).path(path);
+        if (queryParams != null) {
+            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
+                target = target.queryParam(entry.getKey(), entry.getValue());
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Performs a call to a partner, subject to the partner's circuit breaker and the total request timeout.
+     * The response entity is buffered so that the connection is returned to the pool
+     *
+     * @param url  partner url
+     * @param call the call to perform
+     * @return response from the partner
+     * @throws ProcessingException if the call fails, times out, calls to the partner have been suspended or too
+     *                             many calls are in progress
+     */
+    protected Response execute(String url, Supplier<Response> call) {
+        PartnerConnection connection = connections.computeIfAbsent(url.toLowerCase(),
+                key -> new PartnerConnection(key, new CircuitBreaker(CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_MILLIS)));
+        if (!connection.getCircuitBreaker().allowRequest()) {
+            connection.rejected();
+            throw new ProcessingException("Calls to " + url + " suspended after repeated failures");
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            Future<Response> future;
+            try {
+                future = executor.submit(() -> {
+                    Response response = call.get();
+                    response.bufferEntity();
+                    return response;
+                });
+            } catch (RejectedExecutionException e) {
+                connection.rejected();
+                throw new ProcessingException("Call to " + url + " rejected: " + MAX_CONNECTIONS
+                        + " calls in progress");
+            }
+
+            try {
+                Response response = future.get(requestTimeout, TimeUnit.MILLISECONDS);
+                long latency = System.currentTimeMillis() - start;
+                if (response.getStatusInfo().getFamily() == Response.Status.Family.SERVER_ERROR)
+                    connection.failed(latency, "Status " + response.getStatus(), false);
+                else
+                    connection.succeeded(latency);
+                return response;
+            } catch (TimeoutException te) {
+                future.cancel(true);
+                connection.failed(System.currentTimeMillis() - start, "Timed out after " + requestTimeout + "ms",
+                        true);
+                throw new ProcessingException("Call to " + url + " timed out", te);
+            } catch (ExecutionException ee) {
+                Throwable cause = ee.getCause();
+                connection.failed(System.currentTimeMillis() - start, cause.getMessage(), false);
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                throw new ProcessingException(cause);
+            } catch (InterruptedException ie) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(ie);
+            }
+        } finally {
+            // a trial call that was not made or was abandoned must not keep the circuit half open
+            connection.getCircuitBreaker().release();
+        }
+    }
+
+    // mirrors SyncInvoker.invoke(Class), which throws for unsuccessful responses
+    private <T> T readEntity(Response response, Class<T> clazz) {
+        if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL)
+            throw new WebApplicationException(response);
+        return response.readEntity(clazz);
+    }
 }
@@ -1,11 +1,13 @@
 package org.jbei.ice.services.rest;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.manuscript.Manuscript;
 import org.jbei.ice.lib.manuscript.Manuscripts;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.File;
 
 /**
  * @author Hector Plahar
@@ -35,6 +37,26 @@ public class ManuscriptResource extends RestResource {
         return super.respond(manuscripts.generateZip(id));
     }
 
+    /**
+     * Retrieves a generated manuscript package. Supports requests for byte ranges
+     */
+    @GET
+    @Path("{id}/files/zip/{fileName}")
+    @Produces("application/zip")
+    public Response downloadZip(@PathParam("id") long id,
+                                @PathParam("fileName") String fileName,
+                                @QueryParam("filename") String downloadName,
+                                @HeaderParam("Range") String range) {
+        Manuscripts manuscripts = new Manuscripts(requireUserId());
+        File file = manuscripts.getZipFile(id, fileName);
+        if (file == null)
+            return super.respond(Response.Status.NOT_FOUND);
+
+        if (StringUtils.isEmpty(downloadName))
+            downloadName = fileName;
+        return respondWithRange(file, range, downloadName);
+    }
+
     @POST
     public Response create(Manuscript manuscript) {
         Manuscripts manuscripts = new Manuscripts(requireUserId());
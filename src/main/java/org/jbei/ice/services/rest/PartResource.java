@@ -21,6 +21,7 @@ import org.jbei.ice.lib.dto.web.RegistryPartner;
 import org.jbei.ice.lib.entry.*;
 import org.jbei.ice.lib.entry.attachment.AttachmentController;
 import org.jbei.ice.lib.entry.sample.SampleService;
+import org.jbei.ice.lib.entry.sequence.PartSequence;
 import org.jbei.ice.lib.entry.sequence.SequenceController;
 import org.jbei.ice.lib.entry.sequence.TraceSequences;
 import org.jbei.ice.lib.entry.sequence.annotation.Annotations;
@@ -551,6 +552,46 @@ public class PartResource extends RestResource {
         }
     }
 
+    /**
+     * @return Response with the status and progress of the import of the records in an SBOL document uploaded for
+     * the part, or not found if there is no import
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{id}/sequence/import")
+    public Response getSequenceImport(@PathParam("id") final String partId) {
+        final String userId = requireUserId();
+        try {
+            PartSequence partSequence = new PartSequence(userId, partId);
+            SequenceInfo info = partSequence.getImportStatus();
+            if (info == null)
+                return super.respond(Response.Status.NOT_FOUND);
+            return super.respond(info);
+        } catch (IllegalArgumentException e) {
+            return super.respond(Response.Status.NOT_FOUND);
+        } catch (PermissionException pe) {
+            throw new WebApplicationException(Response.Status.FORBIDDEN);
+        }
+    }
+
+    /**
+     * @return Response with the entries the user can read that have the same or nearly the same sequence as the
+     * part (e.g. to check the entries in a bulk upload for duplicates)
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{id}/sequence/duplicates")
+    public Response getSequenceDuplicates(@PathParam("id") final String partId) {
+        final String userId = requireUserId();
+        try {
+            return super.respond(sequenceController.getNearDuplicates(userId, partId));
+        } catch (IllegalArgumentException e) {
+            return super.respond(Response.Status.NOT_FOUND);
+        } catch (PermissionException pe) {
+            throw new WebApplicationException(Response.Status.FORBIDDEN);
+        }
+    }
+
     // put should be used to update when the new vector editor implementation is in place
     @POST
     @Produces(MediaType.APPLICATION_JSON)
@@ -615,6 +656,25 @@ public class PartResource extends RestResource {
         return super.respond(response);
     }
 
+    /**
+     * Receives a batch of parts transferred from another registry
+     *
+     * @param list parts being transferred
+     * @return list of received parts, in the same order, containing the identifiers of the parts on this registry
+     */
+    @PUT
+    @Path("/transfer/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response transferBatch(final ArrayList<PartData> list) {
+        final Type type = new TypeToken<ArrayList<PartData>>() {
+        }.getType();
+        final Gson gson = new GsonBuilder().create();
+        final ArrayList<PartData> data = gson.fromJson(gson.toJsonTree(list), type);
+        TransferredParts transferredParts = new TransferredParts();
+        return super.respond(new ArrayList<>(transferredParts.receiveTransferredEntries(data)));
+    }
+
     /**
      * Update the part information at the specified resource identifier
      *
@@ -672,6 +732,26 @@ public class PartResource extends RestResource {
         return super.respond(entryLinks.get(linkType));
     }
 
+    /**
+     * Retrieves the ancestors and descendants of a part, up to the specified number of links away from it
+     *
+     * @param partId unique identifier for part whose links are to be retrieved
+     * @param depth  maximum number of links between the part and the ancestors or descendants returned
+     * @return graph of linked parts that the user can read
+     */
+    @GET
+    @Path("/{id}/links/graph")
+    public Response getLinkGraph(@PathParam("id") long partId,
+                                 @DefaultValue("3") @QueryParam("depth") int depth) {
+        final String userId = requireUserId();
+        try {
+            EntryLinks entryLinks = new EntryLinks(userId, partId);
+            return super.respond(entryLinks.getGraph(depth));
+        } catch (PermissionException pe) {
+            throw new WebApplicationException(Response.Status.FORBIDDEN);
+        }
+    }
+
     /**
      * Removes the linkId from id
      */
@@ -0,0 +1,74 @@
+package org.jbei.ice.services.rest;
+
+import org.jbei.ice.lib.dto.web.PartnerConnectionStatistics;
+
+/**
+ * Circuit breaker and request metrics for calls made to a single remote partner
+ *
+ * @author Hector Plahar
+ */
+class PartnerConnection {
+
+    private final String url;
+    private final CircuitBreaker circuitBreaker;
+
+    private long requests;
+    private long failures;
+    private long timeouts;
+    private long rejected;
+    private long totalLatencyMillis;
+    private long maxLatencyMillis;
+    private String lastError;
+    private long lastErrorTime;
+
+    PartnerConnection(String url, CircuitBreaker circuitBreaker) {
+        this.url = url;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    synchronized void rejected() {
+        rejected += 1;
+    }
+
+    synchronized void succeeded(long latencyMillis) {
+        record(latencyMillis);
+        circuitBreaker.recordSuccess();
+    }
+
+    synchronized void failed(long latencyMillis, String error, boolean timedOut) {
+        record(latencyMillis);
+        failures += 1;
+        if (timedOut)
+            timeouts += 1;
+        lastError = error;
+        lastErrorTime = System.currentTimeMillis();
+        circuitBreaker.recordFailure();
+    }
+
+    synchronized PartnerConnectionStatistics toStatistics() {
+        PartnerConnectionStatistics statistics = new PartnerConnectionStatistics();
+        statistics.setUrl(url);
+        statistics.setCircuitState(circuitBreaker.getState().name());
+        statistics.setRequests(requests);
+        statistics.setFailures(failures);
+        statistics.setTimeouts(timeouts);
+        statistics.setRejected(rejected);
+        if (requests > 0)
+            statistics.setAverageLatencyMillis(totalLatencyMillis / requests);
+        statistics.setMaxLatencyMillis(maxLatencyMillis);
+        statistics.setLastError(lastError);
+        statistics.setLastErrorTime(lastErrorTime);
+        return statistics;
+    }
+
+    private void record(long latencyMillis) {
+        requests += 1;
+        totalLatencyMillis += latencyMillis;
+        if (latencyMillis > maxLatencyMillis)
+            maxLatencyMillis = latencyMillis;
+    }
+}
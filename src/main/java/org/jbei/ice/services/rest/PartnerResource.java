@@ -10,12 +10,14 @@ import org.jbei.ice.lib.dto.entry.AttachmentInfo;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.entry.TraceSequenceAnalysis;
 import org.jbei.ice.lib.dto.web.RegistryPartner;
+import org.jbei.ice.lib.dto.web.RemoteTransferInfo;
 import org.jbei.ice.lib.entry.EntrySelection;
 import org.jbei.ice.lib.net.*;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -26,6 +28,66 @@ import java.util.List;
 @Path("/partners")
 public class PartnerResource extends RestResource {
 
+    /**
+     * Retrieves request metrics and circuit breaker state for calls made to partners
+     *
+     * @return list of statistics for each partner contacted
+     */
+    @GET
+    @Path("/connections")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getConnectionStatistics() {
+        String userId = requireUserId();
+        WebPartners webPartners = new WebPartners();
+        try {
+            return super.respond(new ArrayList<>(webPartners.getConnectionStatistics(userId)));
+        } catch (PermissionException pe) {
+            return super.respond(Response.Status.FORBIDDEN);
+        }
+    }
+
+    /**
+     * Retrieves a summary of transfers of entries from this instance to partners
+     *
+     * @return list of transfers, most recent first
+     */
+    @GET
+    @Path("/transfers")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTransfers() {
+        String userId = requireUserId();
+        RemoteTransfer remoteTransfer = new RemoteTransfer();
+        try {
+            return super.respond(new ArrayList<>(remoteTransfer.getTransfers(userId)));
+        } catch (PermissionException pe) {
+            return super.respond(Response.Status.FORBIDDEN);
+        }
+    }
+
+    /**
+     * Retrieves the progress of a transfer of entries to a partner
+     *
+     * @param transferId unique identifier for transfer
+     * @param entries    whether to include the progress of the individual entries
+     * @return transfer details
+     */
+    @GET
+    @Path("/transfers/{transferId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTransfer(@PathParam("transferId") final long transferId,
+                                @DefaultValue("false") @QueryParam("entries") final boolean entries) {
+        String userId = requireUserId();
+        RemoteTransfer remoteTransfer = new RemoteTransfer();
+        try {
+            RemoteTransferInfo info = remoteTransfer.getTransfer(userId, transferId, entries);
+            if (info == null)
+                return super.respond(Response.Status.NOT_FOUND);
+            return super.respond(info);
+        } catch (PermissionException pe) {
+            return super.respond(Response.Status.FORBIDDEN);
+        }
+    }
+
     @GET
     @Path("{id}")
     public Response getWebPartner(@PathParam("id") final long partnerId) {
@@ -14,6 +14,9 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.io.RandomAccessFile;
 
 /**
  * Parent class for all rest resource objects.
@@ -230,4 +233,65 @@ public class RestResource {
         response.header("Content-Type", mimeType + "; name=\"" + fileName + "\"");
         return response.build();
     }
+
+    /**
+     * Responds with the contents of a file, or the byte range of it requested in a <code>Range</code> header
+     * (single ranges only; requests for multiple ranges are responded to with the entire file)
+     *
+     * @param file     file to respond with
+     * @param range    value of the <code>Range</code> request header, if any
+     * @param fileName name of file for the content disposition header
+     * @return response with status 200 (entire file), 206 (partial content) or 416 (range not satisfiable)
+     */
+    protected Response respondWithRange(File file, String range, String fileName) {
+        final long length = file.length();
+        if (StringUtils.isBlank(range) || !range.startsWith("bytes=") || range.contains(","))
+            return addHeaders(Response.ok(file).header("Accept-Ranges", "bytes"), fileName);
+
+        String[] split = range.substring("bytes=".length()).trim().split("-", -1);
+        long start;
+        long end;
+        try {
+            if (split.length != 2 || (split[0].isEmpty() && split[1].isEmpty()))
+                throw new NumberFormatException(range);
+
+            if (split[0].isEmpty()) {
+                // suffix range: last n bytes
+                start = Math.max(0, length - Long.parseLong(split[1]));
+                end = length - 1;
+            } else {
+                start = Long.parseLong(split[0]);
+                end = split[1].isEmpty() ? length - 1 : Math.min(Long.parseLong(split[1]), length - 1);
+            }
+        } catch (NumberFormatException e) {
+            // invalid range header is ignored
+            return addHeaders(Response.ok(file).header("Accept-Ranges", "bytes"), fileName);
+        }
+
+        if (start >= length || start > end) {
+            return Response.status(416).header("Content-Range", "bytes */" + length).build();
+        }
+
+        final long offset = start;
+        final long count = end - start + 1;
+        StreamingOutput stream = output -> {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+                randomAccessFile.seek(offset);
+                byte[] buffer = new byte[8192];
+                long remaining = count;
+                while (remaining > 0) {
+                    int read = randomAccessFile.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read == -1)
+                        break;
+                    output.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        };
+
+        return addHeaders(Response.status(Response.Status.PARTIAL_CONTENT).entity(stream)
+                .header("Accept-Ranges", "bytes")
+                .header("Content-Range", "bytes " + start + "-" + end + "/" + length)
+                .header("Content-Length", count), fileName);
+    }
 }
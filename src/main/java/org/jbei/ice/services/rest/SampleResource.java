@@ -2,6 +2,7 @@ package org.jbei.ice.services.rest;
 
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.StorageLocation;
+import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.sample.PartSample;
 import org.jbei.ice.lib.dto.sample.SampleRequest;
 import org.jbei.ice.lib.dto.sample.SampleRequestStatus;
@@ -38,6 +39,31 @@ public class SampleResource extends RestResource {
         return super.respond(result);
     }
 
+    /**
+     * Creates samples for multiple entries (e.g. all the wells in a plate) in a single transaction.
+     * The entry for each sample is specified using its part id
+     *
+     * @return Response with the created samples or bad request if any of the samples could not be created
+     */
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createSamples(@QueryParam("strainNamePrefix") final String strainNamePrefix,
+                                  final ArrayList<PartSample> samples) {
+        final String userId = requireUserId();
+        if (samples == null || samples.isEmpty())
+            return super.respond(Response.Status.BAD_REQUEST);
+
+        log(userId, "creating " + samples.size() + " samples");
+        List<PartSample> created = sampleService.createSamples(userId, samples, strainNamePrefix);
+        if (created == null)
+            return super.respond(Response.Status.BAD_REQUEST);
+
+        Results<PartSample> results = new Results<>();
+        results.setData(created);
+        results.setResultCount(created.size());
+        return super.respond(results);
+    }
+
     /**
      * @return Response with matching samples
      */
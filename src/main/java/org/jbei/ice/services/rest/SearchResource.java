@@ -1,11 +1,14 @@
 package org.jbei.ice.services.rest;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.dto.entry.AutoCompleteFieldValues;
 import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicateReport;
 import org.jbei.ice.lib.dto.search.IndexType;
 import org.jbei.ice.lib.dto.search.SearchQuery;
 import org.jbei.ice.lib.dto.search.SearchResults;
+import org.jbei.ice.lib.entry.sequence.SequenceController;
 import org.jbei.ice.lib.search.SearchController;
 import org.jbei.ice.lib.search.WebSearch;
 import org.jbei.ice.lib.shared.ColumnField;
@@ -123,6 +126,17 @@ public class SearchResource extends RestResource {
         return super.respond(Response.Status.OK);
     }
 
+    /**
+     * Retrieve metrics for the asynchronous lucene index update queue
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/indexes/lucene/queue")
+    public Response getLuceneIndexQueue() {
+        final String userId = requireUserId();
+        return super.respond(controller.getIndexQueueStatistics(userId));
+    }
+
     /**
      * Rebuild the blast database
      */
@@ -134,4 +148,50 @@ public class SearchResource extends RestResource {
         controller.rebuildIndexes(userId, IndexType.BLAST);
         return super.respond(Response.Status.OK);
     }
+
+    /**
+     * Finds the entries with the same or nearly the same sequence (including its reverse complement and rotations)
+     * as the specified sequence. Intended to warn about duplicates before a sequence is saved
+     *
+     * @param sequence sequence to compare
+     * @return Response with the matching entries the user can read, in descending order of similarity
+     */
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Path("/duplicates")
+    public Response getSequenceDuplicates(final FeaturedDNASequence sequence) {
+        final String userId = requireUserId();
+        if (sequence == null)
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+
+        return super.respond(new SequenceController().findNearDuplicates(userId, sequence.getSequence()));
+    }
+
+    /**
+     * Start generating a report of the entries across the registry with duplicate sequences
+     */
+    @PUT
+    @Path("/duplicates/report")
+    public Response generateSequenceDuplicateReport() {
+        final String userId = requireUserId();
+        log(userId, "generating duplicate sequence report");
+        new SequenceController().generateDuplicateReport(userId);
+        return super.respond(Response.Status.OK);
+    }
+
+    /**
+     * @return Response with the most recently generated report of entries with duplicate sequences, or not found
+     * if one has not been generated
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/duplicates/report")
+    public Response getSequenceDuplicateReport() {
+        final String userId = requireUserId();
+        SequenceDuplicateReport report = new SequenceController().getDuplicateReport(userId);
+        if (report == null)
+            return super.respond(Response.Status.NOT_FOUND);
+        return super.respond(report);
+    }
 }
@@ -3,8 +3,12 @@ package org.jbei.ice.servlet;
 import org.hibernate.SessionFactory;
 import org.jbei.ice.ApplicationInitialize;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.entry.AuditQueue;
 import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.services.rest.IceRestClient;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.search.EntryIndexQueue;
+import org.jbei.ice.storage.hibernate.search.SearchResultCache;
 
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
@@ -31,6 +35,16 @@ public class IceServletContextListener implements ServletContextListener {
         // shutdown executor service
         IceExecutorService.getInstance().stopService();
 
+        // index pending search updates
+        EntryIndexQueue.getInstance().shutdown();
+        SearchResultCache.getInstance().shutdown();
+
+        // write pending audit events
+        AuditQueue.getInstance().shutdown();
+
+        // close connections to web of registries partners
+        IceRestClient.getInstance().close();
+
         closeSessionFactory(HibernateUtil.getSessionFactory());
 
         Enumeration<Driver> drivers = DriverManager.getDrivers();
@@ -4,6 +4,7 @@ import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 
 import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 
 /**
@@ -24,9 +25,14 @@ public class IceFilter implements Filter {
             return;
 
         try {
-            HibernateUtil.beginTransaction();
+            if (isReadOnly(request))
+                HibernateUtil.beginReadOnlyTransaction();
+            else
+                HibernateUtil.beginTransaction();
             chain.doFilter(request, response);
-            HibernateUtil.commitTransaction();
+
+            // servlets streaming a response may have already committed to release the database connection
+            HibernateUtil.commitActiveTransaction();
         } catch (Throwable t) {
             HibernateUtil.rollbackTransaction();
             try {
@@ -40,6 +46,14 @@ public class IceFilter implements Filter {
         }
     }
 
+    private boolean isReadOnly(ServletRequest request) {
+        if (!(request instanceof HttpServletRequest))
+            return false;
+
+        String method = ((HttpServletRequest) request).getMethod();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
     @Override
     public void destroy() {
     }
@@ -32,6 +32,8 @@ public class DAOFactory {
     private static ApiKeyDAO apiKeyDAO;
     private static RemoteClientModelDAO remoteClientModelDAO;
     private static RemoteShareModelDAO remoteShareModelDAO;
+    private static RemoteTransferModelDAO remoteTransferModelDAO;
+    private static RemoteTransferEntryModelDAO remoteTransferEntryModelDAO;
     private static RemoteAccessModelDAO remoteAccessModelDAO;
     private static ManuscriptModelDAO manuscriptModelDAO;
     private static SequenceFeatureDAO sequenceFeatureDAO;
@@ -188,6 +190,18 @@ public class DAOFactory {
         return remoteShareModelDAO;
     }
 
+    public static RemoteTransferModelDAO getRemoteTransferModelDAO() {
+        if (remoteTransferModelDAO == null)
+            remoteTransferModelDAO = new RemoteTransferModelDAO();
+        return remoteTransferModelDAO;
+    }
+
+    public static RemoteTransferEntryModelDAO getRemoteTransferEntryModelDAO() {
+        if (remoteTransferEntryModelDAO == null)
+            remoteTransferEntryModelDAO = new RemoteTransferEntryModelDAO();
+        return remoteTransferEntryModelDAO;
+    }
+
     public static RemoteAccessModelDAO getRemoteAccessModelDAO() {
         if (remoteAccessModelDAO == null)
             remoteAccessModelDAO = new RemoteAccessModelDAO();
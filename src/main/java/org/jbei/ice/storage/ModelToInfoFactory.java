@@ -2,17 +2,15 @@ package org.jbei.ice.storage;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.account.AccountController;
+import org.jbei.ice.lib.account.AccountType;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.entry.*;
-import org.jbei.ice.lib.entry.EntryAuthorization;
 import org.jbei.ice.lib.entry.EntryUtil;
-import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.model.*;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Factory for converting {@link Entry}s to a {@link org.jbei.ice.lib.dto.entry.PartData}
@@ -249,17 +247,6 @@ public class ModelToInfoFactory {
         return view;
     }
 
-    private static long getAccountId(String email) {
-        if (email == null || email.isEmpty())
-            return 0;
-
-        Account account = DAOFactory.getAccountDAO().getByEmail(email);
-        if (account == null)
-            return 0;
-
-        return account.getId();
-    }
-
     public static PartData createTableViewData(String userId, Entry entry, boolean includeOwnerInfo) {
         if (entry == null)
             return null;
@@ -276,32 +263,94 @@ public class ModelToInfoFactory {
         view.setAlias(entry.getAlias());
         view.setOwnerEmail(entry.getOwnerEmail());
         view.setVisibility(Visibility.valueToEnum(entry.getVisibility()));
+        view.setOwner(entry.getOwner());
+        view.setCreator(entry.getCreator());
+        view.setCreatorEmail(entry.getCreatorEmail());
 
-        if (userId != null) {
-            EntryAuthorization authorization = new EntryAuthorization();
-            view.setCanEdit(authorization.canWrite(userId, entry));
-        }
+        addTableViewDetails(userId, Collections.singletonList(view), includeOwnerInfo, false);
+        return view;
+    }
 
-        // information about the owner and creator
-        if (includeOwnerInfo) {
-            view.setOwner(entry.getOwner());
-            view.setOwnerId(getAccountId(entry.getOwnerEmail()));
+    /**
+     * Creates the table view data for a page of entries without loading the entries. The displayed fields are
+     * retrieved in a single query and the sample, sequence and attachment flags, edit permissions and (optionally)
+     * owner information and view counts are retrieved for all the entries at once instead of for each entry
+     *
+     * @param userId           unique identifier for user making request; used to determine edit permissions
+     * @param entryIds         unique identifiers for entries to retrieve
+     * @param includeOwnerInfo whether to include the owner and creator information
+     * @param includeViewCount whether to include the number of times each entry has been viewed
+     * @return list of table view data, in the order of the identifiers
+     */
+    public static ArrayList<PartData> createTableViewData(String userId, List<Long> entryIds,
+                                                          boolean includeOwnerInfo, boolean includeViewCount) {
+        ArrayList<PartData> data = new ArrayList<>(DAOFactory.getEntryDAO().getTableViewData(entryIds));
+        addTableViewDetails(userId, data, includeOwnerInfo, includeViewCount);
+        return data;
+    }
 
-            // creator
-            view.setCreator(entry.getCreator());
-            view.setCreatorEmail(entry.getCreatorEmail());
-            view.setCreatorId(getAccountId(entry.getCreatorEmail()));
+    private static void addTableViewDetails(String userId, List<PartData> views, boolean includeOwnerInfo,
+                                            boolean includeViewCount) {
+        if (views.isEmpty())
+            return;
+
+        List<Long> ids = new ArrayList<>(views.size());
+        Set<String> emails = new HashSet<>();
+        for (PartData view : views) {
+            ids.add(view.getId());
+            emails.add(view.getOwnerEmail());
+            emails.add(view.getCreatorEmail());
         }
 
-        // has sample
-        view.setHasSample(DAOFactory.getSampleDAO().hasSample(entry));
+        Set<Long> withSamples = DAOFactory.getSampleDAO().getEntriesWithSamples(ids);
+        Set<Long> withAttachments = DAOFactory.getAttachmentDAO().getEntriesWithAttachments(ids);
+        Map<Long, SequenceSummary> sequences = DAOFactory.getSequenceDAO().getSequenceSummaries(ids);
+        Map<Long, Integer> viewCounts = includeViewCount ? DAOFactory.getAuditDAO().getHistoryCounts(ids) : null;
+        Map<String, Long> accountIds = includeOwnerInfo ? DAOFactory.getAccountDAO().getIdsByEmail(emails) : null;
+
+        // edit permissions: admin, owner or explicit write permission
+        Account account = userId == null ? null : DAOFactory.getAccountDAO().getByEmail(userId);
+        boolean isAdmin = account != null && account.getType() == AccountType.ADMIN;
+        Set<Long> writable = userId == null || isAdmin ? null
+                : DAOFactory.getPermissionDAO().getWritableEntryIds(account, ids);
+
+        for (PartData view : views) {
+            if (userId != null) {
+                view.setCanEdit(isAdmin || userId.equals(view.getOwnerEmail()) || writable.contains(view.getId()));
+            }
+
+            // information about the owner and creator
+            if (includeOwnerInfo) {
+                view.setOwnerId(getAccountId(accountIds, view.getOwnerEmail()));
+                view.setCreatorId(getAccountId(accountIds, view.getCreatorEmail()));
+            } else {
+                // only the owner email is included
+                view.setOwner(null);
+                view.setCreator(null);
+                view.setCreatorEmail(null);
+            }
 
-        // has sequence
-        SequenceDAO sequenceDAO = DAOFactory.getSequenceDAO();
-        view.setHasSequence(sequenceDAO.hasSequence(entry.getId()));
-        view.setHasOriginalSequence(sequenceDAO.hasOriginalSequence(entry.getId()));
+            view.setHasSample(withSamples.contains(view.getId()));
+            view.setHasAttachment(withAttachments.contains(view.getId()));
 
-        return view;
+            // has sequence
+            SequenceSummary sequenceSummary = sequences.get(view.getId());
+            view.setHasSequence(sequenceSummary != null);
+            view.setHasOriginalSequence(sequenceSummary != null && sequenceSummary.isHasOriginalSequence());
+
+            if (includeViewCount) {
+                Integer count = viewCounts.get(view.getId());
+                view.setViewCount(count == null ? 0 : count);
+            }
+        }
+    }
+
+    private static long getAccountId(Map<String, Long> accountIds, String email) {
+        if (email == null)
+            return 0;
+
+        Long id = accountIds.get(email.trim().toLowerCase());
+        return id == null ? 0 : id;
     }
 
     public static PartData createTipView(Entry entry) {
@@ -1,13 +1,20 @@
 package org.jbei.ice.storage.hibernate;
 
+import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
 import org.hibernate.service.ServiceRegistry;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.hibernate.search.EntryIndexQueue;
+import org.jbei.ice.storage.hibernate.search.SearchResultCache;
 import org.jbei.ice.storage.model.FeatureCurationModel;
 
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
 /**
  * Helper class to Initialize Hibernate, and obtain new sessions.
  *
@@ -18,6 +25,9 @@ public class HibernateUtil {
     // thread safe global object that is instantiated once
     private static SessionFactory sessionFactory;
 
+    // fail commits of read only transactions that have changes instead of discarding the changes
+    private static boolean strictReadOnly;
+
     // singleton
     private HibernateUtil() {
     }
@@ -40,15 +50,126 @@ public class HibernateUtil {
     }
 
     public static void beginTransaction() {
-        getSessionFactory().getCurrentSession().beginTransaction();
+        Session session = getSessionFactory().getCurrentSession();
+        session.beginTransaction();
+
+        // pooled connection may have been used for a read only transaction
+        session.doWork(connection -> {
+            if (connection.isReadOnly())
+                connection.setReadOnly(false);
+        });
+    }
+
+    /**
+     * Begins a transaction for a request that only reads data (e.g. http GET). Entities loaded in the
+     * transaction are read only (not dirty checked), the session is never flushed and the database connection is
+     * marked read only so that the database can also skip the work needed to support updates.
+     * Changes made in the transaction are discarded, or fail the commit when testing or when the
+     * <code>ice.strict_read_only</code> property is set (see {@link #commitTransaction()})
+     */
+    public static void beginReadOnlyTransaction() {
+        Session session = getSessionFactory().getCurrentSession();
+        session.beginTransaction();
+        session.setDefaultReadOnly(true);
+        session.setFlushMode(FlushMode.MANUAL);
+        session.doWork(connection -> connection.setReadOnly(true));
     }
 
+    /**
+     * @return true if the current thread's transaction was started with {@link #beginReadOnlyTransaction()}
+     */
+    public static boolean isReadOnlyTransaction() {
+        Session session = getSessionFactory().getCurrentSession();
+        return session.getTransaction().getStatus() == TransactionStatus.ACTIVE && session.isDefaultReadOnly();
+    }
+
+    /**
+     * Commits the current transaction. Changes made in a read only transaction are discarded with an error logged
+     * or, in strict mode, fail the commit so that the code making them is found (and the request moved to a read
+     * write transaction)
+     *
+     * @throws IllegalStateException in strict mode if a read only transaction has changes. The transaction is left
+     *                               active for the caller to roll back
+     */
     public static void commitTransaction() {
-        getSessionFactory().getCurrentSession().getTransaction().commit();
+        Session session = getSessionFactory().getCurrentSession();
+        if (session.getTransaction().getStatus() == TransactionStatus.ACTIVE && session.isDefaultReadOnly()
+                && session.isDirty()) {
+            if (strictReadOnly)
+                throw new IllegalStateException("Changes made in read only transaction");
+            Logger.error("Discarding changes made in read only transaction");
+        }
+
+        boolean committed = false;
+        try {
+            session.getTransaction().commit();
+            committed = true;
+        } finally {
+            EntryIndexQueue.getInstance().transactionCompleted(committed);
+            SearchResultCache.getInstance().transactionCompleted(committed);
+        }
+    }
+
+    /**
+     * Runs the specified action once the current transaction has committed successfully. The action is not run if
+     * the transaction is rolled back. Used to start background work that depends on the changes in the transaction
+     *
+     * @param action action to run after commit
+     */
+    public static void afterCommit(Runnable action) {
+        getSessionFactory().getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED)
+                    action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the specified action if the current transaction does not commit successfully. Used to discard in-memory
+     * state that was updated with the (uncommitted) changes in the transaction
+     *
+     * @param action action to run after rollback
+     */
+    public static void afterRollback(Runnable action) {
+        getSessionFactory().getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED)
+                    action.run();
+            }
+        });
+    }
+
+    /**
+     * Commits the current transaction if it has not already been completed. Used by request filters when the
+     * request handler may have committed early to release its database connection before writing a long response
+     * (e.g. streaming a file)
+     */
+    public static void commitActiveTransaction() {
+        Session session = getSessionFactory().getCurrentSession();
+        if (session.getTransaction().getStatus() == TransactionStatus.ACTIVE)
+            commitTransaction();
+        else
+            session.close();
     }
 
     public static void rollbackTransaction() {
-        getSessionFactory().getCurrentSession().getTransaction().rollback();
+        try {
+            getSessionFactory().getCurrentSession().getTransaction().rollback();
+        } finally {
+            EntryIndexQueue.getInstance().transactionCompleted(false);
+            SearchResultCache.getInstance().transactionCompleted(false);
+        }
     }
 
     /**
@@ -73,8 +194,10 @@ public class HibernateUtil {
                     configuration.setProperty("hibernate.hbm2ddl.auto", "update");
                     configuration.setProperty("hibernate.search.default.directory_provider",
                             "org.hibernate.search.store.impl.RAMDirectoryProvider");
+                    strictReadOnly = true;
                 } else {
                     configuration.configure();
+                    strictReadOnly = Boolean.parseBoolean(configuration.getProperty("ice.strict_read_only"));
                 }
 
                 ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().applySettings(
@@ -118,6 +241,8 @@ public class HibernateUtil {
                 configuration.addAnnotatedClass(org.jbei.ice.storage.model.RemoteClientModel.class);
                 configuration.addAnnotatedClass(org.jbei.ice.storage.model.RemoteShareModel.class);
                 configuration.addAnnotatedClass(org.jbei.ice.storage.model.RemoteAccessModel.class);
+                configuration.addAnnotatedClass(org.jbei.ice.storage.model.RemoteTransferModel.class);
+                configuration.addAnnotatedClass(org.jbei.ice.storage.model.RemoteTransferEntryModel.class);
                 configuration.addAnnotatedClass(org.jbei.ice.storage.model.ManuscriptModel.class);
                 configuration.addAnnotatedClass(FeatureCurationModel.class);
 
@@ -0,0 +1,217 @@
+package org.jbei.ice.storage.hibernate;
+
+import org.hibernate.Criteria;
+import org.hibernate.NullPrecedence;
+import org.hibernate.criterion.*;
+import org.jbei.ice.lib.shared.ColumnField;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Position in a list of results paged using keyset (seek) pagination. Instead of skipping a number of rows
+ * (which gets more expensive the deeper the page), each page starts after the sort value and id of the
+ * last row of the previous page, so retrieving any page costs the same as retrieving the first.
+ * <p>
+ * Clients receive the position as an opaque continuation token with each page and pass it back to retrieve
+ * the next page. A token of <code>*</code> (or an empty token) requests the first page. Rows are ordered by
+ * the sort field (with nulls last) and then by id, so the order is stable even when sort values are not unique.
+ *
+ * @author Hector Plahar
+ */
+public class PageCursor {
+
+    public static final String FIRST = "*";
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "|";
+
+    private final ColumnField sortField;
+    private final boolean ascending;
+    private final Object value;
+    private final Long lastId;
+    private String next;
+
+    private PageCursor(ColumnField sortField, boolean ascending, Object value, Long lastId) {
+        this.sortField = sortField;
+        this.ascending = ascending;
+        this.value = value;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Parses a continuation token
+     *
+     * @param token     token returned with the previous page, or <code>*</code> for the first page
+     * @param sortField field the results are sorted on
+     * @param ascending sort order
+     * @return cursor for the page following the token
+     * @throws IllegalArgumentException if the token is invalid or was created for a different sort field or order
+     */
+    public static PageCursor parse(String token, ColumnField sortField, boolean ascending) {
+        if (token == null || token.trim().isEmpty() || FIRST.equals(token.trim()))
+            return new PageCursor(sortField, ascending, null, null);
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        // version|field|asc|id|type|value
+        String[] parts = decoded.split("\\" + SEPARATOR, 6);
+        if (parts.length != 6 || !VERSION.equals(parts[0]))
+            throw new IllegalArgumentException("Invalid page cursor");
+
+        String field = sortField == null ? "" : sortField.name();
+        if (!field.equals(parts[1]) || ascending != Boolean.parseBoolean(parts[2]))
+            throw new IllegalArgumentException("Page cursor does not match sort parameters");
+
+        try {
+            long id = Long.parseLong(parts[3]);
+            return new PageCursor(sortField, ascending, decodeValue(parts[4], parts[5]), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public ColumnField getSortField() {
+        return sortField;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    /**
+     * @return token for the page following the last one retrieved using this cursor, or null if there are no
+     * more results
+     */
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * Retrieves the ids for the page of results following this cursor's position and records the position of
+     * the next page. The criteria must not have any orders, projections or limits set.
+     *
+     * @param criteria     criteria for the results
+     * @param sortProperty property that the results are sorted on
+     * @param idProperty   unique identifier property; used to order results with the same sort value
+     * @param limit        maximum number of results to retrieve
+     * @return list of ids for the page of results
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> list(Criteria criteria, String sortProperty, String idProperty, int limit) {
+        boolean sortById = sortProperty.equals(idProperty);
+
+        if (!isFirst()) {
+            if (sortById)
+                criteria.add(after(idProperty, lastId));
+            else if (value == null)
+                criteria.add(Restrictions.and(Restrictions.isNull(sortProperty), after(idProperty, lastId)));
+            else
+                criteria.add(Restrictions.or(
+                        after(sortProperty, value),
+                        Restrictions.and(Restrictions.eq(sortProperty, value), after(idProperty, lastId)),
+                        Restrictions.isNull(sortProperty)));
+        }
+
+        ProjectionList projections = Projections.projectionList().add(Projections.property(idProperty));
+        if (!sortById) {
+            projections.add(Projections.property(sortProperty));
+            criteria.addOrder(order(sortProperty).nulls(NullPrecedence.LAST));
+        }
+        criteria.addOrder(order(idProperty));
+        criteria.setProjection(projections);
+        criteria.setMaxResults(limit);
+
+        // a single projection (sort by id) returns the values rather than arrays
+        List<Object> rows = criteria.list();
+        List<Long> ids = new ArrayList<>(rows.size());
+        Object lastValue = null;
+        for (Object row : rows) {
+            if (sortById) {
+                ids.add((Long) row);
+            } else {
+                ids.add((Long) ((Object[]) row)[0]);
+                lastValue = ((Object[]) row)[1];
+            }
+        }
+
+        if (limit > 0 && rows.size() == limit)
+            next = encode(ids.get(ids.size() - 1), lastValue);
+        else
+            next = null;
+        return ids;
+    }
+
+    private Criterion after(String property, Object value) {
+        return ascending ? Restrictions.gt(property, value) : Restrictions.lt(property, value);
+    }
+
+    private Order order(String property) {
+        return ascending ? Order.asc(property) : Order.desc(property);
+    }
+
+    private String encode(long id, Object sortValue) {
+        String type;
+        String encoded;
+        if (sortValue == null) {
+            type = "n";
+            encoded = "";
+        } else if (sortValue instanceof Date) {
+            // keep full precision so rows are not repeated or skipped
+            Date date = (Date) sortValue;
+            int nanos = date instanceof Timestamp
+                    ? ((Timestamp) date).getNanos()
+                    : (int) (date.getTime() % 1000) * 1000000;
+            type = "t";
+            encoded = date.getTime() + ":" + nanos;
+        } else if (sortValue instanceof Number) {
+            type = "l";
+            encoded = Long.toString(((Number) sortValue).longValue());
+        } else {
+            type = "s";
+            encoded = sortValue.toString();
+        }
+
+        String field = sortField == null ? "" : sortField.name();
+        String token = VERSION + SEPARATOR + field + SEPARATOR + ascending + SEPARATOR + id + SEPARATOR + type
+                + SEPARATOR + encoded;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object decodeValue(String type, String value) {
+        switch (type) {
+            case "n":
+                return null;
+
+            case "t":
+                String[] parts = value.split(":");
+                if (parts.length != 2)
+                    throw new IllegalArgumentException("Invalid page cursor");
+                Timestamp timestamp = new Timestamp(Long.parseLong(parts[0]));
+                timestamp.setNanos(Integer.parseInt(parts[1]));
+                return timestamp;
+
+            case "l":
+                return Long.parseLong(value);
+
+            case "s":
+                return value;
+
+            default:
+                throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+}
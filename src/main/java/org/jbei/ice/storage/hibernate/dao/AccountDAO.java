@@ -9,9 +9,7 @@ import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.Account;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Data accessor object to manipulate {@link Account} objects in the database.
@@ -82,6 +80,37 @@ public class AccountDAO extends HibernateRepository<Account> {
         }
     }
 
+    /**
+     * Retrieves the unique identifiers for the accounts with the specified emails
+     *
+     * @param emails email identifiers for accounts
+     * @return mapping of lower cased email to account identifier. Emails without accounts are not included
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> getIdsByEmail(Collection<String> emails) {
+        Map<String, Long> ids = new HashMap<>();
+        Set<String> values = new HashSet<>();
+        for (String email : emails) {
+            if (!StringUtils.isBlank(email))
+                values.add(email.trim().toLowerCase());
+        }
+        if (values.isEmpty())
+            return ids;
+
+        try {
+            List<Object[]> result = currentSession().createQuery("select a.email, a.id from "
+                    + Account.class.getName() + " a where lower(a.email) in (:emails)")
+                    .setParameterList("emails", values)
+                    .list();
+            for (Object[] row : result)
+                ids.put(((String) row[0]).toLowerCase(), (Long) row[1]);
+            return ids;
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Failed to retrieve account ids", e);
+        }
+    }
+
     /**
      * Retrieves list of pageable accounts, matching the parameter values
      *
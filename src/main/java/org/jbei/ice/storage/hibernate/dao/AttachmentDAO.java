@@ -16,7 +16,10 @@ import org.jbei.ice.storage.model.Entry;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Data accessor object for {@link Attachment}s
@@ -83,6 +86,30 @@ public class AttachmentDAO extends HibernateRepository<Attachment> {
         }
     }
 
+    /**
+     * Determines which of the specified entries have at least one attachment
+     *
+     * @param entryIds unique identifiers for entries
+     * @return identifiers of the subset of entries that have attachments
+     * @throws DAOException on hibernate exception
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Long> getEntriesWithAttachments(Collection<Long> entryIds) throws DAOException {
+        if (entryIds.isEmpty())
+            return new HashSet<>();
+
+        try {
+            List<Long> result = currentSession().createCriteria(Attachment.class)
+                    .add(Restrictions.in("entry.id", entryIds))
+                    .setProjection(Projections.distinct(Projections.property("entry.id")))
+                    .list();
+            return new HashSet<>(result);
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Failed to retrieve attachments for entries", e);
+        }
+    }
+
     /**
      * Retrieves attachment referenced by a unique file identifier
      *
@@ -12,7 +12,7 @@ import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.Audit;
 import org.jbei.ice.storage.model.Entry;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * Accessor for {@link Audit} objects
@@ -55,6 +55,33 @@ public class AuditDAO extends HibernateRepository<Audit> {
         return 0;
     }
 
+    /**
+     * Retrieves the number of audit records for each of the specified entries
+     *
+     * @param entryIds unique identifiers for entries
+     * @return mapping of entry identifier to number of audit records. Entries without any records are not included
+     */
+    public Map<Long, Integer> getHistoryCounts(Collection<Long> entryIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (entryIds.isEmpty())
+            return counts;
+
+        try {
+            List<Object[]> result = currentSession().createCriteria(Audit.class)
+                    .add(Restrictions.in("entry.id", entryIds))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.groupProperty("entry.id"))
+                            .add(Projections.countDistinct("id")))
+                    .list();
+            for (Object[] row : result)
+                counts.put((Long) row[0], ((Number) row[1]).intValue());
+            return counts;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     public int deleteAll(Entry entry) {
         try {
             Session session = currentSession();
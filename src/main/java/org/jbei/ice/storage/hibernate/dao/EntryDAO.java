@@ -1,20 +1,27 @@
 package org.jbei.ice.storage.hibernate.dao;
 
 import org.hibernate.Criteria;
+import org.hibernate.Hibernate;
 import org.hibernate.HibernateException;
+import org.hibernate.NullPrecedence;
 import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.criterion.*;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.entry.AutoCompleteField;
 import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.entry.Visibility;
+import org.jbei.ice.lib.entry.EntryLinkIndex;
 import org.jbei.ice.lib.entry.EntryUtil;
+import org.jbei.ice.lib.entry.sample.StorageIndex;
 import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.lib.search.AutoCompleteSuggesters;
 import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.PageCursor;
 import org.jbei.ice.storage.model.*;
 
 import java.util.*;
@@ -52,22 +59,7 @@ public class EntryDAO extends HibernateRepository<Entry> {
     }
 
     public List<String> getMatchingPlasmidField(AutoCompleteField field, String token, int limit) throws DAOException {
-        String fieldString;
-        switch (field) {
-            case ORIGIN_OF_REPLICATION:
-            default:
-                fieldString = "originOfReplication";
-                break;
-
-            case PROMOTERS:
-                fieldString = "promoters";
-                break;
-
-            case REPLICATES_IN:
-                fieldString = "replicatesIn";
-                break;
-        }
-
+        String fieldString = getPlasmidFieldName(field);
         try {
             return currentSession().createCriteria(Plasmid.class)
                     .add(Restrictions.ilike(fieldString, token, MatchMode.START))
@@ -80,6 +72,61 @@ public class EntryDAO extends HibernateRepository<Entry> {
         }
     }
 
+    /**
+     * Retrieves the values of the specified auto complete field for all entries
+     *
+     * @param field auto complete field
+     * @return list of [entry id, field value] pairs. Plasmid field values may be comma separated lists and
+     * entries have a pair for each of their selection markers
+     * @throws DAOException on hibernate exception
+     */
+    public List<Object[]> getAutoCompleteValues(AutoCompleteField field) throws DAOException {
+        try {
+            Criteria criteria;
+            String property;
+            switch (field) {
+                case SELECTION_MARKERS:
+                    criteria = currentSession().createCriteria(SelectionMarker.class);
+                    property = "name";
+                    break;
+
+                case PART_NUMBER:
+                    criteria = currentSession().createCriteria(Entry.class);
+                    property = "partNumber";
+                    break;
+
+                default:
+                    criteria = currentSession().createCriteria(Plasmid.class);
+                    property = getPlasmidFieldName(field);
+                    break;
+            }
+
+            String idProperty = field == AutoCompleteField.SELECTION_MARKERS ? "entry.id" : "id";
+            return criteria.add(Restrictions.isNotNull(property))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.property(idProperty))
+                            .add(Projections.property(property)))
+                    .list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private String getPlasmidFieldName(AutoCompleteField field) {
+        switch (field) {
+            case ORIGIN_OF_REPLICATION:
+            default:
+                return "originOfReplication";
+
+            case PROMOTERS:
+                return "promoters";
+
+            case REPLICATES_IN:
+                return "replicatesIn";
+        }
+    }
+
     public List<String> getMatchingEntryPartNumbers(String token, int limit, Set<String> include) throws DAOException {
         try {
             Criteria criteria = currentSession().createCriteria(Entry.class)
@@ -185,43 +232,93 @@ public class EntryDAO extends HibernateRepository<Entry> {
     public Set<Entry> retrieveVisibleEntries(Account account, Set<Group> groups, ColumnField sortField, boolean asc,
                                              int start, int count, String filter) throws DAOException {
         try {
-            String fieldName = columnFieldToString(sortField);
-            DetachedCriteria detachedCriteria = DetachedCriteria.forClass(Entry.class)
-                    .createAlias("permissions", "p")
-                    .add(Restrictions.eq("visibility", Visibility.OK.getValue()));
-
-            if (account != null) {
-                detachedCriteria.add(Restrictions
-                        .disjunction(Restrictions.in("p.group", groups), Restrictions.eq("p.account", account)));
-            } else if (!groups.isEmpty()) {
-                detachedCriteria.add(Restrictions.in("p.group", groups));
-            }
-
-            detachedCriteria.setProjection(Projections.distinct(Projections.id()));
-            detachedCriteria.add(Restrictions.eq("visibility", Visibility.OK.getValue()));
-
-            // check filter
-            if (filter != null && !filter.trim().isEmpty()) {
-                detachedCriteria.add(Restrictions.disjunction(
-                        Restrictions.ilike("name", filter, MatchMode.ANYWHERE),
-                        Restrictions.ilike("alias", filter, MatchMode.ANYWHERE),
-                        Restrictions.ilike("partNumber", filter, MatchMode.ANYWHERE)
-                ));
-            }
+            Criteria criteria = createVisibleEntriesCriteria(account, groups, filter);
+            addPage(criteria, sortField, asc, start, count);
+            return new LinkedHashSet<>(criteria.list());
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
 
-            Criteria criteria = currentSession().createCriteria(Entry.class);
-            criteria.add(Subqueries.propertyIn("id", detachedCriteria));
+    /**
+     * Retrieves the identifiers of the page of entries visible to the specified account or groups
+     *
+     * @see #retrieveVisibleEntries(Account, Set, ColumnField, boolean, int, int, String)
+     */
+    public List<Long> retrieveVisibleEntryIds(Account account, Set<Group> groups, ColumnField sortField, boolean asc,
+                                              int start, int count, String filter) throws DAOException {
+        try {
+            Criteria criteria = createVisibleEntriesCriteria(account, groups, filter);
+            addPage(criteria, sortField, asc, start, count);
+            criteria.setProjection(Projections.id());
+            return criteria.list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
 
-            criteria.addOrder(asc ? Order.asc(fieldName) : Order.desc(fieldName));
-            criteria.setFirstResult(start);
-            criteria.setMaxResults(count);
-            return new LinkedHashSet<>(criteria.list());
+    /**
+     * Retrieves the identifiers of the page of entries visible to the specified account or groups, following
+     * the position of the specified cursor
+     *
+     * @see #retrieveVisibleEntries(Account, Set, ColumnField, boolean, int, int, String)
+     */
+    public List<Long> retrieveVisibleEntryIds(Account account, Set<Group> groups, PageCursor cursor, int count,
+                                              String filter) throws DAOException {
+        try {
+            Criteria criteria = createVisibleEntriesCriteria(account, groups, filter);
+            return cursor.list(criteria, columnFieldToString(cursor.getSortField()), "id", count);
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
         }
     }
 
+    private Criteria createVisibleEntriesCriteria(Account account, Set<Group> groups, String filter) {
+        DetachedCriteria detachedCriteria = DetachedCriteria.forClass(Entry.class)
+                .createAlias("permissions", "p")
+                .add(Restrictions.eq("visibility", Visibility.OK.getValue()));
+
+        if (account != null) {
+            detachedCriteria.add(Restrictions
+                    .disjunction(Restrictions.in("p.group", groups), Restrictions.eq("p.account", account)));
+        } else if (!groups.isEmpty()) {
+            detachedCriteria.add(Restrictions.in("p.group", groups));
+        }
+
+        detachedCriteria.setProjection(Projections.distinct(Projections.id()));
+        detachedCriteria.add(Restrictions.eq("visibility", Visibility.OK.getValue()));
+
+        // check filter
+        if (filter != null && !filter.trim().isEmpty()) {
+            detachedCriteria.add(Restrictions.disjunction(
+                    Restrictions.ilike("name", filter, MatchMode.ANYWHERE),
+                    Restrictions.ilike("alias", filter, MatchMode.ANYWHERE),
+                    Restrictions.ilike("partNumber", filter, MatchMode.ANYWHERE)
+            ));
+        }
+
+        Criteria criteria = currentSession().createCriteria(Entry.class);
+        criteria.add(Subqueries.propertyIn("id", detachedCriteria));
+        return criteria;
+    }
+
+    private void addPage(Criteria criteria, ColumnField sortField, boolean asc, int start, int count) {
+        addOrder(criteria, columnFieldToString(sortField), "id", asc);
+        criteria.setFirstResult(start);
+        criteria.setMaxResults(count);
+    }
+
+    // orders by the sort field (with nulls last) and then by id, so that entries with the same value for the field
+    // are always paged in the same order (the order used by PageCursor)
+    private static void addOrder(Criteria criteria, String fieldName, String idName, boolean asc) {
+        criteria.addOrder((asc ? Order.asc(fieldName) : Order.desc(fieldName)).nulls(NullPrecedence.LAST));
+        if (!fieldName.equals(idName))
+            criteria.addOrder(asc ? Order.asc(idName) : Order.desc(idName));
+    }
+
     // todo : or entry is in a folder that is public
     public long visibleEntryCount(Account account, Set<Group> groups, String filter) throws DAOException {
         Session session = currentSession();
@@ -316,15 +413,15 @@ public class EntryDAO extends HibernateRepository<Entry> {
         }
     }
 
-    // retrieves list of entries based on the paging parameters and the different ways entries can be shared
-    public List<Entry> sharedWithUserEntries(Account requester, Set<Group> accountGroups, ColumnField sort,
+    // retrieves list of entry ids based on the paging parameters and the different ways entries can be shared
+    public List<Long> sharedWithUserEntryIds(Account requester, Set<Group> accountGroups, ColumnField sort,
                                              boolean asc, int start, int limit, String filter) throws DAOException {
         try {
             Criteria criteria = getSharedWithUserCriteria(requester, accountGroups);
-            criteria.setProjection(Projections.property("entry"));
+            criteria.setProjection(Projections.property("entry.id"));
             String fieldName = sort == ColumnField.CREATED ? "entry.id" : columnFieldToString(sort);
             checkAddFilter(criteria, filter, "entry");
-            criteria.addOrder(asc ? Order.asc(fieldName) : Order.desc(fieldName));
+            addOrder(criteria, fieldName, "entry.id", asc);
             criteria.setFirstResult(start);
             criteria.setMaxResults(limit);
             return new ArrayList<>(criteria.list());
@@ -346,7 +443,7 @@ public class EntryDAO extends HibernateRepository<Entry> {
     }
 
     /**
-     * Retrieves the entries for the specified owner, that the requester has read access to
+     * Retrieves the identifiers of the entries for the specified owner, that the requester has read access to
      *
      * @param requester       account for user making request
      * @param owner           user id of entries' owner
@@ -355,15 +452,15 @@ public class EntryDAO extends HibernateRepository<Entry> {
      * @param asc             sort order
      * @param start           index to start retrieving records from
      * @param limit           maximum number of entries to retrieve
-     * @return list of entries matching specified criteria
+     * @return list of identifiers for entries matching specified criteria
      * @throws DAOException
      */
     @SuppressWarnings("unchecked")
-    public List<Entry> retrieveUserEntries(Account requester, String owner, Set<Group> requesterGroups,
+    public List<Long> retrieveUserEntryIds(Account requester, String owner, Set<Group> requesterGroups,
                                            ColumnField sortField, boolean asc, int start, int limit, String filter)
             throws DAOException {
         Criteria criteria = currentSession().createCriteria(Permission.class);
-        criteria.setProjection(Projections.property("entry"));
+        criteria.setProjection(Projections.property("entry.id"));
 
         // expect everyone to at least belong to the everyone group so groups should never be empty
         Junction disjunction = Restrictions.disjunction().add(Restrictions.in("group", requesterGroups));
@@ -376,12 +473,11 @@ public class EntryDAO extends HibernateRepository<Entry> {
 
         // sort
         String fieldName = sortField == ColumnField.CREATED ? "entry.id" : "entry." + columnFieldToString(sortField);
-        criteria.addOrder(asc ? Order.asc(fieldName) : Order.desc(fieldName));
+        addOrder(criteria, fieldName, "entry.id", asc);
         checkAddFilter(criteria, filter, "entry");
         criteria.setFirstResult(start);
         criteria.setMaxResults(limit);
-        criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
-        return criteria.list();
+        return new ArrayList<>(new LinkedHashSet<Long>(criteria.list()));
     }
 
     /**
@@ -410,6 +506,59 @@ public class EntryDAO extends HibernateRepository<Entry> {
      * @return ArrayList of Entry objects.
      * @throws DAOException
      */
+    /**
+     * Retrieves the fields displayed in table views for the specified entries, without loading the entries
+     *
+     * @param ids unique identifiers for entries
+     * @return table view data for the entries, in the order of the identifiers. Entries that cannot be found
+     * are not included
+     * @throws DAOException on hibernate exception
+     */
+    public List<PartData> getTableViewData(List<Long> ids) throws DAOException {
+        List<PartData> data = new ArrayList<>();
+        if (ids.isEmpty())
+            return data;
+
+        try {
+            List<Object[]> result = currentSession().createQuery("select e.id, e.recordType, e.recordId, "
+                    + "e.partNumber, e.name, e.shortDescription, e.creationTime, e.status, e.alias, e.visibility, "
+                    + "e.owner, e.ownerEmail, e.creator, e.creatorEmail from " + Entry.class.getName()
+                    + " e where e.id in (:ids)")
+                    .setParameterList("ids", new HashSet<>(ids))
+                    .list();
+
+            Map<Long, PartData> rows = new HashMap<>();
+            for (Object[] row : result) {
+                PartData view = new PartData(EntryType.nameToType((String) row[1]));
+                view.setId((Long) row[0]);
+                view.setRecordId((String) row[2]);
+                view.setPartId((String) row[3]);
+                view.setName((String) row[4]);
+                view.setShortDescription((String) row[5]);
+                if (row[6] != null)
+                    view.setCreationTime(((Date) row[6]).getTime());
+                view.setStatus((String) row[7]);
+                view.setAlias((String) row[8]);
+                view.setVisibility(Visibility.valueToEnum((Integer) row[9]));
+                view.setOwner((String) row[10]);
+                view.setOwnerEmail((String) row[11]);
+                view.setCreator((String) row[12]);
+                view.setCreatorEmail((String) row[13]);
+                rows.put(view.getId(), view);
+            }
+
+            for (Long id : ids) {
+                PartData view = rows.get(id);
+                if (view != null)
+                    data.add(view);
+            }
+            return data;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     public List<Entry> getEntriesByIdSet(List<Long> ids) throws DAOException {
         if (ids == null || ids.isEmpty()) {
             return new LinkedList<>();
@@ -449,6 +598,24 @@ public class EntryDAO extends HibernateRepository<Entry> {
         }
     }
 
+    /**
+     * Updates the entry, its auto complete field values in {@link AutoCompleteSuggesters} and, if its links have
+     * been loaded (and therefore possibly changed), the children recorded for it in the {@link EntryLinkIndex}
+     */
+    @Override
+    public Entry update(Entry entry) throws DAOException {
+        entry = super.update(entry);
+        AutoCompleteSuggesters.getInstance().entrySaved(entry);
+        Set<Entry> linkedEntries = entry.getLinkedEntries();
+        if (linkedEntries != null && Hibernate.isInitialized(linkedEntries)) {
+            Set<Long> childIds = new HashSet<>();
+            for (Entry linked : linkedEntries)
+                childIds.add(linked.getId());
+            EntryLinkIndex.getInstance().linksSaved(entry.getId(), childIds);
+        }
+        return entry;
+    }
+
     public synchronized void generateNextStrainNameForEntry(Entry entry, String prefix) throws DAOException {
         Criteria criteria = currentSession().createCriteria(Entry.class)
                 .add(Restrictions.like("name", prefix + "1", MatchMode.START));
@@ -468,8 +635,8 @@ public class EntryDAO extends HibernateRepository<Entry> {
     }
 
     @SuppressWarnings("unchecked")
-    public List<Entry> getByVisibility(String ownerEmail, Visibility visibility, ColumnField field, boolean asc,
-                                       int start, int limit, String filter) throws DAOException {
+    public List<Long> getIdsByVisibility(String ownerEmail, Visibility visibility, ColumnField field, boolean asc,
+                                         int start, int limit, String filter) throws DAOException {
         try {
             Criteria criteria = currentSession().createCriteria(Entry.class)
                     .add(Restrictions.eq("visibility", visibility.getValue()));
@@ -478,10 +645,10 @@ public class EntryDAO extends HibernateRepository<Entry> {
                 criteria.add(Restrictions.eq("ownerEmail", ownerEmail));
             }
             checkAddFilter(criteria, filter, null);
-            String fieldName = columnFieldToString(field);
-            criteria.addOrder(asc ? Order.asc(fieldName) : Order.desc(fieldName));
+            addOrder(criteria, columnFieldToString(field), "id", asc);
             criteria.setMaxResults(limit);
             criteria.setFirstResult(start);
+            criteria.setProjection(Projections.id());
             return new LinkedList<>(criteria.list());
         } catch (HibernateException he) {
             Logger.error(he);
@@ -534,7 +701,8 @@ public class EntryDAO extends HibernateRepository<Entry> {
     }
 
     /**
-     * Retrieves entries owned by account with specified email and with visibility of "pending" or "ok"
+     * Retrieves the identifiers of entries owned by account with specified email and with visibility of
+     * "pending" or "ok"
      *
      * @param ownerEmail email for account whose entries are to be retrieved
      * @param sort       field to sort results on
@@ -542,27 +710,15 @@ public class EntryDAO extends HibernateRepository<Entry> {
      * @param start      start of retrieve
      * @param limit      maximum number of records to retrieve from
      * @param filter     filter for entries
-     * @return list of matching entries
+     * @return list of identifiers for matching entries
      * @throws DAOException
      */
-    public List<Entry> retrieveOwnerEntries(String ownerEmail, ColumnField sort, boolean asc, int start,
+    public List<Long> retrieveOwnerEntryIds(String ownerEmail, ColumnField sort, boolean asc, int start,
                                             int limit, String filter) throws DAOException {
         try {
-            String fieldName = columnFieldToString(sort);
-            Criteria criteria = currentSession().createCriteria(Entry.class)
-                    .add(Restrictions.disjunction()
-                            .add(Restrictions.eq("visibility", Visibility.OK.getValue()))
-                            .add(Restrictions.eq("visibility", Visibility.PENDING.getValue())));
-            criteria.add(Restrictions.eq("ownerEmail", ownerEmail));
-            if (filter != null && filter.trim().length() != 0) {
-                criteria.add(Restrictions.disjunction()
-                        .add(Restrictions.ilike("name", filter, MatchMode.ANYWHERE))
-                        .add(Restrictions.ilike("alias", filter, MatchMode.ANYWHERE))
-                        .add(Restrictions.ilike("partNumber", filter, MatchMode.ANYWHERE)));
-            }
-            criteria.setMaxResults(limit);
-            criteria.setFirstResult(start);
-            criteria.addOrder(asc ? Order.asc(fieldName) : Order.desc(fieldName));
+            Criteria criteria = createOwnerEntriesCriteria(ownerEmail, filter);
+            addPage(criteria, sort, asc, start, limit);
+            criteria.setProjection(Projections.id());
             return criteria.list();
         } catch (HibernateException he) {
             Logger.error(he);
@@ -570,6 +726,38 @@ public class EntryDAO extends HibernateRepository<Entry> {
         }
     }
 
+    /**
+     * Retrieves the identifiers of entries owned by account with specified email and with visibility of
+     * "pending" or "ok", following the position of the specified cursor
+     *
+     * @see #retrieveOwnerEntryIds(String, ColumnField, boolean, int, int, String)
+     */
+    public List<Long> retrieveOwnerEntryIds(String ownerEmail, PageCursor cursor, int limit, String filter)
+            throws DAOException {
+        try {
+            Criteria criteria = createOwnerEntriesCriteria(ownerEmail, filter);
+            return cursor.list(criteria, columnFieldToString(cursor.getSortField()), "id", limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private Criteria createOwnerEntriesCriteria(String ownerEmail, String filter) {
+        Criteria criteria = currentSession().createCriteria(Entry.class)
+                .add(Restrictions.disjunction()
+                        .add(Restrictions.eq("visibility", Visibility.OK.getValue()))
+                        .add(Restrictions.eq("visibility", Visibility.PENDING.getValue())));
+        criteria.add(Restrictions.eq("ownerEmail", ownerEmail));
+        if (filter != null && filter.trim().length() != 0) {
+            criteria.add(Restrictions.disjunction()
+                    .add(Restrictions.ilike("name", filter, MatchMode.ANYWHERE))
+                    .add(Restrictions.ilike("alias", filter, MatchMode.ANYWHERE))
+                    .add(Restrictions.ilike("partNumber", filter, MatchMode.ANYWHERE)));
+        }
+        return criteria;
+    }
+
     /**
      * Retrieves list of entry ids whose owner email column matches the specified ownerEmail parameter,
      * with a visibility of <pre>OK</pre> or <pre>PENDING</pre> and if not null, matches the type
@@ -614,26 +802,45 @@ public class EntryDAO extends HibernateRepository<Entry> {
         }
     }
 
-    public Set<Entry> retrieveAllEntries(ColumnField sort, boolean asc, int start, int limit, String filter)
+    public List<Long> retrieveAllEntryIds(ColumnField sort, boolean asc, int start, int limit, String filter)
             throws DAOException {
         try {
             if (sort == null)
                 sort = ColumnField.CREATED;
 
-            String fieldName = columnFieldToString(sort);
-            Criteria criteria = currentSession().createCriteria(Entry.class)
-                    .add(Restrictions.eq("visibility", Visibility.OK.getValue()));
-            checkAddFilter(criteria, filter, null);
-            criteria.addOrder(asc ? Order.asc(fieldName) : Order.desc(fieldName));
-            criteria.setMaxResults(limit);
-            criteria.setFirstResult(start);
-            return new LinkedHashSet<>(criteria.list());
+            Criteria criteria = createAllEntriesCriteria(filter);
+            addPage(criteria, sort, asc, start, limit);
+            criteria.setProjection(Projections.id());
+            return criteria.list();
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
         }
     }
 
+    /**
+     * Retrieves the identifiers of all entries with visibility of "ok", following the position of the
+     * specified cursor
+     *
+     * @see #retrieveAllEntryIds(ColumnField, boolean, int, int, String)
+     */
+    public List<Long> retrieveAllEntryIds(PageCursor cursor, int limit, String filter) throws DAOException {
+        try {
+            Criteria criteria = createAllEntriesCriteria(filter);
+            return cursor.list(criteria, columnFieldToString(cursor.getSortField()), "id", limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private Criteria createAllEntriesCriteria(String filter) {
+        Criteria criteria = currentSession().createCriteria(Entry.class)
+                .add(Restrictions.eq("visibility", Visibility.OK.getValue()));
+        checkAddFilter(criteria, filter, null);
+        return criteria;
+    }
+
     // does not check permissions (includes pending entries)
     public long ownerEntryCount(String ownerEmail) throws DAOException {
         Session session = currentSession();
@@ -688,7 +895,17 @@ public class EntryDAO extends HibernateRepository<Entry> {
         // delete from bulk upload entry
         String hql = "delete from bulk_upload_entry where entry_id=" + entry.getId();
         currentSession().createSQLQuery(hql).executeUpdate();
+
+        // samples are removed with the entry
+        List<Long> sampleStorageIds = new ArrayList<>();
+        for (Sample sample : entry.getSamples()) {
+            if (sample.getStorage() != null)
+                sampleStorageIds.add(sample.getStorage().getId());
+        }
         delete(entry);
+        StorageIndex.getInstance().samplesRemoved(sampleStorageIds);
+        EntryLinkIndex.getInstance().entryDeleted(entry.getId());
+        AutoCompleteSuggesters.getInstance().entryDeleted(entry.getId());
     }
 
     /**
@@ -701,6 +918,21 @@ public class EntryDAO extends HibernateRepository<Entry> {
                 .add(Restrictions.eq("link.id", entryId)).list();
     }
 
+    /**
+     * Retrieves all the links between entries
+     *
+     * @return list of [parent entry id, child entry id] pairs
+     * @throws DAOException on hibernate exception
+     */
+    public List<Object[]> getLinks() throws DAOException {
+        try {
+            return currentSession().createSQLQuery("select entry_id, linked_entry_id from entry_entry").list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     public int getDeletedCount(String ownerUserId) {
         Number itemCount = (Number) currentSession()
                 .createCriteria(Entry.class)
@@ -732,6 +964,28 @@ public class EntryDAO extends HibernateRepository<Entry> {
                 .list();
     }
 
+    /**
+     * Retrieves the last modification time of the specified entries without loading them
+     *
+     * @param list unique identifiers for entries
+     * @return mapping of entry identifier to modification time (null if the entry has never been modified)
+     */
+    public Map<Long, Date> getModificationTimes(Collection<Long> list) {
+        Map<Long, Date> times = new HashMap<>();
+        if (list.isEmpty())
+            return times;
+
+        List<Object[]> result = currentSession().createCriteria(Entry.class)
+                .add(Restrictions.in("id", list))
+                .setProjection(Projections.projectionList()
+                        .add(Projections.property("id"))
+                        .add(Projections.property("modificationTime")))
+                .list();
+        for (Object[] row : result)
+            times.put((Long) row[0], (Date) row[1]);
+        return times;
+    }
+
     public List<Long> filterByUserId(String userId, List<Long> entries) {
         if (entries.isEmpty())
             return new ArrayList<>();
@@ -1,15 +1,16 @@
 package org.jbei.ice.storage.hibernate.dao;
 
-import org.hibernate.ScrollableResults;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.sql.JoinType;
+import org.jbei.ice.lib.dto.Curation;
+import org.jbei.ice.lib.dto.DNAFeature;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.Feature;
+import org.jbei.ice.storage.model.SequenceFeature;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Hibernate data accessor object for {@link Feature}s
@@ -40,6 +41,41 @@ public class FeatureDAO extends HibernateRepository<Feature> {
                 .list();
     }
 
+    /**
+     * Retrieves (in order of id) the details of the named features that have not been excluded by curation
+     * and are therefore used for auto annotation
+     *
+     * @param afterId retrieve features with an id greater than this value
+     * @param size    maximum number of features to retrieve
+     * @return list of features with the id, name, genbank type (as the type) and sequence set
+     */
+    public List<DNAFeature> getAnnotationFeatures(long afterId, int size) {
+        List<Object[]> rows = currentSession().createCriteria(Feature.class)
+                .createAlias("curation", "curation", JoinType.LEFT_OUTER_JOIN)
+                .add(Restrictions.neOrIsNotNull("name", ""))
+                .add(Restrictions.or(Restrictions.isNull("curation.id"), Restrictions.eq("curation.exclude", false)))
+                .add(Restrictions.gt("id", afterId))
+                .setProjection(Projections.projectionList()
+                        .add(Projections.property("id"))
+                        .add(Projections.property("name"))
+                        .add(Projections.property("genbankType"))
+                        .add(Projections.property("sequence")))
+                .addOrder(Order.asc("id"))
+                .setMaxResults(size)
+                .list();
+
+        List<DNAFeature> features = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            DNAFeature feature = new DNAFeature();
+            feature.setId((Long) row[0]);
+            feature.setName((String) row[1]);
+            feature.setType((String) row[2]);
+            feature.setSequence((String) row[3]);
+            features.add(feature);
+        }
+        return features;
+    }
+
     public long getFeaturesGroupByCount() {
         Number number = (Number) currentSession().createCriteria(Feature.class)
                 .add(Restrictions.neOrIsNotNull("name", ""))
@@ -48,26 +84,76 @@ public class FeatureDAO extends HibernateRepository<Feature> {
         return number.longValue();
     }
 
-    public Map<String, List<Feature>> getFeaturesGroupBy(int offset, int size) {
+    /**
+     * Retrieves a page of features grouped by (case insensitive) name, along with the entries whose sequences
+     * they are annotated on. The features and their entries are each retrieved with a single query and the
+     * feature sequences are not loaded (only their length)
+     *
+     * @param offset paging start (of names)
+     * @param size   maximum number of names to retrieve
+     * @return mapping of name to features with that name, in order of name. Each feature has the id, name,
+     * genbank type (as the annotation type), uri, curation, sequence length and entry ids set
+     */
+    public Map<String, List<DNAFeature>> getFeaturesGroupBy(int offset, int size) {
         // get unique names
-        ScrollableResults scrollableResults = currentSession().createCriteria(Feature.class)
+        List<String> names = currentSession().createCriteria(Feature.class)
                 .add(Restrictions.neOrIsNotNull("name", ""))
                 .setProjection(Projections.distinct(Projections.property("name")))
                 .setFirstResult(offset)
                 .setMaxResults(size)
                 .addOrder(Order.asc("name"))
-                .scroll();
+                .list();
 
-        Map<String, List<Feature>> results = new HashMap<>();
+        Map<String, List<DNAFeature>> results = new LinkedHashMap<>();
+        if (names.isEmpty())
+            return results;
+
+        // names differing only in case share features
+        Map<String, List<String>> lowerCaseNames = new HashMap<>();
+        for (String name : names) {
+            results.put(name, new ArrayList<>());
+            lowerCaseNames.computeIfAbsent(name.toLowerCase(), k -> new ArrayList<>()).add(name);
+        }
 
         // get all features that match
-        while (scrollableResults.next()) {
-            Object[] result = scrollableResults.get();
-            String name = (String) result[0];
-            List list = currentSession().createCriteria(Feature.class)
-                    .add(Restrictions.eq("name", name).ignoreCase())
-                    .list();
-            results.put(name, list);
+        List<Object[]> rows = currentSession().createQuery(
+                "select f.id, f.name, f.genbankType, f.uri, length(f.sequence), c.exclude "
+                        + "from " + Feature.class.getName() + " f left join f.curation c "
+                        + "where lower(f.name) in (:names)")
+                .setParameterList("names", lowerCaseNames.keySet())
+                .list();
+
+        Map<Long, DNAFeature> features = new HashMap<>();
+        for (Object[] row : rows) {
+            DNAFeature feature = new DNAFeature();
+            feature.setId((Long) row[0]);
+            feature.setName((String) row[1]);
+            feature.setAnnotationType((String) row[2]);
+            feature.setUri((String) row[3]);
+            if (row[4] != null)
+                feature.setSequenceLength(((Number) row[4]).intValue());
+            if (row[5] != null) {
+                Curation curation = new Curation();
+                curation.setExclude((Boolean) row[5]);
+                feature.setCuration(curation);
+            }
+            features.put(feature.getId(), feature);
+
+            for (String name : lowerCaseNames.get(feature.getName().toLowerCase()))
+                results.get(name).add(feature);
+        }
+
+        // and the entries they are annotated on (a feature can be annotated more than once on a sequence)
+        List<Object[]> entries = currentSession().createQuery(
+                "select distinct f.id, s.entry.id from " + SequenceFeature.class.getName() + " sf "
+                        + "join sf.feature f join sf.sequence s where lower(f.name) in (:names)")
+                .setParameterList("names", lowerCaseNames.keySet())
+                .list();
+
+        for (Object[] row : entries) {
+            DNAFeature feature = features.get((Long) row[0]);
+            if (feature != null && row[1] != null)
+                feature.getEntries().add((Long) row[1]);
         }
         return results;
     }
@@ -10,8 +10,10 @@ import org.jbei.ice.lib.dto.common.PageParameters;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.Visibility;
 import org.jbei.ice.lib.dto.folder.FolderType;
+import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.hibernate.PageCursor;
 import org.jbei.ice.storage.model.*;
 
 import java.util.Date;
@@ -127,48 +129,89 @@ public class FolderDAO extends HibernateRepository<Folder> {
      */
     public List<Entry> retrieveFolderContents(long folderId, PageParameters pageParameters, boolean visibleOnly) {
         try {
-            String sortString;
-            switch (pageParameters.getSortField()) {
-                default:
-                case CREATED:
-                    sortString = "id";
-                    break;
-
-                case STATUS:
-                    sortString = "status";
-                    break;
-
-                case NAME:
-                    sortString = "name";
-                    break;
-
-                case PART_ID:
-                    sortString = "partNumber";
-                    break;
-
-                case TYPE:
-                    sortString = "recordType";
-                    break;
-            }
-
-            Criteria criteria = currentSession().createCriteria(Entry.class);
-            if (visibleOnly)
-                criteria.add(Restrictions.eq("visibility", Visibility.OK.getValue()));
-            criteria.createAlias("folders", "folder");
-            criteria.add(Restrictions.eq("folder.id", folderId));
+            return createFolderContentsCriteria(folderId, pageParameters, visibleOnly).list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
 
-            addFilter(criteria, pageParameters.getFilter());
+    /**
+     * Retrieves the identifiers of the entries that conform to the parameters
+     *
+     * @see #retrieveFolderContents(long, PageParameters, boolean)
+     */
+    public List<Long> retrieveFolderContentIds(long folderId, PageParameters pageParameters, boolean visibleOnly) {
+        try {
+            return createFolderContentsCriteria(folderId, pageParameters, visibleOnly)
+                    .setProjection(Projections.id())
+                    .list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
 
-            criteria.addOrder(pageParameters.isAscending() ? Order.asc(sortString) : Order.desc(sortString));
-            criteria.setMaxResults(pageParameters.getLimit());
-            criteria.setFirstResult(pageParameters.getOffset());
-            return criteria.list();
+    /**
+     * Retrieves the identifiers of the entries that conform to the parameters, following the position of the
+     * specified cursor. The offset in the page parameters is ignored
+     *
+     * @see #retrieveFolderContents(long, PageParameters, boolean)
+     */
+    public List<Long> retrieveFolderContentIds(long folderId, PageParameters pageParameters, PageCursor cursor,
+                                               boolean visibleOnly) {
+        try {
+            Criteria criteria = createFolderCriteria(folderId, pageParameters.getFilter(), visibleOnly);
+            return cursor.list(criteria, getSortProperty(cursor.getSortField()), "id", pageParameters.getLimit());
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
         }
     }
 
+    private Criteria createFolderContentsCriteria(long folderId, PageParameters pageParameters, boolean visibleOnly) {
+        String sortString = getSortProperty(pageParameters.getSortField());
+        Criteria criteria = createFolderCriteria(folderId, pageParameters.getFilter(), visibleOnly);
+        criteria.addOrder(pageParameters.isAscending() ? Order.asc(sortString) : Order.desc(sortString));
+        criteria.setMaxResults(pageParameters.getLimit());
+        criteria.setFirstResult(pageParameters.getOffset());
+        return criteria;
+    }
+
+    private Criteria createFolderCriteria(long folderId, String filter, boolean visibleOnly) {
+        Criteria criteria = currentSession().createCriteria(Entry.class);
+        if (visibleOnly)
+            criteria.add(Restrictions.eq("visibility", Visibility.OK.getValue()));
+        criteria.createAlias("folders", "folder");
+        criteria.add(Restrictions.eq("folder.id", folderId));
+
+        addFilter(criteria, filter);
+        return criteria;
+    }
+
+    private String getSortProperty(ColumnField field) {
+        if (field == null)
+            return "id";
+
+        switch (field) {
+            default:
+            case CREATED:
+                return "id";
+
+            case STATUS:
+                return "status";
+
+            case NAME:
+                return "name";
+
+            case PART_ID:
+                return "partNumber";
+
+            case TYPE:
+                return "recordType";
+        }
+    }
+
     protected final void addFilter(Criteria criteria, String filterText) {
         if (filterText == null || filterText.trim().isEmpty())
             return;
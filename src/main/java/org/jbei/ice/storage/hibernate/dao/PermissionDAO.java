@@ -5,13 +5,18 @@ import org.hibernate.HibernateException;
 import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.criterion.*;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.sql.JoinType;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.entry.Visibility;
+import org.jbei.ice.lib.dto.folder.FolderType;
 import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,6 +29,8 @@ import java.util.Set;
 @SuppressWarnings("unchecked")
 public class PermissionDAO extends HibernateRepository<Permission> {
 
+    private static final int BATCH_SIZE = 500;
+
     public boolean hasPermission(Entry entry, Folder folder, BulkUpload upload, Account account, Group group,
                                  boolean canRead, boolean canWrite) {
         try {
@@ -103,6 +110,97 @@ public class PermissionDAO extends HibernateRepository<Permission> {
         }
     }
 
+    /**
+     * Determines which of the specified entries the account has been explicitly granted write permissions on
+     *
+     * @param account  account
+     * @param entryIds unique identifiers for entries
+     * @return identifiers of the subset of entries that the account has write permissions on
+     */
+    public Set<Long> getWritableEntryIds(Account account, Collection<Long> entryIds) {
+        if (account == null || entryIds.isEmpty())
+            return new HashSet<>();
+
+        try {
+            List<Long> result = currentSession().createCriteria(Permission.class)
+                    .add(Restrictions.eq("canWrite", true))
+                    .add(Restrictions.eq("canRead", false))
+                    .add(Restrictions.isNull("group"))
+                    .add(Restrictions.isNull("folder"))
+                    .add(Restrictions.eq("account", account))
+                    .add(Restrictions.in("entry.id", entryIds))
+                    .setProjection(Projections.distinct(Projections.property("entry.id")))
+                    .list();
+            return new HashSet<>(result);
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException(e);
+        }
+    }
+
+    /**
+     * Determines which of the specified entries the account or any of the groups have been granted read or write
+     * permissions on, either directly or through a folder that contains them. Entries in public folders are
+     * also included. Ownership of the entries is not checked
+     *
+     * @param account  account. Optional
+     * @param groups   groups that the account belongs to
+     * @param entryIds unique identifiers for entries
+     * @return identifiers of the subset of entries that can be read
+     */
+    public Set<Long> getReadableEntryIds(Account account, Set<Group> groups, Collection<Long> entryIds) {
+        Set<Long> readable = new HashSet<>();
+        if (entryIds.isEmpty())
+            return readable;
+
+        boolean hasGroups = groups != null && !groups.isEmpty();
+        try {
+            List<Long> ids = new ArrayList<>(entryIds);
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                List<Long> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+
+                // entry permissions
+                String folderPermission = null;
+                if (account != null || hasGroups) {
+                    Disjunction disjunction = Restrictions.disjunction();
+                    if (account != null)
+                        disjunction.add(Restrictions.eq("account", account));
+                    if (hasGroups)
+                        disjunction.add(Restrictions.in("group", groups));
+
+                    readable.addAll(currentSession().createCriteria(Permission.class)
+                            .add(Restrictions.in("entry.id", batch))
+                            .add(disjunction)
+                            .setProjection(Projections.distinct(Projections.property("entry.id")))
+                            .list());
+
+                    folderPermission = account == null ? "p.group in (:groups)"
+                            : (hasGroups ? "(p.account = :account or p.group in (:groups))" : "p.account = :account");
+                }
+
+                // public folders and folder permissions
+                String hql = "select distinct e.id from " + Folder.class.getName() + " f join f.contents e "
+                        + "where e.id in (:ids) and (f.type = :type";
+                if (folderPermission != null) {
+                    hql += " or f.id in (select p.folder.id from " + Permission.class.getName()
+                            + " p where p.folder is not null and " + folderPermission + ")";
+                }
+                Query query = currentSession().createQuery(hql + ")")
+                        .setParameterList("ids", batch)
+                        .setParameter("type", FolderType.PUBLIC);
+                if (account != null)
+                    query.setParameter("account", account);
+                if (hasGroups)
+                    query.setParameterList("groups", groups);
+                readable.addAll(query.list());
+            }
+            return readable;
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException(e);
+        }
+    }
+
     public Permission retrievePermission(Entry entry, Folder folder, BulkUpload upload, Account account, Group group,
                                          boolean canRead, boolean canWrite) {
         try {
@@ -378,6 +476,109 @@ public class PermissionDAO extends HibernateRepository<Permission> {
         return number.intValue() == entries.size();
     }
 
+    /**
+     * Adds the account and group permissions set on the specified folder to the entries contained in it. Entries
+     * that already have a matching permission are not modified. The missing permissions are determined and
+     * created in the database without loading the entries
+     *
+     * @param folder folder whose permissions are being propagated
+     * @return set of ids for entries that had permissions added
+     * @throws DAOException on HibernateException
+     */
+    public Set<Long> addFolderPermissionsToContents(Folder folder) {
+        Set<Long> entryIds = new HashSet<>();
+        Dialect dialect = ((SessionFactoryImplementor) currentSession().getSessionFactory()).getDialect();
+        try {
+            // one statement per folder permission; there are typically few of these compared to the entries
+            for (Permission permission : getFolderPermissions(folder)) {
+                String column;
+                String other;
+                long articleId;
+                if (permission.getAccount() != null) {
+                    column = "account_id";
+                    other = "group_id";
+                    articleId = permission.getAccount().getId();
+                } else if (permission.getGroup() != null) {
+                    column = "group_id";
+                    other = "account_id";
+                    articleId = permission.getGroup().getId();
+                } else {
+                    continue;   // remote shares are not propagated
+                }
+
+                // native sql since "group" cannot be used as a property in an hql insert
+                String missing = " from folder_entry fe where fe.folder_id = :folderId and not exists (select ep.id"
+                        + " from permission ep where ep.entry_id = fe.entry_id and ep." + column + " = :articleId"
+                        + " and ep." + other + " is null and ep.folder_id is null and ep.upload_id is null"
+                        + " and ep.can_read = :canRead and ep.can_write = :canWrite)";
+
+                Query query = currentSession().createSQLQuery("select distinct fe.entry_id" + missing);
+                setPropagationParameters(query, folder, permission, articleId);
+                List<Number> ids = query.list();
+                if (ids.isEmpty())
+                    continue;
+
+                for (Number id : ids)
+                    entryIds.add(id.longValue());
+                query = currentSession().createSQLQuery("insert into permission (id, " + column
+                        + ", can_read, can_write, entry_id) select "
+                        + dialect.getSelectSequenceNextValString("permission_id_seq")
+                        + ", :articleId, :canRead, :canWrite, fe.entry_id" + missing);
+                setPropagationParameters(query, folder, permission, articleId);
+                query.executeUpdate();
+            }
+            return entryIds;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private void setPropagationParameters(Query query, Folder folder, Permission permission, long articleId) {
+        query.setParameter("folderId", folder.getId());
+        query.setParameter("articleId", articleId);
+        query.setParameter("canRead", permission.isCanRead());
+        query.setParameter("canWrite", permission.isCanWrite());
+    }
+
+    /**
+     * Removes the permissions on the entries contained in the specified folder that match the account and group
+     * permissions set on the folder
+     *
+     * @param folder folder whose permissions are being removed from its contents
+     * @return set of ids for entries that had permissions removed
+     * @throws DAOException on HibernateException
+     */
+    public Set<Long> removeFolderPermissionsFromContents(Folder folder) {
+        try {
+            List<Object[]> results = currentSession().createQuery("select distinct ep.id, ep.entry.id from "
+                    + Permission.class.getName() + " ep, " + Permission.class.getName() + " p, "
+                    + Folder.class.getName() + " f join f.contents e where p.folder = :folder and f = :folder"
+                    + " and ep.entry = e and ep.folder is null and ep.upload is null and ep.canRead = p.canRead"
+                    + " and ep.canWrite = p.canWrite and ((p.account is not null and ep.account = p.account"
+                    + " and ep.group is null) or (p.group is not null and ep.group = p.group"
+                    + " and ep.account is null))")
+                    .setParameter("folder", folder).list();
+
+            Set<Long> entryIds = new HashSet<>();
+            List<Long> permissionIds = new ArrayList<>(results.size());
+            for (Object[] result : results) {
+                permissionIds.add((Long) result[0]);
+                entryIds.add((Long) result[1]);
+            }
+
+            for (int i = 0; i < permissionIds.size(); i += BATCH_SIZE) {
+                List<Long> batch = permissionIds.subList(i, Math.min(i + BATCH_SIZE, permissionIds.size()));
+                currentSession().createQuery("delete from " + Permission.class.getName() + " where id in (:ids)")
+                        .setParameterList("ids", batch).executeUpdate();
+            }
+            return entryIds;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     @Override
     public Permission get(long id) {
         return super.get(Permission.class, id);
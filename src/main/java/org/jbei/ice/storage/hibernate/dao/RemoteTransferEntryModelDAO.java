@@ -0,0 +1,15 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.model.RemoteTransferEntryModel;
+
+/**
+ * @author Hector Plahar
+ */
+public class RemoteTransferEntryModelDAO extends HibernateRepository<RemoteTransferEntryModel> {
+
+    @Override
+    public RemoteTransferEntryModel get(long id) {
+        return super.get(RemoteTransferEntryModel.class, id);
+    }
+}
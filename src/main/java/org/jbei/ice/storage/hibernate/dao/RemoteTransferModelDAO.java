@@ -0,0 +1,35 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.jbei.ice.lib.dto.web.TransferStatus;
+import org.jbei.ice.storage.DAOException;
+import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.model.RemoteTransferModel;
+
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+@SuppressWarnings("unchecked")
+public class RemoteTransferModelDAO extends HibernateRepository<RemoteTransferModel> {
+
+    @Override
+    public RemoteTransferModel get(long id) {
+        return super.get(RemoteTransferModel.class, id);
+    }
+
+    public List<RemoteTransferModel> getByStatus(TransferStatus status) throws DAOException {
+        return currentSession().createCriteria(RemoteTransferModel.class)
+                .add(Restrictions.eq("status", status))
+                .addOrder(Order.asc("id"))
+                .list();
+    }
+
+    public List<RemoteTransferModel> getAll() throws DAOException {
+        return currentSession().createCriteria(RemoteTransferModel.class)
+                .addOrder(Order.desc("id"))
+                .list();
+    }
+}
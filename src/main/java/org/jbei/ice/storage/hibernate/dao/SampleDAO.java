@@ -12,8 +12,7 @@ import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Sample;
 import org.jbei.ice.storage.model.Storage;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author Timothy Ham, Zinovii Dmytriv, Hector Plahar
@@ -37,6 +36,30 @@ public class SampleDAO extends HibernateRepository<Sample> {
         }
     }
 
+    /**
+     * Determines which of the specified entries have at least one sample
+     *
+     * @param entryIds unique identifiers for entries
+     * @return identifiers of the subset of entries that have samples
+     * @throws DAOException on hibernate exception
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Long> getEntriesWithSamples(Collection<Long> entryIds) throws DAOException {
+        if (entryIds.isEmpty())
+            return new HashSet<>();
+
+        try {
+            List<Long> result = currentSession().createCriteria(Sample.class)
+                    .add(Restrictions.in("entry.id", entryIds))
+                    .setProjection(Projections.distinct(Projections.property("entry.id")))
+                    .list();
+            return new HashSet<>(result);
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Failed to retrieve samples for entries", e);
+        }
+    }
+
     public int getSampleCount(Entry entry) {
         Number itemCount = (Number) currentSession().createCriteria(Sample.class)
                 .setProjection(Projections.countDistinct("id"))
@@ -44,6 +67,29 @@ public class SampleDAO extends HibernateRepository<Sample> {
         return itemCount.intValue();
     }
 
+    /**
+     * Retrieves the number of samples at each storage location that has samples
+     *
+     * @return map of storage identifier to the number of samples stored there
+     * @throws DAOException on hibernate exception
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, Integer> getStorageSampleCounts() throws DAOException {
+        try {
+            List<Object[]> rows = currentSession().createQuery("select sample.storage.id, count(sample.id) from "
+                    + Sample.class.getName() + " sample where sample.storage is not null group by sample.storage.id")
+                    .list();
+            Map<Long, Integer> counts = new HashMap<>();
+            for (Object[] row : rows) {
+                counts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
+            return counts;
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Failed to retrieve sample counts for storage", e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public ArrayList<Sample> getSamplesByEntry(Entry entry) throws DAOException {
         Query query = currentSession().createQuery("from " + Sample.class.getName() + " where entry=:entry");
@@ -5,10 +5,17 @@ import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
 import org.hibernate.Query;
 import org.hibernate.Session;
+import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.SequenceSummary;
 import org.jbei.ice.lib.dto.entry.Visibility;
+import org.jbei.ice.lib.entry.sequence.NearDuplicateIndex;
+import org.jbei.ice.lib.entry.sequence.PackedSequence;
+import org.jbei.ice.lib.entry.sequence.SequencePacking;
+import org.jbei.ice.lib.entry.sequence.SequenceSketch;
+import org.jbei.ice.lib.entry.sequence.annotation.FeatureMatcher;
 import org.jbei.ice.lib.utils.SequenceUtils;
 import org.jbei.ice.lib.utils.UtilityException;
 import org.jbei.ice.storage.DAOException;
@@ -16,11 +23,7 @@ import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.*;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Manipulate {@link Sequence} and associated objects in the database.
@@ -29,6 +32,10 @@ import java.util.Set;
  */
 @SuppressWarnings("unchecked")
 public class SequenceDAO extends HibernateRepository<Sequence> {
+
+    // maximum number of hashes bound to a single feature lookup query
+    private static final int HASH_QUERY_BATCH_SIZE = 500;
+
     /**
      * Save the given {@link Sequence} object in the database.
      *
@@ -50,36 +57,14 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
         }
 
         // create sequence
+        sequence.updateSummary();
+        packIfEnabled(sequence);
         sequence = create(sequence);
+        NearDuplicateIndex.getInstance().sequenceSaved(sequence);
 
         // separate out sequence features and uniquely create features
-        if (sequenceFeatureSet != null) {
-            for (SequenceFeature sequenceFeature : sequenceFeatureSet) {
-                Feature feature = sequenceFeature.getFeature();
-
-                if (feature == null) {
-                    throw new DAOException("SequenceFeature has no feature");
-                }
-
-                Feature existingFeature = getFeatureBySequence(feature.getSequence());
-
-                if (existingFeature == null) {
-                    // new feature -> save it
-                    FeatureDAO featureDAO = DAOFactory.getFeatureDAO();
-                    existingFeature = featureDAO.create(feature);
-                } else {
-                    if (!sameFeatureUri(existingFeature, feature)) {
-                        // same sequence feature but different uri
-                        // sequence hash fwa uniqueness causes problems when trying to save a new feature with same seq
-                        existingFeature.setUri(feature.getUri());
-                    }
-                }
-
-                sequenceFeature.setFeature(existingFeature);
-                sequenceFeature.setSequence(sequence);
-                DAOFactory.getSequenceFeatureDAO().create(sequenceFeature);
-            }
-        }
+        if (sequenceFeatureSet != null)
+            saveSequenceFeatures(sequence, sequenceFeatureSet, true);
 
         return sequence;
     }
@@ -117,21 +102,14 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
         }
 
         sequence.setSequenceFeatures(null);
+        sequence.updateSummary();
+        packIfEnabled(sequence);
         sequence = update(sequence);
+        NearDuplicateIndex.getInstance().sequenceSaved(sequence);
 
         // add new features
-        if (newFeatures != null) {
-            for (SequenceFeature sequenceFeature : newFeatures) {
-                Feature newFeature = sequenceFeature.getFeature();
-                Feature newFeatureExisting = getFeatureBySequence(newFeature.getSequence());
-                if (newFeatureExisting == null) {
-                    newFeatureExisting = DAOFactory.getFeatureDAO().create(newFeature);
-                }
-                sequenceFeature.setFeature(newFeatureExisting);
-                sequenceFeature.setSequence(sequence);
-                DAOFactory.getSequenceFeatureDAO().create(sequenceFeature);
-            }
-        }
+        if (newFeatures != null)
+            saveSequenceFeatures(sequence, newFeatures, false);
 
         return sequence;
     }
@@ -139,19 +117,16 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
     /**
      * Delete the given {@link Sequence} object in the database.
      *
-     * @param sequence          sequence to delete
-     * @param pigeonImageFolder path of the image folder where the pigeon images are cached
+     * @param sequence sequence to delete
      */
-    public void deleteSequence(Sequence sequence, String pigeonImageFolder) {
-        String sequenceHash = sequence.getFwdHash();
+    public void deleteSequence(Sequence sequence) {
         try {
+            if (sequence.getEntry() != null)
+                NearDuplicateIndex.getInstance().sequenceDeleted(sequence.getEntry().getId());
             sequence.setEntry(null);
             sequence.getSequenceFeatures();
             super.delete(sequence);
             currentSession().flush();
-            Files.deleteIfExists(Paths.get(pigeonImageFolder, sequenceHash + ".png"));
-        } catch (IOException e) {
-            Logger.warn(e.getMessage());
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
@@ -177,10 +152,193 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
     }
 
     public String getSequenceString(Entry entry) {
-        return (String) currentSession().createCriteria(Sequence.class)
+        Object[] result = (Object[]) currentSession().createCriteria(Sequence.class)
                 .add(Restrictions.eq("entry", entry))
-                .setProjection(Projections.property("sequence"))
+                .setProjection(Projections.projectionList()
+                        .add(Projections.property("sequence"))
+                        .add(Projections.property("packedSequence")))
                 .uniqueResult();
+        if (result == null)
+            return null;
+
+        if (result[0] == null && result[1] != null)
+            return PackedSequence.unpack((byte[]) result[1]);
+        return (String) result[0];
+    }
+
+    /**
+     * Retrieves the length, original sequence flag and checksum of the sequence associated with the specified
+     * entry without loading the sequence
+     *
+     * @param entryId unique identifier for entry
+     * @return summary of sequence or null if the entry does not have a sequence
+     */
+    public SequenceSummary getSequenceSummary(long entryId) {
+        try {
+            Object[] result = (Object[]) currentSession().createCriteria(Sequence.class)
+                    .add(Restrictions.eq("entry.id", entryId))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.property("id"))
+                            .add(Projections.property("basePairCount"))
+                            .add(Projections.property("hasOriginalSequence"))
+                            .add(Projections.property("fwdHash")))
+                    .uniqueResult();
+            if (result == null)
+                return null;
+
+            long id = (Long) result[0];
+            if (result[1] == null || result[2] == null) {
+                // sequence saved before these were maintained; compute until updated by updateSequenceSummaries()
+                Sequence sequence = currentSession().get(Sequence.class, id);
+                sequence.updateSummary();
+                currentSession().evict(sequence);
+                return new SequenceSummary(id, sequence.getBasePairCount(), sequence.getHasOriginalSequence(),
+                        (String) result[3]);
+            }
+            return new SequenceSummary(id, (Integer) result[1], (Boolean) result[2], (String) result[3]);
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Failed to retrieve sequence summary for entry: " + entryId, e);
+        }
+    }
+
+    /**
+     * Retrieves the sequence summaries for the specified entries without loading the sequences
+     * (other than those saved before the summary values were maintained)
+     *
+     * @param entryIds unique identifiers for entries
+     * @return mapping of entry identifier to sequence summary. Entries without sequences are not included
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, SequenceSummary> getSequenceSummaries(Collection<Long> entryIds) {
+        Map<Long, SequenceSummary> summaries = new HashMap<>();
+        if (entryIds.isEmpty())
+            return summaries;
+
+        try {
+            List<Object[]> result = currentSession().createCriteria(Sequence.class)
+                    .add(Restrictions.in("entry.id", entryIds))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.property("entry.id"))
+                            .add(Projections.property("id"))
+                            .add(Projections.property("basePairCount"))
+                            .add(Projections.property("hasOriginalSequence"))
+                            .add(Projections.property("fwdHash")))
+                    .list();
+
+            for (Object[] row : result) {
+                long entryId = (Long) row[0];
+                if (row[2] == null || row[3] == null)
+                    summaries.put(entryId, getSequenceSummary(entryId));
+                else
+                    summaries.put(entryId, new SequenceSummary((Long) row[1], (Integer) row[2], (Boolean) row[3],
+                            (String) row[4]));
+            }
+            return summaries;
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Failed to retrieve sequence summaries", e);
+        }
+    }
+
+    /**
+     * Computes the base pair count, original sequence flag and sketch for the next batch of sequences that were saved
+     * before these were maintained. The session is flushed and cleared after the batch
+     *
+     * @param batchSize maximum number of sequences to update
+     * @return number of sequences updated. 0 indicates that there are no more sequences to update
+     */
+    public int updateSequenceSummaries(int batchSize) {
+        Session session = currentSession();
+        try {
+            List<Sequence> sequences = session.createCriteria(Sequence.class)
+                    .add(Restrictions.or(Restrictions.isNull("basePairCount"),
+                            Restrictions.isNull("hasOriginalSequence"), Restrictions.isNull("sketch")))
+                    .addOrder(Order.asc("id"))
+                    .setMaxResults(batchSize)
+                    .list();
+
+            for (Sequence sequence : sequences) {
+                sequence.updateSummary();
+                session.update(sequence);
+            }
+            session.flush();
+            session.clear();
+            return sequences.size();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves the next batch of sequence sketches (see {@link Sequence#getSketch()}), in order of sequence id
+     *
+     * @param afterId sequence id after which to start retrieving
+     * @param limit   maximum number of sketches to retrieve
+     * @return list of [sequence id, entry id, sketch] for the sequences that have an entry and a sketch
+     */
+    public List<Object[]> getSketches(long afterId, int limit) {
+        try {
+            return currentSession().createCriteria(Sequence.class)
+                    .add(Restrictions.gt("id", afterId))
+                    .add(Restrictions.isNotNull("entry"))
+                    .add(Restrictions.isNotNull("sketch"))
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.property("id"))
+                            .add(Projections.property("entry.id"))
+                            .add(Projections.property("sketch")))
+                    .addOrder(Order.asc("id"))
+                    .setMaxResults(limit)
+                    .list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Packs (see {@link Sequence#pack()}) the next batch of sequences that are still stored as text. The rows are
+     * updated with bulk queries so that the (unchanged) search index documents of the entries are not rebuilt.
+     * Pending changes in the session are flushed before and the session is cleared after the batch
+     *
+     * @param batchSize maximum number of sequences to pack
+     * @return number of sequences packed. 0 indicates that there are no more sequences to pack
+     */
+    public int packSequences(int batchSize) {
+        Session session = currentSession();
+        try {
+            session.flush();
+            List<Object[]> rows = session.createQuery("select s.id, s.sequence, s.sequenceUser from "
+                    + Sequence.class.getName() + " s where s.sequence is not null and s.packedSequence is null "
+                    + "order by s.id")
+                    .setMaxResults(batchSize)
+                    .list();
+
+            Query update = session.createQuery("update " + Sequence.class.getName() + " set packedSequence = "
+                    + ":packed, sequence = null, basePairCount = :count, hasOriginalSequence = :original, "
+                    + "sketch = :sketch where id = :id");
+            for (Object[] row : rows) {
+                String value = (String) row[1];
+                String sequenceUser = (String) row[2];
+                update.setParameter("packed", PackedSequence.pack(value))
+                        .setParameter("count", value.trim().length())
+                        .setParameter("original", sequenceUser != null && !sequenceUser.isEmpty())
+                        .setParameter("sketch", SequenceSketch.toBytes(SequenceSketch.compute(value)))
+                        .setParameter("id", row[0])
+                        .executeUpdate();
+            }
+            session.clear();
+            return rows.size();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private void packIfEnabled(Sequence sequence) {
+        if (SequencePacking.getInstance().isEnabled())
+            sequence.pack();
     }
 
     public boolean hasSequence(long entryId) {
@@ -281,43 +439,98 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
     }
 
     /**
-     * Retrieve the {@link Feature} object with the given DNA sequence string.
+     * Associates the sequence features with the sequence and saves them. The unique {@link Feature}s
+     * referenced by the sequence features are resolved in bulk by their forward and reverse complement
+     * sequence hashes; features that do not already exist are created.
      *
-     * @param featureDnaSequence dna sequence of feature
-     * @return Feature object.
-     * @throws DAOException
+     * @param sequence         sequence the features belong to
+     * @param sequenceFeatures features to save
+     * @param updateUri        whether to update the uri of existing features that differ from the new feature's
+     * @throws DAOException if a sequence feature has no feature or the features cannot be retrieved
      */
-    private Feature getFeatureBySequence(String featureDnaSequence) {
-        featureDnaSequence = featureDnaSequence.toLowerCase();
-        Feature result;
-        Session session = currentSession();
+    private void saveSequenceFeatures(Sequence sequence, Set<SequenceFeature> sequenceFeatures, boolean updateUri) {
+        Map<String, String[]> sequenceHashes = new HashMap<>();
+        Set<String> hashes = new HashSet<>();
+
+        // compute all forward and reverse complement hashes up front
+        for (SequenceFeature sequenceFeature : sequenceFeatures) {
+            Feature feature = sequenceFeature.getFeature();
+            if (feature == null)
+                throw new DAOException("SequenceFeature has no feature");
+
+            String featureSequence = feature.getSequence().toLowerCase();
+            if (sequenceHashes.containsKey(featureSequence))
+                continue;
+
+            try {
+                String[] featureHashes = new String[]{
+                        SequenceUtils.calculateSequenceHash(featureSequence),
+                        SequenceUtils.calculateReverseComplementSequenceHash(featureSequence)
+                };
+                sequenceHashes.put(featureSequence, featureHashes);
+                hashes.add(featureHashes[0]);
+                hashes.add(featureHashes[1]);
+            } catch (UtilityException e) {
+                Logger.error(e);
+                throw new DAOException("Failed to get Feature by sequence!", e);
+            }
+        }
+
+        Map<String, Feature> existing = getFeaturesByHash(hashes);
+        FeatureDAO featureDAO = DAOFactory.getFeatureDAO();
+        SequenceFeatureDAO sequenceFeatureDAO = DAOFactory.getSequenceFeatureDAO();
+
+        for (SequenceFeature sequenceFeature : sequenceFeatures) {
+            Feature feature = sequenceFeature.getFeature();
+            String[] featureHashes = sequenceHashes.get(feature.getSequence().toLowerCase());
+            Feature existingFeature = existing.get(featureHashes[0]);
+            if (existingFeature == null)
+                existingFeature = existing.get(featureHashes[1]);
+
+            if (existingFeature == null) {
+                // new feature -> save it
+                existingFeature = featureDAO.create(feature);
+                existing.put(featureHashes[0], existingFeature);
+            } else if (updateUri && !sameFeatureUri(existingFeature, feature)) {
+                // same sequence feature but different uri
+                // sequence hash fwa uniqueness causes problems when trying to save a new feature with same seq
+                existingFeature.setUri(feature.getUri());
+            }
+
+            sequenceFeature.setFeature(existingFeature);
+            sequenceFeature.setSequence(sequence);
+            sequenceFeatureDAO.create(sequenceFeature);
+            FeatureMatcher.getInstance().featureAdded(existingFeature, sequenceFeature.getStrand());
+        }
+    }
+
+    /**
+     * Retrieve the {@link Feature}s with the specified sequence hashes.
+     *
+     * @param hashes sha1 hashes of the feature sequences
+     * @return mapping of hash to feature for the hashes that match an existing feature
+     * @throws DAOException on exception retrieving the features
+     */
+    private Map<String, Feature> getFeaturesByHash(Set<String> hashes) {
+        Map<String, Feature> result = new HashMap<>();
+        if (hashes.isEmpty())
+            return result;
 
         try {
-            String queryString = "from " + Feature.class.getName() + " where hash = :hash";
-            Query query = session.createQuery(queryString);
-            query.setParameter("hash", SequenceUtils.calculateSequenceHash(featureDnaSequence));
-
-            Object queryResult = query.uniqueResult();
-
-            if (queryResult != null) {
-                result = (Feature) queryResult;
-            } else {
-                String reverseComplement = SequenceUtils.reverseComplement(featureDnaSequence);
-                String sequenceHash = SequenceUtils.calculateSequenceHash(reverseComplement);
-                query.setParameter("hash", sequenceHash);
-                queryResult = query.uniqueResult();
-                if (queryResult != null) {
-                    result = (Feature) queryResult;
-                } else {
-                    result = null;
-                }
+            List<String> hashList = new ArrayList<>(hashes);
+            for (int i = 0; i < hashList.size(); i += HASH_QUERY_BATCH_SIZE) {
+                List<String> batch = hashList.subList(i, Math.min(hashList.size(), i + HASH_QUERY_BATCH_SIZE));
+                List<Feature> features = currentSession().createCriteria(Feature.class)
+                        .add(Restrictions.in("hash", batch))
+                        .list();
+                for (Feature feature : features)
+                    result.put(feature.getHash(), feature);
             }
-        } catch (HibernateException | UtilityException e) {
+            return result;
+        } catch (HibernateException e) {
             Logger.error(e);
-            throw new DAOException("Failed to get Feature by sequence!", e);
+            throw new DAOException("Failed to get Features by sequence hash!", e);
         }
-
-        return result;
     }
 
     /**
@@ -8,7 +8,7 @@ import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Feature;
 import org.jbei.ice.storage.model.SequenceFeature;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * Hibernate Data accessor object for {@link SequenceFeature}s
@@ -36,6 +36,30 @@ public class SequenceFeatureDAO extends HibernateRepository<SequenceFeature> {
                 .list();
     }
 
+    /**
+     * Retrieves the strands that each of the specified features has been annotated on
+     *
+     * @param featureIds unique identifiers for features
+     * @return mapping of feature id to strands. Features that are not used in any sequence are not included
+     */
+    public Map<Long, Set<Integer>> getFeatureStrands(Collection<Long> featureIds) {
+        Map<Long, Set<Integer>> strands = new HashMap<>();
+        if (featureIds.isEmpty())
+            return strands;
+
+        List<Object[]> rows = currentSession().createCriteria(SequenceFeature.class)
+                .add(Restrictions.in("feature.id", featureIds))
+                .setProjection(Projections.distinct(Projections.projectionList()
+                        .add(Projections.property("feature.id"))
+                        .add(Projections.property("strand"))))
+                .list();
+
+        for (Object[] row : rows) {
+            strands.computeIfAbsent((Long) row[0], k -> new HashSet<>()).add((Integer) row[1]);
+        }
+        return strands;
+    }
+
     public int getFeatureCount(Entry entry) {
         Number number = (Number) currentSession().createCriteria(SequenceFeature.class)
                 .createAlias("sequence", "sequence")
@@ -1,6 +1,7 @@
 package org.jbei.ice.storage.hibernate.dao;
 
 import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
 import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.criterion.Projections;
@@ -101,6 +102,25 @@ public class StorageDAO extends HibernateRepository<Storage> {
         return result;
     }
 
+    /**
+     * Retrieves the hierarchy information for all storage locations
+     *
+     * @return list of [id, parent id (or null), storage type, index] for each storage, ordered by id
+     * @throws DAOException on hibernate exception
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getStorageHierarchy() throws DAOException {
+        try {
+            Query query = currentSession().createQuery("select storage.id, parent.id, storage.storageType, "
+                    + "storage.index from " + Storage.class.getName()
+                    + " storage left join storage.parent parent order by storage.id");
+            return query.list();
+        } catch (HibernateException e) {
+            Logger.error(e);
+            throw new DAOException("Could not retrieve storage hierarchy", e);
+        }
+    }
+
     @Override
     public Storage get(long id) {
         return super.get(Storage.class, id);
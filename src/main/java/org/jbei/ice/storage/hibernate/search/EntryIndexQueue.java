@@ -0,0 +1,268 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.search.IndexQueueStatistics;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Entry;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of entries waiting to be (re)indexed. When enabled, updates to entries are not written to the
+ * lucene index at transaction commit (see {@link EntryIndexingInterceptor}). Instead the ids of the updated entries
+ * are added to this queue once the transaction commits successfully and a background worker indexes them in
+ * batches. Multiple updates to the same entry while it is waiting in the queue are coalesced into a single
+ * index update.
+ * <p>
+ * If the queue is full, updates fall back to the default synchronous indexing so none are lost.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class EntryIndexQueue {
+
+    private static final int CAPACITY = 10000;
+    private static final int BATCH_SIZE = 100;
+    private static final long INTERVAL_MILLIS = 500;
+
+    // entry id -> time first enqueued
+    private final LinkedHashMap<Long, Long> queue = new LinkedHashMap<>();
+    private final ThreadLocal<Set<Long>> pending = ThreadLocal.withInitial(HashSet::new);
+    private ScheduledExecutorService worker;
+    private volatile boolean enabled;
+
+    // metrics
+    private long enqueued;
+    private long coalesced;
+    private long indexed;
+    private long batches;
+    private long failures;
+    private long lastBatchMillis;
+    private long totalBatchMillis;
+
+    private EntryIndexQueue() {
+    }
+
+    private static class SingletonHolder {
+        private static final EntryIndexQueue INSTANCE = new EntryIndexQueue();
+    }
+
+    public static EntryIndexQueue getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables asynchronous indexing. Disabling does not discard entries already in the queue;
+     * they are indexed before the worker stops
+     *
+     * @param enable whether to enable asynchronous indexing
+     */
+    public void setEnabled(boolean enable) {
+        ScheduledExecutorService stopped = null;
+
+        synchronized (this) {
+            if (enable == this.enabled)
+                return;
+
+            this.enabled = enable;
+            if (enable) {
+                worker = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "ice-index-queue");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+                worker.scheduleWithFixedDelay(this::drain, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } else {
+                stopped = worker;
+                worker = null;
+            }
+        }
+
+        Logger.info("Asynchronous search indexing " + (enable ? "enabled" : "disabled"));
+        if (stopped != null)
+            stopWorker(stopped);
+    }
+
+    /**
+     * Stops the background worker after indexing any entries remaining in the queue
+     */
+    public void shutdown() {
+        setEnabled(false);
+    }
+
+    /**
+     * Defers indexing of the specified entry until the current transaction commits.
+     *
+     * @param entryId unique identifier for entry that requires indexing
+     * @return true if the update has been deferred; false if the caller should index synchronously
+     * (asynchronous indexing is disabled or the queue is full)
+     */
+    boolean defer(long entryId) {
+        if (!enabled)
+            return false;
+
+        Set<Long> transactionIds = pending.get();
+        synchronized (this) {
+            if (!transactionIds.contains(entryId) && queue.size() + transactionIds.size() >= CAPACITY)
+                return false;
+        }
+        transactionIds.add(entryId);
+        return true;
+    }
+
+    /**
+     * Notification that the current thread's transaction has completed. Deferred updates are added to the
+     * queue on commit and discarded on rollback
+     *
+     * @param committed whether the transaction committed successfully
+     */
+    public void transactionCompleted(boolean committed) {
+        Set<Long> transactionIds = pending.get();
+        if (transactionIds.isEmpty())
+            return;
+
+        if (committed) {
+            long now = System.currentTimeMillis();
+            synchronized (this) {
+                for (Long id : transactionIds) {
+                    if (queue.putIfAbsent(id, now) == null)
+                        enqueued += 1;
+                    else
+                        coalesced += 1;
+                }
+            }
+        }
+        transactionIds.clear();
+    }
+
+    /**
+     * Indexes all the entries currently in the queue, in batches
+     */
+    public void drain() {
+        try {
+            while (indexBatch() > 0) ;
+        } catch (Throwable e) {
+            Logger.error(e);
+        }
+    }
+
+    public synchronized IndexQueueStatistics getStatistics() {
+        IndexQueueStatistics statistics = new IndexQueueStatistics();
+        statistics.setEnabled(enabled);
+        statistics.setQueueSize(queue.size());
+        if (!queue.isEmpty())
+            statistics.setLagMillis(System.currentTimeMillis() - queue.values().iterator().next());
+        statistics.setEnqueued(enqueued);
+        statistics.setCoalesced(coalesced);
+        statistics.setIndexed(indexed);
+        statistics.setBatches(batches);
+        statistics.setFailures(failures);
+        statistics.setLastBatchMillis(lastBatchMillis);
+        if (totalBatchMillis > 0)
+            statistics.setIndexedPerSecond(indexed * 1000.0 / totalBatchMillis);
+        return statistics;
+    }
+
+    private int indexBatch() {
+        List<Long> ids = new ArrayList<>(BATCH_SIZE);
+        synchronized (this) {
+            Iterator<Long> iterator = queue.keySet().iterator();
+            while (iterator.hasNext() && ids.size() < BATCH_SIZE) {
+                ids.add(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        if (ids.isEmpty())
+            return 0;
+
+        long start = System.currentTimeMillis();
+        try {
+            indexEntries(ids);
+        } catch (RuntimeException e) {
+            // return entries to the queue for the next run
+            long now = System.currentTimeMillis();
+            synchronized (this) {
+                failures += 1;
+                for (Long id : ids)
+                    queue.putIfAbsent(id, now);
+            }
+            throw e;
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        synchronized (this) {
+            indexed += ids.size();
+            batches += 1;
+            lastBatchMillis = duration;
+            totalBatchMillis += duration;
+        }
+        return ids.size();
+    }
+
+    /**
+     * Indexes the specified entries immediately, in batches, using a separate session. Intended for bulk
+     * updates that bypass the index (e.g. HQL updates) and for which the changes have already been committed
+     *
+     * @param entryIds unique identifiers for entries to index
+     */
+    public void index(Collection<Long> entryIds) {
+        List<Long> ids = new ArrayList<>(entryIds);
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            indexEntries(ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())));
+        }
+    }
+
+    private void indexEntries(List<Long> ids) {
+        Session session = HibernateUtil.newSession();
+        Transaction transaction = null;
+        try {
+            session.setFlushMode(FlushMode.MANUAL);
+            session.setCacheMode(CacheMode.IGNORE);
+            FullTextSession fullTextSession = Search.getFullTextSession(session);
+            transaction = fullTextSession.beginTransaction();
+            for (Long id : ids) {
+                Entry entry = fullTextSession.get(Entry.class, id);
+                if (entry != null)
+                    fullTextSession.index(entry);
+            }
+            fullTextSession.flushToIndexes();
+            transaction.commit();
+            SearchResultCache.getInstance().indexChanged();
+        } catch (RuntimeException e) {
+            if (transaction != null)
+                transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    private void stopWorker(ScheduledExecutorService stopped) {
+        stopped.shutdown();
+        try {
+            if (!stopped.awaitTermination(10, TimeUnit.SECONDS))
+                stopped.shutdownNow();
+        } catch (InterruptedException ie) {
+            stopped.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // index whatever is left
+        drain();
+    }
+}
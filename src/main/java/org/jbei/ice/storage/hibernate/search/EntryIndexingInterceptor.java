@@ -0,0 +1,47 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.hibernate.search.indexes.interceptor.EntityIndexingInterceptor;
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+import org.jbei.ice.storage.model.Entry;
+
+/**
+ * Hands off index updates for {@link Entry}s to the {@link EntryIndexQueue} when asynchronous indexing
+ * is enabled. New and deleted entries are always indexed synchronously so they show up in (or disappear from)
+ * search results immediately. Updates applied at commit are also reported to the {@link SearchResultCache}
+ *
+ * @author Hector Plahar
+ */
+public class EntryIndexingInterceptor implements EntityIndexingInterceptor<Entry> {
+
+    @Override
+    public IndexingOverride onAdd(Entry entity) {
+        return applyDefault();
+    }
+
+    @Override
+    public IndexingOverride onUpdate(Entry entity) {
+        return defer(entity);
+    }
+
+    @Override
+    public IndexingOverride onDelete(Entry entity) {
+        return applyDefault();
+    }
+
+    @Override
+    public IndexingOverride onCollectionUpdate(Entry entity) {
+        return defer(entity);
+    }
+
+    private IndexingOverride defer(Entry entity) {
+        if (EntryIndexQueue.getInstance().defer(entity.getId()))
+            return IndexingOverride.SKIP;
+        return applyDefault();
+    }
+
+    // index is updated when the transaction commits
+    private IndexingOverride applyDefault() {
+        SearchResultCache.getInstance().indexUpdated();
+        return IndexingOverride.APPLY_DEFAULT;
+    }
+}
@@ -0,0 +1,171 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.util.Bits;
+import org.jbei.ice.lib.dto.search.SearchFacets;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Lucene collector that counts the documents it is given by entry type, bio-safety level, owner, year of creation
+ * and by whether the entry has a sample, sequence or attachment; computing all the facets for a search in a
+ * single pass over the matching documents.
+ * <p>
+ * Field values are read from doc values; the segment readers are expected to un-invert the fields that do not have
+ * them (see {@link SearchHits}). Types and owners are counted by ordinal for each segment and only resolved
+ * to their values when moving to the next segment
+ *
+ * @author Hector Plahar
+ */
+class FacetCollector extends SimpleCollector {
+
+    static final int MAX_OWNERS = 25;
+
+    private final HashMap<String, Long> entryTypes = new HashMap<>();
+    private final HashMap<String, Long> owners = new HashMap<>();
+    private final HashMap<Long, Long> bioSafetyLevels = new HashMap<>();
+    private final HashMap<Integer, Long> creationYears = new HashMap<>();
+    private long hasSample;
+    private long hasSequence;
+    private long hasAttachment;
+
+    // current segment
+    private SortedDocValues types;
+    private int[] typeCounts;
+    private SortedDocValues ownerEmails;
+    private int[] ownerCounts;
+    private NumericDocValues levels;
+    private Bits levelsPresent;
+    private NumericDocValues creationTimes;
+    private Bits creationTimesPresent;
+    private PostingsEnum samples;
+    private PostingsEnum sequences;
+    private PostingsEnum attachments;
+
+    // creation times are indexed with day resolution so consecutive documents often share the same value
+    private long lastCreationTime = Long.MIN_VALUE;
+    private int lastCreationYear;
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        flushSegment();
+
+        LeafReader reader = context.reader();
+        types = reader.getSortedDocValues("recordType");
+        typeCounts = types == null ? null : new int[types.getValueCount()];
+        ownerEmails = reader.getSortedDocValues("ownerEmail");
+        ownerCounts = ownerEmails == null ? null : new int[ownerEmails.getValueCount()];
+        levels = reader.getNumericDocValues("bioSafetyLevel");
+        levelsPresent = reader.getDocsWithField("bioSafetyLevel");
+        creationTimes = reader.getNumericDocValues("creationTime");
+        creationTimesPresent = reader.getDocsWithField("creationTime");
+        samples = reader.postings(new Term("hasSample", "true"), PostingsEnum.NONE);
+        sequences = reader.postings(new Term("hasSequence", "true"), PostingsEnum.NONE);
+        attachments = reader.postings(new Term("hasAttachment", "true"), PostingsEnum.NONE);
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        if (types != null) {
+            int ord = types.getOrd(doc);
+            if (ord >= 0)
+                typeCounts[ord] += 1;
+        }
+
+        if (ownerEmails != null) {
+            int ord = ownerEmails.getOrd(doc);
+            if (ord >= 0)
+                ownerCounts[ord] += 1;
+        }
+
+        if (levels != null && levelsPresent.get(doc))
+            bioSafetyLevels.merge(levels.get(doc), 1L, Long::sum);
+
+        if (creationTimes != null && creationTimesPresent.get(doc))
+            creationYears.merge(getYear(creationTimes.get(doc)), 1L, Long::sum);
+
+        if (matches(samples, doc))
+            hasSample += 1;
+        if (matches(sequences, doc))
+            hasSequence += 1;
+        if (matches(attachments, doc))
+            hasAttachment += 1;
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    /**
+     * @return counts for all the documents collected
+     */
+    SearchFacets getFacets() {
+        flushSegment();
+
+        SearchFacets facets = new SearchFacets();
+        facets.setEntryTypes(new HashMap<>(entryTypes));
+        for (Map.Entry<Long, Long> entry : bioSafetyLevels.entrySet()) {
+            facets.getBioSafetyLevels().put(Long.toString(entry.getKey()), entry.getValue());
+        }
+        for (Map.Entry<Integer, Long> entry : creationYears.entrySet()) {
+            facets.getCreationYears().put(Integer.toString(entry.getKey()), entry.getValue());
+        }
+
+        List<Map.Entry<String, Long>> ownerList = new ArrayList<>(owners.entrySet());
+        ownerList.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> entry : ownerList.subList(0, Math.min(MAX_OWNERS, ownerList.size()))) {
+            facets.getOwners().put(entry.getKey(), entry.getValue());
+        }
+
+        facets.setHasSample(hasSample);
+        facets.setHasSequence(hasSequence);
+        facets.setHasAttachment(hasAttachment);
+        return facets;
+    }
+
+    // resolves the ordinal counts for the current segment to their values
+    private void flushSegment() {
+        addOrdinalCounts(types, typeCounts, entryTypes);
+        addOrdinalCounts(ownerEmails, ownerCounts, owners);
+        types = null;
+        typeCounts = null;
+        ownerEmails = null;
+        ownerCounts = null;
+    }
+
+    private static void addOrdinalCounts(SortedDocValues values, int[] counts, HashMap<String, Long> totals) {
+        if (values == null)
+            return;
+
+        for (int ord = 0; ord < counts.length; ord += 1) {
+            if (counts[ord] == 0)
+                continue;
+            totals.merge(values.lookupOrd(ord).utf8ToString(), (long) counts[ord], Long::sum);
+        }
+    }
+
+    // documents are collected in order so the postings only ever need to be advanced
+    private static boolean matches(PostingsEnum postings, int doc) throws IOException {
+        if (postings == null)
+            return false;
+
+        int current = postings.docID();
+        if (current < doc)
+            current = postings.advance(doc);
+        return current == doc && current != DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    private int getYear(long creationTime) {
+        if (creationTime != lastCreationTime) {
+            lastCreationTime = creationTime;
+            lastCreationYear = Instant.ofEpochMilli(creationTime).atZone(ZoneOffset.UTC).getYear();
+        }
+        return lastCreationYear;
+    }
+}
@@ -2,11 +2,14 @@ package org.jbei.ice.storage.hibernate.search;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.*;
 import org.hibernate.Session;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
 import org.hibernate.search.Search;
+import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.search.query.dsl.QueryBuilder;
 import org.hibernate.search.query.dsl.TermContext;
 import org.jbei.ice.lib.account.AccountController;
@@ -26,8 +29,11 @@ import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.ModelToInfoFactory;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.filter.EntryHasFilterFactory;
+import org.jbei.ice.storage.hibernate.filter.EntrySecurityFilterFactory;
 import org.jbei.ice.storage.model.Entry;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -109,30 +115,28 @@ public class HibernateSearch {
         // check if there is a blast results
         createBlastFilterQuery(fullTextSession, blastResults, builder);
 
-        // wrap Lucene query in a org.hibernate.Query
-        FullTextQuery fullTextQuery = fullTextSession.createFullTextQuery(builder.build(), Entry.class);
-
         // get sorting values
         Sort sort = getSort(searchQuery.getParameters().isSortAscending(), searchQuery.getParameters().getSortField());
-        fullTextQuery.setSort(sort);
-
-        // enable security filter if needed
-        checkEnableSecurityFilter(userId, fullTextQuery);
 
-        // enable has attachment/sequence/sample (if needed)
-        checkEnableHasAttribute(fullTextQuery, searchQuery.getParameters());
+        // security filter and has attachment/sequence/sample (if needed)
+        Query luceneQuery = applyFilters(userId, builder.build(), searchQuery);
 
-        // set paging params
-        fullTextQuery.setFirstResult(searchQuery.getParameters().getStart());
-        fullTextQuery.setMaxResults(searchQuery.getParameters().getRetrieveCount());
-
-        resultCount = fullTextQuery.getResultSize();
-        List result = fullTextQuery.list();
+        // count and top hits (possibly cached)
+        SearchHits hits = search(fullTextSession, luceneQuery, sort, searchQuery.getParameters(), blastResults == null);
+        if (hits == null)
+            return new SearchResults();
 
+        resultCount = hits.getTotalHits();
         LinkedList<SearchResult> searchResults = new LinkedList<>();
+        int start = searchQuery.getParameters().getStart();
+        int end = Math.min(hits.size(), start + searchQuery.getParameters().getRetrieveCount());
+        HashMap<Long, Entry> entries = getEntries(hits, start, end);
+
+        for (int i = start; i < end; i += 1) {
+            Entry entry = entries.get(hits.getEntryId(i));
+            if (entry == null)
+                continue;
 
-        for (Object object : result) {
-            Entry entry = (Entry) object;
             SearchResult searchResult;
             if (blastResults != null) {
                 searchResult = blastResults.get(Long.toString(entry.getId()));
@@ -152,6 +156,8 @@ public class HibernateSearch {
         SearchResults results = new SearchResults();
         results.setResultCount(resultCount);
         results.setResults(searchResults);
+        if (searchQuery.getParameters().isIncludeFacets())
+            results.setFacets(hits.getFacets());
 
         Logger.info(userId + ": obtained " + resultCount + " results for empty query");
         return results;
@@ -241,7 +247,7 @@ public class HibernateSearch {
         // get classes for search
         HashSet<String> fields = new HashSet<>();
         fields.addAll(SearchFieldFactory.entryFields(searchQuery.getEntryTypes()));
-        Class<?>[] classes = SearchFieldFactory.classesForTypes(searchQuery.getEntryTypes());
+        QueryBuilder qb = fullTextSession.getSearchFactory().buildQueryBuilder().forEntity(Entry.class).get();
 
         // generate queries for terms filtering stop words
         for (Map.Entry<String, QueryType> entry : terms.entrySet()) {
@@ -250,53 +256,37 @@ public class HibernateSearch {
                 continue;
 
             BioSafetyOption safetyOption = searchQuery.getBioSafetyOption();
-            generateQueriesForType(fullTextSession, fields, builder, term, entry.getValue(), safetyOption);
+            generateQueriesForType(qb, fields, builder, term, entry.getValue(), safetyOption);
         }
 
         // check for blast search results filter
         createBlastFilterQuery(fullTextSession, blastResults, builder);
 
-        // wrap Lucene query in a org.hibernate.Query
-        FullTextQuery fullTextQuery = fullTextSession.createFullTextQuery(builder.build(), classes);
-
-        // get max score
-        fullTextQuery.setFirstResult(0);
-        fullTextQuery.setMaxResults(1);
-        fullTextQuery.setProjection(FullTextQuery.SCORE);
-        List result = fullTextQuery.list();
-        float maxScore = -1f;
-        if (result.size() == 1) {
-            maxScore = (Float) ((Object[]) (result.get(0)))[0];
-        }
-        // end get max score
-
         // get sorting values
         Sort sort = getSort(searchQuery.getParameters().isSortAscending(), searchQuery.getParameters().getSortField());
-        fullTextQuery.setSort(sort);
 
-        // projection (specified properties must be stored in the index @Field(store=Store.YES))
-        fullTextQuery.setProjection(FullTextQuery.SCORE, FullTextQuery.THIS);
+        // entry types, security filter and has attachment/sequence/sample (if needed)
+        Query luceneQuery = applyFilters(userId, builder.build(), searchQuery);
 
-        // enable security filter if needed
-        fullTextQuery = checkEnableSecurityFilter(userId, fullTextQuery);
+        // count, max score and top hits (possibly cached)
+        SearchHits hits = search(fullTextSession, luceneQuery, sort, searchQuery.getParameters(), blastResults == null);
+        if (hits == null)
+            return new SearchResults();
 
-        // check sample
-        checkEnableHasAttribute(fullTextQuery, searchQuery.getParameters());
-
-        // set paging params
-        fullTextQuery.setFirstResult(searchQuery.getParameters().getStart());
-        fullTextQuery.setMaxResults(searchQuery.getParameters().getRetrieveCount());
-
-        resultCount = fullTextQuery.getResultSize();
-
-        // execute search
-        result = fullTextQuery.list();
+        resultCount = hits.getTotalHits();
+        float maxScore = hits.getMaxScore();
         Logger.info(resultCount + " results for \"" + searchQuery.getQueryString() + "\"");
 
         LinkedList<SearchResult> searchResults = new LinkedList<>();
-        for (Object[] objects : (Iterable<Object[]>) result) {
-            float score = (Float) objects[0];
-            Entry entry = (Entry) objects[1];
+        int start = searchQuery.getParameters().getStart();
+        int end = Math.min(hits.size(), start + searchQuery.getParameters().getRetrieveCount());
+        HashMap<Long, Entry> entries = getEntries(hits, start, end);
+
+        for (int i = start; i < end; i += 1) {
+            Entry entry = entries.get(hits.getEntryId(i));
+            if (entry == null)
+                continue;
+
             SearchResult searchResult;
             if (blastResults != null) {
                 searchResult = blastResults.get(Long.toString(entry.getId()));
@@ -304,7 +294,7 @@ public class HibernateSearch {
                     continue;
             } else {
                 searchResult = new SearchResult();
-                searchResult.setScore(score);
+                searchResult.setScore(hits.getScore(i));
                 PartData info = ModelToInfoFactory.createTableViewData(userId, entry, true);
                 if (info == null)
                     continue;
@@ -319,13 +309,114 @@ public class HibernateSearch {
         SearchResults results = new SearchResults();
         results.setResultCount(resultCount);
         results.setResults(searchResults);
+        if (searchQuery.getParameters().isIncludeFacets())
+            results.setFacets(hits.getFacets());
         return results;
     }
 
-    protected BooleanQuery.Builder generateQueriesForType(FullTextSession fullTextSession, HashSet<String> fields,
+    /**
+     * Restricts a search query with the same filters that are applied to searches; the entry types, the security
+     * filter and the has attachment/sequence/sample parameters
+     *
+     * @param userId      identifier for account of user performing search
+     * @param query       lucene query for the search terms
+     * @param searchQuery search query with the search parameters
+     * @return filtered query
+     */
+    protected Query applyFilters(String userId, Query query, SearchQuery searchQuery) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(query, BooleanClause.Occur.MUST);
+
+        // entry types
+        ArrayList<EntryType> entryTypes = searchQuery.getEntryTypes();
+        if (entryTypes != null && !entryTypes.isEmpty()) {
+            BooleanQuery.Builder typesBuilder = new BooleanQuery.Builder();
+            for (EntryType type : entryTypes) {
+                typesBuilder.add(new TermQuery(new Term("recordType", type.getName())), BooleanClause.Occur.SHOULD);
+            }
+            builder.add(typesBuilder.build(), BooleanClause.Occur.FILTER);
+        }
+
+        // security filter
+        Set<String> groupUUIDs = getSecurityGroupUUIDs(userId);
+        if (groupUUIDs != null) {
+            EntrySecurityFilterFactory securityFilterFactory = new EntrySecurityFilterFactory();
+            securityFilterFactory.setAccount(userId);
+            securityFilterFactory.setGroupUUids(new HashSet<>(groupUUIDs));
+            builder.add(securityFilterFactory.getFilter(), BooleanClause.Occur.FILTER);
+        }
+
+        // has attachment/sequence/sample
+        ArrayList<String> hasAttributes = getHasAttributes(searchQuery.getParameters());
+        if (!hasAttributes.isEmpty()) {
+            EntryHasFilterFactory hasFilterFactory = new EntryHasFilterFactory();
+            hasFilterFactory.setField(hasAttributes);
+            builder.add(hasFilterFactory.getFilter(), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Runs a search, collecting the total count, maximum score, top hits and (if requested) facet counts in a
+     * single pass over the matching entries. Hits are retrieved from the {@link SearchResultCache} if the same
+     * search has been run against the current generation of the index
+     *
+     * @param fullTextSession current full text session
+     * @param query           lucene query, including all filters
+     * @param sort            sort order for hits
+     * @param parameters      search parameters (paging and whether to include facets)
+     * @param cacheable       whether the hits can be cached
+     * @return hits for the search or null on exception reading the index
+     */
+    protected SearchHits search(FullTextSession fullTextSession, Query query, Sort sort,
+                                SearchQuery.Parameters parameters, boolean cacheable) {
+        int depth = parameters.getStart() + parameters.getRetrieveCount();
+        boolean includeFacets = parameters.isIncludeFacets();
+
+        IndexReaderAccessor readerAccessor = fullTextSession.getSearchFactory().getIndexReaderAccessor();
+        IndexReader reader = readerAccessor.open(Entry.class);
+        try {
+            SearchResultCache cache = SearchResultCache.getInstance();
+            String generation = SearchResultCache.getGeneration(reader);
+            String key = cacheable && generation != null ? SearchResultCache.key(query, sort) : null;
+            if (key != null) {
+                SearchHits hits = cache.get(key, generation);
+                if (hits != null && hits.covers(depth, includeFacets))
+                    return hits;
+                depth = Math.max(depth, SearchResultCache.MIN_DEPTH);
+            }
+
+            SearchHits hits = SearchHits.collect(reader, generation, query, sort, depth, includeFacets);
+            if (key != null)
+                cache.put(key, hits);
+            return hits;
+        } catch (IOException e) {
+            Logger.error("Exception running search", e);
+            return null;
+        } finally {
+            readerAccessor.close(reader);
+        }
+    }
+
+    // retrieves the entries for a range of hits
+    private HashMap<Long, Entry> getEntries(SearchHits hits, int start, int end) {
+        HashMap<Long, Entry> entries = new HashMap<>();
+        if (start >= end)
+            return entries;
+
+        List<Long> ids = new ArrayList<>(end - start);
+        for (int i = start; i < end; i += 1) {
+            ids.add(hits.getEntryId(i));
+        }
+        for (Entry entry : DAOFactory.getEntryDAO().getEntriesByIdSet(ids)) {
+            entries.put(entry.getId(), entry);
+        }
+        return entries;
+    }
+
+    protected BooleanQuery.Builder generateQueriesForType(QueryBuilder qb, HashSet<String> fields,
                                                           BooleanQuery.Builder builder, String term, QueryType type,
                                                           BioSafetyOption option) {
-        QueryBuilder qb = fullTextSession.getSearchFactory().buildQueryBuilder().forEntity(Entry.class).get();
         if (!StringUtils.isEmpty(term)) {
             // generate term queries for each search term
             Query query;
@@ -388,7 +479,7 @@ public class HibernateSearch {
                 return new Sort(new SortField("partNumber_forSort", SortField.Type.STRING, asc));
 
             case CREATED:
-                return new Sort(new SortField("creationTime", SortField.Type.INT, asc));
+                return new Sort(new SortField("creationTime", SortField.Type.LONG, asc));
         }
     }
 
@@ -417,18 +508,9 @@ public class HibernateSearch {
      * @param fullTextQuery search fulltextquery for which filter is enabled
      */
     protected FullTextQuery checkEnableSecurityFilter(String userId, FullTextQuery fullTextQuery) {
-        Set<String> groupUUIDs;
-
-        if (StringUtils.isEmpty(userId)) {
-            groupUUIDs = new HashSet<>();
-            groupUUIDs.add(GroupController.PUBLIC_GROUP_UUID);
-        } else {
-            AccountController accountController = new AccountController();
-            if (accountController.isAdministrator(userId)) {
-                return fullTextQuery;
-            }
-            groupUUIDs = new GroupController().retrieveAccountGroupUUIDs(userId);
-        }
+        Set<String> groupUUIDs = getSecurityGroupUUIDs(userId);
+        if (groupUUIDs == null)
+            return fullTextQuery;
 
         fullTextQuery.enableFullTextFilter("security")
                 .setParameter("account", userId)
@@ -436,11 +518,40 @@ public class HibernateSearch {
         return fullTextQuery;
     }
 
+    /**
+     * Retrieves the groups used by the security filter to restrict search results to the entries that an account
+     * can read
+     *
+     * @param userId identifier for account
+     * @return uuids for the groups the account belongs to, the public group for anonymous users or null if the
+     * account has administrative privileges (and the security filter is not needed)
+     */
+    protected Set<String> getSecurityGroupUUIDs(String userId) {
+        if (StringUtils.isEmpty(userId)) {
+            Set<String> groupUUIDs = new HashSet<>();
+            groupUUIDs.add(GroupController.PUBLIC_GROUP_UUID);
+            return groupUUIDs;
+        }
+
+        AccountController accountController = new AccountController();
+        if (accountController.isAdministrator(userId))
+            return null;
+        return new GroupController().retrieveAccountGroupUUIDs(userId);
+    }
+
     protected void checkEnableHasAttribute(FullTextQuery fullTextQuery, SearchQuery.Parameters parameters) {
-        if (parameters == null)
+        ArrayList<String> terms = getHasAttributes(parameters);
+        if (terms.isEmpty())
             return;
 
+        fullTextQuery.enableFullTextFilter("boolean")
+                .setParameter("field", terms);
+    }
+
+    protected ArrayList<String> getHasAttributes(SearchQuery.Parameters parameters) {
         ArrayList<String> terms = new ArrayList<>();
+        if (parameters == null)
+            return terms;
 
         if (parameters.getHasSample()) {
             terms.add("hasSample");
@@ -453,12 +564,7 @@ public class HibernateSearch {
         if (parameters.getHasSequence()) {
             terms.add("hasSequence");
         }
-
-        if (terms.isEmpty())
-            return;
-
-        fullTextQuery.enableFullTextFilter("boolean")
-                .setParameter("field", terms);
+        return terms;
     }
 
     protected static String cleanQuery(String query) {
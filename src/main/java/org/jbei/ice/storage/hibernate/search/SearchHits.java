@@ -0,0 +1,162 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.search.*;
+import org.apache.lucene.uninverting.UninvertingReader;
+import org.jbei.ice.lib.dto.search.SearchFacets;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Top hits for a search: the total number of matching entries, the maximum score and the identifiers and scores of
+ * the first (up to {@link #getDepth()}) entries in sort order. Optionally also the facet counts for all the matching
+ * entries. All of these are collected in a single pass over the matching documents.
+ * <p>
+ * Hits are for a specific generation of the index and are cached (see {@link SearchResultCache}) along with the
+ * query and sort used to collect them, so that they can be collected again when the index changes
+ *
+ * @author Hector Plahar
+ */
+class SearchHits {
+
+    // fields without doc values that are sorted or faceted on
+    private static final Map<String, UninvertingReader.Type> UNINVERTED_FIELDS = new HashMap<>();
+    private static final Set<String> ID_FIELD = Collections.singleton("id");
+
+    static {
+        UNINVERTED_FIELDS.put("partNumber_forSort", UninvertingReader.Type.SORTED);
+        UNINVERTED_FIELDS.put("ownerEmail", UninvertingReader.Type.SORTED);
+        UNINVERTED_FIELDS.put("bioSafetyLevel", UninvertingReader.Type.INTEGER);
+    }
+
+    private final Query query;
+    private final Sort sort;
+    private final int depth;
+    private final String generation;
+    private final int totalHits;
+    private final float maxScore;
+    private final long[] entryIds;
+    private final float[] scores;
+    private final SearchFacets facets;
+
+    private SearchHits(Query query, Sort sort, int depth, String generation, int totalHits, float maxScore,
+                       long[] entryIds, float[] scores, SearchFacets facets) {
+        this.query = query;
+        this.sort = sort;
+        this.depth = depth;
+        this.generation = generation;
+        this.totalHits = totalHits;
+        this.maxScore = maxScore;
+        this.entryIds = entryIds;
+        this.scores = scores;
+        this.facets = facets;
+    }
+
+    /**
+     * Runs a search against the specified index reader
+     *
+     * @param reader        reader for the entry index
+     * @param generation    generation of the index the reader is for
+     * @param query         lucene query, including all filters
+     * @param sort          sort order for hits
+     * @param depth         maximum number of (top) hits to retrieve
+     * @param includeFacets whether to also count the matching entries by facet
+     * @return hits for the search
+     * @throws IOException on exception reading the index
+     */
+    static SearchHits collect(IndexReader reader, String generation, Query query, Sort sort, int depth,
+                              boolean includeFacets) throws IOException {
+        List<LeafReaderContext> leaves = reader.leaves();
+        IndexReader[] uninverted = new IndexReader[leaves.size()];
+        for (int i = 0; i < uninverted.length; i += 1) {
+            uninverted[i] = new UninvertingReader(leaves.get(i).reader(), UNINVERTED_FIELDS);
+        }
+
+        try (MultiReader searchReader = new MultiReader(uninverted, false)) {
+            IndexSearcher searcher = new IndexSearcher(searchReader);
+            TopFieldCollector topCollector = TopFieldCollector.create(sort, Math.max(1, depth), null, false, true,
+                    true);
+            FacetCollector facetCollector = includeFacets ? new FacetCollector() : null;
+            searcher.search(query, facetCollector == null ? topCollector
+                    : MultiCollector.wrap(topCollector, facetCollector));
+
+            TopDocs topDocs = topCollector.topDocs();
+            long[] entryIds = new long[topDocs.scoreDocs.length];
+            float[] scores = new float[topDocs.scoreDocs.length];
+            for (int i = 0; i < entryIds.length; i += 1) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                entryIds[i] = Long.parseLong(searcher.doc(scoreDoc.doc, ID_FIELD).get("id"));
+                scores[i] = scoreDoc.score;
+            }
+
+            float maxScore = topDocs.totalHits == 0 ? -1f : topDocs.getMaxScore();
+            SearchFacets facets = facetCollector == null ? null : facetCollector.getFacets();
+            return new SearchHits(query, sort, depth, generation, topDocs.totalHits, maxScore, entryIds, scores,
+                    facets);
+        }
+    }
+
+    Query getQuery() {
+        return query;
+    }
+
+    Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return maximum number of top hits that were retrieved
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    String getGeneration() {
+        return generation;
+    }
+
+    int getTotalHits() {
+        return totalHits;
+    }
+
+    float getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * @return number of top hits available (may be fewer than depth)
+     */
+    int size() {
+        return entryIds.length;
+    }
+
+    long getEntryId(int index) {
+        return entryIds[index];
+    }
+
+    float getScore(int index) {
+        return scores[index];
+    }
+
+    SearchFacets getFacets() {
+        return facets;
+    }
+
+    /**
+     * Determines if these hits can be used for a search with the specified parameters
+     *
+     * @param requiredDepth number of top hits required
+     * @param includeFacets whether facet counts are required
+     * @return true if the hits contain everything required
+     */
+    boolean covers(int requiredDepth, boolean includeFacets) {
+        return (requiredDepth <= depth || entryIds.length == totalHits) && (!includeFacets || facets != null);
+    }
+}
@@ -0,0 +1,253 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.hibernate.Session;
+import org.hibernate.search.Search;
+import org.hibernate.search.indexes.IndexReaderAccessor;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Entry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Least recently used cache of search hits, keyed by the search query (which includes the entry type, attribute
+ * and security filters and therefore the groups of the user performing the search) and sort order. Popular searches
+ * such as common part names or browsing public entries can then be served without running the query.
+ * <p>
+ * Cached hits are only valid for the generation of the index they were collected from and are ignored once the
+ * index changes. When a transaction that updated the index commits, the most recently used searches are run again
+ * (after a short delay, to group updates that are close together) against the new index so that the next request
+ * for them finds them in the cache and the new index segments are loaded.
+ * Implemented as a singleton
+ *
+ * @author Hector Plahar
+ */
+public class SearchResultCache {
+
+    private static final int CAPACITY = 256;
+    private static final int WARM_COUNT = 20;
+    private static final long WARM_DELAY_MILLIS = 1000;
+
+    // minimum number of top hits cached for a search, so that paging through the first results uses the cache
+    static final int MIN_DEPTH = 100;
+
+    private final LinkedHashMap<String, SearchHits> cache = new LinkedHashMap<String, SearchHits>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SearchHits> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private final ThreadLocal<Boolean> indexUpdated = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private ScheduledExecutorService warmer;
+    private boolean warmingScheduled;
+
+    // metrics
+    private long hits;
+    private long misses;
+
+    private SearchResultCache() {
+    }
+
+    private static class SingletonHolder {
+        private static final SearchResultCache INSTANCE = new SearchResultCache();
+    }
+
+    public static SearchResultCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Generates the cache key for a search
+     *
+     * @param query lucene query, including all filters
+     * @param sort  sort order for hits
+     * @return cache key
+     */
+    static String key(Query query, Sort sort) {
+        return query.toString() + "|" + sort.toString();
+    }
+
+    /**
+     * Determines the generation of the index that a reader is for. It changes whenever the index is updated
+     *
+     * @param reader reader for the entry index
+     * @return index generation, or null if it cannot be determined (in which case hits are not cached)
+     */
+    static String getGeneration(IndexReader reader) {
+        StringBuilder generation = new StringBuilder();
+        List<IndexReaderContext> children = reader.getContext().children();
+        if (children == null)
+            return null;
+
+        for (IndexReaderContext child : children) {
+            if (!(child.reader() instanceof DirectoryReader))
+                return null;
+
+            DirectoryReader directoryReader = (DirectoryReader) child.reader();
+            generation.append(System.identityHashCode(directoryReader.directory()))
+                    .append(':').append(directoryReader.getVersion()).append(';');
+        }
+        return generation.toString();
+    }
+
+    /**
+     * Retrieves the cached hits for a search
+     *
+     * @param key        cache key for the search
+     * @param generation current generation of the index
+     * @return cached hits or null if there are none for the current generation of the index
+     */
+    synchronized SearchHits get(String key, String generation) {
+        SearchHits searchHits = cache.get(key);
+        if (searchHits == null || !searchHits.getGeneration().equals(generation)) {
+            misses += 1;
+            return null;
+        }
+
+        hits += 1;
+        return searchHits;
+    }
+
+    synchronized void put(String key, SearchHits searchHits) {
+        SearchHits existing = cache.get(key);
+        if (existing != null && existing.getGeneration().equals(searchHits.getGeneration())
+                && existing.getDepth() > searchHits.getDepth())
+            return;
+        cache.put(key, searchHits);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Notification that the current thread's transaction is updating the search index
+     */
+    void indexUpdated() {
+        indexUpdated.set(Boolean.TRUE);
+    }
+
+    /**
+     * Notification that the current thread's transaction has completed. Cached searches are warmed if the
+     * transaction updated the index and committed successfully
+     *
+     * @param committed whether the transaction committed successfully
+     */
+    public void transactionCompleted(boolean committed) {
+        if (!indexUpdated.get())
+            return;
+
+        indexUpdated.set(Boolean.FALSE);
+        if (committed)
+            indexChanged();
+    }
+
+    /**
+     * Notification that changes have been written to the search index. Schedules warming of the cached searches
+     * if it is not already scheduled
+     */
+    public void indexChanged() {
+        synchronized (this) {
+            if (warmingScheduled || cache.isEmpty())
+                return;
+
+            if (warmer == null) {
+                warmer = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "ice-search-warmer");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+            }
+            warmingScheduled = true;
+            warmer.schedule(this::warm, WARM_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs the most recently used cached searches against the current index, if it has changed since they were
+     * cached
+     */
+    public void warm() {
+        List<Map.Entry<String, SearchHits>> recent;
+        synchronized (this) {
+            warmingScheduled = false;
+            recent = new ArrayList<>(cache.entrySet());
+        }
+        if (recent.isEmpty())
+            return;
+
+        // most recently used are at the end
+        recent = recent.subList(Math.max(0, recent.size() - WARM_COUNT), recent.size());
+
+        long start = System.currentTimeMillis();
+        int warmed = 0;
+        Session session = HibernateUtil.newSession();
+        try {
+            IndexReaderAccessor readerAccessor = Search.getFullTextSession(session).getSearchFactory()
+                    .getIndexReaderAccessor();
+            IndexReader reader = readerAccessor.open(Entry.class);
+            try {
+                String generation = getGeneration(reader);
+                if (generation == null)
+                    return;
+
+                for (Map.Entry<String, SearchHits> entry : recent) {
+                    SearchHits stale = entry.getValue();
+                    if (stale.getGeneration().equals(generation))
+                        continue;
+
+                    SearchHits searchHits = SearchHits.collect(reader, generation, stale.getQuery(),
+                            stale.getSort(), stale.getDepth(), stale.getFacets() != null);
+                    put(entry.getKey(), searchHits);
+                    warmed += 1;
+                }
+            } finally {
+                readerAccessor.close(reader);
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Exception warming search cache", e);
+        } finally {
+            session.close();
+        }
+
+        if (warmed > 0)
+            Logger.info("Warmed " + warmed + " cached searches in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Stops the background warming of cached searches
+     */
+    public void shutdown() {
+        ScheduledExecutorService stopped;
+        synchronized (this) {
+            stopped = warmer;
+            warmer = null;
+            warmingScheduled = false;
+            cache.clear();
+        }
+
+        if (stopped != null)
+            stopped.shutdownNow();
+    }
+}
@@ -4,6 +4,7 @@ import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.Indexed;
 import org.jbei.ice.lib.dto.entry.*;
+import org.jbei.ice.storage.hibernate.search.EntryIndexingInterceptor;
 
 import javax.persistence.*;
 import java.text.DateFormat;
@@ -26,7 +27,7 @@ import java.util.Date;
  * @author Timothy Ham, Hector Plahar
  */
 @Entity
-@Indexed
+@Indexed(interceptor = EntryIndexingInterceptor.class)
 @PrimaryKeyJoinColumn(name = "entries_id")
 @Table(name = "arabidopsis_seed")
 public class ArabidopsisSeed extends Entry {
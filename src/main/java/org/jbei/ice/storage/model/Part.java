@@ -2,6 +2,7 @@ package org.jbei.ice.storage.model;
 
 import org.hibernate.search.annotations.Indexed;
 import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.storage.hibernate.search.EntryIndexingInterceptor;
 
 import javax.persistence.*;
 
@@ -11,7 +12,7 @@ import javax.persistence.*;
  * @author Timothy Ham, Zinovii Dmytriv
  */
 @Entity
-@Indexed
+@Indexed(interceptor = EntryIndexingInterceptor.class)
 @PrimaryKeyJoinColumn(name = "entries_id")
 @Table(name = "parts")
 public class Part extends Entry {
@@ -5,6 +5,7 @@ import org.hibernate.search.annotations.Indexed;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.entry.PlasmidData;
+import org.jbei.ice.storage.hibernate.search.EntryIndexingInterceptor;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -25,7 +26,7 @@ import javax.persistence.Table;
  * @author Timothy Ham, Zinovii Dmytriv, Hector Plahar
  */
 @Entity
-@Indexed
+@Indexed(interceptor = EntryIndexingInterceptor.class)
 @PrimaryKeyJoinColumn(name = "entries_id")
 @Table(name = "plasmids")
 public class Plasmid extends Entry {
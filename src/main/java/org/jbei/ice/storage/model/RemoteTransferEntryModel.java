@@ -0,0 +1,142 @@
+package org.jbei.ice.storage.model;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jbei.ice.lib.dto.web.RemoteTransferEntryInfo;
+import org.jbei.ice.lib.dto.web.TransferStatus;
+import org.jbei.ice.storage.DataModel;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of a single (local) entry that is part of a {@link RemoteTransferModel}. Linked entries that are
+ * transferred along with the entry are recorded so the same data can be re-created when a transfer is resumed
+ *
+ * @author Hector Plahar
+ */
+@Entity
+@Table(name = "REMOTE_TRANSFER_ENTRY")
+@SequenceGenerator(name = "sequence", sequenceName = "remote_transfer_entry_id_seq", allocationSize = 1)
+public class RemoteTransferEntryModel implements DataModel {
+
+    public static final int ERROR_LENGTH = 1024;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "sequence")
+    private long id;
+
+    @ManyToOne
+    @JoinColumn(name = "remote_transfer_id", nullable = false)
+    private RemoteTransferModel transfer;
+
+    @Column(name = "entry_id", nullable = false)
+    private long entryId;
+
+    // comma separated ids of linked entries transferred with this entry
+    @Column(name = "linked_entry_ids", length = 4096)
+    private String linkedEntryIds;
+
+    // comma separated ids of the entry (and linked entries) on the remote partner, once transferred
+    @Column(name = "remote_ids", length = 4096)
+    private String remoteIds;
+
+    @Column(name = "status")
+    @Enumerated(value = EnumType.STRING)
+    private TransferStatus status;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Column(name = "error", length = ERROR_LENGTH)
+    private String error;
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    public RemoteTransferModel getTransfer() {
+        return transfer;
+    }
+
+    public void setTransfer(RemoteTransferModel transfer) {
+        this.transfer = transfer;
+    }
+
+    public long getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(long entryId) {
+        this.entryId = entryId;
+    }
+
+    public List<Long> getLinkedEntryIds() {
+        return split(linkedEntryIds);
+    }
+
+    public void setLinkedEntryIds(List<Long> ids) {
+        this.linkedEntryIds = join(ids);
+    }
+
+    public List<Long> getRemoteIds() {
+        return split(remoteIds);
+    }
+
+    public void setRemoteIds(List<Long> ids) {
+        this.remoteIds = join(ids);
+    }
+
+    public TransferStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransferStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = StringUtils.abbreviate(error, ERROR_LENGTH);
+    }
+
+    @Override
+    public RemoteTransferEntryInfo toDataTransferObject() {
+        RemoteTransferEntryInfo info = new RemoteTransferEntryInfo();
+        info.setId(this.id);
+        info.setEntryId(this.entryId);
+        info.setStatus(this.status);
+        info.setAttempts(this.attempts);
+        info.setError(this.error);
+        info.getRemoteIds().addAll(getRemoteIds());
+        return info;
+    }
+
+    private static List<Long> split(String value) {
+        List<Long> ids = new ArrayList<>();
+        if (StringUtils.isBlank(value))
+            return ids;
+
+        for (String id : value.split(","))
+            ids.add(Long.decode(id.trim()));
+        return ids;
+    }
+
+    private static String join(List<Long> ids) {
+        if (ids == null || ids.isEmpty())
+            return null;
+        return StringUtils.join(ids, ",");
+    }
+}
@@ -0,0 +1,139 @@
+package org.jbei.ice.storage.model;
+
+import org.jbei.ice.lib.dto.web.RemoteTransferInfo;
+import org.jbei.ice.lib.dto.web.TransferStatus;
+import org.jbei.ice.storage.DataModel;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Persisted state of a transfer of entries to a remote partner. Each entry being transferred
+ * is tracked by a {@link RemoteTransferEntryModel} so that an interrupted transfer can be resumed
+ *
+ * @author Hector Plahar
+ */
+@Entity
+@Table(name = "REMOTE_TRANSFER")
+@SequenceGenerator(name = "sequence", sequenceName = "remote_transfer_id_seq", allocationSize = 1)
+public class RemoteTransferModel implements DataModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "sequence")
+    private long id;
+
+    // destination of the transfer
+    @ManyToOne
+    @JoinColumn(name = "remote_partner_id", nullable = false)
+    private RemotePartner remotePartner;
+
+    // email of (local) user that requested the transfer
+    @Column(name = "initiator", nullable = false)
+    private String initiator;
+
+    // folder whose entries are being transferred, if any
+    @Column(name = "folder_id")
+    private Long folderId;
+
+    @Column(name = "status")
+    @Enumerated(value = EnumType.STRING)
+    private TransferStatus status;
+
+    @Column(name = "creation_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationTime;
+
+    @Column(name = "last_update_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastUpdateTime;
+
+    @OneToMany(mappedBy = "transfer", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    private List<RemoteTransferEntryModel> entries = new ArrayList<>();
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    public RemotePartner getRemotePartner() {
+        return remotePartner;
+    }
+
+    public void setRemotePartner(RemotePartner remotePartner) {
+        this.remotePartner = remotePartner;
+    }
+
+    public String getInitiator() {
+        return initiator;
+    }
+
+    public void setInitiator(String initiator) {
+        this.initiator = initiator;
+    }
+
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(Long folderId) {
+        this.folderId = folderId;
+    }
+
+    public TransferStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransferStatus status) {
+        this.status = status;
+    }
+
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(Date creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public Date getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(Date lastUpdateTime) {
+        this.lastUpdateTime = lastUpdateTime;
+    }
+
+    public List<RemoteTransferEntryModel> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Summary of this transfer. The individual entries are not included
+     */
+    @Override
+    public RemoteTransferInfo toDataTransferObject() {
+        RemoteTransferInfo info = new RemoteTransferInfo();
+        info.setId(this.id);
+        info.setPartner(this.remotePartner.toDataTransferObject());
+        info.setInitiator(this.initiator);
+        if (this.folderId != null)
+            info.setFolderId(this.folderId);
+        info.setStatus(this.status);
+        if (this.creationTime != null)
+            info.setCreationTime(this.creationTime.getTime());
+        if (this.lastUpdateTime != null)
+            info.setLastUpdateTime(this.lastUpdateTime.getTime());
+
+        info.setTotal(this.entries.size());
+        for (RemoteTransferEntryModel entry : this.entries) {
+            if (entry.getStatus() == TransferStatus.COMPLETED)
+                info.setCompleted(info.getCompleted() + 1);
+            else if (entry.getStatus() == TransferStatus.FAILED)
+                info.setFailed(info.getFailed() + 1);
+        }
+        return info;
+    }
+}
@@ -4,7 +4,9 @@ import org.hibernate.annotations.Type;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.FieldBridge;
 import org.jbei.ice.lib.dto.entry.SequenceInfo;
+import org.jbei.ice.lib.entry.sequence.PackedSequence;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.jbei.ice.lib.entry.sequence.SequenceSketch;
 import org.jbei.ice.lib.utils.SequenceUtils;
 import org.jbei.ice.lib.utils.UtilityException;
 import org.jbei.ice.storage.DataModel;
@@ -23,7 +25,12 @@ import java.util.Set;
  * <li><b>sequenceUser: </b>Original sequence uploaded by the user. For example, the unparsed
  * genbank file, if that was the original upload. If the original upload does not exist, then this
  * field is the same as sequence.</li>
+ * <li><b>packedSequence: </b>2-bit per base representation of sequence (see {@link PackedSequence}). When
+ * set, the sequence column is empty and the sequence is unpacked on first access.</li>
  * <li><b>fwdHash, revHash: </b>sha1 hash of the normalized sequence for fast searches.</li>
+ * <li><b>basePairCount, hasOriginalSequence: </b>length of the (trimmed) sequence and whether the original
+ * upload is available. Maintained whenever the sequence is set so that the sequence does not have to be loaded
+ * to retrieve them.</li>
  * <li><b>sequenceFeatures: </b>{@link SequenceFeature} objects.</li>
  * </ul>
  *
@@ -43,6 +50,13 @@ public class Sequence implements DataModel {
     @Type(type = "org.hibernate.type.TextType")
     private String sequence;
 
+    @Column(name = "packed_sequence", length = Integer.MAX_VALUE)
+    @Type(type = "org.hibernate.type.BinaryType")
+    private byte[] packedSequence;
+
+    @Transient
+    private String unpackedSequence;
+
     @Column(name = "identifier")
     private String identifier;
 
@@ -57,6 +71,15 @@ public class Sequence implements DataModel {
     @Column(name = "rev_hash", length = 40)
     private String revHash;
 
+    @Column(name = "bp_count")
+    private Integer basePairCount;
+
+    @Column(name = "has_original_sequence")
+    private Boolean hasOriginalSequence;
+
+    @Column(name = "sketch", length = 256)
+    private byte[] sketch;
+
     @Column(name = "uri")
     private String uri;
 
@@ -92,6 +115,7 @@ public class Sequence implements DataModel {
         this.fwdHash = fwdHash;
         this.revHash = revHash;
         this.entry = entry;
+        updateSummary();
     }
 
     @XmlTransient
@@ -104,11 +128,19 @@ public class Sequence implements DataModel {
     }
 
     public String getSequence() {
-        return sequence;
+        if (sequence != null || packedSequence == null)
+            return sequence;
+
+        if (unpackedSequence == null)
+            unpackedSequence = PackedSequence.unpack(packedSequence);
+        return unpackedSequence;
     }
 
     public void setSequence(String sequence) {
         this.sequence = sequence;
+        this.packedSequence = null;
+        this.unpackedSequence = null;
+        this.basePairCount = sequence == null ? 0 : sequence.trim().length();
         setFwdHash(SequenceUtils.calculateSequenceHash(sequence));
         try {
             setRevHash(SequenceUtils.calculateReverseComplementSequenceHash(sequence));
@@ -117,6 +149,29 @@ public class Sequence implements DataModel {
         }
     }
 
+    @XmlTransient
+    public byte[] getPackedSequence() {
+        return packedSequence;
+    }
+
+    public boolean isPacked() {
+        return packedSequence != null;
+    }
+
+    /**
+     * Moves the sequence into its packed representation and clears the sequence column.
+     * The (already available) unpacked sequence is retained in memory for this instance.
+     * Hashes are not affected
+     */
+    public void pack() {
+        if (sequence == null)
+            return;
+
+        unpackedSequence = sequence;
+        packedSequence = PackedSequence.pack(sequence);
+        sequence = null;
+    }
+
     @XmlTransient
     public String getSequenceUser() {
         return sequenceUser;
@@ -124,6 +179,43 @@ public class Sequence implements DataModel {
 
     public void setSequenceUser(String sequenceUser) {
         this.sequenceUser = sequenceUser;
+        this.hasOriginalSequence = sequenceUser != null && !sequenceUser.isEmpty();
+    }
+
+    /**
+     * @return number of base pairs in the sequence, or null if not yet computed for this (legacy) sequence
+     */
+    @XmlTransient
+    public Integer getBasePairCount() {
+        return basePairCount;
+    }
+
+    /**
+     * @return whether the sequence originally uploaded by the user is available, or null if not yet computed
+     * for this (legacy) sequence
+     */
+    @XmlTransient
+    public Boolean getHasOriginalSequence() {
+        return hasOriginalSequence;
+    }
+
+    /**
+     * @return stored representation of the {@link SequenceSketch} of the sequence; empty if the sequence is too short
+     * to have one or null if not yet computed for this (legacy) sequence
+     */
+    @XmlTransient
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    /**
+     * Recomputes the base pair count, original sequence flag and sketch from the sequence and original sequence
+     */
+    public void updateSummary() {
+        String value = getSequence();
+        this.basePairCount = value == null ? 0 : value.trim().length();
+        this.hasOriginalSequence = sequenceUser != null && !sequenceUser.isEmpty();
+        this.sketch = SequenceSketch.toBytes(SequenceSketch.compute(value));
     }
 
     @XmlTransient
@@ -6,6 +6,7 @@ import org.hibernate.search.annotations.Store;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.entry.StrainData;
+import org.jbei.ice.storage.hibernate.search.EntryIndexingInterceptor;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -24,7 +25,7 @@ import javax.persistence.Table;
  * @author Timothy Ham, Ziovii Dmytriv, Hector Plahar
  */
 @Entity
-@Indexed
+@Indexed(interceptor = EntryIndexingInterceptor.class)
 @PrimaryKeyJoinColumn(name = "entries_id")
 @Table(name = "strains")
 public class Strain extends Entry {
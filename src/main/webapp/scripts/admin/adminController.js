@@ -417,7 +417,8 @@ angular.module('ice.admin.controller', [])
                 $scope.selectedUsers.splice(index, 1);
         };
     })
-    .controller('AdminManuscriptsController', function ($scope, $uibModal, $window, $location, Util) {
+    .controller('AdminManuscriptsController', function ($scope, $uibModal, $window, $location, $timeout,
+                                                        $cookieStore, Util) {
         $scope.manuscriptsParams = {
             sort: 'creationTime',
             asc: false,
@@ -484,14 +485,28 @@ angular.module('ice.admin.controller', [])
             });
         };
 
+        // package is generated in the background; check until it is available
         $scope.downloadManuscriptFiles = function (manuscript) {
             manuscript.downloading = true;
             Util.get("rest/manuscripts/" + manuscript.id + "/files/zip", function (result) {
-                manuscript.downloading = false;
                 if (result && result.zipFileName) {
-                    $window.open("rest/file/tmp/" + result.zipFileName + "?filename=" + manuscript.authorFirstName + "_"
+                    manuscript.downloading = false;
+                    manuscript.zipProgress = undefined;
+                    $window.open("rest/manuscripts/" + manuscript.id + "/files/zip/" + result.zipFileName
+                        + "?sid=" + $cookieStore.get("sessionId") + "&filename=" + manuscript.authorFirstName + "_"
                         + manuscript.authorLastName + "_collection.zip", "_self");
+                } else if (result && result.zipStatus !== "EXCEPTION") {
+                    manuscript.zipProgress = result.zipProgress;
+                    $timeout(function () {
+                        $scope.downloadManuscriptFiles(manuscript);
+                    }, 2000);
+                } else {
+                    manuscript.downloading = false;
+                    manuscript.zipProgress = undefined;
                 }
+            }, {}, function (error) {
+                manuscript.downloading = false;
+                manuscript.zipProgress = undefined;
             })
         };
 
@@ -0,0 +1,67 @@
+package org.jbei.auth;
+
+import org.apache.commons.io.FileUtils;
+import org.jbei.auth.hmac.HmacSignatureFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.Key;
+
+/**
+ * @author wcmorrell
+ */
+public class FileKeyTableTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("rest-auth").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private void writeKey(final String keyId, final Key key, final long modified) throws Exception {
+        final File file = new File(directory, keyId);
+        final String encoded = HmacSignatureFactory.encodeKey(key);
+        // split across lines, as lines are joined when reading
+        Files.write(file.toPath(), (encoded.substring(0, 10) + "\n" + encoded.substring(10) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(file.setLastModified(modified));
+    }
+
+    @Test
+    public void testGetKey() throws Exception {
+        final FileKeyTable table = new FileKeyTable(directory);
+        Assert.assertNull(table.getKey("test.jbei.org"));
+
+        final Key key = HmacSignatureFactory.createKey();
+        writeKey("test.jbei.org", key, 1000000000000L);
+        final Key loaded = table.getKey("test.jbei.org");
+        Assert.assertArrayEquals(key.getEncoded(), loaded.getEncoded());
+
+        // cached while the file is unchanged
+        Assert.assertSame(loaded, table.getKey("test.jbei.org"));
+
+        // replaced key file
+        final Key replacement = HmacSignatureFactory.createKey();
+        writeKey("test.jbei.org", replacement, 1000000060000L);
+        Assert.assertArrayEquals(replacement.getEncoded(), table.getKey("test.jbei.org").getEncoded());
+
+        // deleted key file
+        Assert.assertTrue(new File(directory, "test.jbei.org").delete());
+        Assert.assertNull(table.getKey("test.jbei.org"));
+
+        // key ids are file names in the directory
+        Assert.assertNull(table.getKey("../test.jbei.org"));
+        Assert.assertNull(table.getKey(null));
+    }
+}
@@ -132,4 +132,19 @@ public class HmacSignatureFactoryTest {
         }
     }
 
+    /**
+     * Tests that signatures built with the same key do not share state.
+     */
+    @Test
+    public final void testIndependentSignatures() throws Exception {
+        final HmacSignatureFactory factory = new HmacSignatureFactory(table);
+        final HmacSignature first = factory.buildSignature(simpleRequest, keyId, userId);
+        final HmacSignature second = factory.buildSignature(simpleRequest, keyId, userId);
+        final HmacSignature other = factory.buildSignature(simpleRequest, keyId, "IVaino");
+        Assert.assertEquals(simpleSignature, second.generateSignature());
+        Assert.assertEquals(simpleSignature, first.generateSignature());
+        Assert.assertNotEquals(simpleSignature, other.generateSignature());
+        Assert.assertNull(factory.buildSignature(simpleRequest, "unknown.jbei.org", userId));
+    }
+
 }
@@ -7,10 +7,13 @@ import org.junit.*;
 import org.mockito.Mockito;
 
 import javax.crypto.Mac;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.InvalidKeyException;
+import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.util.Random;
 
 /**
  * @author wcmorrell
@@ -68,4 +71,29 @@ public class HmacStreamTest {
             Assert.fail("Exception handling stream EOF");
         }
     }
+
+    /**
+     * Tests that all bytes read through the stream are passed to the digest.
+     *
+     * @throws Exception
+     */
+    @Test
+    public final void testDigestContent() throws Exception {
+        final Key key = HmacSignatureFactory.createKey();
+        final byte[] content = new byte[100000];
+        new Random(3).nextBytes(content);
+
+        final Mac expected = Mac.getInstance("HmacSHA1");
+        expected.init(key);
+        final Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(key);
+        try (final InputStream hmacStream = new HmacInputStream(new ByteArrayInputStream(content), mac)) {
+            final byte[] buffer = new byte[4096];
+            Assert.assertEquals(content[0] & 0xff, hmacStream.read());
+            while (hmacStream.read(buffer, 7, 1000) != -1) {
+                // read to end
+            }
+        }
+        Assert.assertArrayEquals(expected.doFinal(content), mac.doFinal());
+    }
 }
@@ -0,0 +1,69 @@
+package org.jbei.ice.lib.bulkupload;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sbolstandard.core.DnaComponent;
+import org.sbolstandard.core.DnaSequence;
+import org.sbolstandard.core.SBOLDocument;
+import org.sbolstandard.core.SBOLFactory;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class BulkSBOLUploadTaskTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        Account account = AccountCreator.createTestAccount("BulkSBOLUploadTaskTest.testExecute", false);
+        String userId = account.getEmail();
+
+        // more components than a single batch
+        int count = BulkSBOLUploadTask.BATCH_SIZE + 5;
+        SBOLDocument document = SBOLFactory.createDocument();
+        for (int i = 0; i < count; i += 1) {
+            DnaComponent component = SBOLFactory.createDnaComponent();
+            component.setURI(URI.create("http://ice.test/component" + i));
+            component.setDisplayId("component" + i);
+            component.setName("BulkSBOLUploadTaskTest" + i);
+            DnaSequence sequence = SBOLFactory.createDnaSequence();
+            sequence.setURI(URI.create("http://ice.test/sequence" + i));
+            sequence.setNucleotides("atgcatgcat");
+            component.setDnaSequence(sequence);
+            document.addContent(component);
+        }
+
+        long uploadId = new BulkEntryCreator().createBulkUpload(userId, EntryType.PART);
+        new BulkSBOLUploadTask(userId, uploadId, EntryType.PART, document).execute();
+
+        // entries are added to the draft, each with its sequence
+        Assert.assertEquals(count, DAOFactory.getBulkUploadDAO().retrieveSavedDraftCount(uploadId));
+        List<Entry> entries = DAOFactory.getBulkUploadDAO().retrieveDraftEntries(uploadId, 0, count);
+        Assert.assertEquals(count, entries.size());
+        for (Entry entry : entries) {
+            Assert.assertTrue(entry.getName().startsWith("BulkSBOLUploadTaskTest"));
+            Assert.assertNotNull(DAOFactory.getSequenceDAO().getByEntry(entry));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.jbei.ice.lib.entry;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.AuditType;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.Plasmid;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class AuditQueueTest {
+
+    private AuditQueue queue;
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+        queue = AuditQueue.getInstance();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        queue.setPolicy(AuditQueue.Policy.SYNCHRONOUS);
+        queue.setDeduplicationWindow(0);
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testAsynchronousWrite() throws Exception {
+        Account account = AccountCreator.createTestAccount("AuditQueueTest.testAsynchronousWrite", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        HibernateUtil.commitTransaction();
+
+        queue.setPolicy(AuditQueue.Policy.ASYNCHRONOUS);
+        long written = queue.getWritten();
+
+        HibernateUtil.beginTransaction();
+        Entry entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        Assert.assertTrue(queue.add(entry, "reader1", AuditType.READ.getAbbrev()));
+        Assert.assertTrue(queue.add(entry, "reader2", AuditType.READ.getAbbrev()));
+
+        // not written in the request transaction
+        if (queue.getQueueSize() == 2)
+            Assert.assertEquals(0, DAOFactory.getAuditDAO().getHistoryCount(entry));
+        HibernateUtil.commitTransaction();
+
+        queue.flush();
+        Assert.assertEquals(0, queue.getQueueSize());
+        Assert.assertEquals(written + 2, queue.getWritten());
+
+        HibernateUtil.beginTransaction();
+        entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        Assert.assertEquals(2, DAOFactory.getAuditDAO().getHistoryCount(entry));
+    }
+
+    @Test
+    public void testDeduplication() throws Exception {
+        Account account = AccountCreator.createTestAccount("AuditQueueTest.testDeduplication", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        queue.setDeduplicationWindow(60);
+        long deduplicated = queue.getDeduplicated();
+
+        Assert.assertTrue(queue.add(plasmid, "reader", AuditType.READ.getAbbrev()));
+        Assert.assertTrue(queue.add(plasmid, "reader", AuditType.READ.getAbbrev()));
+        Assert.assertTrue(queue.add(plasmid, "reader2", AuditType.READ.getAbbrev()));
+        Assert.assertEquals(deduplicated + 1, queue.getDeduplicated());
+        Assert.assertEquals(2, DAOFactory.getAuditDAO().getHistoryCount(plasmid));
+
+        queue.setDeduplicationWindow(0);
+        Assert.assertTrue(queue.add(plasmid, "reader", AuditType.READ.getAbbrev()));
+        Assert.assertEquals(3, DAOFactory.getAuditDAO().getHistoryCount(plasmid));
+    }
+
+    @Test
+    public void testDeduplicationRollback() throws Exception {
+        Account account = AccountCreator.createTestAccount("AuditQueueTest.testDeduplicationRollback", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        HibernateUtil.commitTransaction();
+        queue.setDeduplicationWindow(60);
+
+        // event that is rolled back does not suppress the next one
+        HibernateUtil.beginTransaction();
+        Entry entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        Assert.assertTrue(queue.add(entry, "reader", AuditType.READ.getAbbrev()));
+        HibernateUtil.rollbackTransaction();
+
+        HibernateUtil.beginTransaction();
+        long deduplicated = queue.getDeduplicated();
+        entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        Assert.assertTrue(queue.add(entry, "reader", AuditType.READ.getAbbrev()));
+        Assert.assertEquals(deduplicated, queue.getDeduplicated());
+        HibernateUtil.commitTransaction();
+
+        // committed event does
+        HibernateUtil.beginTransaction();
+        entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        Assert.assertTrue(queue.add(entry, "reader", AuditType.READ.getAbbrev()));
+        Assert.assertEquals(deduplicated + 1, queue.getDeduplicated());
+        Assert.assertEquals(1, DAOFactory.getAuditDAO().getHistoryCount(entry));
+    }
+}
@@ -4,7 +4,9 @@ import org.jbei.ice.lib.AccountCreator;
 import org.jbei.ice.lib.TestEntryCreator;
 import org.jbei.ice.lib.access.PermissionsController;
 import org.jbei.ice.lib.dto.access.AccessPermission;
+import org.jbei.ice.lib.dto.entry.EntryLinkGraph;
 import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Plasmid;
@@ -139,4 +141,63 @@ public class EntryLinksTest {
         EntryLinks plasmid2Links = new EntryLinks(userId, plasmid2.getId());
         Assert.assertEquals(1, plasmid2Links.getParents().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetGraph() throws Exception {
+        Account account = AccountCreator.createTestAccount("testGetGraph", false);
+        String userId = account.getEmail();
+        Account account2 = AccountCreator.createTestAccount("testGetGraph2", false);
+
+        // strain -> plasmid -> part
+        Strain strain = TestEntryCreator.createTestStrain(account);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        long partId = TestEntryCreator.createTestPart(userId);
+        Assert.assertTrue(new EntryLinks(userId, strain.getId()).addLink(plasmid.toDataTransferObject(),
+                LinkType.CHILD));
+        Assert.assertTrue(new EntryLinks(userId, plasmid.getId()).addLink(
+                DAOFactory.getEntryDAO().get(partId).toDataTransferObject(), LinkType.CHILD));
+
+        // strain of another account (that account cannot read) also linked to the plasmid
+        Strain strain2 = TestEntryCreator.createTestStrain(account2);
+        strain2.getLinkedEntries().add(plasmid);
+        DAOFactory.getEntryDAO().update(strain2);
+
+        // links are indexed when committed
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        EntryLinkGraph graph = new EntryLinks(userId, plasmid.getId()).getGraph(1);
+        Assert.assertEquals(plasmid.getId(), graph.getEntryId());
+        Assert.assertEquals(3, graph.getEntries().size());
+        Assert.assertEquals(plasmid.getId(), graph.getEntries().get(0).getId());
+        Assert.assertEquals(2, graph.getLinks().size());
+        for (EntryLinkGraph.Link link : graph.getLinks()) {
+            if (link.getParentId() == plasmid.getId())
+                Assert.assertEquals(partId, link.getChildId());
+            else {
+                Assert.assertEquals(strain.getId(), link.getParentId());
+                Assert.assertEquals(plasmid.getId(), link.getChildId());
+            }
+        }
+
+        // ancestors of the part within the depth
+        Assert.assertEquals(2, new EntryLinks(userId, partId).getGraph(1).getEntries().size());
+        graph = new EntryLinks(userId, partId).getGraph(2);
+        Assert.assertEquals(3, graph.getEntries().size());
+        Assert.assertEquals(2, graph.getLinks().size());
+
+        // other account cannot read the plasmid (or anything linked through it)
+        graph = new EntryLinks(account2.getEmail(), strain2.getId()).getGraph(EntryLinks.MAX_GRAPH_DEPTH);
+        Assert.assertEquals(1, graph.getEntries().size());
+        Assert.assertTrue(graph.getLinks().isEmpty());
+
+        // remove link
+        Assert.assertTrue(new EntryLinks(userId, plasmid.getId()).removeLink(partId, LinkType.CHILD));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        graph = new EntryLinks(userId, plasmid.getId()).getGraph(EntryLinks.DEFAULT_GRAPH_DEPTH);
+        Assert.assertEquals(2, graph.getEntries().size());
+        Assert.assertEquals(1, graph.getLinks().size());
+    }
+}
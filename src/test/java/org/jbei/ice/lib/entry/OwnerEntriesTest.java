@@ -0,0 +1,161 @@
+package org.jbei.ice.lib.entry;
+
+import org.hibernate.stat.Statistics;
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.shared.ColumnField;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.PageCursor;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Plasmid;
+import org.jbei.ice.storage.model.Sample;
+import org.jbei.ice.storage.model.Sequence;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author Hector Plahar
+ */
+public class OwnerEntriesTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testRetrieveOwnerEntries() throws Exception {
+        Account account = AccountCreator.createTestAccount("OwnerEntriesTest.testRetrieveOwnerEntries", false);
+        Account reader = AccountCreator.createTestAccount("OwnerEntriesTest.testRetrieveOwnerEntriesReader", false);
+
+        for (int i = 0; i < 10; i += 1) {
+            Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+            if (i % 2 == 0) {
+                Sequence sequence = new Sequence("atgcatgcatgc", null, "hash" + plasmid.getId(), "", plasmid);
+                DAOFactory.getSequenceDAO().saveSequence(sequence);
+
+                Sample sample = new Sample();
+                sample.setEntry(plasmid);
+                sample.setLabel("sample" + i);
+                sample.setDepositor(account.getEmail());
+                sample.setCreationTime(new Date());
+                DAOFactory.getSampleDAO().create(sample);
+            }
+            new EntryHistory(reader.getEmail(), plasmid.getId()).add();
+        }
+        HibernateUtil.commitTransaction();
+
+        // number of queries does not depend on the number of entries retrieved
+        HibernateUtil.beginTransaction();
+        long smallPage = countQueries(account.getEmail(), 2);
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        long largePage = countQueries(account.getEmail(), 10);
+        Assert.assertEquals(smallPage, largePage);
+
+        List<PartData> entries = new OwnerEntries(account.getEmail(), account.getEmail())
+                .retrieveOwnerEntries(ColumnField.CREATED, true, 0, 10, null);
+        Assert.assertEquals(10, entries.size());
+        int withSequence = 0;
+        for (PartData data : entries) {
+            Assert.assertTrue(data.isCanEdit());
+            Assert.assertEquals(1, data.getViewCount());
+            Assert.assertEquals(data.isHasSequence(), data.isHasSample());
+            if (data.isHasSequence())
+                withSequence += 1;
+        }
+        Assert.assertEquals(5, withSequence);
+    }
+
+    @Test
+    public void testRetrieveOwnerEntriesWithCursor() throws Exception {
+        Account account = AccountCreator.createTestAccount("OwnerEntriesTest.testRetrieveOwnerEntriesWithCursor",
+                false);
+        Set<Long> created = new HashSet<>();
+        for (int i = 0; i < 7; i += 1) {
+            Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+            created.add(plasmid.getId());
+
+            // some entries without a value for the sort field
+            if (i % 3 != 0) {
+                plasmid.setAlias("alias" + (i % 2));
+                DAOFactory.getEntryDAO().update(plasmid);
+            }
+        }
+
+        for (ColumnField field : new ColumnField[]{ColumnField.CREATED, ColumnField.NAME, ColumnField.TYPE,
+                ColumnField.ALIAS}) {
+            for (boolean asc : new boolean[]{true, false}) {
+                OwnerEntries ownerEntries = new OwnerEntries(account.getEmail(), account.getEmail());
+                List<Long> offsetIds = new ArrayList<>();
+                for (PartData data : ownerEntries.retrieveOwnerEntries(field, asc, 0, 10, null))
+                    offsetIds.add(data.getId());
+
+                // page through in pages of 3 with no duplicates or gaps
+                List<Long> cursorIds = new ArrayList<>();
+                String token = PageCursor.FIRST;
+                int pages = 0;
+                while (token != null) {
+                    PageCursor cursor = PageCursor.parse(token, field, asc);
+                    List<PartData> page = ownerEntries.retrieveOwnerEntries(cursor, 3, null);
+                    Assert.assertTrue(page.size() <= 3);
+                    for (PartData data : page)
+                        cursorIds.add(data.getId());
+                    token = cursor.getNext();
+                    pages += 1;
+                }
+                Assert.assertEquals(3, pages);
+                Assert.assertEquals(7, cursorIds.size());
+                Assert.assertEquals(created, new HashSet<>(cursorIds));
+
+                // same order as offset paging (entries with the same value are ordered by id)
+                Assert.assertEquals(offsetIds, cursorIds);
+            }
+        }
+
+        // cursor cannot be used with different sort parameters
+        PageCursor cursor = PageCursor.parse(PageCursor.FIRST, ColumnField.NAME, true);
+        new OwnerEntries(account.getEmail(), account.getEmail()).retrieveOwnerEntries(cursor, 3, null);
+        try {
+            PageCursor.parse(cursor.getNext(), ColumnField.NAME, false);
+            Assert.fail("Cursor used with different sort order");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            PageCursor.parse("not a cursor", ColumnField.NAME, true);
+            Assert.fail("Invalid cursor");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private long countQueries(String userId, int limit) {
+        Statistics statistics = HibernateUtil.getSessionFactory().getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            List<PartData> entries = new OwnerEntries(userId, userId)
+                    .retrieveOwnerEntries(ColumnField.CREATED, true, 0, limit, null);
+            Assert.assertEquals(limit, entries.size());
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -93,6 +94,121 @@ public class SampleServiceTest {
         Assert.assertEquals(1, result.size());
     }
 
+    private static PartSample createPlateSample(long partId, String plate, String well, String barcode) {
+        PartSample partSample = new PartSample();
+        partSample.setPartId(partId);
+        partSample.setLabel("Plate Copy");
+
+        StorageLocation plateLocation = new StorageLocation();
+        plateLocation.setType(SampleType.PLATE96);
+        plateLocation.setDisplay(plate);
+
+        StorageLocation wellLocation = new StorageLocation();
+        wellLocation.setType(SampleType.WELL);
+        wellLocation.setDisplay(well);
+        plateLocation.setChild(wellLocation);
+
+        StorageLocation tubeLocation = new StorageLocation();
+        tubeLocation.setType(SampleType.TUBE);
+        tubeLocation.setDisplay(barcode);
+        wellLocation.setChild(tubeLocation);
+
+        partSample.setLocation(plateLocation);
+        return partSample;
+    }
+
+    @Test
+    public void testCreateSamples() throws Exception {
+        Account account = AccountCreator.createTestAccount("SampleServiceTest.testCreateSamples", false);
+        String userId = account.getEmail();
+
+        // register a full plate
+        List<PartSample> plate = new ArrayList<>();
+        for (char row = 'A'; row <= 'H'; row += 1) {
+            for (int column = 1; column <= 12; column += 1) {
+                Strain strain = TestEntryCreator.createTestStrain(account);
+                String well = row + String.format("%02d", column);
+                plate.add(createPlateSample(strain.getId(), "0000000096", well, "T96" + well));
+            }
+        }
+
+        List<PartSample> created = service.createSamples(userId, plate, null);
+        Assert.assertNotNull(created);
+        Assert.assertEquals(96, created.size());
+
+        List<Storage> plates = DAOFactory.getStorageDAO().retrieveStorageByIndex("0000000096", SampleType.PLATE96);
+        Assert.assertEquals(1, plates.size());
+        Assert.assertEquals(1, service.getSamplesByBarcode(userId, "T96A01").size());
+
+        StorageIndex index = StorageIndex.getInstance();
+        long plateId = plates.get(0).getId();
+        Long wellId = index.findChild(plateId, Storage.StorageType.WELL, "H12");
+        Assert.assertNotNull(wellId);
+        Assert.assertTrue(index.isOccupied(wellId));
+
+        // occupied well; nothing is created
+        Strain strain = TestEntryCreator.createTestStrain(account);
+        List<PartSample> conflict = new ArrayList<>();
+        conflict.add(createPlateSample(strain.getId(), "0000000097", "A01", "T97A01"));
+        conflict.add(createPlateSample(strain.getId(), "0000000096", "B01", "T97B01"));
+        Assert.assertNull(service.createSamples(userId, conflict, null));
+        Assert.assertTrue(DAOFactory.getStorageDAO().retrieveStorageByIndex("0000000097", SampleType.PLATE96).isEmpty());
+
+        // duplicate barcode within the batch
+        conflict.clear();
+        conflict.add(createPlateSample(strain.getId(), "0000000097", "A01", "T97A01"));
+        conflict.add(createPlateSample(strain.getId(), "0000000097", "A02", "T97A01"));
+        Assert.assertNull(service.createSamples(userId, conflict, null));
+
+        // barcode already in use
+        Assert.assertNull(service.createSample(userId, strain.getId(),
+                createPlateSample(strain.getId(), "0000000097", "A01", "T96A01"), null));
+
+        // deleting a sample frees the well and the barcode
+        List<PartSample> samples = service.retrieveEntrySamples(userId, created.get(0).getPartId());
+        Assert.assertEquals(1, samples.size());
+        Assert.assertTrue(service.delete(userId, created.get(0).getPartId(), samples.get(0).getId()));
+        Assert.assertNull(index.findChild(plateId, Storage.StorageType.WELL, "A01"));
+        Assert.assertNotNull(DAOFactory.getStorageDAO().get(plateId));
+        Assert.assertNotNull(service.createSample(userId, strain.getId(),
+                createPlateSample(strain.getId(), "0000000096", "A01", "T96A01"), null));
+
+        // index is consistent with database after rebuild
+        index.invalidate();
+        Assert.assertEquals(wellId, index.findChild(plateId, Storage.StorageType.WELL, "H12"));
+        Assert.assertNotNull(index.findChild(plateId, Storage.StorageType.WELL, "A01"));
+        Assert.assertEquals(1, index.find(Storage.StorageType.TUBE, "T96A01").size());
+    }
+
+    @Test
+    public void testDeleteEntryWithSamples() throws Exception {
+        Account account = AccountCreator.createTestAccount("SampleServiceTest.testDeleteEntryWithSamples", false);
+        String userId = account.getEmail();
+        Strain strain = TestEntryCreator.createTestStrain(account);
+        Assert.assertNotNull(service.createSample(userId, strain.getId(),
+                createPlateSample(strain.getId(), "0000000098", "A01", "T98A01"), null));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        StorageIndex index = StorageIndex.getInstance();
+        List<Long> tubes = index.find(Storage.StorageType.TUBE, "T98A01");
+        Assert.assertEquals(1, tubes.size());
+        Assert.assertEquals(1, index.getSampleCount(tubes.get(0)));
+        Assert.assertTrue(service.isBarcodeInUse("T98A01"));
+
+        // samples are removed from the index once the entry deletion commits
+        DAOFactory.getEntryDAO().fullDelete(DAOFactory.getEntryDAO().get(strain.getId()));
+        Assert.assertTrue(service.isBarcodeInUse("T98A01"));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertEquals(0, index.getSampleCount(tubes.get(0)));
+        Assert.assertFalse(service.isBarcodeInUse("T98A01"));
+
+        // index is consistent with database after rebuild
+        index.invalidate();
+        Assert.assertEquals(0, index.getSampleCount(tubes.get(0)));
+    }
+
     @Test
     public void testRetrieveEntrySamples() throws Exception {
         Account account = AccountCreator.createTestAccount("SampleServiceTest.testRetrieveEntrySamples", false);
@@ -0,0 +1,114 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicate;
+import org.jbei.ice.lib.dto.entry.SequenceDuplicateReport;
+import org.jbei.ice.lib.utils.SequenceUtils;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.Sequence;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Hector Plahar
+ */
+public class NearDuplicateIndexTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    private long createEntryWithSequence(String userId, String value) throws Exception {
+        long entryId = TestEntryCreator.createTestPart(userId);
+        Entry entry = DAOFactory.getEntryDAO().get(entryId);
+        Sequence sequence = new Sequence();
+        sequence.setSequence(value);
+        sequence.setEntry(entry);
+        DAOFactory.getSequenceDAO().saveSequence(sequence);
+        return entryId;
+    }
+
+    @Test
+    public void testFindNearDuplicates() throws Exception {
+        Account account = AccountCreator.createTestAccount("NearDuplicateIndexTest.testFind", false);
+        String userId = account.getEmail();
+        Random random = new Random(2016);
+        String value = SequenceSketchTest.randomSequence(random, 4000);
+
+        long original = createEntryWithSequence(userId, value);
+        long rotated = createEntryWithSequence(userId, SequenceUtils.reverseComplement(
+                value.substring(2000) + value.substring(0, 2000)));
+        long unrelated = createEntryWithSequence(userId, SequenceSketchTest.randomSequence(random, 4000));
+
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        SequenceController controller = new SequenceController();
+        List<SequenceDuplicate> duplicates = controller.findNearDuplicates(userId, value);
+        Assert.assertEquals(2, duplicates.size());
+        Assert.assertEquals(1.0, duplicates.get(0).getSimilarity(), 0);
+
+        // duplicates of an existing entry exclude the entry itself
+        duplicates = controller.getNearDuplicates(userId, Long.toString(original));
+        Assert.assertEquals(1, duplicates.size());
+        Assert.assertEquals(rotated, duplicates.get(0).getId());
+        Assert.assertTrue(controller.getNearDuplicates(userId, Long.toString(unrelated)).isEmpty());
+
+        // entries of other users are only returned if they can be read
+        Account other = AccountCreator.createTestAccount("NearDuplicateIndexTest.testFindOther", false);
+        Assert.assertTrue(controller.findNearDuplicates(other.getEmail(), value).isEmpty());
+
+        // deleted sequences are removed from the index on commit
+        controller.deleteSequence(userId, rotated);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertTrue(controller.getNearDuplicates(userId, Long.toString(original)).isEmpty());
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        Account account = AccountCreator.createTestAccount("NearDuplicateIndexTest.testReport", false);
+        String userId = account.getEmail();
+        Random random = new Random(1);
+        String value = SequenceSketchTest.randomSequence(random, 3000);
+
+        long first = createEntryWithSequence(userId, value);
+        long second = createEntryWithSequence(userId, value.toUpperCase());
+        long third = createEntryWithSequence(userId, value.substring(1) + value.substring(0, 1));
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        new SequenceDuplicateReportTask(NearDuplicateIndex.DEFAULT_THRESHOLD).execute();
+        SequenceDuplicateReport report = SequenceDuplicateReportTask.getLatestReport();
+        Assert.assertNotNull(report);
+        Assert.assertTrue(report.getSequenceCount() >= 3);
+
+        boolean found = false;
+        for (List<SequenceDuplicate> cluster : report.getClusters()) {
+            if (cluster.get(0).getId() != first)
+                continue;
+
+            found = true;
+            Assert.assertEquals(3, cluster.size());
+            Assert.assertEquals(second, cluster.get(1).getId());
+            Assert.assertEquals(third, cluster.get(2).getId());
+        }
+        Assert.assertTrue(found);
+    }
+}
@@ -0,0 +1,44 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class PackedSequenceTest {
+
+    @Test
+    public void testPackAndUnpack() throws Exception {
+        String[] sequences = {
+                "",
+                "a",
+                "acgt",
+                "acgtacgtagcttagcatcgatcgactacgatcgatcgatcagcatcagc",
+                "ACGTacgtNNNNNnnnnrykmswbdhv-acgt",
+                "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac",
+                "auguu"
+        };
+
+        for (String sequence : sequences) {
+            byte[] packed = PackedSequence.pack(sequence);
+            Assert.assertEquals(sequence.length(), PackedSequence.length(packed));
+            Assert.assertEquals(sequence, PackedSequence.unpack(packed));
+        }
+    }
+
+    @Test
+    public void testPackedSize() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i += 1)
+            builder.append("acgt".charAt(i % 4));
+
+        byte[] packed = PackedSequence.pack(builder.toString());
+        Assert.assertTrue(packed.length <= 2500 + 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnpackInvalid() throws Exception {
+        PackedSequence.unpack(new byte[]{0, 1, 2});
+    }
+}
@@ -0,0 +1,62 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.utils.SequenceUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Hector Plahar
+ */
+public class SequenceSketchTest {
+
+    static String randomSequence(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1)
+            builder.append("acgt".charAt(random.nextInt(4)));
+        return builder.toString();
+    }
+
+    @Test
+    public void testCompute() throws Exception {
+        Assert.assertNull(SequenceSketch.compute(null));
+        Assert.assertNull(SequenceSketch.compute("acgtacgt"));
+        Assert.assertNull(SequenceSketch.compute("nnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnn"));
+
+        Random random = new Random(42);
+        String sequence = randomSequence(random, 3000);
+        int[] sketch = SequenceSketch.compute(sequence);
+        Assert.assertNotNull(sketch);
+        Assert.assertEquals(SequenceSketch.SIZE, sketch.length);
+
+        // case, reverse complement and rotation do not change the sketch
+        Assert.assertArrayEquals(sketch, SequenceSketch.compute(sequence.toUpperCase()));
+        Assert.assertArrayEquals(sketch, SequenceSketch.compute(SequenceUtils.reverseComplement(sequence)));
+        Assert.assertArrayEquals(sketch, SequenceSketch.compute(sequence.substring(1234) + sequence.substring(0, 1234)));
+
+        // stored representation
+        byte[] bytes = SequenceSketch.toBytes(sketch);
+        Assert.assertArrayEquals(sketch, SequenceSketch.fromBytes(bytes));
+        Assert.assertEquals(0, SequenceSketch.toBytes(null).length);
+        Assert.assertNull(SequenceSketch.fromBytes(new byte[0]));
+    }
+
+    @Test
+    public void testSimilarity() throws Exception {
+        Random random = new Random(7);
+        String sequence = randomSequence(random, 5000);
+        int[] sketch = SequenceSketch.compute(sequence);
+        Assert.assertEquals(1.0, SequenceSketch.similarity(sketch, sketch), 0);
+
+        // a few point mutations
+        char[] mutated = sequence.toCharArray();
+        for (int i = 100; i < mutated.length; i += 1000)
+            mutated[i] = mutated[i] == 'a' ? 'c' : 'a';
+        Assert.assertTrue(SequenceSketch.similarity(sketch, SequenceSketch.compute(new String(mutated))) >= 0.8);
+
+        // unrelated sequence
+        int[] other = SequenceSketch.compute(randomSequence(random, 5000));
+        Assert.assertTrue(SequenceSketch.similarity(sketch, other) < 0.2);
+    }
+}
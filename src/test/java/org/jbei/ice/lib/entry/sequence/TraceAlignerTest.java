@@ -0,0 +1,103 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.parsers.bl2seq.Bl2SeqResult;
+import org.jbei.ice.lib.utils.SequenceUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Hector Plahar
+ */
+public class TraceAlignerTest {
+
+    private static String randomSequence(Random random, int length) {
+        char[] bases = {'a', 'c', 'g', 't'};
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1)
+            builder.append(bases[random.nextInt(4)]);
+        return builder.toString();
+    }
+
+    private static String ungapped(String alignment) {
+        return alignment.replace("-", "");
+    }
+
+    @Test
+    public void testAlignForward() throws Exception {
+        Random random = new Random(7);
+        String reference = randomSequence(random, 5000);
+        TraceAligner aligner = new TraceAligner(reference);
+
+        // exact match
+        String trace = reference.substring(1000, 1800);
+        List<Bl2SeqResult> results = aligner.align(trace);
+        Assert.assertEquals(1, results.size());
+        Bl2SeqResult result = results.get(0);
+        Assert.assertEquals(0, result.getOrientation());
+        Assert.assertEquals(1001, result.getQueryStart());
+        Assert.assertEquals(1800, result.getQueryEnd());
+        Assert.assertEquals(1, result.getSubjectStart());
+        Assert.assertEquals(800, result.getSubjectEnd());
+        Assert.assertEquals(trace, result.getQuerySequence());
+        Assert.assertEquals(trace, result.getSubjectSequence());
+        Assert.assertEquals(1600, result.getScore());
+
+        // noisy trace: leading low quality bases, a mismatch, an insertion and a deletion
+        String noisy = "nnnn" + reference.substring(2000, 2300) + (reference.charAt(2300) == 'a' ? 'c' : 'a')
+                + reference.substring(2301, 2500) + "g" + reference.substring(2500, 2700) + reference.substring(2702,
+                3000);
+        result = aligner.align(noisy).get(0);
+        Assert.assertEquals(0, result.getOrientation());
+        Assert.assertEquals(2001, result.getQueryStart());
+        Assert.assertEquals(3000, result.getQueryEnd());
+        Assert.assertEquals(5, result.getSubjectStart());
+        Assert.assertEquals(noisy.length(), result.getSubjectEnd());
+        Assert.assertEquals(result.getQuerySequence().length(), result.getSubjectSequence().length());
+        Assert.assertEquals(reference.substring(2000, 3000), ungapped(result.getQuerySequence()));
+        Assert.assertEquals(noisy.substring(4), ungapped(result.getSubjectSequence()));
+    }
+
+    @Test
+    public void testAlignReverse() throws Exception {
+        Random random = new Random(11);
+        String reference = randomSequence(random, 3000);
+        TraceAligner aligner = new TraceAligner(reference);
+
+        String trace = SequenceUtils.reverseComplement(reference.substring(500, 1200));
+        Bl2SeqResult result = aligner.align(trace).get(0);
+        Assert.assertEquals(1, result.getOrientation());
+        Assert.assertEquals(501, result.getQueryStart());
+        Assert.assertEquals(1200, result.getQueryEnd());
+        Assert.assertEquals(700, result.getSubjectStart());
+        Assert.assertEquals(1, result.getSubjectEnd());
+        Assert.assertEquals(reference.substring(500, 1200), result.getQuerySequence());
+        Assert.assertEquals(reference.substring(500, 1200), result.getSubjectSequence());
+    }
+
+    @Test
+    public void testAlignCircular() throws Exception {
+        Random random = new Random(13);
+        String reference = randomSequence(random, 2000);
+        TraceAligner aligner = new TraceAligner(reference + reference);
+
+        // spans the origin
+        String trace = reference.substring(1700) + reference.substring(0, 300);
+        Bl2SeqResult result = aligner.align(trace).get(0);
+        Assert.assertEquals(1701, result.getQueryStart());
+        Assert.assertEquals(2300, result.getQueryEnd());
+        Assert.assertEquals(trace, result.getQuerySequence());
+    }
+
+    @Test
+    public void testNoAlignment() throws Exception {
+        Random random = new Random(17);
+        TraceAligner aligner = new TraceAligner(randomSequence(random, 3000));
+        Assert.assertTrue(aligner.align(randomSequence(random, 800)).isEmpty());
+        Assert.assertTrue(aligner.align("acgt").isEmpty());
+        Assert.assertTrue(aligner.align(null).isEmpty());
+        Assert.assertTrue(new TraceAligner("").align(randomSequence(random, 100)).isEmpty());
+    }
+}
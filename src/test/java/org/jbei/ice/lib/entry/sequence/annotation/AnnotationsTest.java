@@ -4,9 +4,13 @@ import org.jbei.ice.lib.AccountCreator;
 import org.jbei.ice.lib.TestEntryCreator;
 import org.jbei.ice.lib.dto.Curation;
 import org.jbei.ice.lib.dto.DNAFeature;
+import org.jbei.ice.lib.dto.DNAFeatures;
 import org.jbei.ice.lib.dto.DNASequence;
+import org.jbei.ice.lib.dto.FeaturedDNASequence;
+import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.entry.sequence.SequenceController;
 import org.jbei.ice.lib.parsers.GeneralParser;
+import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.hibernate.dao.SequenceFeatureDAO;
@@ -17,6 +21,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -71,6 +76,111 @@ public class AnnotationsTest {
         Assert.assertTrue(feature.getCuration().isExclude());
     }
 
+    @Test
+    public void testGet() throws Exception {
+        Account account = AccountCreator.createTestAccount("AnnotationsTest.testGet", true);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        Plasmid plasmid2 = TestEntryCreator.createTestPlasmid(account);
+        for (Plasmid entry : new Plasmid[]{plasmid, plasmid2}) {
+            Sequence sequence = SequenceController.dnaSequenceToSequence(
+                    GeneralParser.getInstance().parse(sequenceString));
+            sequence.setEntry(entry);
+            new SequenceDAO().saveSequence(sequence);
+        }
+        Feature feature = new SequenceFeatureDAO().getEntrySequenceFeatures(plasmid).get(0).getFeature();
+
+        Annotations annotations = new Annotations(account.getEmail());
+        Results<DNAFeatures> results = annotations.get(0, 1000, null);
+        Assert.assertTrue(results.getResultCount() > 0);
+
+        DNAFeature found = null;
+        for (DNAFeatures features : results.getData()) {
+            for (DNAFeature dnaFeature : features.getFeatures()) {
+                if (dnaFeature.getId() == feature.getId()) {
+                    Assert.assertEquals(feature.getName(), features.getLabel());
+                    found = dnaFeature;
+                }
+            }
+        }
+        Assert.assertNotNull(found);
+        Assert.assertNull(found.getSequence());
+        Assert.assertEquals(649, found.getSequenceLength());
+        Assert.assertTrue(found.getEntries().contains(plasmid.getId()));
+        Assert.assertTrue(found.getEntries().contains(plasmid2.getId()));
+
+        // sequence on demand
+        DNAFeature withSequence = annotations.getFeature(feature.getId());
+        Assert.assertEquals(feature.getSequence(), withSequence.getSequence());
+        Assert.assertEquals(649, withSequence.getSequenceLength());
+    }
+
+    @Test
+    public void testGenerate() throws Exception {
+        Account account = AccountCreator.createTestAccount("AnnotationsTest.testGenerate", true);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        FeatureMatcher.getInstance().build();
+
+        // features saved after the index is built are added to it
+        DNASequence dnaSequence = GeneralParser.getInstance().parse(sequenceString);
+        Sequence sequence = SequenceController.dnaSequenceToSequence(dnaSequence);
+        sequence.setEntry(plasmid);
+        new SequenceDAO().saveSequence(sequence);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        plasmid = (Plasmid) DAOFactory.getEntryDAO().get(plasmid.getId());
+        Feature feature = new SequenceFeatureDAO().getEntrySequenceFeatures(plasmid).get(0).getFeature();
+
+        String featureSequence = feature.getSequence();
+        FeaturedDNASequence query = new FeaturedDNASequence();
+        query.setSequence("GATTACA" + featureSequence.toUpperCase() + "tttt" + featureSequence);
+
+        Annotations annotations = new Annotations(account.getEmail());
+        FeaturedDNASequence result = annotations.generate(query);
+        Assert.assertNotNull(result);
+        List<DNAFeature> matches = new ArrayList<>();
+        for (DNAFeature match : result.getFeatures()) {
+            if (match.getId() == feature.getId())
+                matches.add(match);
+        }
+        Assert.assertEquals(2, matches.size());
+        Assert.assertEquals(1, matches.get(0).getStrand());
+        Assert.assertEquals(8, matches.get(0).getLocations().get(0).getGenbankStart());
+        Assert.assertEquals(7 + featureSequence.length(), matches.get(0).getLocations().get(0).getEnd());
+        Assert.assertEquals(12 + featureSequence.length(), matches.get(1).getLocations().get(0).getGenbankStart());
+        Assert.assertEquals("pSMR0100", matches.get(1).getName());
+
+        // partial feature does not match
+        query = new FeaturedDNASequence();
+        query.setSequence(featureSequence.substring(1));
+        for (DNAFeature match : annotations.generate(query).getFeatures())
+            Assert.assertNotEquals(feature.getId(), match.getId());
+
+        // excluded features are removed from the index
+        DNAFeature dnaFeature = feature.toDataTransferObject();
+        Curation curation = new Curation();
+        curation.setExclude(true);
+        dnaFeature.setCuration(curation);
+        annotations.curate(Collections.singletonList(dnaFeature));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        query = new FeaturedDNASequence();
+        query.setSequence(featureSequence);
+        for (DNAFeature match : annotations.generate(query).getFeatures())
+            Assert.assertNotEquals(feature.getId(), match.getId());
+
+        // and added back when included
+        curation.setExclude(false);
+        annotations.curate(Collections.singletonList(dnaFeature));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        query = new FeaturedDNASequence();
+        query.setSequence(featureSequence);
+        boolean found = false;
+        for (DNAFeature match : annotations.generate(query).getFeatures())
+            found |= match.getId() == feature.getId();
+        Assert.assertTrue(found);
+    }
 
     static String sequenceString =
             "LOCUS       pj5_00001                804 bp    dna     circular UNK \n" +
@@ -0,0 +1,83 @@
+package org.jbei.ice.lib.entry.sequence.composers.pigeon;
+
+import org.apache.commons.io.FileUtils;
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.utils.SequenceUtils;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Plasmid;
+import org.jbei.ice.storage.model.Sequence;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Hector Plahar
+ */
+public class SBOLVisualCacheTest {
+
+    private Path folder;
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+        folder = Files.createTempDirectory("sbol-visual");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+        FileUtils.deleteDirectory(folder.toFile());
+    }
+
+    @Test
+    public void testGetImage() throws Exception {
+        Account account = AccountCreator.createTestAccount("SBOLVisualCacheTest.testGetImage", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+
+        Sequence sequence = new Sequence();
+        sequence.setSequence("atgcgtacgtagctagctagctagctgatcgatcgtagc");
+        sequence.setFwdHash(SequenceUtils.calculateSequenceHash(sequence.getSequence()));
+        sequence.setEntry(plasmid);
+
+        SBOLVisualCache cache = new SBOLVisualCache(folder);
+        File png = cache.getImage(sequence, SBOLVisualCache.Format.PNG);
+        Assert.assertTrue(png.exists());
+        Assert.assertTrue(png.getName().endsWith(".png"));
+        long modified = png.lastModified();
+
+        // cached
+        Assert.assertEquals(png, cache.getImage(sequence, SBOLVisualCache.Format.PNG));
+        Assert.assertEquals(modified, png.lastModified());
+
+        File svg = cache.getImage(sequence, SBOLVisualCache.Format.SVG);
+        Assert.assertTrue(new String(Files.readAllBytes(svg.toPath())).startsWith("<svg"));
+        Assert.assertArrayEquals(Files.readAllBytes(png.toPath()),
+                cache.getImageBytes(sequence, SBOLVisualCache.Format.PNG));
+
+        // a different sequence is cached separately
+        sequence.setFwdHash(SequenceUtils.calculateSequenceHash("atgc"));
+        Assert.assertNotEquals(png, cache.getImage(sequence, SBOLVisualCache.Format.PNG));
+
+        cache.invalidate(plasmid.getId());
+        Assert.assertFalse(png.exists());
+        Assert.assertFalse(svg.exists());
+
+        // sequences that are not associated with a saved entry are not cached
+        Plasmid unsaved = new Plasmid();
+        unsaved.setPartNumber("remote");
+        Sequence remote = new Sequence();
+        remote.setEntry(unsaved);
+        remote.setSequence("atgc");
+        remote.setFwdHash(SequenceUtils.calculateSequenceHash("atgc"));
+        Assert.assertTrue(cache.getImageBytes(remote, SBOLVisualCache.Format.PNG).length > 0);
+        Assert.assertEquals(0, folder.toFile().list().length);
+    }
+}
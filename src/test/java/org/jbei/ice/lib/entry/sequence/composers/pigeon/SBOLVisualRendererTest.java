@@ -0,0 +1,46 @@
+package org.jbei.ice.lib.entry.sequence.composers.pigeon;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class SBOLVisualRendererTest {
+
+    private static final String SCRIPT = "p promoter 4 nl\n<c gene 8 nl\nt terminator 6 nl\n# Arcs\n";
+
+    @Test
+    public void testParse() throws Exception {
+        SBOLVisualRenderer renderer = SBOLVisualRenderer.parse(SCRIPT);
+        Assert.assertEquals(3, renderer.getGlyphCount());
+        Assert.assertTrue(renderer.getWidth() > 0);
+
+        // glyphs after the arcs section are ignored
+        renderer = SBOLVisualRenderer.parse(SCRIPT + "c ignored 1 nl\n");
+        Assert.assertEquals(3, renderer.getGlyphCount());
+
+        Assert.assertEquals(0, SBOLVisualRenderer.parse("# Arcs").getGlyphCount());
+        Assert.assertEquals(0, SBOLVisualRenderer.parse(null).getGlyphCount());
+    }
+
+    @Test
+    public void testToSvg() throws Exception {
+        String svg = SBOLVisualRenderer.parse(SCRIPT).toSvg();
+        Assert.assertTrue(svg.startsWith("<svg"));
+        Assert.assertTrue(svg.trim().endsWith("</svg>"));
+
+        // promoter has two parts; cds and terminator one each
+        int paths = svg.split("<path ", -1).length - 1;
+        Assert.assertEquals(4, paths);
+    }
+
+    @Test
+    public void testToPng() throws Exception {
+        byte[] png = SBOLVisualRenderer.parse(SCRIPT).toPng();
+        Assert.assertTrue(png.length > 8);
+        byte[] signature = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+        for (int i = 0; i < signature.length; i += 1)
+            Assert.assertEquals(signature[i], png[i]);
+    }
+}
@@ -1,8 +1,12 @@
 package org.jbei.ice.lib.folder;
 
 import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.access.PermissionsController;
 import org.jbei.ice.lib.dto.access.AccessPermission;
 import org.jbei.ice.lib.dto.folder.FolderType;
+import org.jbei.ice.lib.dto.folder.PermissionPropagation;
+import org.jbei.ice.lib.executor.TaskStatus;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.Account;
@@ -54,4 +58,50 @@ public class FolderPermissionsTest {
 
         Assert.assertNotNull(folderPermissions.createPermission(accessPermission));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPermissionPropagation() throws Exception {
+        Account account = AccountCreator.createTestAccount("FolderPermissionsTest.testPermissionPropagation", false);
+        String userId = account.getEmail();
+        Folder folder = new Folder();
+        folder.setOwnerEmail(userId);
+        folder.setType(FolderType.PRIVATE);
+        folder.setDescription("test folder");
+        folder.setName("propagation");
+        folder = DAOFactory.getFolderDAO().create(folder);
+
+        PermissionsController controller = new PermissionsController();
+        Assert.assertNull(controller.getFolderPermissionPropagation(userId, folder.getId()));
+        Assert.assertTrue(controller.propagateFolderPermissions(userId, folder, true));
+
+        // scheduled once committed
+        Assert.assertNull(controller.getFolderPermissionPropagation(userId, folder.getId()));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        PermissionPropagation propagation = controller.getFolderPermissionPropagation(userId, folder.getId());
+        Assert.assertNotNull(propagation);
+        Assert.assertEquals(folder.getId(), propagation.getFolderId());
+        Assert.assertTrue(propagation.isAdd());
+
+        long timeout = System.currentTimeMillis() + 10000;
+        while (propagation.getStatus() != TaskStatus.COMPLETED && propagation.getStatus() != TaskStatus.EXCEPTION
+                && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+            propagation = controller.getFolderPermissionPropagation(userId, folder.getId());
+        }
+        Assert.assertEquals(TaskStatus.COMPLETED, propagation.getStatus());
+        Assert.assertEquals(0, propagation.getEntryCount());
+
+        // finished propagations are no longer tracked once retrieved
+        Assert.assertNull(controller.getFolderPermissionPropagation(userId, folder.getId()));
+
+        Account other = AccountCreator.createTestAccount("FolderPermissionsTest.testPermissionPropagation2", false);
+        try {
+            controller.getFolderPermissionPropagation(other.getEmail(), folder.getId());
+            Assert.fail("Propagation status retrieved without access to folder");
+        } catch (PermissionException pe) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.jbei.ice.lib.manuscript;
+
+import org.apache.commons.io.FileUtils;
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * @author Hector Plahar
+ */
+public class ManuscriptsTest {
+
+    private Path folder;
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+        folder = Files.createTempDirectory("manuscripts");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+        FileUtils.deleteDirectory(folder.toFile());
+    }
+
+    @Test
+    public void testGetPackageId() throws Exception {
+        Account account = AccountCreator.createTestAccount("ManuscriptsTest.testGetPackageId", true);
+        List<Long> entryIds = new ArrayList<>();
+        for (int i = 0; i < 3; i += 1)
+            entryIds.add(TestEntryCreator.createTestPart(account.getEmail()));
+
+        Manuscripts manuscripts = new Manuscripts(account.getEmail());
+        String packageId = manuscripts.getPackageId(entryIds);
+        Assert.assertEquals(40, packageId.length());
+
+        // independent of order
+        List<Long> reversed = new ArrayList<>(entryIds);
+        Collections.reverse(reversed);
+        Assert.assertEquals(packageId, manuscripts.getPackageId(reversed));
+
+        // changes with contents
+        Assert.assertNotEquals(packageId, manuscripts.getPackageId(entryIds.subList(0, 2)));
+
+        // changes when an entry is modified
+        Entry entry = DAOFactory.getEntryDAO().get(entryIds.get(1));
+        entry.setModificationTime(new Date(System.currentTimeMillis() + 60000));
+        DAOFactory.getEntryDAO().update(entry);
+        Assert.assertNotEquals(packageId, manuscripts.getPackageId(entryIds));
+    }
+
+    @Test
+    public void testPackageTask() throws Exception {
+        Account account = AccountCreator.createTestAccount("ManuscriptsTest.testPackageTask", true);
+        List<Long> entryIds = new ArrayList<>();
+        for (int i = 0; i < 2; i += 1)
+            entryIds.add(TestEntryCreator.createTestPart(account.getEmail()));
+
+        // package for a previous version is removed
+        Path previous = folder.resolve("previous.zip");
+        Files.write(previous, new byte[]{0});
+
+        Path packagePath = folder.resolve("package.zip");
+        ManuscriptPackageTask task = new ManuscriptPackageTask(account.getEmail(), entryIds, packagePath,
+                "GENBANK", "SBOL2");
+        Assert.assertEquals(0, task.getProgress());
+        task.execute();
+
+        Assert.assertTrue(Files.exists(packagePath));
+        Assert.assertFalse(Files.exists(previous));
+        Assert.assertEquals(99, task.getProgress());
+
+        Set<String> names = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(packagePath))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null)
+                names.add(zipEntry.getName());
+        }
+        Assert.assertTrue(names.contains("entries.csv"));
+    }
+}
@@ -0,0 +1,108 @@
+package org.jbei.ice.lib.net;
+
+import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.services.rest.ConditionalResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Hector Plahar
+ */
+public class RemoteResponseCacheTest {
+
+    @Test
+    public void testGet() throws Exception {
+        AtomicLong time = new AtomicLong(0);
+        RemoteResponseCache cache = new RemoteResponseCache(1024 * 1024, time::get);
+        AtomicInteger calls = new AtomicInteger();
+
+        PartData data = createPart(1, "tooltip");
+        PartData result = cache.get("Registry.Test", RemoteResponseCache.Kind.TOOLTIP, "1", null,
+                (entityTag, lastModified) -> {
+                    calls.incrementAndGet();
+                    Assert.assertNull(entityTag);
+                    return new ConditionalResponse<>(data, false, "\"v1\"", null);
+                });
+        Assert.assertSame(data, result);
+        Assert.assertEquals(1, calls.get());
+
+        // cached (url is case insensitive)
+        result = cache.get("registry.test", RemoteResponseCache.Kind.TOOLTIP, "1", null,
+                (entityTag, lastModified) -> {
+                    calls.incrementAndGet();
+                    return null;
+                });
+        Assert.assertSame(data, result);
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(1, cache.getHits());
+
+        // different kind or scope is not cached
+        Assert.assertNull(cache.get("registry.test", RemoteResponseCache.Kind.ENTRY, "1", null, (e, l) -> null));
+        Assert.assertNull(cache.get("registry.test", RemoteResponseCache.Kind.TOOLTIP, "1", "user", (e, l) -> null));
+
+        // expired; revalidated with entity tag
+        time.addAndGet(RemoteResponseCache.Kind.TOOLTIP.getTimeToLive());
+        result = cache.get("registry.test", RemoteResponseCache.Kind.TOOLTIP, "1", null,
+                (entityTag, lastModified) -> {
+                    calls.incrementAndGet();
+                    Assert.assertEquals("\"v1\"", entityTag);
+                    return new ConditionalResponse<>(null, true, entityTag, lastModified);
+                });
+        Assert.assertSame(data, result);
+        Assert.assertEquals(2, calls.get());
+        Assert.assertEquals(1, cache.getRevalidations());
+
+        // expired and modified
+        time.addAndGet(RemoteResponseCache.Kind.TOOLTIP.getTimeToLive());
+        PartData modified = createPart(1, "modified tooltip");
+        result = cache.get("registry.test", RemoteResponseCache.Kind.TOOLTIP, "1", null,
+                (entityTag, lastModified) -> new ConditionalResponse<>(modified, false, "\"v2\"", null));
+        Assert.assertSame(modified, result);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        RemoteResponseCache cache = new RemoteResponseCache(1024 * 1024, System::currentTimeMillis);
+        for (int i = 0; i < 5; i += 1) {
+            PartData data = createPart(i, "part " + i);
+            cache.get("registry1.test", RemoteResponseCache.Kind.ENTRY, Integer.toString(i), null,
+                    (e, l) -> new ConditionalResponse<>(data, false, null, null));
+            cache.get("registry2.test", RemoteResponseCache.Kind.ENTRY, Integer.toString(i), null,
+                    (e, l) -> new ConditionalResponse<>(data, false, null, null));
+        }
+        Assert.assertEquals(10, cache.size());
+
+        cache.evict("REGISTRY1.test");
+        Assert.assertEquals(5, cache.size());
+        Assert.assertNull(cache.get("registry1.test", RemoteResponseCache.Kind.ENTRY, "0", null, (e, l) -> null));
+        Assert.assertNotNull(cache.get("registry2.test", RemoteResponseCache.Kind.ENTRY, "0", null, (e, l) -> null));
+    }
+
+    @Test
+    public void testMemoryBound() throws Exception {
+        RemoteResponseCache cache = new RemoteResponseCache(8 * 1024, System::currentTimeMillis);
+        for (int i = 0; i < 100; i += 1) {
+            PartData data = createPart(i, "part " + i);
+            cache.get("registry.test", RemoteResponseCache.Kind.ENTRY, Integer.toString(i), null,
+                    (e, l) -> new ConditionalResponse<>(data, false, null, null));
+            Assert.assertTrue(cache.getBytes() <= 8 * 1024);
+        }
+        Assert.assertTrue(cache.getEvictions() > 0);
+        Assert.assertTrue(cache.size() < 100);
+
+        // most recent retained
+        Assert.assertNotNull(cache.get("registry.test", RemoteResponseCache.Kind.ENTRY, "99", null, (e, l) -> null));
+    }
+
+    private PartData createPart(long id, String name) {
+        PartData data = new PartData(EntryType.PART);
+        data.setId(id);
+        data.setName(name);
+        return data;
+    }
+}
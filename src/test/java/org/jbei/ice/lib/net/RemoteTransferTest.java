@@ -3,18 +3,20 @@ package org.jbei.ice.lib.net;
 import org.jbei.ice.lib.AccountCreator;
 import org.jbei.ice.lib.TestEntryCreator;
 import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.dto.web.RemotePartnerStatus;
+import org.jbei.ice.lib.dto.web.RemoteTransferInfo;
+import org.jbei.ice.lib.dto.web.TransferStatus;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
-import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Plasmid;
-import org.jbei.ice.storage.model.Strain;
+import org.jbei.ice.storage.model.*;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class RemoteTransferTest {
@@ -76,4 +78,61 @@ public class RemoteTransferTest {
             Assert.assertNotNull(transferred);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCreateTransfer() throws Exception {
+        EntryDAO dao = DAOFactory.getEntryDAO();
+        Account account = AccountCreator.createTestAccount("testCreateTransfer", true);
+        Strain strain = TestEntryCreator.createTestStrain(account);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        Plasmid plasmid2 = TestEntryCreator.createTestPlasmid(account);
+        strain.getLinkedEntries().add(plasmid);
+        strain.getLinkedEntries().add(plasmid2);
+        dao.update(strain);
+
+        RemotePartner partner = new RemotePartner();
+        partner.setUrl("transfer.registry.test");
+        partner.setName("Transfer test registry");
+        partner.setPartnerStatus(RemotePartnerStatus.APPROVED);
+        partner = DAOFactory.getRemotePartnerDAO().create(partner);
+
+        // plasmid2 is not being transferred so is not linked
+        ArrayList<Long> ids = new ArrayList<>();
+        ids.add(plasmid.getId());
+        ids.add(strain.getId());
+        List<PartData> data = transfer.getPartsForTransfer(ids);
+        Assert.assertEquals(1, data.size());
+
+        RemoteTransferModel model = transfer.createTransfer(account.getEmail(), partner.getId(), data, null);
+        Assert.assertNotNull(model);
+        Assert.assertEquals(TransferStatus.IN_PROGRESS, model.getStatus());
+        Assert.assertEquals(1, model.getEntries().size());
+
+        RemoteTransferEntryModel transferEntry = model.getEntries().get(0);
+        Assert.assertEquals(strain.getId(), transferEntry.getEntryId());
+        Assert.assertEquals(TransferStatus.PENDING, transferEntry.getStatus());
+        Assert.assertEquals(1, transferEntry.getLinkedEntryIds().size());
+        Assert.assertEquals(plasmid.getId(), transferEntry.getLinkedEntryIds().get(0).longValue());
+        Assert.assertTrue(transfer.getInterruptedTransfers().contains(model.getId()));
+
+        // record progress and check that it is reported
+        transferEntry.setStatus(TransferStatus.COMPLETED);
+        transferEntry.setAttempts(1);
+        transferEntry.setRemoteIds(Arrays.asList(20L, 21L));
+        DAOFactory.getRemoteTransferEntryModelDAO().update(transferEntry);
+
+        RemoteTransferInfo info = transfer.getTransfer(account.getEmail(), model.getId(), true);
+        Assert.assertNotNull(info);
+        Assert.assertEquals(1, info.getTotal());
+        Assert.assertEquals(1, info.getCompleted());
+        Assert.assertEquals(0, info.getFailed());
+        Assert.assertEquals(1, info.getEntries().size());
+        Assert.assertEquals(Arrays.asList(20L, 21L), info.getEntries().get(0).getRemoteIds());
+
+        // all entries transferred; transfer is complete
+        List<Long> remoteIds = transfer.completeTransfer(model.getId());
+        Assert.assertEquals(Arrays.asList(20L, 21L), remoteIds);
+        Assert.assertEquals(TransferStatus.COMPLETED, DAOFactory.getRemoteTransferModelDAO().get(model.getId()).getStatus());
+        Assert.assertFalse(transfer.getInterruptedTransfers().contains(model.getId()));
+    }
+}
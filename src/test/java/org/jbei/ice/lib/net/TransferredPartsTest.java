@@ -13,7 +13,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author Hector Plahar
@@ -80,6 +82,33 @@ public class TransferredPartsTest {
         Assert.assertTrue(strain.getLinkedEntries().contains(plasmid2));
     }
 
+    @Test
+    public void testReceiveTransferredEntries() throws Exception {
+        Account account = AccountCreator.createTestAccount("testReceiveTransferredEntries", false);
+        Strain strain = createStrainObject(account);
+        strain.setRecordId("transferred-batch-strain");
+        Plasmid plasmid = createPlasmidObject(account);
+        plasmid.setRecordId("transferred-batch-plasmid");
+
+        List<PartData> batch = new ArrayList<>();
+        batch.add(strain.toDataTransferObject());
+        batch.add(plasmid.toDataTransferObject());
+
+        List<PartData> received = parts.receiveTransferredEntries(batch);
+        Assert.assertEquals(2, received.size());
+        Assert.assertEquals("transferred-batch-strain", received.get(0).getRecordId());
+        Assert.assertEquals("transferred-batch-plasmid", received.get(1).getRecordId());
+        long strainId = received.get(0).getId();
+        Assert.assertNotNull(DAOFactory.getEntryDAO().get(strainId));
+
+        // receiving the same batch again (e.g. retry) does not create new entries
+        batch.clear();
+        batch.add(strain.toDataTransferObject());
+        received = parts.receiveTransferredEntries(batch);
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals(strainId, received.get(0).getId());
+    }
+
     private Plasmid createPlasmidObject(Account owner) {
         Plasmid plasmid = new Plasmid();
         plasmid.setBackbone("plasmid backone");
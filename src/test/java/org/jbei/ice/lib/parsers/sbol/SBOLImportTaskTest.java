@@ -0,0 +1,118 @@
+package org.jbei.ice.lib.parsers.sbol;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.entry.EntryLinks;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.ModelToInfoFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.Sequence;
+
+/**
+ * @author Hector Plahar
+ */
+public class SBOLImportTaskTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        Account account = AccountCreator.createTestAccount("SBOLImportTaskTest.testExecute", false);
+        String userId = account.getEmail();
+        long partId = TestEntryCreator.createTestPart(userId);
+        PartData partData = ModelToInfoFactory.getInfo(DAOFactory.getEntryDAO().get(partId));
+        partData.setCreatorEmail(userId);
+
+        // more definitions than a single batch, one of which is composed of others
+        int count = SBOLImportTask.BATCH_SIZE + 10;
+        SBOLDocument document = new SBOLDocument();
+        document.setDefaultURIprefix("http://ice.test/");
+        for (int i = 0; i < count; i += 1) {
+            ComponentDefinition definition = document.createComponentDefinition("component" + i,
+                    ComponentDefinition.DNA);
+            definition.setName("SBOLImportTaskTest" + i);
+            definition.addSequence(document.createSequence("sequence" + i, "atgcatgcat" + "acgt".charAt(i % 4),
+                    Sequence.IUPAC_DNA));
+        }
+        ComponentDefinition composite = document.createComponentDefinition("composite", ComponentDefinition.DNA);
+        composite.setName("SBOLImportTaskTestComposite");
+        composite.createComponent("first", AccessType.PUBLIC, "component0");
+        composite.createComponent("last", AccessType.PUBLIC, "component" + (count - 1));
+
+        SBOLImportTask task = new SBOLImportTask(partData, document);
+        Assert.assertEquals(0, task.getProgress());
+        task.execute();
+
+        Assert.assertEquals(count + 1, task.getTotal());
+        Assert.assertEquals(count + 1, task.getProcessed());
+        Assert.assertEquals(99, task.getProgress());
+
+        // each definition is created once, including those referenced by the composite
+        Assert.assertEquals(1, DAOFactory.getEntryDAO().getByName("SBOLImportTaskTest0").size());
+        Assert.assertEquals(1, DAOFactory.getEntryDAO().getByName("SBOLImportTaskTestComposite").size());
+        Entry entry = DAOFactory.getEntryDAO().getByName("SBOLImportTaskTest" + (count - 1)).get(0);
+        Assert.assertNotNull(DAOFactory.getSequenceDAO().getByEntry(entry));
+
+        // components of the composite are linked to the entry
+        EntryLinks links = new EntryLinks(userId, partId);
+        Assert.assertEquals(2, links.getChildren().size());
+    }
+
+    @Test
+    public void testFinishedImportsEvicted() throws Exception {
+        Account account = AccountCreator.createTestAccount("SBOLImportTaskTest.testFinishedImportsEvicted", false);
+        String userId = account.getEmail();
+        long partId = TestEntryCreator.createTestPart(userId);
+        PartData partData = ModelToInfoFactory.getInfo(DAOFactory.getEntryDAO().get(partId));
+        partData.setCreatorEmail(userId);
+
+        // finished import is tracked until retrieved
+        runImport(partData, "tracked");
+        SBOLImportTask.evictFinished(System.currentTimeMillis());
+        Assert.assertNotNull(SBOLImportTask.getImport(partId));
+        Assert.assertNull(SBOLImportTask.getImport(partId));
+
+        // or until it has been finished for a while
+        runImport(partData, "evicted");
+        SBOLImportTask.evictFinished(System.currentTimeMillis() + SBOLImportTask.RETAIN_MILLIS + 1000);
+        Assert.assertNull(SBOLImportTask.getImport(partId));
+    }
+
+    private void runImport(PartData partData, String name) throws Exception {
+        SBOLDocument document = new SBOLDocument();
+        document.setDefaultURIprefix("http://ice.test/");
+        document.createComponentDefinition(name, ComponentDefinition.DNA).setName("SBOLImportTaskTest" + name);
+
+        SBOLImportTask task = new SBOLImportTask(partData, document);
+        SBOLImportTask.schedule(task);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        long timeout = System.currentTimeMillis() + 10000;
+        while (task.getStatus() != TaskStatus.COMPLETED && task.getStatus() != TaskStatus.EXCEPTION
+                && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(TaskStatus.COMPLETED, task.getStatus());
+    }
+}
@@ -0,0 +1,112 @@
+package org.jbei.ice.lib.search;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.bulkupload.BulkEntryCreator;
+import org.jbei.ice.lib.dto.entry.AutoCompleteField;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.dto.entry.PlasmidData;
+import org.jbei.ice.lib.entry.EntryCreator;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.EntryDAO;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Plasmid;
+import org.jbei.ice.storage.model.SelectionMarker;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class AutoCompleteSuggestersTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testEntryChanges() throws Exception {
+        AutoCompleteSuggesters suggesters = AutoCompleteSuggesters.getInstance();
+        suggesters.build();
+        PrefixSuggester promoters = suggesters.getSuggester(AutoCompleteField.PROMOTERS);
+        PrefixSuggester markers = suggesters.getSuggester(AutoCompleteField.SELECTION_MARKERS);
+        PrefixSuggester partNumbers = suggesters.getSuggester(AutoCompleteField.PART_NUMBER);
+        Assert.assertNotNull(promoters);
+
+        Account account = AccountCreator.createTestAccount("AutoCompleteSuggestersTest.testEntryChanges", false);
+        Plasmid plasmid = new Plasmid();
+        plasmid.setName("pAcs");
+        plasmid.setShortDescription("auto complete plasmid");
+        plasmid.setBioSafetyLevel(1);
+        plasmid.setPromoters("acsPromoterA, acsPromoterB");
+        plasmid.getSelectionMarkers().add(new SelectionMarker("acsMarker", plasmid));
+        plasmid = (Plasmid) new EntryCreator().createEntry(account, plasmid, null);
+
+        // values are added once the entry is committed
+        Assert.assertTrue(promoters.suggest("acsPromoter", 5).isEmpty());
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertEquals(2, promoters.suggest("acsPromoter", 5).size());
+        Assert.assertEquals(1, markers.suggest("acsMarker", 5).size());
+        Assert.assertEquals(plasmid.getPartNumber(), partNumbers.suggest(plasmid.getPartNumber(), 5).get(0));
+
+        // entries created by bulk upload
+        BulkEntryCreator bulkEntryCreator = new BulkEntryCreator();
+        long uploadId = bulkEntryCreator.createBulkUpload(account.getEmail(), EntryType.PLASMID);
+        PartData partData = new PartData(EntryType.PLASMID);
+        partData.setName("pAcsBulk");
+        partData.setShortDescription("bulk auto complete plasmid");
+        partData.setBioSafetyLevel(1);
+        PlasmidData plasmidData = new PlasmidData();
+        plasmidData.setPromoters("acsPromoterB");
+        partData.setPlasmidData(plasmidData);
+        Assert.assertNotNull(bulkEntryCreator.createEntry(account.getEmail(), uploadId, partData));
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        List<String> results = promoters.suggest("acsPromoter", 5);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("acsPromoterB", results.get(0));
+
+        // changes that are rolled back are not applied
+        EntryDAO entryDAO = DAOFactory.getEntryDAO();
+        plasmid = (Plasmid) entryDAO.get(plasmid.getId());
+        plasmid.setPromoters("acsPromoterC");
+        entryDAO.update(plasmid);
+        HibernateUtil.rollbackTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertTrue(promoters.suggest("acsPromoterC", 5).isEmpty());
+
+        // updated values replace the previous ones
+        plasmid = (Plasmid) entryDAO.get(plasmid.getId());
+        plasmid.setPromoters("acsPromoterC");
+        entryDAO.update(plasmid);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertTrue(promoters.suggest("acsPromoterA", 5).isEmpty());
+        Assert.assertEquals(1, promoters.suggest("acsPromoterB", 5).size());
+        Assert.assertEquals(1, promoters.suggest("acsPromoterC", 5).size());
+        Assert.assertEquals(1, markers.suggest("acsMarker", 5).size());
+
+        // values are removed when the entry is deleted
+        plasmid = (Plasmid) entryDAO.get(plasmid.getId());
+        String partNumber = plasmid.getPartNumber();
+        entryDAO.fullDelete(plasmid);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertTrue(promoters.suggest("acsPromoterC", 5).isEmpty());
+        Assert.assertTrue(markers.suggest("acsMarker", 5).isEmpty());
+        Assert.assertTrue(partNumbers.suggest(partNumber, 5).isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package org.jbei.ice.lib.search;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class PrefixSuggesterTest {
+
+    @Test
+    public void testSuggest() throws Exception {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.add("pBR322 ori");
+        suggester.add("pUC ori");
+        suggester.add("pUC ori");
+        suggester.add("p15A");
+        suggester.add(" ");
+        suggester.add(null);
+        Assert.assertEquals(3, suggester.size());
+
+        List<String> results = suggester.suggest("PU", 5);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("pUC ori", results.get(0));
+
+        // word match ranked by number of times the value was added
+        results = suggester.suggest("ori", 5);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("pUC ori", results.get(0));
+        Assert.assertEquals("pBR322 ori", results.get(1));
+
+        results = suggester.suggest("p", 2);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("pUC ori", results.get(0));
+        Assert.assertEquals("p15A", results.get(1));
+
+        Assert.assertTrue(suggester.suggest("ampr", 5).isEmpty());
+        Assert.assertTrue(suggester.suggest("", 5).isEmpty());
+    }
+
+    @Test
+    public void testAddIfAbsent() throws Exception {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.add("JBx_000123");
+        suggester.add("JBx_000124");
+        suggester.addIfAbsent("JBx_000124");
+        suggester.addIfAbsent("JBx_000124");
+        suggester.addIfAbsent("JBx_000125");
+
+        List<String> results = suggester.suggest("jbx_0001", 10);
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals("JBx_000123", results.get(0));
+        Assert.assertEquals(1, suggester.suggest("000125", 10).size());
+    }
+}
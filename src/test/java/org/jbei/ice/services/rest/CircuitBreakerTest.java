@@ -0,0 +1,86 @@
+package org.jbei.ice.services.rest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Hector Plahar
+ */
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpenAfterConsecutiveFailures() throws Exception {
+        AtomicLong time = new AtomicLong(1000);
+        CircuitBreaker breaker = new CircuitBreaker(3, 500, time::get);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();    // resets count
+        breaker.recordFailure();
+        breaker.recordFailure();
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.allowRequest());
+
+        // single trial call allowed once open interval elapses
+        time.addAndGet(500);
+        Assert.assertTrue(breaker.allowRequest());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assert.assertFalse(breaker.allowRequest());
+
+        // failed trial re-opens
+        breaker.recordFailure();
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.allowRequest());
+
+        // successful trial closes
+        time.addAndGet(500);
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertTrue(breaker.allowRequest());
+        Assert.assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void testReleaseTrial() throws Exception {
+        AtomicLong time = new AtomicLong(1000);
+        CircuitBreaker breaker = new CircuitBreaker(1, 500, time::get);
+
+        // releasing has no effect when no trial is in progress
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.release();
+        breaker.recordFailure();
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        breaker.release();
+        Assert.assertFalse(breaker.allowRequest());
+
+        // trial call that never completes (e.g. rejected or interrupted) is released
+        time.addAndGet(500);
+        Assert.assertTrue(breaker.allowRequest());
+        Assert.assertFalse(breaker.allowRequest());
+        breaker.release();
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // only by the thread making it
+        Assert.assertTrue(breaker.allowRequest());
+        Thread other = new Thread(breaker::release);
+        other.start();
+        other.join();
+        Assert.assertFalse(breaker.allowRequest());
+
+        // release after the outcome is recorded does not affect the next trial
+        breaker.recordFailure();
+        breaker.release();
+        time.addAndGet(500);
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        breaker.release();
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,82 @@
+package org.jbei.ice.storage.hibernate;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.AuditType;
+import org.jbei.ice.lib.entry.AuditQueue;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.Folder;
+import org.jbei.ice.storage.model.Plasmid;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class HibernateUtilTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+    }
+
+    @Test
+    public void testReadOnlyTransaction() throws Exception {
+        HibernateUtil.beginTransaction();
+        Assert.assertFalse(HibernateUtil.isReadOnlyTransaction());
+        Account account = AccountCreator.createTestAccount("HibernateUtilTest.testReadOnlyTransaction", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        String name = plasmid.getName();
+        HibernateUtil.commitTransaction();
+
+        // changes to entities in a read only transaction are discarded
+        HibernateUtil.beginReadOnlyTransaction();
+        Assert.assertTrue(HibernateUtil.isReadOnlyTransaction());
+        Entry entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        entry.setName("changed in read only transaction");
+
+        // but audit events are still written
+        Assert.assertTrue(AuditQueue.getInstance().add(entry, account.getEmail(), AuditType.READ.getAbbrev()));
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        Assert.assertFalse(HibernateUtil.isReadOnlyTransaction());
+        entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        Assert.assertEquals(name, entry.getName());
+        Assert.assertEquals(1, DAOFactory.getAuditDAO().getHistoryCount(entry));
+
+        // read write transaction after read only one saves changes
+        entry.setName("changed");
+        DAOFactory.getEntryDAO().update(entry);
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginReadOnlyTransaction();
+        Assert.assertEquals("changed", DAOFactory.getEntryDAO().get(plasmid.getId()).getName());
+        HibernateUtil.commitTransaction();
+
+        // already committed
+        HibernateUtil.commitActiveTransaction();
+    }
+
+    @Test
+    public void testWriteInReadOnlyTransaction() throws Exception {
+        HibernateUtil.beginReadOnlyTransaction();
+        Folder folder = new Folder("HibernateUtilTest.testWriteInReadOnlyTransaction");
+        folder = DAOFactory.getFolderDAO().create(folder);
+
+        // changes in a read only transaction fail the commit (strict when testing)
+        try {
+            HibernateUtil.commitTransaction();
+            Assert.fail("Changes committed in read only transaction");
+        } catch (IllegalStateException e) {
+            HibernateUtil.rollbackTransaction();
+        }
+
+        HibernateUtil.beginTransaction();
+        Assert.assertNull(DAOFactory.getFolderDAO().get(folder.getId()));
+        HibernateUtil.commitTransaction();
+    }
+}
@@ -4,15 +4,13 @@ import org.jbei.ice.lib.AccountCreator;
 import org.jbei.ice.lib.TestEntryCreator;
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
-import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Strain;
+import org.jbei.ice.storage.model.*;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class PermissionDAOTest {
     Account adminAccount, regularAccount;
@@ -24,7 +22,9 @@ public class PermissionDAOTest {
         HibernateUtil.beginTransaction();
 
         adminAccount = new AccountController().createAdminAccount();
-        regularAccount = AccountCreator.createTestAccount("Joe", false);
+        regularAccount = new AccountDAO().getByEmail("Joe@TESTER");
+        if (regularAccount == null)
+            regularAccount = AccountCreator.createTestAccount("Joe", false);
         dao = new PermissionDAO();
     }
 
@@ -47,4 +47,71 @@ public class PermissionDAOTest {
         List<Long> entryIds = makePrivateEntryIds(adminAccount);
         Assert.assertArrayEquals(new Object[0], dao.getCanReadEntries(regularAccount, regularAccount.getGroups(), entryIds).toArray());
     }
+
+    @Test
+    public void testPropagateFolderPermissions() throws Exception {
+        Account owner = AccountCreator.createTestAccount("PermissionDAOTest.testPropagateFolderPermissions", false);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i += 1)
+            entries.add(TestEntryCreator.createTestStrain(owner));
+
+        FolderDAO folderDAO = new FolderDAO();
+        Folder folder = new Folder("testPropagateFolderPermissions");
+        folder.setOwnerEmail(owner.getEmail());
+        folder.setCreationTime(new Date());
+        folder = folderDAO.create(folder);
+        folder = folderDAO.addFolderContents(folder, entries);
+
+        Group group = new Group();
+        group.setUuid(UUID.randomUUID().toString());
+        group.setLabel("testPropagateFolderPermissions");
+        group.setDescription("testPropagateFolderPermissions");
+        group.setOwner(owner);
+        group = new GroupDAO().create(group);
+
+        Permission read = new Permission();
+        read.setFolder(folder);
+        read.setAccount(regularAccount);
+        read.setCanRead(true);
+        dao.create(read);
+
+        Permission write = new Permission();
+        write.setFolder(folder);
+        write.setGroup(group);
+        write.setCanWrite(true);
+        dao.create(write);
+
+        // existing permission on an entry is not duplicated
+        Permission existing = new Permission();
+        existing.setEntry(entries.get(0));
+        existing.setAccount(regularAccount);
+        existing.setCanRead(true);
+        dao.create(existing);
+
+        List<Long> entryIds = new ArrayList<>();
+        for (Entry entry : entries)
+            entryIds.add(entry.getId());
+        Assert.assertEquals(1, dao.getCanReadEntries(regularAccount, new HashSet<>(), entryIds).size());
+
+        Set<Long> added = dao.addFolderPermissionsToContents(folder);
+        Assert.assertEquals(new HashSet<>(entryIds), added);
+        Assert.assertEquals(3, dao.getCanReadEntries(regularAccount, new HashSet<>(), entryIds).size());
+        for (Entry entry : entries) {
+            Assert.assertEquals(1, dao.createPermissionCriteria(entry, null, null, regularAccount, null, true,
+                    false).list().size());
+            Assert.assertTrue(dao.hasPermission(entry, null, null, null, group, false, true));
+        }
+
+        // already propagated
+        Assert.assertTrue(dao.addFolderPermissionsToContents(folder).isEmpty());
+
+        Set<Long> removed = dao.removeFolderPermissionsFromContents(folder);
+        Assert.assertEquals(new HashSet<>(entryIds), removed);
+        Assert.assertTrue(dao.getCanReadEntries(regularAccount, new HashSet<>(), entryIds).isEmpty());
+        for (Entry entry : entries)
+            Assert.assertFalse(dao.hasPermission(entry, null, null, null, group, false, true));
+
+        // folder permissions are not affected
+        Assert.assertEquals(2, dao.getFolderPermissions(folder).size());
+    }
 }
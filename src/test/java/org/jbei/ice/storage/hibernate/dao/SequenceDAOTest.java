@@ -1,8 +1,10 @@
 package org.jbei.ice.storage.hibernate.dao;
 
+import org.hibernate.Session;
 import org.jbei.ice.lib.AccountCreator;
 import org.jbei.ice.lib.TestEntryCreator;
 import org.jbei.ice.lib.dto.DNASequence;
+import org.jbei.ice.lib.dto.entry.SequenceSummary;
 import org.jbei.ice.lib.entry.sequence.SequenceController;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.storage.DAOFactory;
@@ -96,6 +98,44 @@ public class SequenceDAOTest {
         Assert.assertNotEquals(newFeatures.get(0).getFeature(), newFeatures.get(1).getFeature());
     }
 
+    @Test
+    public void testSaveReverseComplementFeature() throws Exception {
+        Account account = AccountCreator.createTestAccount("SequenceDAOTest.testSaveReverseComplementFeature", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        Sequence sequence = new Sequence();
+        sequence.setSequence("ttgacagctagctcagtcctaggtataatgctagc");
+        sequence.setEntry(plasmid);
+        sequence.getSequenceFeatures().add(createSequenceFeature("promoter", "ttgacagctagctcag"));
+        sequence.getSequenceFeatures().add(createSequenceFeature("promoter copy", "ttgacagctagctcag"));
+        sequenceDAO.saveSequence(sequence);
+
+        List<SequenceFeature> features = DAOFactory.getSequenceFeatureDAO().getEntrySequenceFeatures(plasmid);
+        Assert.assertEquals(2, features.size());
+        Assert.assertEquals(features.get(0).getFeature(), features.get(1).getFeature());
+
+        // reverse complement of existing feature resolves to the same feature
+        Plasmid plasmid2 = TestEntryCreator.createTestPlasmid(account);
+        Sequence sequence2 = new Sequence();
+        sequence2.setSequence("ctgagctagctgtcaa");
+        sequence2.setEntry(plasmid2);
+        sequence2.getSequenceFeatures().add(createSequenceFeature("promoter", "ctgagctagctgtcaa"));
+        sequenceDAO.saveSequence(sequence2);
+
+        List<SequenceFeature> features2 = DAOFactory.getSequenceFeatureDAO().getEntrySequenceFeatures(plasmid2);
+        Assert.assertEquals(1, features2.size());
+        Assert.assertEquals(features.get(0).getFeature(), features2.get(0).getFeature());
+    }
+
+    private SequenceFeature createSequenceFeature(String name, String featureSequence) {
+        Feature feature = new Feature(name, "", featureSequence, "promoter");
+        SequenceFeature sequenceFeature = new SequenceFeature();
+        sequenceFeature.setFeature(feature);
+        sequenceFeature.setName(name);
+        sequenceFeature.getAnnotationLocations().add(
+                new AnnotationLocation(1, featureSequence.length(), sequenceFeature));
+        return sequenceFeature;
+    }
+
     @Test
     public void testDeleteSequence() throws Exception {
 
@@ -136,6 +176,70 @@ public class SequenceDAOTest {
         Assert.assertTrue(sequenceDAO.hasSequence(plasmid.getId()));
     }
 
+    @Test
+    public void testPackSequences() throws Exception {
+        Account account = AccountCreator.createTestAccount("SequenceDAOTest.testPackSequences", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        DNASequence dnaSequence = GeneralParser.getInstance().parse(sequenceString);
+        Sequence sequence = SequenceController.dnaSequenceToSequence(dnaSequence);
+        sequence.setEntry(plasmid);
+        sequence = sequenceDAO.saveSequence(sequence);
+        String expected = sequence.getSequence();
+        Assert.assertFalse(sequence.isPacked());
+
+        while (sequenceDAO.packSequences(10) > 0) ;
+
+        sequence = sequenceDAO.getByEntry(plasmid);
+        Assert.assertTrue(sequence.isPacked());
+        Assert.assertEquals(expected, sequence.getSequence());
+        Assert.assertEquals(expected, sequenceDAO.getSequenceString(plasmid));
+    }
+
+    @Test
+    public void testGetSequenceSummary() throws Exception {
+        Account account = AccountCreator.createTestAccount("SequenceDAOTest.testGetSequenceSummary", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        Assert.assertNull(sequenceDAO.getSequenceSummary(plasmid.getId()));
+
+        DNASequence dnaSequence = GeneralParser.getInstance().parse(sequenceString);
+        Sequence sequence = SequenceController.dnaSequenceToSequence(dnaSequence);
+        sequence.setEntry(plasmid);
+        sequence.setSequenceUser(sequenceString);
+        sequence = sequenceDAO.saveSequence(sequence);
+
+        SequenceSummary summary = sequenceDAO.getSequenceSummary(plasmid.getId());
+        Assert.assertNotNull(summary);
+        Assert.assertEquals(804, summary.getBasePairCount());
+        Assert.assertTrue(summary.isHasOriginalSequence());
+        Assert.assertEquals(sequence.getFwdHash(), summary.getChecksum());
+
+        // update
+        sequence.setSequence("atgc");
+        sequence.setSequenceUser(null);
+        sequenceDAO.updateSequence(sequence, null);
+        summary = sequenceDAO.getSequenceSummary(plasmid.getId());
+        Assert.assertEquals(4, summary.getBasePairCount());
+        Assert.assertFalse(summary.isHasOriginalSequence());
+
+        // sequence saved before the summary was maintained
+        Session session = HibernateUtil.getSessionFactory().getCurrentSession();
+        session.createQuery("update Sequence set basePairCount = null, hasOriginalSequence = null where id = :id")
+                .setParameter("id", sequence.getId())
+                .executeUpdate();
+        session.clear();
+        summary = sequenceDAO.getSequenceSummary(plasmid.getId());
+        Assert.assertEquals(4, summary.getBasePairCount());
+
+        while (sequenceDAO.updateSequenceSummaries(10) > 0) ;
+        sequence = sequenceDAO.getByEntry(plasmid);
+        Assert.assertEquals(4, sequence.getBasePairCount().intValue());
+        Assert.assertFalse(sequence.getHasOriginalSequence());
+
+        // delete
+        sequenceDAO.deleteSequence(sequence);
+        Assert.assertNull(sequenceDAO.getSequenceSummary(plasmid.getId()));
+    }
+
     @Test
     public void testGetSequenceFilename() throws Exception {
 
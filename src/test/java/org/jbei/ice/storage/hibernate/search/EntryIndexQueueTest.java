@@ -0,0 +1,99 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.search.IndexQueueStatistics;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.Plasmid;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class EntryIndexQueueTest {
+
+    private EntryIndexQueue queue;
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+        queue = EntryIndexQueue.getInstance();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        queue.setEnabled(false);
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testAsyncUpdate() throws Exception {
+        Account account = AccountCreator.createTestAccount("EntryIndexQueueTest.testAsyncUpdate", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        HibernateUtil.commitTransaction();
+
+        queue.setEnabled(true);
+        long enqueued = queue.getStatistics().getEnqueued();
+
+        HibernateUtil.beginTransaction();
+        Entry entry = DAOFactory.getEntryDAO().get(plasmid.getId());
+        entry.setKeywords("asyncindexkeyword");
+        DAOFactory.getEntryDAO().update(entry);
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        IndexQueueStatistics statistics = queue.getStatistics();
+        Assert.assertEquals(enqueued + 1, statistics.getEnqueued());
+
+        if (queue.getStatistics().getQueueSize() == 1)
+            Assert.assertEquals(0, countMatches("keywords", "asyncindexkeyword"));
+
+        // eventually indexed by the worker
+        queue.drain();
+        Assert.assertEquals(0, queue.getStatistics().getQueueSize());
+        Assert.assertEquals(1, countMatches("keywords", "asyncindexkeyword"));
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        queue.setEnabled(true);
+        long coalesced = queue.getStatistics().getCoalesced();
+
+        // pending updates are discarded on rollback
+        Assert.assertTrue(queue.defer(-1));
+        queue.transactionCompleted(false);
+        Assert.assertEquals(0, queue.getStatistics().getQueueSize());
+
+        Assert.assertTrue(queue.defer(-1));
+        queue.transactionCompleted(true);
+        Assert.assertTrue(queue.defer(-1));
+        queue.transactionCompleted(true);
+        IndexQueueStatistics statistics = queue.getStatistics();
+        Assert.assertTrue(statistics.getQueueSize() == 1 || statistics.getIndexed() > 0);
+        Assert.assertTrue(statistics.getCoalesced() == coalesced + 1 || statistics.getIndexed() > 0);
+
+        queue.setEnabled(false);
+        Assert.assertFalse(queue.defer(-1));
+        Assert.assertEquals(0, queue.getStatistics().getQueueSize());
+    }
+
+    private int countMatches(String field, String value) {
+        FullTextSession session = Search.getFullTextSession(HibernateUtil.newSession());
+        try {
+            return session.createFullTextQuery(new TermQuery(new Term(field, value)), Entry.class).getResultSize();
+        } finally {
+            session.close();
+        }
+    }
+}
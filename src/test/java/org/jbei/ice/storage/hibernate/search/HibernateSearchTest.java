@@ -0,0 +1,142 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.search.SearchFacets;
+import org.jbei.ice.lib.dto.search.SearchQuery;
+import org.jbei.ice.lib.dto.search.SearchResults;
+import org.jbei.ice.lib.search.QueryType;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.Plasmid;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * @author Hector Plahar
+ */
+public class HibernateSearchTest {
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.initializeMock();
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testFacets() throws Exception {
+        Account account = AccountCreator.createTestAccount("HibernateSearchTest.testFacets", false);
+        Account other = AccountCreator.createTestAccount("HibernateSearchTest.testFacetsOther", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        TestEntryCreator.createTestStrain(account);
+        TestEntryCreator.createTestPart(account.getEmail());
+        TestEntryCreator.createTestPart(other.getEmail());
+        HibernateUtil.commitTransaction();   // commit triggers indexing
+
+        HibernateUtil.beginTransaction();
+        SearchQuery query = new SearchQuery();
+        query.getParameters().setIncludeFacets(true);
+
+        // facets are not limited to the page of results
+        query.getParameters().setRetrieveCount(1);
+        SearchResults results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        Assert.assertEquals(1, results.getResults().size());
+        SearchFacets facets = results.getFacets();
+        Assert.assertNotNull(facets);
+
+        // entries of other accounts are not counted
+        Assert.assertEquals(3, facets.getOwners().get(account.getEmail()).longValue());
+        Assert.assertFalse(facets.getOwners().containsKey(other.getEmail()));
+        Assert.assertEquals(results.getResultCount(), facets.getEntryTypes().values().stream().mapToLong(v -> v).sum());
+        Assert.assertTrue(facets.getEntryTypes().get(EntryType.PLASMID.getName()) >= 1);
+        Assert.assertTrue(facets.getEntryTypes().get(EntryType.STRAIN.getName()) >= 1);
+        Assert.assertTrue(facets.getBioSafetyLevels().get("1") >= 2);
+        String year = Integer.toString(Instant.ofEpochMilli(plasmid.getCreationTime().getTime())
+                .atZone(ZoneOffset.UTC).getYear());
+        Assert.assertTrue(facets.getCreationYears().get(year) >= 3);
+
+        // restricting the search restricts the facets
+        query.setEntryTypes(Collections.singletonList(EntryType.PLASMID));
+        results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        facets = results.getFacets();
+        Assert.assertEquals(1, facets.getEntryTypes().size());
+        Assert.assertEquals(1, facets.getOwners().get(account.getEmail()).longValue());
+
+        query.getParameters().setHasSequence(true);
+        results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        Assert.assertNull(results.getFacets().getOwners().get(account.getEmail()));
+        Assert.assertEquals(results.getResultCount(), results.getFacets().getHasSequence());
+
+        // search with terms
+        query = new SearchQuery();
+        query.getParameters().setIncludeFacets(true);
+        HashMap<String, QueryType> terms = new HashMap<>();
+        terms.put("pLasmid", QueryType.TERM);
+        results = HibernateSearch.getInstance().executeSearch(account.getEmail(), terms, query, null);
+        facets = results.getFacets();
+        Assert.assertEquals(1, facets.getOwners().get(account.getEmail()).longValue());
+        Assert.assertEquals(1, facets.getEntryTypes().get(EntryType.PLASMID.getName()).longValue());
+
+        // facets are only computed when requested
+        query.getParameters().setIncludeFacets(false);
+        Assert.assertNull(HibernateSearch.getInstance().executeSearch(account.getEmail(), terms, query, null)
+                .getFacets());
+    }
+
+    @Test
+    public void testSearchCache() throws Exception {
+        Account account = AccountCreator.createTestAccount("HibernateSearchTest.testSearchCache", false);
+        TestEntryCreator.createTestPlasmid(account);
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        SearchResultCache cache = SearchResultCache.getInstance();
+        SearchQuery query = new SearchQuery();
+        query.getParameters().setRetrieveCount(1);
+        SearchResults results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        Assert.assertEquals(1, results.getResultCount());
+
+        // same search, next page is served from the cache
+        long hits = cache.getHits();
+        query.getParameters().setStart(1);
+        results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        Assert.assertEquals(1, results.getResultCount());
+        Assert.assertEquals(0, results.getResults().size());
+        Assert.assertEquals(hits + 1, cache.getHits());
+
+        // cached hits are not used once the index changes
+        TestEntryCreator.createTestPlasmid(account);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+
+        query.getParameters().setStart(0);
+        long misses = cache.getMisses();
+        results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        Assert.assertEquals(2, results.getResultCount());
+        Assert.assertEquals(misses + 1, cache.getMisses());
+
+        // warming runs the cached search against the changed index
+        TestEntryCreator.createTestPlasmid(account);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+        cache.warm();
+
+        hits = cache.getHits();
+        results = HibernateSearch.getInstance().executeSearchNoTerms(account.getEmail(), null, query);
+        Assert.assertEquals(3, results.getResultCount());
+        Assert.assertEquals(hits + 1, cache.getHits());
+    }
+}